@@ -1,5 +1,15 @@
+buildscript {
+    dependencies {
+        // Database support of the Flyway Gradle plugin (flywayMigrate, flywayInfo, ...)
+        classpath(group = "org.flywaydb", name = "flyway-database-postgresql", version = "10.10.0")
+        classpath(group = "org.postgresql", name = "postgresql", version = "42.7.3")
+    }
+}
+
 plugins {
     java
+    id("org.flywaydb.flyway") version "10.10.0"
+    id("me.champeau.jmh") version "0.7.2"
     id("org.springframework.boot") version "3.3.0"
     id("io.spring.dependency-management") version "1.1.5"
 }
@@ -7,9 +17,12 @@ plugins {
 group = "com.example"
 version = "0.0.1-SNAPSHOT"
 
+// 17 by default, build and run with -PjavaVersion=21 for the virtual-threads profile
+val javaVersion = providers.gradleProperty("javaVersion").getOrElse("17").toInt()
+
 java {
     toolchain {
-        languageVersion = JavaLanguageVersion.of(17)
+        languageVersion = JavaLanguageVersion.of(javaVersion)
     }
 }
 
@@ -23,9 +36,26 @@ dependencies {
 
     implementation("org.springframework.boot:spring-boot-starter-web:3.1.0")
 
+    // Reactive read API (see ReactiveReadConfiguration), runs on its own Netty port next to Tomcat
+    implementation(group = "org.springframework.boot", name = "spring-boot-starter-webflux", version = "3.1.0")
+    implementation(group = "org.springframework", name = "spring-r2dbc", version = "6.1.8")
+    implementation(group = "org.postgresql", name = "r2dbc-postgresql", version = "1.0.5.RELEASE")
+    implementation(group = "io.r2dbc", name = "r2dbc-pool", version = "1.0.1.RELEASE")
+
     // Database connectivity
     implementation(group = "org.springframework.boot", name = "spring-boot-starter-data-jpa", version = "3.0.4")
 
+    // Metrics
+    implementation(group = "org.springframework.boot", name = "spring-boot-starter-actuator", version = "3.1.0")
+    implementation(group = "io.micrometer", name = "micrometer-registry-prometheus", version = "1.13.0")
+    implementation(group = "org.hibernate.orm", name = "hibernate-micrometer", version = "6.5.2.Final")
+    implementation(group = "net.ttddyy", name = "datasource-proxy", version = "1.10")
+    implementation(group = "net.logstash.logback", name = "logstash-logback-encoder", version = "7.4")
+
+    // Retry of transactions that lost a concurrent write (see MovieService)
+    implementation(group = "org.springframework.boot", name = "spring-boot-starter-aop", version = "3.1.0")
+    implementation(group = "org.springframework.retry", name = "spring-retry", version = "2.0.6")
+
     // Validation
     implementation(group = "org.springframework.boot", name = "spring-boot-starter-validation", version = "3.1.3")
 
@@ -35,8 +65,16 @@ dependencies {
     implementation(group = "com.querydsl", name = "querydsl-apt", version = queryDslVersion, classifier = "jakarta")
     implementation(group = "com.querydsl", name = "querydsl-sql", version = queryDslVersion)
 
-    // Postgresql
-    runtimeOnly(group = "org.postgresql", name = "postgresql", version = "42.5.4")
+    // Schema migrations (src/main/resources/db/migration), applied at startup
+    implementation(group = "org.flywaydb", name = "flyway-core", version = "10.10.0")
+    implementation(group = "org.flywaydb", name = "flyway-database-postgresql", version = "10.10.0")
+
+    // Postgresql (compile scope for the COPY API used by the catalogue import)
+    // 42.6.1+ locks with ReentrantLock instead of synchronized, so virtual threads waiting on the database unmount
+    implementation(group = "org.postgresql", name = "postgresql", version = "42.7.3")
+
+    // CSV catalogue import
+    implementation(group = "com.fasterxml.jackson.dataformat", name = "jackson-dataformat-csv", version = "2.17.1")
 
     // Test
     testImplementation(group = "org.springframework.boot", name = "spring-boot-starter-test", version = "3.1.0")
@@ -46,6 +84,9 @@ dependencies {
     compileOnly(group = "org.projectlombok", name = "lombok", version = lombokVersion)
     testCompileOnly(group = "org.projectlombok", name = "lombok", version = lombokVersion)
 
+    // Latency histograms of the load driver (src/jmh)
+    jmhImplementation(group = "org.hdrhistogram", name = "HdrHistogram", version = "2.2.2")
+
     // Annotation processor dependencies
     annotationProcessor(group = "com.querydsl", name = "querydsl-apt", version = queryDslVersion, classifier = "jakarta")
     annotationProcessor(group = "jakarta.persistence", name = "jakarta.persistence-api", version = "3.1.0")
@@ -60,6 +101,52 @@ dependencies {
     implementation(group = "org.springdoc", name = "springdoc-openapi-starter-webmvc-ui", version = "2.0.2")
 }
 
+// The same migrations as the application runs at startup, e.g. ./gradlew flywayInfo -Pflyway.url=jdbc:postgresql://...
+flyway {
+    url = providers.gradleProperty("flyway.url").getOrElse("jdbc:postgresql://localhost:5432/snowhound")
+    user = providers.gradleProperty("flyway.user").getOrElse("devuser")
+    password = providers.gradleProperty("flyway.password").getOrElse("devpass")
+    locations = arrayOf("filesystem:src/main/resources/db/migration")
+    baselineOnMigrate = true
+    baselineVersion = "1.1"
+}
+
+// JMH benchmarks of the service layer (src/jmh), against a generated catalogue in a local Postgres, see README.
+// e.g. ./gradlew jmh -Pjmh.movies=1000000 -Pjmh.includes=GetAllMoviesBenchmark
+jmh {
+    jmhVersion = "1.37"
+    includes = listOf(providers.gradleProperty("jmh.includes").getOrElse(".*"))
+    providers.gradleProperty("jmh.movies").orNull?.let { movies ->
+        benchmarkParameters.put("movies", objects.listProperty<String>().value(movies.split(",")))
+    }
+    // -Pjmh.force=true lets the first run generate the catalogue in a database that doesn't hold one yet
+    providers.gradleProperty("jmh.force").orNull?.let { force -> jvmArgsAppend.add("-Dforce=$force") }
+    resultFormat = "JSON"
+    resultsFile = layout.buildDirectory.file("reports/jmh/results.json")
+}
+
+// Synthetic catalogue and HTTP load against a running server (src/jmh), see README
+tasks.register<JavaExec>("generateCatalogue") {
+    description = "Generates a synthetic catalogue with COPY, e.g. --args='--movies=1000000'."
+    group = "benchmark"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass = "com.example.moviedescriptionsserver.benchmark.MovieDatasetGenerator"
+}
+
+tasks.register<JavaExec>("loadTest") {
+    description = "Sends mixed read/write traffic to a running server, e.g. --args='--rate=2000 --clients=64 --duration=PT2M'."
+    group = "benchmark"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass = "com.example.moviedescriptionsserver.benchmark.MovieLoadDriver"
+}
+
+tasks.register<JavaExec>("compareRequestThreads") {
+    description = "Compares platform and virtual request threads under the same load, run with -PjavaVersion=21."
+    group = "benchmark"
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass = "com.example.moviedescriptionsserver.benchmark.RequestThreadsComparison"
+}
+
 tasks.withType<Test> {
     useJUnitPlatform()
 }
@@ -0,0 +1,39 @@
+package com.example.moviedescriptionsserver.benchmark;
+
+import com.example.moviedescriptionsserver.MoviesPaginationMode;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getAllMovies with OFFSET pagination, for every filter, see MoviesTableBenchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class GetAllMoviesBenchmark extends MoviesTableBenchmark {
+
+    @Param
+    public Filter filter;
+
+    @Override
+    protected Filter filter() {
+        return filter;
+    }
+
+    @Override
+    protected MoviesPaginationMode paginationMode() {
+        return MoviesPaginationMode.OFFSET;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.moviedescriptionsserver.benchmark;
+
+import com.example.moviedescriptionsserver.MoviesPaginationMode;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getAllMovies with KEYSET pagination, see MoviesTableBenchmark. KEYSET can't be combined with the ranked FULL_TEXT
+ * search, so NAME_FULL_TEXT isn't one of the filters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class GetAllMoviesKeysetBenchmark extends MoviesTableBenchmark {
+
+    @Param({"NONE", "CATEGORIES_ANY_OF", "CATEGORIES_ALL_OF", "NAME_SUBSTRING", "NAME_PREFIX", "EIDR_CODE_PREFIX"})
+    public Filter filter;
+
+    @Override
+    protected Filter filter() {
+        return filter;
+    }
+
+    @Override
+    protected MoviesPaginationMode paginationMode() {
+        return MoviesPaginationMode.KEYSET;
+    }
+}
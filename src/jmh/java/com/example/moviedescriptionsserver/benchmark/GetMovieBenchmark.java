@@ -0,0 +1,29 @@
+package com.example.moviedescriptionsserver.benchmark;
+
+import com.example.moviedescriptionsserver.dto.response.GetMovieResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getMovie of random movies of the catalogue. The response cache holds movies.cache.movie.max-entries movies,
+ * so the hit rate shrinks with the catalogue size, as it would in production.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class GetMovieBenchmark {
+
+    @Benchmark
+    public GetMovieResponse getMovie(MoviesApplicationState application) {
+        return application.movieService().getMovie(application.dataset().eidrCode(application.randomMovie()));
+    }
+}
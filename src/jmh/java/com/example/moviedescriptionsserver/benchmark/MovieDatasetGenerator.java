@@ -0,0 +1,266 @@
+package com.example.moviedescriptionsserver.benchmark;
+
+import com.example.moviedescriptionsserver.MovieDescriptionsServerApplication;
+import com.example.moviedescriptionsserver.MovieStatus;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Synthetic catalogue for the benchmarks and load tests, written with COPY: the categories below and the requested
+ * number of movies, shaped like a real catalogue:
+ * - categories are skewed, a movie has one to three of them and the first ones (Drama, Comedy, ...) are the most common
+ * - names are two or three words with Zipfian popularity, so a few words (and names) are very common and most are rare
+ * - ratings cluster around 5.5 and recent years are more frequent
+ * - eidrCodes are valid EIDR ids: 10.5240/ prefix, five groups of four hex digits and the ISO 7064 Mod 37,36 check character
+ * <p>
+ * Every movie is derived from its index and the seed alone, so the same size and seed always give the same catalogue
+ * and the benchmarks and the load driver can compute movies (see movie) instead of querying them.
+ * The generated size is recorded in benchmark_dataset, a catalogue that already has it is reused.
+ * Generating truncates the movies and categories, so it is refused on a database without benchmark_dataset,
+ * i.e. one that wasn't generated before, unless --force=true is given.
+ * <p>
+ * Run standalone with ./gradlew generateCatalogue, e.g. --args='--movies=1000000', the database is the one of the
+ * benchmark profile unless --spring.datasource.url is given as well.
+ */
+public class MovieDatasetGenerator {
+
+    static Logger logger = LoggerFactory.getLogger(MovieDatasetGenerator.class);
+
+    // Most common first, ids 1..12 in this order
+    static final List<String> CATEGORIES = List.of(
+            "Drama", "Comedy", "Action", "Thriller", "Romance", "Documentary",
+            "Horror", "Crime", "Animation", "Sci-Fi", "Fantasy", "Western"
+    );
+
+    // Most popular first
+    static final List<String> WORDS = List.of(
+            "the", "night", "love", "last", "man", "city", "dark", "house", "star", "king",
+            "girl", "life", "dead", "world", "secret", "war", "story", "blood", "summer", "home",
+            "river", "road", "ghost", "dream", "fire", "island", "moon", "shadow", "storm", "heart",
+            "winter", "garden", "empire", "silent", "lost", "golden", "wild", "black", "little", "return",
+            "edge", "game", "hunter", "queen", "sky", "ocean", "mountain", "letter", "stranger", "promise",
+            "angel", "devil", "train", "kingdom", "forest", "desert", "mirror", "crown", "wolf", "escape",
+            "hollow", "signal", "harbor", "frontier", "paradise", "requiem", "voyage", "labyrinth", "ember", "zenith"
+    );
+
+    private static final String EIDR_PREFIX = "10.5240/";
+    private static final int COPY_BUFFER_ROWS = 10_000;
+
+    private static final ZipfDistribution CATEGORY_POPULARITY = new ZipfDistribution(CATEGORIES.size(), 1.0);
+    private static final ZipfDistribution WORD_POPULARITY = new ZipfDistribution(WORDS.size(), 1.1);
+
+    private final long seed;
+
+    public MovieDatasetGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MovieDescriptionsServerApplication.class)
+                .profiles("benchmark")
+                .web(WebApplicationType.NONE)
+                .run(args)) {
+            int movies = context.getEnvironment().getProperty("movies", Integer.class, 1_000_000);
+            boolean force = context.getEnvironment().getProperty("force", Boolean.class, false);
+            new MovieDatasetGenerator(MoviesApplicationState.SEED).ensure(context.getBean(JdbcTemplate.class), movies, force);
+        }
+    }
+
+    /**
+     * A generated movie, categoryIds in id order and categoryNames as the database triggers would write them.
+     */
+    record GeneratedMovie(
+            String eidrCode,
+            String name,
+            double rating,
+            int year,
+            MovieStatus status,
+            List<Long> categoryIds,
+            String categoryNames
+    ) {
+    }
+
+    /**
+     * Generates the catalogue unless the database already holds the one of this size and seed.
+     * A database without benchmark_dataset is only overwritten with force.
+     */
+    public void ensure(JdbcTemplate jdbcTemplate, int movies, boolean force) {
+        String marker = jdbcTemplate.queryForObject("SELECT to_regclass('public.benchmark_dataset')::text", String.class);
+        if (marker == null) {
+            if (!force) {
+                throw new IllegalStateException("The database has no public.benchmark_dataset, so it doesn't hold a generated "
+                        + "catalogue and generating one would truncate its movies and categories. Use --force=true to overwrite it.");
+            }
+            jdbcTemplate.execute("CREATE TABLE public.benchmark_dataset (movies INTEGER NOT NULL, seed BIGINT NOT NULL)");
+        }
+        List<Integer> generated = jdbcTemplate.queryForList(
+                "SELECT movies FROM public.benchmark_dataset WHERE seed = ?", Integer.class, seed);
+        if (generated.equals(List.of(movies))) {
+            logger.info("Reusing the generated catalogue of {} movies", movies);
+            return;
+        }
+        generate(jdbcTemplate, movies);
+    }
+
+    public GeneratedMovie movie(long index) {
+        SplittableRandom random = new SplittableRandom(mix(seed + index));
+
+        // 1 category for 50% of the movies, 2 for 35%, 3 for 15%
+        TreeSet<Long> categoryIds = new TreeSet<>();
+        double categoryDraw = random.nextDouble();
+        int categoryCount = categoryDraw < 0.5 ? 1 : categoryDraw < 0.85 ? 2 : 3;
+        while (categoryIds.size() < categoryCount) {
+            categoryIds.add(1L + CATEGORY_POPULARITY.sample(random));
+        }
+
+        int words = 2 + random.nextInt(2);
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            String word = WORDS.get(WORD_POPULARITY.sample(random));
+            name.append(i == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : " " + word);
+        }
+
+        // Sum of three uniform draws, a bell around 5.5 between 1.0 and 10.0
+        double rating = Math.round((1.0 + 3.0 * (random.nextDouble() + random.nextDouble() + random.nextDouble())) * 10) / 10.0;
+        double yearDraw = random.nextDouble();
+
+        return new GeneratedMovie(
+                eidrCode(index),
+                name.toString(),
+                rating,
+                2024 - (int) (75 * yearDraw * yearDraw),
+                random.nextInt(20) == 0 ? MovieStatus.INACTIVE : MovieStatus.ACTIVE,
+                List.copyOf(categoryIds),
+                categoryIds.stream().map(id -> CATEGORIES.get((int) (id - 1))).collect(Collectors.joining(", "))
+        );
+    }
+
+    /**
+     * eidrCode of the movie with the given index, unique per index, also for indexes beyond the generated ones.
+     */
+    public String eidrCode(long index) {
+        String hex = String.format("%04X%016X", seed & 0xFFFF, mix(index ^ seed));
+        StringBuilder eidrCode = new StringBuilder(EIDR_PREFIX);
+        for (int i = 0; i < hex.length(); i += 4) {
+            eidrCode.append(hex, i, i + 4).append('-');
+        }
+        return eidrCode.append(checkCharacter(hex)).toString();
+    }
+
+    /**
+     * Removes movies that the benchmarks created on top of the generated catalogue.
+     */
+    public void removeMovies(JdbcTemplate jdbcTemplate, Collection<String> eidrCodes) {
+        if (eidrCodes.isEmpty()) {
+            return;
+        }
+        String[] ids = eidrCodes.toArray(String[]::new);
+        jdbcTemplate.update("DELETE FROM public.movies_categories WHERE movie_id = ANY (?)", (Object) ids);
+        jdbcTemplate.update("DELETE FROM public.movies WHERE eidr_code = ANY (?)", (Object) ids);
+    }
+
+    private void generate(JdbcTemplate jdbcTemplate, int movies) {
+        logger.info("Generating a catalogue of {} movies", movies);
+        long start = System.nanoTime();
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("TRUNCATE public.movies_categories, public.movies, public.categories RESTART IDENTITY");
+                statement.execute("DELETE FROM public.benchmark_dataset");
+                statement.execute("INSERT INTO public.categories (name) VALUES " + CATEGORIES.stream()
+                        .map(category -> "('" + category + "')")
+                        .collect(Collectors.joining(", ")));
+
+                // The denormalized columns are copied with the movies, so the link trigger has nothing to add
+                copy(connection, "COPY public.movies (eidr_code, name, rating, year, status, category_ids, category_names) FROM STDIN",
+                        movies, index -> {
+                            GeneratedMovie movie = movie(index);
+                            return List.of(movie.eidrCode() + '\t' + movie.name() + '\t' + movie.rating() + '\t' + movie.year() + '\t'
+                                    + movie.status() + '\t' + movie.categoryIds().stream().map(String::valueOf).collect(Collectors.joining(",", "{", "}"))
+                                    + '\t' + movie.categoryNames());
+                        });
+                statement.execute("ALTER TABLE public.movies_categories DISABLE TRIGGER movies_categories_inserted");
+                copy(connection, "COPY public.movies_categories (movie_id, category_id) FROM STDIN", movies, index -> {
+                    GeneratedMovie movie = movie(index);
+                    return movie.categoryIds().stream().map(categoryId -> movie.eidrCode() + '\t' + categoryId).toList();
+                });
+                statement.execute("ALTER TABLE public.movies_categories ENABLE TRIGGER movies_categories_inserted");
+
+                statement.execute("INSERT INTO public.benchmark_dataset (movies, seed) VALUES (" + movies + ", " + seed + ")");
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            return null;
+        });
+        // Fresh statistics, and a visibility map for index-only scans
+        jdbcTemplate.execute("VACUUM ANALYZE public.movies");
+        jdbcTemplate.execute("VACUUM ANALYZE public.movies_categories");
+        logger.info("Generated {} movies in {} s", movies, (System.nanoTime() - start) / 1_000_000_000);
+    }
+
+    private static void copy(Connection connection, String sql, int movies, IntFunction<List<String>> rows) throws SQLException {
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+        try {
+            List<String> buffer = new ArrayList<>(COPY_BUFFER_ROWS);
+            for (int index = 0; index < movies; index++) {
+                buffer.addAll(rows.apply(index));
+                if (buffer.size() >= COPY_BUFFER_ROWS || index == movies - 1) {
+                    byte[] data = (String.join("\n", buffer) + '\n').getBytes(StandardCharsets.UTF_8);
+                    copyIn.writeToCopy(data, 0, data.length);
+                    buffer.clear();
+                }
+            }
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    /**
+     * ISO 7064 Mod 37,36 check character of the hex digits, as used by EIDR.
+     */
+    static char checkCharacter(String digits) {
+        int product = 36;
+        for (int i = 0; i < digits.length(); i++) {
+            int sum = (product + Character.digit(digits.charAt(i), 36)) % 36;
+            product = (2 * (sum == 0 ? 36 : sum)) % 37;
+        }
+        return Character.toUpperCase(Character.forDigit((37 - product) % 36, 36));
+    }
+
+    /**
+     * SplitMix64 finalizer, a bijection, so distinct indexes never share an eidrCode.
+     */
+    private static long mix(long value) {
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
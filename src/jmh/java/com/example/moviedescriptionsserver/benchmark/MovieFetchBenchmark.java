@@ -0,0 +1,44 @@
+package com.example.moviedescriptionsserver.benchmark;
+
+import com.example.moviedescriptionsserver.dto.MovieWithCategoryRowDto;
+import com.example.moviedescriptionsserver.entity.CategoryEntity;
+import com.example.moviedescriptionsserver.repository.CategoryRepository;
+import com.example.moviedescriptionsserver.repository.MovieRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The get-movie fetch of random movies, two queries (the movie, then its categories) vs. the one projection query
+ * of findMovieWithCategories. Calls the repositories directly, so the response cache doesn't hide the round-trips.
+ * 16 threads fetch at the same time, as requests would, and the sampled latencies give p50, p99 and p99.9.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(16)
+@Fork(1)
+public class MovieFetchBenchmark {
+
+    @Benchmark
+    public List<CategoryEntity> twoQueries(MoviesApplicationState application, Blackhole blackhole) {
+        String eidrCode = application.dataset().eidrCode(application.randomMovie());
+        blackhole.consume(application.bean(MovieRepository.class).findByEidrCode(eidrCode));
+        return application.bean(CategoryRepository.class).findCategoriesByMovieEidrCode(eidrCode);
+    }
+
+    @Benchmark
+    public List<MovieWithCategoryRowDto> oneQuery(MoviesApplicationState application) {
+        return application.bean(MovieRepository.class).findMovieWithCategories(application.dataset().eidrCode(application.randomMovie()));
+    }
+}
@@ -0,0 +1,373 @@
+package com.example.moviedescriptionsserver.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * HTTP load against a running server with a generated catalogue (see MovieDatasetGenerator): the test.http scenarios
+ * of MovieController scaled up to a mix of reads and writes, sent at a fixed total rate by a pool of clients.
+ * <p>
+ * Every request has an intended start time on the schedule of its client, and its latency is measured from that time
+ * rather than from when it was actually sent: a stalled server then delays the requests that should have been sent
+ * meanwhile and they are recorded with that delay, instead of being silently skipped (coordinated omission).
+ * The service time, from sending to the response, is recorded separately.
+ * <p>
+ * Reads and updates pick movies with Zipfian popularity, so a few movies are hot. get-movies-table requests vary the
+ * ordering, the filters (popular categories and name words), the page size and the page depth. Created movies are new
+ * ones and are the only ones deleted, so the generated movies are only changed by updated ratings.
+ * <p>
+ * Reports the throughput and the latency percentiles per request type, and writes the full latency histograms
+ * (HdrHistogram .hgrm, in ms, -service.hgrm for the service times) and a summary.json to the report directory.
+ * <p>
+ * Run with ./gradlew loadTest, options (defaults): --base-url (http://localhost:8080), --movies (1000000, the size of the
+ * generated catalogue), --rate (1000 requests/s in total), --clients (64, the most requests in flight), --warmup (PT30S),
+ * --duration (PT2M), --report-dir (build/reports/load-test) and --mix (get-movie=45,get-movies-table=35,get-categories=5,create-movie=5,update-movie=4,patch-movie=3,delete-movies=3).
+ */
+public class MovieLoadDriver {
+
+    static Logger logger = LoggerFactory.getLogger(MovieLoadDriver.class);
+
+    static final String DEFAULT_MIX =
+            "get-movie=45,get-movies-table=35,get-categories=5,create-movie=5,update-movie=4,patch-movie=3,delete-movies=3";
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    enum RequestType {
+        GET_MOVIE("get-movie"),
+        GET_MOVIES_TABLE("get-movies-table"),
+        GET_CATEGORIES("get-categories"),
+        CREATE_MOVIE("create-movie"),
+        UPDATE_MOVIE("update-movie"),
+        PATCH_MOVIE("patch-movie"),
+        DELETE_MOVIES("delete-movies");
+
+        private final String path;
+
+        RequestType(String path) {
+            this.path = path;
+        }
+
+        static RequestType of(String path) {
+            for (RequestType type : values()) {
+                if (type.path.equals(path)) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unknown request type " + path + ".");
+        }
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private final String baseUrl;
+    private final MovieDatasetGenerator dataset = new MovieDatasetGenerator(MoviesApplicationState.SEED);
+    private final ZipfDistribution moviePopularity;
+    private final RequestType[] mix;
+
+    // New movies get indexes far beyond the catalogue and earlier runs, so their eidrCodes never exist yet
+    private final AtomicLong nextNewMovie = new AtomicLong(System.currentTimeMillis() * 1_000);
+    private final Queue<String> createdMovies = new ConcurrentLinkedQueue<>();
+
+    private final Map<RequestType, Histogram> latencies = new EnumMap<>(RequestType.class);
+    private final Map<RequestType, Histogram> serviceTimes = new EnumMap<>(RequestType.class);
+    private final Map<RequestType, LongAdder> errors = new EnumMap<>(RequestType.class);
+
+    MovieLoadDriver(String baseUrl, int movies, RequestType[] mix) {
+        this.baseUrl = baseUrl;
+        this.mix = mix;
+        this.moviePopularity = new ZipfDistribution(movies, 1.0);
+        for (RequestType type : RequestType.values()) {
+            latencies.put(type, new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3));
+            serviceTimes.put(type, new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3));
+            errors.put(type, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --option=value, got " + arg + ".");
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+
+        MovieLoadDriver driver = new MovieLoadDriver(
+                options.getOrDefault("base-url", "http://localhost:8080"),
+                Integer.parseInt(options.getOrDefault("movies", "1000000")),
+                parseMix(options.getOrDefault("mix", DEFAULT_MIX))
+        );
+        driver.run(
+                Integer.parseInt(options.getOrDefault("clients", "64")),
+                Double.parseDouble(options.getOrDefault("rate", "1000")),
+                Duration.parse(options.getOrDefault("warmup", "PT30S")),
+                Duration.parse(options.getOrDefault("duration", "PT2M")),
+                Path.of(options.getOrDefault("report-dir", "build/reports/load-test"))
+        );
+    }
+
+    /**
+     * Request types repeated by their weight, a client picks one of them at random for every request.
+     */
+    static RequestType[] parseMix(String mix) {
+        List<RequestType> weighted = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] typeAndWeight = entry.trim().split("=");
+            RequestType type = RequestType.of(typeAndWeight[0]);
+            for (int i = 0; i < Integer.parseInt(typeAndWeight[1]); i++) {
+                weighted.add(type);
+            }
+        }
+        if (weighted.isEmpty()) {
+            throw new IllegalArgumentException("The mix has no requests.");
+        }
+        return weighted.toArray(RequestType[]::new);
+    }
+
+    /**
+     * Every client sends its share of the rate on its own schedule, offset from the others so that the requests
+     * are spread evenly. A client that is still waiting for a response when its next request is due sends that one
+     * late, the lateness is part of its latency.
+     */
+    Map<String, Object> run(int clients, double rate, Duration warmup, Duration duration, Path reportDir) throws Exception {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("The rate has to be positive.");
+        }
+        logger.info("{} requests/s from {} clients against {}, {} warmup, {} measured", rate, clients, baseUrl, warmup, duration);
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        long interval = (long) (clients * 1e9 / rate);
+        long begin = System.nanoTime();
+        long measureFrom = begin + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        try {
+            for (int client = 0; client < clients; client++) {
+                SplittableRandom random = new SplittableRandom(MoviesApplicationState.SEED + client);
+                long firstStart = begin + interval * client / clients;
+                executor.submit(() -> {
+                    for (long intendedStart = firstStart; intendedStart < end; intendedStart += interval) {
+                        long wait;
+                        while ((wait = intendedStart - System.nanoTime()) > 0) {
+                            LockSupport.parkNanos(wait);
+                        }
+                        if (!send(random, intendedStart, intendedStart >= measureFrom)) {
+                            return;
+                        }
+                    }
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(warmup.toMillis() + duration.toMillis() + TimeUnit.MINUTES.toMillis(5), TimeUnit.MILLISECONDS);
+            return report(duration.toNanos() / 1e9, rate, reportDir);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Sends a random request of the mix, false if the client was interrupted.
+     */
+    private boolean send(SplittableRandom random, long intendedStart, boolean measured) {
+        RequestType type = mix[random.nextInt(mix.length)];
+        // Only movies created by this run are deleted, create one if there is none yet
+        String deletedMovie = type == RequestType.DELETE_MOVIES ? createdMovies.poll() : null;
+        if (type == RequestType.DELETE_MOVIES && deletedMovie == null) {
+            type = RequestType.CREATE_MOVIE;
+        }
+        long start = System.nanoTime();
+        boolean succeeded;
+        try {
+            HttpRequest request = request(type, random, deletedMovie);
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            succeeded = response.statusCode() / 100 == 2;
+        } catch (IOException | RuntimeException e) {
+            succeeded = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        if (measured) {
+            long now = System.nanoTime();
+            latencies.get(type).recordValue(Math.min((now - intendedStart) / 1_000, HIGHEST_LATENCY_MICROS));
+            serviceTimes.get(type).recordValue(Math.min((now - start) / 1_000, HIGHEST_LATENCY_MICROS));
+            if (!succeeded) {
+                errors.get(type).increment();
+            }
+        }
+        return true;
+    }
+
+    private HttpRequest request(RequestType type, SplittableRandom random, String deletedMovie) throws IOException {
+        return switch (type) {
+            case GET_MOVIE -> get("get-movie?eidrCode=" + dataset.eidrCode(popularMovie(random)));
+            case GET_CATEGORIES -> get("get-categories");
+            case GET_MOVIES_TABLE -> withBody("POST", type, moviesTableFilter(random));
+            case CREATE_MOVIE -> {
+                MovieDatasetGenerator.GeneratedMovie movie = dataset.movie(nextNewMovie.getAndIncrement());
+                createdMovies.add(movie.eidrCode());
+                yield withBody("POST", type, movieBody(movie, movie.rating()));
+            }
+            case UPDATE_MOVIE -> {
+                MovieDatasetGenerator.GeneratedMovie movie = dataset.movie(popularMovie(random));
+                yield withBody("PUT", type, movieBody(movie, randomRating(random)));
+            }
+            case PATCH_MOVIE -> {
+                Map<String, Object> patch = new LinkedHashMap<>();
+                patch.put("eidrCode", dataset.eidrCode(popularMovie(random)));
+                patch.put("rating", randomRating(random));
+                yield withBody("PATCH", type, patch);
+            }
+            case DELETE_MOVIES -> withBody("DELETE", type, Map.of("eidrCodes", List.of(deletedMovie)));
+        };
+    }
+
+    /**
+     * A get-movies-table request like the ones of test.http: mostly the first pages of the unfiltered table,
+     * sometimes filtered by popular categories or name words, deeper pages and KEYSET pagination.
+     */
+    private Map<String, Object> moviesTableFilter(SplittableRandom random) {
+        Map<String, Object> filter = new LinkedHashMap<>();
+        filter.put("orderBy", random.nextBoolean() ? "RATING" : "NAME");
+        filter.put("direction", random.nextBoolean() ? "ASC" : "DESC");
+        filter.put("pageSize", new int[]{5, 10, 20, 100}[random.nextInt(4)]);
+        int filterDraw = random.nextInt(10);
+        if (filterDraw < 3) {
+            filter.put("categoryIds", List.of(1 + random.nextInt(3), 1 + random.nextInt(MovieDatasetGenerator.CATEGORIES.size())));
+            filter.put("categoryMatch", filterDraw == 0 ? "ALL_OF" : "ANY_OF");
+        } else if (filterDraw < 5) {
+            filter.put("name", MovieDatasetGenerator.WORDS.get(random.nextInt(20)));
+            filter.put("searchMode", filterDraw == 3 ? "SUBSTRING" : "FULL_TEXT");
+        }
+        if (random.nextInt(10) == 0 && !"FULL_TEXT".equals(filter.get("searchMode"))) {
+            filter.put("paginationMode", "KEYSET");
+        } else {
+            // page 1 most of the time, sometimes deep
+            filter.put("page", random.nextInt(4) == 0 ? 1 + random.nextInt(200) : 1);
+        }
+        return filter;
+    }
+
+    private Map<String, Object> movieBody(MovieDatasetGenerator.GeneratedMovie movie, double rating) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("eidrCode", movie.eidrCode());
+        body.put("name", movie.name());
+        body.put("rating", rating);
+        body.put("year", movie.year());
+        body.put("status", movie.status());
+        body.put("categories", movie.categoryIds());
+        return body;
+    }
+
+    private long popularMovie(SplittableRandom random) {
+        return moviePopularity.sample(random);
+    }
+
+    private static double randomRating(SplittableRandom random) {
+        return (10 + random.nextInt(91)) / 10.0;
+    }
+
+    private HttpRequest get(String pathAndQuery) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/movie/" + pathAndQuery)).GET().build();
+    }
+
+    private HttpRequest withBody(String method, RequestType type, Object body) throws IOException {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/movie/" + type.path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+    }
+
+    /**
+     * Logs and writes the report, the summary (as in summary.json) is returned.
+     */
+    private Map<String, Object> report(double seconds, double rate, Path reportDir) throws IOException {
+        Files.createDirectories(reportDir);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        Histogram total = new Histogram(HIGHEST_LATENCY_MICROS, 3);
+        Histogram totalServiceTime = new Histogram(HIGHEST_LATENCY_MICROS, 3);
+        long totalErrors = 0;
+        for (RequestType type : RequestType.values()) {
+            Histogram histogram = latencies.get(type);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            Histogram serviceTime = serviceTimes.get(type);
+            total.add(histogram);
+            totalServiceTime.add(serviceTime);
+            totalErrors += errors.get(type).sum();
+            summary.put(type.path, summary(histogram, serviceTime, errors.get(type).sum(), seconds));
+            logger.info("{}: {}", type.path, line(histogram, serviceTime, errors.get(type).sum(), seconds));
+            write(histogram, reportDir.resolve(type.path + ".hgrm"));
+            write(serviceTime, reportDir.resolve(type.path + "-service.hgrm"));
+        }
+        summary.put("total", summary(total, totalServiceTime, totalErrors, seconds));
+        logger.info("total: {}", line(total, totalServiceTime, totalErrors, seconds));
+        if (total.getTotalCount() / seconds < 0.95 * rate) {
+            logger.warn("Sent {} requests/s instead of {}, the clients couldn't keep up and the latencies include their backlog",
+                    String.format("%.0f", total.getTotalCount() / seconds), rate);
+        }
+        objectMapper.enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(reportDir.resolve("summary.json").toFile(), summary);
+        logger.info("Histograms and summary written to {}", reportDir.toAbsolutePath());
+        return summary;
+    }
+
+    private static void write(Histogram histogram, Path file) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static Map<String, Object> summary(Histogram histogram, Histogram serviceTime, long errors, double seconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", histogram.getTotalCount());
+        summary.put("errors", errors);
+        summary.put("throughputPerSecond", histogram.getTotalCount() / seconds);
+        summary.put("p50Ms", histogram.getValueAtPercentile(50) / 1000.0);
+        summary.put("p90Ms", histogram.getValueAtPercentile(90) / 1000.0);
+        summary.put("p99Ms", histogram.getValueAtPercentile(99) / 1000.0);
+        summary.put("p999Ms", histogram.getValueAtPercentile(99.9) / 1000.0);
+        summary.put("maxMs", histogram.getMaxValue() / 1000.0);
+        summary.put("serviceP99Ms", serviceTime.getValueAtPercentile(99) / 1000.0);
+        return summary;
+    }
+
+    private static String line(Histogram histogram, Histogram serviceTime, long errors, double seconds) {
+        return String.format("%.0f requests/s, p50 %.1f ms, p90 %.1f ms, p99 %.1f ms, p99.9 %.1f ms, max %.1f ms, "
+                        + "service time p99 %.1f ms (%d requests, %d errors)",
+                histogram.getTotalCount() / seconds,
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0, histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0, serviceTime.getValueAtPercentile(99) / 1000.0,
+                histogram.getTotalCount(), errors);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.moviedescriptionsserver.benchmark;
+
+import com.example.moviedescriptionsserver.dto.request.UpdateMovieRequest;
+import com.example.moviedescriptionsserver.dto.response.GetMovieResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * createMovie, updateMovie and deleteMovies.
+ * <p>
+ * Created movies are new ones on top of the catalogue and are removed after the trial. Updates only move the rating
+ * of a random movie between its generated value and a shifted one, so the catalogue stays as generated otherwise.
+ * Every deleted movie is created in the invocation setup, which isn't measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class MovieWriteBenchmark {
+
+    @State(Scope.Thread)
+    public static class MovieToDelete {
+
+        private String eidrCode;
+
+        @Setup(Level.Invocation)
+        public void create(MoviesApplicationState application) {
+            eidrCode = application.movieService().createMovie(application.newMovie()).movie().eidrCode();
+        }
+    }
+
+    @Benchmark
+    public GetMovieResponse createMovie(MoviesApplicationState application) {
+        return application.movieService().createMovie(application.newMovie());
+    }
+
+    @Benchmark
+    public GetMovieResponse updateMovie(MoviesApplicationState application) {
+        MovieDatasetGenerator.GeneratedMovie movie = application.dataset().movie(application.randomMovie());
+        double rating = ThreadLocalRandom.current().nextBoolean() ? movie.rating() : (movie.rating() + 5) % 10 + 0.5;
+        return application.movieService().updateMovie(new UpdateMovieRequest(
+                movie.eidrCode(), movie.name(), rating, movie.year(), movie.status(), movie.categoryIds()));
+    }
+
+    @Benchmark
+    public boolean deleteMovies(MoviesApplicationState application, MovieToDelete movieToDelete) {
+        return application.movieService().deleteMovies(List.of(movieToDelete.eidrCode));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.moviedescriptionsserver.benchmark;
+
+import com.example.moviedescriptionsserver.dto.request.UpdateMovieRequest;
+import com.example.moviedescriptionsserver.dto.response.GetMovieResponse;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.springframework.dao.ConcurrencyFailureException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent updateMovie writers, 8 threads.
+ * ownMovie: every writer updates its own movie, so with optimistic concurrency control there are no conflicts and
+ * the throughput should grow with the writers up to the connection pool size. hotMovie: all writers update the same
+ * movie, which shows the cost of the retries; conflicts counts the writes that still failed after them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Threads(8)
+@Fork(1)
+public class MovieWriteContentionBenchmark {
+
+    private static final long HOT_MOVIE = 0;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Conflicts {
+
+        public long conflicts;
+    }
+
+    @State(Scope.Thread)
+    public static class Writer {
+
+        private long ownMovie;
+        private int writes;
+
+        @Setup(Level.Trial)
+        public void pick(ThreadParams threadParams) {
+            ownMovie = HOT_MOVIE + 1 + threadParams.getThreadIndex();
+        }
+    }
+
+    @Benchmark
+    public GetMovieResponse ownMovie(MoviesApplicationState application, Writer writer, Conflicts conflicts) {
+        return update(application, writer.ownMovie, writer.writes++, conflicts);
+    }
+
+    @Benchmark
+    public GetMovieResponse hotMovie(MoviesApplicationState application, Writer writer, Conflicts conflicts) {
+        return update(application, HOT_MOVIE, writer.writes++, conflicts);
+    }
+
+    private static GetMovieResponse update(MoviesApplicationState application, long index, int write, Conflicts conflicts) {
+        // Alternates between the generated rating and a shifted one, so every write changes the row
+        MovieDatasetGenerator.GeneratedMovie movie = application.dataset().movie(index);
+        double rating = write % 2 == 0 ? movie.rating() : (movie.rating() + 5) % 10 + 0.5;
+        try {
+            return application.movieService().updateMovie(new UpdateMovieRequest(
+                    movie.eidrCode(), movie.name(), rating, movie.year(), movie.status(), movie.categoryIds()));
+        } catch (ConcurrencyFailureException e) {
+            conflicts.conflicts++;
+            return null;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.moviedescriptionsserver.benchmark;
+
+import com.example.moviedescriptionsserver.MovieDescriptionsServerApplication;
+import com.example.moviedescriptionsserver.dto.request.CreateMovieRequest;
+import com.example.moviedescriptionsserver.service.MovieService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The application (without a web server, the benchmarks call MovieService) on the benchmark profile,
+ * with a generated catalogue of the given number of movies, e.g. -Pjmh.movies=10000,1000000,10000000.
+ * The first run on a new database needs -Pjmh.force=true, see MovieDatasetGenerator.
+ * <p>
+ * Movies created by the write benchmarks are removed again after the trial, so the catalogue can be reused.
+ */
+@State(Scope.Benchmark)
+public class MoviesApplicationState {
+
+    static final long SEED = 20240601L;
+
+    @Param("10000")
+    public int movies;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private MovieDatasetGenerator dataset;
+    private MovieService movieService;
+    private AtomicLong nextNewMovie;
+    private final Queue<String> createdMovies = new ConcurrentLinkedQueue<>();
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(MovieDescriptionsServerApplication.class)
+                .profiles("benchmark")
+                .web(WebApplicationType.NONE)
+                .run();
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        dataset = new MovieDatasetGenerator(SEED);
+        dataset.ensure(jdbcTemplate, movies, context.getEnvironment().getProperty("force", Boolean.class, false));
+        movieService = context.getBean(MovieService.class);
+        nextNewMovie = new AtomicLong(movies);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        dataset.removeMovies(jdbcTemplate, createdMovies);
+        context.close();
+    }
+
+    public MovieService movieService() {
+        return movieService;
+    }
+
+    public MovieDatasetGenerator dataset() {
+        return dataset;
+    }
+
+    /**
+     * A bean of the application, for benchmarks that go below MovieService.
+     */
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * Index of a random movie of the generated catalogue.
+     */
+    public int randomMovie() {
+        return ThreadLocalRandom.current().nextInt(movies);
+    }
+
+    /**
+     * Creates a movie that isn't part of the generated catalogue, it is removed after the trial.
+     */
+    public CreateMovieRequest newMovie() {
+        MovieDatasetGenerator.GeneratedMovie movie = dataset.movie(nextNewMovie.getAndIncrement());
+        createdMovies.add(movie.eidrCode());
+        return new CreateMovieRequest(movie.eidrCode(), movie.name(), movie.rating(), movie.year(), movie.status(), movie.categoryIds());
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.moviedescriptionsserver.benchmark;
+
+import com.example.moviedescriptionsserver.MoviesCategoryMatch;
+import com.example.moviedescriptionsserver.MoviesOrderBy;
+import com.example.moviedescriptionsserver.MoviesPaginationMode;
+import com.example.moviedescriptionsserver.MoviesSearchMode;
+import com.example.moviedescriptionsserver.MoviesTotalStrategy;
+import com.example.moviedescriptionsserver.dto.MovieTableRowDto;
+import com.example.moviedescriptionsserver.dto.request.GetMoviesFilter;
+import com.example.moviedescriptionsserver.dto.response.GetMovieTableResult;
+import com.example.moviedescriptionsserver.service.MovieTableCursor;
+import com.querydsl.core.types.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.List;
+
+/**
+ * getAllMovies for every ordering x filter x page depth, the filters and the pagination mode are given by the
+ * subclasses: GetAllMoviesBenchmark (OFFSET) and GetAllMoviesKeysetBenchmark (KEYSET). A KEYSET page at depth n
+ * starts from the cursor of the last row of page n - 1, so both modes return the same rows.
+ */
+public abstract class MoviesTableBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    public enum Filter {
+        NONE, CATEGORIES_ANY_OF, CATEGORIES_ALL_OF, NAME_SUBSTRING, NAME_PREFIX, NAME_FULL_TEXT, EIDR_CODE_PREFIX
+    }
+
+    @Param({"RATING", "NAME"})
+    public MoviesOrderBy orderBy;
+
+    @Param({"ASC", "DESC"})
+    public Order direction;
+
+    @Param({"1", "50", "500"})
+    public int pageDepth;
+
+    private String eidrCodePrefix;
+    private GetMoviesFilter moviesFilter;
+
+    protected abstract Filter filter();
+
+    protected abstract MoviesPaginationMode paginationMode();
+
+    @Setup(Level.Trial)
+    public void setUp(MoviesApplicationState application) {
+        Filter filter = filter();
+        MoviesPaginationMode paginationMode = paginationMode();
+        // 10.5240/XXXX-X, the first group is the same for all generated movies, so about every 16th movie matches
+        eidrCodePrefix = application.dataset().eidrCode(0).substring(0, 14);
+        String cursor = null;
+        if (paginationMode == MoviesPaginationMode.KEYSET) {
+            if (pageDepth > 1) {
+                List<MovieTableRowDto> previousPage = application.movieService()
+                        .getAllMovies(filter(pageDepth - 1, MoviesPaginationMode.OFFSET, null))
+                        .movies();
+                if (!previousPage.isEmpty()) {
+                    MovieTableRowDto lastRow = previousPage.get(previousPage.size() - 1);
+                    String sortValue = orderBy == MoviesOrderBy.NAME ? lastRow.name() : lastRow.rating().toString();
+                    cursor = new MovieTableCursor(orderBy, direction, sortValue, lastRow.eidrCode()).encode();
+                }
+            }
+        }
+        moviesFilter = filter(pageDepth, paginationMode, cursor);
+    }
+
+    @Benchmark
+    public GetMovieTableResult getAllMovies(MoviesApplicationState application) {
+        return application.movieService().getAllMovies(moviesFilter);
+    }
+
+    private GetMoviesFilter filter(int page, MoviesPaginationMode paginationMode, String cursor) {
+        Filter filter = filter();
+        List<Long> categoryIds = switch (filter) {
+            case CATEGORIES_ANY_OF, CATEGORIES_ALL_OF -> List.of(1L, 4L);
+            default -> null;
+        };
+        String name = switch (filter) {
+            case NAME_SUBSTRING -> "night";
+            case NAME_PREFIX -> "the n";
+            case NAME_FULL_TEXT -> "night city";
+            default -> null;
+        };
+        String eidrCode = filter == Filter.EIDR_CODE_PREFIX ? eidrCodePrefix : null;
+        MoviesSearchMode searchMode = switch (filter) {
+            case NAME_PREFIX, EIDR_CODE_PREFIX -> MoviesSearchMode.PREFIX;
+            case NAME_FULL_TEXT -> MoviesSearchMode.FULL_TEXT;
+            default -> MoviesSearchMode.SUBSTRING;
+        };
+        return new GetMoviesFilter(
+                categoryIds,
+                eidrCode,
+                name,
+                page,
+                PAGE_SIZE,
+                orderBy,
+                direction,
+                paginationMode,
+                cursor,
+                MoviesTotalStrategy.EXACT,
+                filter == Filter.CATEGORIES_ALL_OF ? MoviesCategoryMatch.ALL_OF : MoviesCategoryMatch.ANY_OF,
+                searchMode
+        );
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.moviedescriptionsserver.benchmark;
+
+import com.example.moviedescriptionsserver.MovieDescriptionsServerApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Throughput and tail latency of platform vs. virtual request threads: starts the server on the benchmark profile,
+ * once as is and once with the virtual-threads profile, both with the same connection pool, and sends each the same
+ * MovieLoadDriver load at every rate. Needs Java 21 (./gradlew compareRequestThreads -PjavaVersion=21).
+ * <p>
+ * Writes the reports of every run to platform/&lt;rate&gt; and virtual/&lt;rate&gt; under the report directory, and the total
+ * summaries of both modes side by side to comparison.json. The server runs in the same JVM as the clients, so
+ * the absolute numbers are lower than against a server of its own, the comparison is what matters.
+ * <p>
+ * Options (defaults): --movies (1000000), --rates (250,500,1000,2000 requests/s), --clients (800, the most
+ * requests in flight), --warmup (PT15S), --duration (PT1M), --report-dir (build/reports/load-test/request-threads),
+ * --force (false, see MovieDatasetGenerator).
+ */
+public class RequestThreadsComparison {
+
+    static Logger logger = LoggerFactory.getLogger(RequestThreadsComparison.class);
+
+    private static final Map<String, String[]> MODES = Map.of(
+            "platform", new String[]{"benchmark"},
+            "virtual", new String[]{"benchmark", "virtual-threads"}
+    );
+
+    public static void main(String[] args) throws Exception {
+        if (Runtime.version().feature() < 21) {
+            // spring.threads.virtual.enabled is ignored below 21, both runs would use platform threads
+            throw new IllegalStateException("Virtual threads need Java 21, run with -PjavaVersion=21.");
+        }
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --option=value, got " + arg + ".");
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        int movies = Integer.parseInt(options.getOrDefault("movies", "1000000"));
+        List<Double> rates = new ArrayList<>();
+        for (String rate : options.getOrDefault("rates", "250,500,1000,2000").split(",")) {
+            rates.add(Double.parseDouble(rate.trim()));
+        }
+        int clients = Integer.parseInt(options.getOrDefault("clients", "800"));
+        Duration warmup = Duration.parse(options.getOrDefault("warmup", "PT15S"));
+        Duration duration = Duration.parse(options.getOrDefault("duration", "PT1M"));
+        Path reportDir = Path.of(options.getOrDefault("report-dir", "build/reports/load-test/request-threads"));
+        boolean force = Boolean.parseBoolean(options.getOrDefault("force", "false"));
+
+        Map<String, Map<String, Object>> comparison = new LinkedHashMap<>();
+        for (String mode : List.of("platform", "virtual")) {
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MovieDescriptionsServerApplication.class)
+                    .profiles(MODES.get(mode))
+                    .properties(
+                            "server.port=0",
+                            // The pool of the virtual-threads profile for both, so only the request threads differ
+                            "spring.datasource.hikari.maximum-pool-size=20",
+                            "spring.datasource.hikari.minimum-idle=20",
+                            "spring.datasource.hikari.connection-timeout=2000")
+                    .run()) {
+                new MovieDatasetGenerator(MoviesApplicationState.SEED).ensure(context.getBean(JdbcTemplate.class), movies, force);
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                for (double rate : rates) {
+                    logger.info("{} threads at {} requests/s", mode, rate);
+                    MovieLoadDriver driver = new MovieLoadDriver("http://localhost:" + port, movies,
+                            MovieLoadDriver.parseMix(MovieLoadDriver.DEFAULT_MIX));
+                    Map<String, Object> summary = driver.run(clients, rate, warmup, duration,
+                            reportDir.resolve(mode).resolve(String.valueOf((long) rate)));
+                    comparison.computeIfAbsent(String.valueOf((long) rate), key -> new LinkedHashMap<>())
+                            .put(mode, summary.get("total"));
+                }
+            }
+        }
+
+        Files.createDirectories(reportDir);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(reportDir.resolve("comparison.json").toFile(), comparison);
+        comparison.forEach((rate, modes) -> modes.forEach((mode, total) ->
+                logger.info("{} requests/s, {} threads: {}", rate, mode, total)));
+        logger.info("Comparison written to {}", reportDir.resolve("comparison.json").toAbsolutePath());
+    }
+}
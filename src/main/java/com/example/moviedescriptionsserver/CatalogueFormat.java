@@ -0,0 +1,12 @@
+package com.example.moviedescriptionsserver;
+
+/**
+ * Supported formats of a catalogue import.
+ * <ul>
+ *     <li>NDJSON - one CreateMovieRequest JSON object per line (application/x-ndjson)</li>
+ *     <li>CSV - header eidrCode,name,rating,year,status,categories with categories separated by ';' (text/csv)</li>
+ * </ul>
+ */
+public enum CatalogueFormat {
+    NDJSON, CSV
+}
@@ -0,0 +1,8 @@
+package com.example.moviedescriptionsserver;
+
+/**
+ * State of a catalogue import job. A FAILED job can be resumed by uploading the same file again.
+ */
+public enum ImportJobStatus {
+    RUNNING, COMPLETED, FAILED
+}
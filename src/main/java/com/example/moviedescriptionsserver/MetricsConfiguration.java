@@ -0,0 +1,52 @@
+package com.example.moviedescriptionsserver;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Metrics on top of Spring Boot's (http.server.requests, spring.data.repository.invocations, hikaricp.* and
+ * hibernate.*, see management.* in application.properties). MovieService and its queries are timed by the
+ * metrics package. Everything is exported at /actuator/prometheus.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    /**
+     * movies.datasource.saturation: connections in use plus threads waiting for one, per connection of the pool.
+     * Above 1 requests queue for connections.
+     */
+    @Bean
+    public MeterBinder dataSourceSaturationMetrics(DataSource dataSource) {
+        return registry -> {
+            HikariDataSource hikariDataSource = hikariDataSource(dataSource);
+            if (hikariDataSource != null) {
+                Gauge.builder("movies.datasource.saturation", hikariDataSource, MetricsConfiguration::saturation)
+                        .register(registry);
+            }
+        };
+    }
+
+    private static double saturation(HikariDataSource dataSource) {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool == null) {
+            // The pool starts with the first connection
+            return Double.NaN;
+        }
+        return (double) (pool.getActiveConnections() + pool.getThreadsAwaitingConnection()) / dataSource.getMaximumPoolSize();
+    }
+
+    private static HikariDataSource hikariDataSource(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.moviedescriptionsserver;
+
+/**
+ * Outcome of one movie of a bulk create.
+ * <ul>
+ *     <li>CREATED - the movie and its categories were inserted</li>
+ *     <li>ALREADY_EXISTS - a movie with the eidrCode exists already, nothing was changed</li>
+ *     <li>INVALID - the movie was rejected before touching the database, see the message</li>
+ * </ul>
+ */
+public enum MovieCreateStatus {
+    CREATED, ALREADY_EXISTS, INVALID
+}
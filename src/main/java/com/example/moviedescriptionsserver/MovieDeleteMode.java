@@ -0,0 +1,12 @@
+package com.example.moviedescriptionsserver;
+
+/**
+ * Enum for choosing what delete-movies does with the movies (movies.delete.mode).
+ * <ul>
+ *     <li>SOFT - only stamps deleted_at, the rows are hard-deleted later in small batches by DeletedMoviePurger</li>
+ *     <li>HARD - deletes the movies and their category links right away</li>
+ * </ul>
+ */
+public enum MovieDeleteMode {
+    SOFT, HARD
+}
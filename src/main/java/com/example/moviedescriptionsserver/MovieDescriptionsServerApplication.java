@@ -2,8 +2,16 @@ package com.example.moviedescriptionsserver;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
+import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// The R2DBC connection pool of the reactive read API is configured by ReactiveReadConfiguration, and only if it's
+// enabled. Boot's R2DBC auto-configuration would always create one and replace the JPA transaction manager.
+@SpringBootApplication(exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
+@EnableScheduling
+@EnableRetry
 public class MovieDescriptionsServerApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,11 @@
+package com.example.moviedescriptionsserver;
+
+/**
+ * The movie was changed since the client read it, its version doesn't match the If-Match of the request.
+ */
+public class MovieVersionMismatchException extends RuntimeException {
+
+    public MovieVersionMismatchException(String message) {
+        super(message);
+    }
+}
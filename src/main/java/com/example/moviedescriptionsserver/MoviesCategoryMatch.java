@@ -0,0 +1,9 @@
+package com.example.moviedescriptionsserver;
+
+/**
+ * Enum for how the categoryIds filter of the movies table is matched.
+ * ANY_OF matches movies in at least one of the categories, ALL_OF only movies in every one of them.
+ */
+public enum MoviesCategoryMatch {
+    ANY_OF, ALL_OF
+}
@@ -2,6 +2,7 @@ package com.example.moviedescriptionsserver;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -34,6 +35,21 @@ public class MoviesExceptionHandler {
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(MovieVersionMismatchException.class)
+    public ResponseEntity<String> handleMovieVersionMismatchException(MovieVersionMismatchException ex, WebRequest request) {
+        logger.error("MovieVersionMismatchException: {}", ex.getMessage());
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.PRECONDITION_FAILED);
+    }
+
+    /**
+     * A write that kept losing against concurrent writes of the same movies, even after retrying.
+     */
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<String> handleConcurrencyFailureException(ConcurrencyFailureException ex, WebRequest request) {
+        logger.error("ConcurrencyFailureException: {}", ex.getMessage());
+        return new ResponseEntity<>("The movies were changed by a concurrent request, please try again.", HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<String> handleException(Exception ex, WebRequest request) {
         logger.error("Exception: {}", ex.getMessage());
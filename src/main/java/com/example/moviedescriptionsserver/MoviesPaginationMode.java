@@ -0,0 +1,9 @@
+package com.example.moviedescriptionsserver;
+
+/**
+ * Enum for choosing how the movies table is paged.
+ * OFFSET skips (page - 1) * pageSize rows, KEYSET continues after the row encoded in the cursor.
+ */
+public enum MoviesPaginationMode {
+    OFFSET, KEYSET
+}
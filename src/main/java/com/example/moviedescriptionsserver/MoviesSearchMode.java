@@ -0,0 +1,13 @@
+package com.example.moviedescriptionsserver;
+
+/**
+ * Enum for how the name and eidrCode filters of the movies table are matched.
+ * <ul>
+ *     <li>SUBSTRING - case-insensitive "contains", backed by trigram indexes</li>
+ *     <li>PREFIX - case-insensitive "starts with", backed by pattern ops btree indexes</li>
+ *     <li>FULL_TEXT - full-text search on the name, ranked by relevance (eidrCode is still matched as SUBSTRING)</li>
+ * </ul>
+ */
+public enum MoviesSearchMode {
+    SUBSTRING, PREFIX, FULL_TEXT
+}
@@ -0,0 +1,14 @@
+package com.example.moviedescriptionsserver;
+
+/**
+ * Enum for choosing how totalItems of the movies table is produced.
+ * <ul>
+ *     <li>EXACT - separate count query on every request</li>
+ *     <li>SKIP - no count at all, totalItems and totalPages are left empty</li>
+ *     <li>ESTIMATED - planner statistics of the movies table, only possible without filters (falls back to EXACT)</li>
+ *     <li>CACHED - exact count cached per filter for a short time, dropped whenever movies are written</li>
+ * </ul>
+ */
+public enum MoviesTotalStrategy {
+    EXACT, SKIP, ESTIMATED, CACHED
+}
@@ -0,0 +1,78 @@
+package com.example.moviedescriptionsserver;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the number of API requests handled at the same time.
+ * <p>
+ * With platform threads Tomcat's thread pool does this. With virtual threads every request gets its own thread,
+ * so without a cap thousands of requests would queue for the few database connections, each holding its memory
+ * until the Hikari connection-timeout. Requests that don't get a permit within the acquire timeout get a 503.
+ * <p>
+ * Metrics: movies.requests.in-flight and movies.requests.rejected.
+ */
+public class RequestConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    static Logger logger = LoggerFactory.getLogger(RequestConcurrencyLimitFilter.class);
+
+    private final int maxInFlight;
+    private final Duration acquireTimeout;
+    private final Semaphore permits;
+    private final Counter rejected;
+
+    public RequestConcurrencyLimitFilter(int maxInFlight, Duration acquireTimeout, MeterRegistry meterRegistry) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight has to be positive.");
+        }
+        this.maxInFlight = maxInFlight;
+        this.acquireTimeout = acquireTimeout;
+        // Fair, so waiting requests are served in arrival order and the tail latency stays bounded
+        this.permits = new Semaphore(maxInFlight, true);
+        this.rejected = Counter.builder("movies.requests.rejected").register(meterRegistry);
+        Gauge.builder("movies.requests.in-flight", this, RequestConcurrencyLimitFilter::inFlight).register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            logger.warn("Rejected {} {}, {} requests are in flight.", request.getMethod(), request.getRequestURI(), maxInFlight);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many concurrent requests, please try again.");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    public int inFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+}
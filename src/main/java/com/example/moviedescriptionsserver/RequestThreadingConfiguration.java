@@ -0,0 +1,59 @@
+package com.example.moviedescriptionsserver;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import java.time.Duration;
+
+/**
+ * Request threads: Tomcat's platform thread pool by default, virtual threads with the virtual-threads profile
+ * (spring.threads.virtual.enabled, needs Java 21). MovieService is called on the request thread, so it runs on
+ * the same kind of thread.
+ * <p>
+ * Virtual threads are cheap, so the number of concurrent requests isn't limited by the thread pool anymore.
+ * The profile limits it with RequestConcurrencyLimitFilter instead, sized together with the Hikari pool.
+ */
+@Configuration
+public class RequestThreadingConfiguration {
+
+    static Logger logger = LoggerFactory.getLogger(RequestThreadingConfiguration.class);
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int connectionPoolSize;
+
+    @Bean
+    @ConditionalOnProperty(name = "movies.concurrency.max-in-flight")
+    public FilterRegistrationBean<RequestConcurrencyLimitFilter> requestConcurrencyLimitFilter(
+            @Value("${movies.concurrency.max-in-flight}") int maxInFlight,
+            @Value("${movies.concurrency.acquire-timeout:PT1S}") Duration acquireTimeout,
+            MeterRegistry meterRegistry
+    ) {
+        FilterRegistrationBean<RequestConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new RequestConcurrencyLimitFilter(maxInFlight, acquireTimeout, meterRegistry));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void logThreadingMode() {
+        if (virtualThreads && Runtime.version().feature() < 21) {
+            // Spring Boot silently falls back to platform threads
+            logger.warn("Virtual threads are enabled, but Java {} doesn't support them, requests run on platform threads.",
+                    Runtime.version().feature());
+            return;
+        }
+        logger.info("Requests run on {} threads, {} database connections.",
+                virtualThreads ? "virtual" : "platform", connectionPoolSize);
+    }
+}
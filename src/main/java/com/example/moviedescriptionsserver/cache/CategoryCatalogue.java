@@ -0,0 +1,56 @@
+package com.example.moviedescriptionsserver.cache;
+
+import com.example.moviedescriptionsserver.dto.response.CategoryResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the categories table.
+ *
+ * @param categories all categories in id order
+ * @param byId       the same categories indexed by id
+ * @param etag       SHA-256 of the categories, changes whenever any category changes, used for If-None-Match on
+ *                   get-categories
+ */
+public record CategoryCatalogue(
+        List<CategoryResponse> categories,
+        Map<Long, CategoryResponse> byId,
+        String etag
+) {
+
+    public static CategoryCatalogue of(List<CategoryResponse> categories) {
+        Map<Long, CategoryResponse> byId = new LinkedHashMap<>();
+        categories.forEach(category -> byId.put(category.id(), category));
+        return new CategoryCatalogue(
+                List.copyOf(categories),
+                Collections.unmodifiableMap(byId),
+                etag(categories)
+        );
+    }
+
+    /**
+     * SHA-256 of the categories, each written as its id, the length of its name and the name, so no two different
+     * catalogues serialize to the same bytes.
+     */
+    private static String etag(List<CategoryResponse> categories) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform has to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+        StringBuilder serialized = new StringBuilder(categories.size() * 32);
+        for (CategoryResponse category : categories) {
+            serialized.append(category.id()).append(':').append(category.name().length()).append(':').append(category.name()).append(';');
+        }
+        return HexFormat.of().formatHex(digest.digest(serialized.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.moviedescriptionsserver.cache;
+
+import com.example.moviedescriptionsserver.dto.response.CategoryResponse;
+import com.example.moviedescriptionsserver.repository.CategoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory copy of the categories table.
+ * <p>
+ * Categories can't be changed through the API, so the snapshot is loaded on first use and then refreshed
+ * periodically, and when a lookup asks for an id the snapshot doesn't know, in case it was just added. Those refreshes
+ * happen at most once per movies.cache.categories.miss-refresh-interval: until then unknown ids are unknown, so a
+ * client sending made-up ids can't make every request reload the table (and wait for the others doing the same).
+ * Lookups never hit the database while the snapshot is warm.
+ * <p>
+ * Metrics: movies.categories.cache.requests (result=hit|miss), movies.categories.cache.refreshes
+ * and movies.categories.cache.size.
+ */
+@Component
+public class CategoryCatalogueCache {
+
+    static Logger logger = LoggerFactory.getLogger(CategoryCatalogueCache.class);
+
+    private final CategoryRepository categoryRepository;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter refreshes;
+    // Not synchronized: a virtual thread blocked on the database inside a synchronized block pins its carrier thread
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private final long missRefreshIntervalNanos;
+    private volatile CategoryCatalogue catalogue;
+    private volatile long refreshedAt;
+
+    public CategoryCatalogueCache(
+            CategoryRepository categoryRepository,
+            MeterRegistry meterRegistry,
+            @Value("${movies.cache.categories.miss-refresh-interval:PT1S}") Duration missRefreshInterval
+    ) {
+        this.categoryRepository = categoryRepository;
+        this.missRefreshIntervalNanos = missRefreshInterval.toNanos();
+        this.hits = Counter.builder("movies.categories.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("movies.categories.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.refreshes = Counter.builder("movies.categories.cache.refreshes").register(meterRegistry);
+        Gauge.builder("movies.categories.cache.size", this, cache -> cache.catalogue == null ? 0 : cache.catalogue.categories().size())
+                .register(meterRegistry);
+    }
+
+    public CategoryCatalogue catalogue() {
+        CategoryCatalogue current = catalogue;
+        if (current != null) {
+            hits.increment();
+            return current;
+        }
+        misses.increment();
+        return refresh();
+    }
+
+    /**
+     * Categories with the given ids, in the requested order and without duplicates.
+     * Unknown ids are left out, so callers can compare sizes to find out if all of them exist.
+     */
+    public List<CategoryResponse> findByIds(List<Long> ids) {
+        CategoryCatalogue current = catalogue;
+        if (current != null && current.byId().keySet().containsAll(ids)) {
+            hits.increment();
+            return lookup(current, ids);
+        }
+        misses.increment();
+        return lookup(refreshUnlessRecent(), ids);
+    }
+
+    @Scheduled(
+            initialDelayString = "${movies.cache.categories.refresh-interval:PT5M}",
+            fixedDelayString = "${movies.cache.categories.refresh-interval:PT5M}"
+    )
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // Keep serving the previous snapshot
+            logger.error("Refreshing categories failed: {}", e.getMessage());
+        }
+    }
+
+    public CategoryCatalogue refresh() {
+        refreshLock.lock();
+        try {
+            List<CategoryResponse> categories = categoryRepository.findAll().stream()
+                    .map(categoryEntity -> new CategoryResponse(categoryEntity.getId(), categoryEntity.getName()))
+                    .sorted(Comparator.comparing(CategoryResponse::id))
+                    .toList();
+            CategoryCatalogue refreshed = CategoryCatalogue.of(categories);
+            refreshes.increment();
+            refreshedAt = System.nanoTime();
+            if (catalogue == null || !catalogue.categories().equals(refreshed.categories())) {
+                catalogue = refreshed;
+            }
+            return catalogue;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * The snapshot as it is if it was refreshed within the miss refresh interval (by another lookup that was waiting
+     * for the lock too, say), else a fresh one.
+     */
+    private CategoryCatalogue refreshUnlessRecent() {
+        CategoryCatalogue current = catalogue;
+        if (current != null && System.nanoTime() - refreshedAt < missRefreshIntervalNanos) {
+            return current;
+        }
+        refreshLock.lock();
+        try {
+            current = catalogue;
+            if (current != null && System.nanoTime() - refreshedAt < missRefreshIntervalNanos) {
+                return current;
+            }
+            return refresh();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private List<CategoryResponse> lookup(CategoryCatalogue catalogue, List<Long> ids) {
+        return ids.stream()
+                .distinct()
+                .map(catalogue.byId()::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
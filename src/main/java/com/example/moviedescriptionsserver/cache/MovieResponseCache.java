@@ -0,0 +1,174 @@
+package com.example.moviedescriptionsserver.cache;
+
+import com.example.moviedescriptionsserver.dto.response.GetMovieResponse;
+import com.example.moviedescriptionsserver.service.MoviesChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of assembled get-movie responses, keyed by eidrCode.
+ * <p>
+ * Holds at most {@code movies.cache.movie.max-entries} responses, each for at most {@code movies.cache.movie.ttl}.
+ * When full, the least recently used (LRU) or the oldest (FIFO) entry is evicted, see {@code movies.cache.movie.eviction}.
+ * Entries of written movies are dropped after the write commits.
+ * <p>
+ * The responses are kept in a LinkedHashMap in access order (LRU) or insertion order (FIFO), so the entry to evict is
+ * always the first one. The map is guarded by a lock that is only held for map operations, never while loading.
+ * A load first reserves its eidrCode with a placeholder and only stores the response if the placeholder is still
+ * there, so a write of that movie while it was loading keeps it out, without affecting loads of other movies.
+ * <p>
+ * Metrics: movies.movie.cache.requests (result=hit|miss), movies.movie.cache.evictions (cause=size|expired),
+ * movies.movie.cache.load and movies.movie.cache.size.
+ */
+@Component
+public class MovieResponseCache {
+
+    public enum EvictionPolicy {
+        LRU,
+        FIFO
+    }
+
+    private final Duration ttl;
+    private final int maxEntries;
+    // Not synchronized: a virtual thread blocked inside a synchronized block pins its carrier thread
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Entry> entries;
+    // Placeholders of the loads in progress, a load is only stored if its placeholder wasn't invalidated meanwhile
+    private final Map<String, Object> loading = new HashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+    private final Timer loads;
+
+    public MovieResponseCache(
+            @Value("${movies.cache.movie.ttl:PT10M}") Duration ttl,
+            @Value("${movies.cache.movie.max-entries:1000}") int maxEntries,
+            @Value("${movies.cache.movie.eviction:LRU}") EvictionPolicy evictionPolicy,
+            MeterRegistry meterRegistry
+    ) {
+        this.hits = Counter.builder("movies.movie.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("movies.movie.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.sizeEvictions = Counter.builder("movies.movie.cache.evictions").tag("cause", "size").register(meterRegistry);
+        this.expiredEvictions = Counter.builder("movies.movie.cache.evictions").tag("cause", "expired").register(meterRegistry);
+        this.loads = Timer.builder("movies.movie.cache.load").register(meterRegistry);
+
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, evictionPolicy == EvictionPolicy.LRU);
+        Gauge.builder("movies.movie.cache.size", this, MovieResponseCache::size).register(meterRegistry);
+    }
+
+    /**
+     * Cached response for the eidrCode, or the loader's response, which is cached unless the movie was written
+     * while it was loading. Exceptions of the loader (e.g. the movie doesn't exist) are passed on and nothing is cached.
+     */
+    public GetMovieResponse getOrLoad(String eidrCode, Supplier<GetMovieResponse> loader) {
+        // Only one of concurrent loads of a movie can store its response, the others just return theirs
+        Object placeholder = new Object();
+        boolean reserved;
+        lock.lock();
+        try {
+            // For LRU the get moves the entry to the end
+            Entry entry = entries.get(eidrCode);
+            if (entry != null) {
+                if (entry.expiresAtNanos - System.nanoTime() > 0) {
+                    hits.increment();
+                    return entry.response;
+                }
+                entries.remove(eidrCode);
+                expiredEvictions.increment();
+            }
+            misses.increment();
+            reserved = loading.putIfAbsent(eidrCode, placeholder) == null;
+        } finally {
+            lock.unlock();
+        }
+
+        GetMovieResponse response = null;
+        try {
+            response = loads.record(loader);
+            return response;
+        } finally {
+            if (reserved) {
+                store(eidrCode, placeholder, response);
+            }
+        }
+    }
+
+    public void invalidate(Collection<String> eidrCodes) {
+        lock.lock();
+        try {
+            for (String eidrCode : eidrCodes) {
+                entries.remove(eidrCode);
+                loading.remove(eidrCode);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            entries.clear();
+            loading.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMoviesChanged(MoviesChangedEvent event) {
+        invalidate(event.eidrCodes());
+    }
+
+    /**
+     * Releases the placeholder and stores the response (none if the load failed) if the placeholder was still there,
+     * evicting the first entries while the cache is full.
+     */
+    private void store(String eidrCode, Object placeholder, GetMovieResponse response) {
+        lock.lock();
+        try {
+            if (!loading.remove(eidrCode, placeholder) || response == null) {
+                return;
+            }
+            entries.put(eidrCode, new Entry(response, System.nanoTime() + ttl.toNanos()));
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (entries.size() > maxEntries) {
+                eldest.next();
+                eldest.remove();
+                sizeEvictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record Entry(GetMovieResponse response, long expiresAtNanos) {
+    }
+}
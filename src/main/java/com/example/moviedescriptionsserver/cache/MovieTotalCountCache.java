@@ -0,0 +1,101 @@
+package com.example.moviedescriptionsserver.cache;
+
+import com.example.moviedescriptionsserver.MoviesCategoryMatch;
+import com.example.moviedescriptionsserver.MoviesSearchMode;
+import com.example.moviedescriptionsserver.dto.request.GetMoviesFilter;
+import com.example.moviedescriptionsserver.service.MoviesChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short-lived cache of movies table totals (used by the CACHED total strategy).
+ * <p>
+ * Entries are keyed by the normalized filter, so the same filter with a different page, ordering or
+ * differently ordered categoryIds shares one entry. Everything is dropped after a movie write commits.
+ */
+@Component
+public class MovieTotalCountCache {
+
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    // Bumped on every invalidation, so a count computed before a write can't be stored after it
+    private final AtomicLong generation = new AtomicLong();
+
+    public MovieTotalCountCache(
+            @Value("${movies.cache.total-count.ttl:PT30S}") Duration ttl,
+            @Value("${movies.cache.total-count.max-entries:1000}") int maxEntries
+    ) {
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @return cached total for the filter or null if there is none (or it has expired)
+     */
+    public Long get(GetMoviesFilter filter) {
+        Key key = Key.of(filter);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtNanos() - System.nanoTime() < 0) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.totalItems();
+    }
+
+    public long currentGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Stores the total unless the cache was invalidated since {@code generation} was read.
+     */
+    public void put(GetMoviesFilter filter, long totalItems, long generation) {
+        if (generation != this.generation.get()) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            // Filters are user input, so rather start over than let the map grow without bounds
+            entries.clear();
+        }
+        entries.put(Key.of(filter), new Entry(totalItems, System.nanoTime() + ttl.toNanos()));
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMoviesChanged(MoviesChangedEvent event) {
+        invalidateAll();
+    }
+
+    private record Entry(long totalItems, long expiresAtNanos) {
+    }
+
+    private record Key(List<Long> categoryIds, MoviesCategoryMatch categoryMatch, MoviesSearchMode searchMode,
+                       String eidrCode, String name) {
+
+        static Key of(GetMoviesFilter filter) {
+            return new Key(
+                    filter.categoryIds() == null ? List.of() : filter.categoryIds().stream().distinct().sorted().toList(),
+                    filter.categoryMatch(),
+                    filter.searchMode(),
+                    filter.eidrCode() == null ? null : filter.eidrCode().toLowerCase(Locale.ROOT),
+                    filter.name() == null ? null : filter.name().toLowerCase(Locale.ROOT)
+            );
+        }
+    }
+}
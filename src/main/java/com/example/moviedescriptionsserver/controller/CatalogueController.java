@@ -0,0 +1,173 @@
+package com.example.moviedescriptionsserver.controller;
+
+import com.example.moviedescriptionsserver.CatalogueFormat;
+import com.example.moviedescriptionsserver.dto.request.GetMoviesFilter;
+import com.example.moviedescriptionsserver.dto.response.ImportJobResponse;
+import com.example.moviedescriptionsserver.service.CatalogueExportService;
+import com.example.moviedescriptionsserver.service.CatalogueImportService;
+import com.example.moviedescriptionsserver.service.CatalogueImportService.ImportAttempt;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+
+@CrossOrigin(origins = "http://localhost:3000")
+@RestController
+@RequestMapping(value = "api/catalogue")
+public class CatalogueController {
+
+    static Logger logger = LoggerFactory.getLogger(CatalogueController.class);
+
+    static final String NDJSON = "application/x-ndjson";
+    static final String CSV = "text/csv";
+
+    private final CatalogueImportService catalogueImportService;
+    private final CatalogueExportService catalogueExportService;
+    private final ObjectMapper objectMapper;
+
+    public CatalogueController(
+            CatalogueImportService catalogueImportService,
+            CatalogueExportService catalogueExportService,
+            ObjectMapper objectMapper
+    ) {
+        this.catalogueImportService = catalogueImportService;
+        this.catalogueExportService = catalogueExportService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Imports the request body (NDJSON or CSV, see CatalogueFormat), pass the jobId of a failed (or stale running) import to resume it.
+     * <p>
+     * The job is committed before the body is read and answered with 202 and its Location right away, so the client
+     * knows the job id (to poll it, or to resume it should the upload break) while the body is still being imported.
+     * The response body is the finished job, sent once the whole upload is imported.
+     */
+    @PostMapping(value = "/import", consumes = {NDJSON, CSV})
+    public ResponseEntity<StreamingResponseBody> importCatalogue(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam(required = false) Long jobId,
+            InputStream body
+    ) {
+        CatalogueFormat format = MediaType.valueOf(CSV).includes(MediaType.parseMediaType(contentType)) ? CatalogueFormat.CSV : CatalogueFormat.NDJSON;
+        logger.info("Importing {} catalogue{}", format, jobId == null ? "" : ", resuming job " + jobId);
+        ImportAttempt importAttempt = catalogueImportService.startImport(format, jobId);
+
+        StreamingResponseBody job = out -> {
+            // Commits the 202 and its Location before the upload is read
+            out.flush();
+            ImportJobResponse finishedJob = catalogueImportService.runImport(importAttempt, body);
+            out.write(objectMapper.writeValueAsBytes(finishedJob));
+        };
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequestUri()
+                        .replaceQuery(null)
+                        .path("/{jobId}")
+                        .buildAndExpand(importAttempt.jobId())
+                        .toUri())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(job);
+    }
+
+    @GetMapping(value = "/import/{jobId}")
+    public ImportJobResponse getImport(@PathVariable Long jobId) {
+        logger.info("Getting import job {}", jobId);
+        return catalogueImportService.getImportJob(jobId);
+    }
+
+    @GetMapping(value = "/import-job")
+    public ImportJobResponse getImportJob(@RequestParam Long jobId) {
+        logger.info("Getting import job {}", jobId);
+        return catalogueImportService.getImportJob(jobId);
+    }
+
+    /**
+     * Streams every movie matching the (optional) filter, gzipped if the client accepts it.
+     */
+    @PostMapping(value = "/export")
+    public ResponseEntity<StreamingResponseBody> exportCatalogue(
+            @RequestBody(required = false) GetMoviesFilter filter,
+            @RequestParam(defaultValue = "NDJSON") CatalogueFormat format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        GetMoviesFilter exportFilter = filter != null ? filter : new GetMoviesFilter(null, null, null, null, null, null, null);
+        boolean gzip = acceptsGzip(acceptEncoding);
+        logger.info("Exporting {} catalogue{}", format, gzip ? " (gzip)" : "");
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, 64 * 1024);
+                catalogueExportService.export(exportFilter, format, gzipOut);
+                gzipOut.finish();
+            } else {
+                catalogueExportService.export(exportFilter, format, out);
+            }
+        };
+
+        var response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format == CatalogueFormat.CSV ? CSV : NDJSON))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(format == CatalogueFormat.CSV ? "movies.csv" : "movies.ndjson")
+                        .build()
+                        .toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Whether the Accept-Encoding allows gzip: gzip (or x-gzip) listed with a q-value above 0, or otherwise * with one.
+     * So "gzip;q=0" and "*, gzip;q=0" don't, "*;q=0.5" does.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double anyQuality = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = quality(parts);
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQuality = gzipQuality == null ? quality : Math.max(gzipQuality, quality);
+            } else if (coding.equals("*")) {
+                anyQuality = quality;
+            }
+        }
+        if (gzipQuality != null) {
+            return gzipQuality > 0;
+        }
+        return anyQuality != null && anyQuality > 0;
+    }
+
+    /**
+     * The q-value of an Accept-Encoding element split on ';', 1 without one and 0 if it isn't a number.
+     */
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 1 && Character.toLowerCase(parameter.charAt(0)) == 'q' && parameter.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+}
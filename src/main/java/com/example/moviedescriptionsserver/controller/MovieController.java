@@ -1,17 +1,27 @@
 package com.example.moviedescriptionsserver.controller;
 
+import com.example.moviedescriptionsserver.dto.MovieIfMatch;
+import com.example.moviedescriptionsserver.dto.MovieRevision;
 import com.example.moviedescriptionsserver.dto.request.CreateMovieRequest;
 import com.example.moviedescriptionsserver.dto.request.DeleteMoviesRequest;
 import com.example.moviedescriptionsserver.dto.request.GetMoviesFilter;
+import com.example.moviedescriptionsserver.dto.request.PatchMovieRequest;
 import com.example.moviedescriptionsserver.dto.request.UpdateMovieRequest;
 import com.example.moviedescriptionsserver.dto.response.CategoryResponse;
+import com.example.moviedescriptionsserver.dto.response.CreateMoviesResult;
 import com.example.moviedescriptionsserver.dto.response.GetMovieResponse;
 import com.example.moviedescriptionsserver.dto.response.GetMovieTableResult;
+import com.example.moviedescriptionsserver.dto.response.PatchMovieResponse;
+import com.example.moviedescriptionsserver.cache.CategoryCatalogue;
+import com.example.moviedescriptionsserver.service.MovieBulkService;
 import com.example.moviedescriptionsserver.service.MovieService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -24,45 +34,113 @@ public class MovieController {
     static Logger logger = LoggerFactory.getLogger(MovieController.class);
 
     private final MovieService movieService;
+    private final MovieBulkService movieBulkService;
 
-    public MovieController(MovieService movieService) {
+    public MovieController(MovieService movieService, MovieBulkService movieBulkService) {
         this.movieService = movieService;
+        this.movieBulkService = movieBulkService;
     }
 
     @GetMapping(value = "/get-movie")
-    public GetMovieResponse getMovie(@RequestParam String eidrCode) {
-        logger.info("Getting movie with eidrCode: {}", eidrCode);
-        return movieService.getMovie(eidrCode);
+    public ResponseEntity<GetMovieResponse> getMovie(@RequestParam String eidrCode, WebRequest webRequest) {
+        logger.debug("Getting movie with eidrCode: {}", eidrCode);
+        GetMovieResponse movie = movieService.getMovie(eidrCode);
+        String eTag = new MovieRevision(movie.version(), movie.createdAt()).eTag();
+        if (webRequest.checkNotModified(eTag)) {
+            // 304 Not Modified, the client's copy is still current
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .body(movie);
     }
 
     @GetMapping(value = "/get-categories")
-    public List<CategoryResponse> getCategories() {
-        logger.info("Getting all categories");
-        return movieService.getCategories();
+    public ResponseEntity<List<CategoryResponse>> getCategories(WebRequest webRequest) {
+        logger.debug("Getting all categories");
+        CategoryCatalogue catalogue = movieService.getCategoryCatalogue();
+        if (webRequest.checkNotModified(catalogue.etag())) {
+            // 304 Not Modified, the client's copy is still current
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(catalogue.etag())
+                .body(catalogue.categories());
     }
 
     @PostMapping(value = "/get-movies-table")
     public GetMovieTableResult getMoviesTable(@Valid @RequestBody GetMoviesFilter filter) {
-        logger.info("Getting all movies");
+        logger.debug("Getting all movies");
         return movieService.getAllMovies(filter);
     }
 
     @PostMapping(value = "/create-movie")
     public GetMovieResponse createMovie(@Valid @RequestBody CreateMovieRequest createMovieRequest) {
-        logger.info("Creating movie with name: {}", createMovieRequest.name());
+        logger.debug("Creating movie with name: {}", createMovieRequest.name());
         return movieService.createMovie(createMovieRequest);
     }
 
+    @PostMapping(value = "/create-movies")
+    public CreateMoviesResult createMovies(@RequestBody List<CreateMovieRequest> createMovieRequests) {
+        logger.debug("Creating {} movies", createMovieRequests.size());
+        return movieBulkService.createMovies(createMovieRequests);
+    }
+
+    /**
+     * With an If-Match of the movie's ETag (or a list of ETags) the update is conditional: 412 if the movie has been
+     * changed, or deleted and created again, since. With * the movie only has to exist (412 if it doesn't), without
+     * If-Match the movie is overwritten whatever its version.
+     */
     @PutMapping(value = "/update-movie")
-    public GetMovieResponse updateMovie(@Valid @RequestBody UpdateMovieRequest updateMovieRequest) {
-        logger.info("Updating movie with eidrCode: {}", updateMovieRequest.eidrCode());
-        return movieService.updateMovie(updateMovieRequest);
+    public ResponseEntity<GetMovieResponse> updateMovie(
+            @Valid @RequestBody UpdateMovieRequest updateMovieRequest,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        logger.debug("Updating movie with eidrCode: {}", updateMovieRequest.eidrCode());
+        MovieIfMatch expected = ifMatch(ifMatch);
+        GetMovieResponse movie = expected == null
+                ? movieService.updateMovie(updateMovieRequest)
+                : movieService.updateMovie(updateMovieRequest, expected);
+        return ResponseEntity.ok()
+                .eTag(new MovieRevision(movie.version(), movie.createdAt()).eTag())
+                .body(movie);
+    }
+
+    /**
+     * Changes only the given fields and categories, see PatchMovieRequest. If-Match works like for update-movie.
+     */
+    @PatchMapping(value = "/patch-movie")
+    public ResponseEntity<PatchMovieResponse> patchMovie(
+            @Valid @RequestBody PatchMovieRequest patchMovieRequest,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        logger.debug("Patching movie with eidrCode: {}", patchMovieRequest.eidrCode());
+        PatchMovieResponse movie = movieService.patchMovie(patchMovieRequest, ifMatch(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(new MovieRevision(movie.version(), movie.createdAt()).eTag())
+                .body(movie);
     }
 
     @DeleteMapping(value = "/delete-movies")
     public boolean deleteMovies(@Valid @RequestBody DeleteMoviesRequest deleteMoviesRequest) {
-        logger.info("Deleting movies with eidrCode: {}", deleteMoviesRequest.eidrCodes());
+        logger.debug("Deleting movies with eidrCode: {}", deleteMoviesRequest.eidrCodes());
         return movieService.deleteMovies(deleteMoviesRequest.eidrCodes());
     }
 
+    /**
+     * The revisions the client expects the movie to be at, null without If-Match.
+     * The ETags are ones sent by get-movie, weak ETags never match (If-Match uses the strong comparison).
+     */
+    private static MovieIfMatch ifMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+        try {
+            return MovieIfMatch.parse(ifMatch);
+        } catch (IllegalArgumentException e) {
+            logger.error("If-Match {} is not an ETag of a movie.", ifMatch);
+            throw new IllegalArgumentException("If-Match " + ifMatch + " is not an ETag of a movie.");
+        }
+    }
+
 }
@@ -0,0 +1,83 @@
+package com.example.moviedescriptionsserver.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The If-Match precondition of a movie write: either * (the movie has to exist, whatever its revision) or a list of
+ * ETags, one of which the movie has to be at.
+ * <p>
+ * If-Match uses the strong comparison (RFC 9110, 13.1.1), so weak ETags (W/"3-5f3e1c2a4b8d0") never match and are
+ * left out of the revisions. A list of only weak ETags therefore fails like a stale ETag does.
+ */
+public record MovieIfMatch(
+        boolean any,
+        List<MovieRevision> revisions
+) {
+
+    public static final MovieIfMatch ANY = new MovieIfMatch(true, List.of());
+
+    public static MovieIfMatch of(MovieRevision... revisions) {
+        return new MovieIfMatch(false, List.of(revisions));
+    }
+
+    /**
+     * Parses an If-Match header, e.g. "3-5f3e1c2a4b8d0", "4-5f3e1c2a4b8d0" or *.
+     * Throws an IllegalArgumentException for a strong ETag that is not one sent by get-movie.
+     */
+    public static MovieIfMatch parse(String header) {
+        if (header.trim().equals("*")) {
+            return ANY;
+        }
+        List<MovieRevision> revisions = new ArrayList<>();
+        for (String eTag : splitList(header)) {
+            if (!eTag.startsWith("W/")) {
+                revisions.add(MovieRevision.fromETag(eTag));
+            }
+        }
+        return new MovieIfMatch(false, List.copyOf(revisions));
+    }
+
+    /**
+     * The precondition as sent, for error messages.
+     */
+    public String eTags() {
+        if (any) {
+            return "*";
+        }
+        if (revisions.isEmpty()) {
+            return "(weak ETags only)";
+        }
+        return revisions.stream().map(MovieRevision::eTag).collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Splits the list on the commas outside of quotes (an entity tag may contain a comma), empty elements are skipped.
+     */
+    private static List<String> splitList(String header) {
+        List<String> elements = new ArrayList<>();
+        StringBuilder element = new StringBuilder();
+        boolean quoted = false;
+        for (char c : header.toCharArray()) {
+            if (c == '"') {
+                quoted = !quoted;
+            }
+            if (c == ',' && !quoted) {
+                addElement(elements, element);
+            } else {
+                element.append(c);
+            }
+        }
+        addElement(elements, element);
+        return elements;
+    }
+
+    private static void addElement(List<String> elements, StringBuilder element) {
+        String value = element.toString().trim();
+        if (!value.isEmpty()) {
+            elements.add(value);
+        }
+        element.setLength(0);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.moviedescriptionsserver.dto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * One state of one movie, sent as its ETag (see If-None-Match and If-Match).
+ * <p>
+ * The version alone isn't enough: a movie that is deleted, purged and created again starts over at version 0, so
+ * the version is paired with the creation time of the movie. Category renames bump the version of the movies
+ * (see the categories_renamed trigger), so every change of the response changes the ETag.
+ * Clients should treat the ETag as opaque.
+ */
+public record MovieRevision(
+        long version,
+        LocalDateTime createdAt
+) {
+
+    private static final String SEPARATOR = "-";
+
+    /**
+     * e.g. 3-5f3e1c2a4b8d0, the version and the creation time in microseconds (the precision of the column), in hex
+     */
+    public String eTag() {
+        return version + SEPARATOR + Long.toHexString(toMicros(createdAt));
+    }
+
+    /**
+     * The revision of a strong ETag as sent by eTag(), quoted or not. Weak ETags are left to the caller, see
+     * MovieIfMatch.
+     */
+    public static MovieRevision fromETag(String eTag) {
+        String value = eTag.trim().replace("\"", "");
+        String[] parts = value.split(SEPARATOR, -1);
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Invalid ETag.");
+        }
+        try {
+            return new MovieRevision(Long.parseLong(parts[0]), fromMicros(Long.parseUnsignedLong(parts[1], 16)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid ETag.");
+        }
+    }
+
+    private static long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + dateTime.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000), (int) Math.floorMod(micros, 1_000_000) * 1_000,
+                ZoneOffset.UTC);
+    }
+}
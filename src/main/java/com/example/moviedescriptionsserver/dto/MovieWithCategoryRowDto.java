@@ -0,0 +1,21 @@
+package com.example.moviedescriptionsserver.dto;
+
+import com.example.moviedescriptionsserver.MovieStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of a movie joined with one of its categories (categoryId and categoryName are null if it has none).
+ */
+public record MovieWithCategoryRowDto(
+        String eidrCode,
+        String name,
+        Double rating,
+        Integer year,
+        MovieStatus status,
+        Long version,
+        LocalDateTime createdAt,
+        Long categoryId,
+        String categoryName
+) {
+}
@@ -1,6 +1,10 @@
 package com.example.moviedescriptionsserver.dto.request;
 
+import com.example.moviedescriptionsserver.MoviesCategoryMatch;
 import com.example.moviedescriptionsserver.MoviesOrderBy;
+import com.example.moviedescriptionsserver.MoviesPaginationMode;
+import com.example.moviedescriptionsserver.MoviesSearchMode;
+import com.example.moviedescriptionsserver.MoviesTotalStrategy;
 import com.querydsl.core.types.Order;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
@@ -12,10 +16,15 @@ public record GetMoviesFilter(
         List<Long> categoryIds,
         String eidrCode,
         String name,
-        @NotNull @Min(1) Integer page,   // Page number (1-based)
+        @NotNull @Min(1) Integer page,   // Page number (1-based), ignored in KEYSET mode
         @NotNull @Positive Integer pageSize,
         @NotNull MoviesOrderBy orderBy,
-        @NotNull Order direction
+        @NotNull Order direction,
+        @NotNull MoviesPaginationMode paginationMode,
+        String cursor,   // nextCursor from the previous KEYSET page, null for the first page
+        @NotNull MoviesTotalStrategy totalStrategy,
+        @NotNull MoviesCategoryMatch categoryMatch,
+        @NotNull MoviesSearchMode searchMode
 ) {
     public GetMoviesFilter {
         if (page == null) {
@@ -30,5 +39,26 @@ public record GetMoviesFilter(
         if (orderBy == null) {
             orderBy = MoviesOrderBy.RATING;
         }
+        if (paginationMode == null) {
+            paginationMode = cursor != null ? MoviesPaginationMode.KEYSET : MoviesPaginationMode.OFFSET;
+        }
+        if (totalStrategy == null) {
+            totalStrategy = MoviesTotalStrategy.EXACT;
+        }
+        if (categoryMatch == null) {
+            categoryMatch = MoviesCategoryMatch.ANY_OF;
+        }
+        if (searchMode == null) {
+            searchMode = MoviesSearchMode.SUBSTRING;
+        }
+    }
+
+    public GetMoviesFilter(List<Long> categoryIds, String eidrCode, String name, Integer page, Integer pageSize,
+                           MoviesOrderBy orderBy, Order direction) {
+        this(categoryIds, eidrCode, name, page, pageSize, orderBy, direction, null, null, null, null, null);
+    }
+
+    public boolean hasFilters() {
+        return (categoryIds != null && !categoryIds.isEmpty()) || eidrCode != null || name != null;
     }
 }
@@ -0,0 +1,31 @@
+package com.example.moviedescriptionsserver.dto.request;
+
+import com.example.moviedescriptionsserver.MovieStatus;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * Partial update of a movie: null fields are left as they are, categories are changed by adding and removing them.
+ *
+ * @param addCategories    categories to link the movie to (links it has already are kept)
+ * @param removeCategories categories to unlink the movie from (the movie has to keep at least one)
+ */
+public record PatchMovieRequest(
+        @NotNull String eidrCode,
+        String name,
+        Double rating,
+        Integer year,
+        MovieStatus status,
+        List<Long> addCategories,
+        List<Long> removeCategories
+) {
+
+    public boolean hasFieldChanges() {
+        return name != null || rating != null || year != null || status != null;
+    }
+
+    public boolean hasCategoryChanges() {
+        return (addCategories != null && !addCategories.isEmpty()) || (removeCategories != null && !removeCategories.isEmpty());
+    }
+}
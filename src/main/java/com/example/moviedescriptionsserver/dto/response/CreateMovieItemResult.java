@@ -0,0 +1,11 @@
+package com.example.moviedescriptionsserver.dto.response;
+
+import com.example.moviedescriptionsserver.MovieCreateStatus;
+import jakarta.validation.constraints.NotNull;
+
+public record CreateMovieItemResult(
+        String eidrCode,
+        @NotNull MovieCreateStatus status,
+        String message   // Only set for INVALID
+) {
+}
@@ -0,0 +1,13 @@
+package com.example.moviedescriptionsserver.dto.response;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record CreateMoviesResult(
+        @NotNull Integer created,
+        @NotNull Integer alreadyExisting,
+        @NotNull Integer invalid,
+        @NotNull List<CreateMovieItemResult> items   // In request order
+) {
+}
@@ -3,10 +3,18 @@ package com.example.moviedescriptionsserver.dto.response;
 import com.example.moviedescriptionsserver.dto.MovieDto;
 import jakarta.validation.constraints.NotNull;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * @param version   version of the movie, changes with every write of the movie or its categories.
+ * @param createdAt when the movie was created, together with the version it is sent as the ETag of get-movie and
+ *                  update-movie (see MovieRevision, If-None-Match and If-Match).
+ */
 public record GetMovieResponse(
         @NotNull MovieDto movie,
-        @NotNull List<CategoryResponse> categories
+        @NotNull List<CategoryResponse> categories,
+        @NotNull Long version,
+        @NotNull LocalDateTime createdAt
 ) {
 }
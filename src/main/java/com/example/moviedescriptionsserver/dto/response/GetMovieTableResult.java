@@ -1,5 +1,6 @@
 package com.example.moviedescriptionsserver.dto.response;
 
+import com.example.moviedescriptionsserver.MoviesTotalStrategy;
 import com.example.moviedescriptionsserver.dto.MovieTableRowDto;
 import jakarta.validation.constraints.NotNull;
 
@@ -9,7 +10,9 @@ public record GetMovieTableResult(
         @NotNull List<MovieTableRowDto> movies,
         @NotNull Integer page,
         @NotNull Integer pageSize,
-        @NotNull Long totalItems,
-        @NotNull Integer totalPages
+        Long totalItems,   // Empty when the count was skipped
+        Integer totalPages,
+        String nextCursor,   // Only set in KEYSET mode when there are more rows
+        @NotNull MoviesTotalStrategy totalStrategy   // Strategy that actually produced totalItems
 ) {
 }
@@ -0,0 +1,20 @@
+package com.example.moviedescriptionsserver.dto.response;
+
+import com.example.moviedescriptionsserver.CatalogueFormat;
+import com.example.moviedescriptionsserver.ImportJobStatus;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record ImportJobResponse(
+        @NotNull Long jobId,
+        @NotNull CatalogueFormat format,
+        @NotNull ImportJobStatus status,
+        @NotNull Long committedRows,   // Rows processed so far, a resumed job continues after them
+        @NotNull Long importedRows,
+        @NotNull Long existingRows,   // Movies that existed already (or were in the file more than once)
+        @NotNull Long rejectedRows,
+        String error,   // Only set for FAILED
+        @NotNull List<ImportRejection> rejections   // The first rejected rows
+) {
+}
@@ -0,0 +1,10 @@
+package com.example.moviedescriptionsserver.dto.response;
+
+import jakarta.validation.constraints.NotNull;
+
+public record ImportRejection(
+        @NotNull Long rowNo,   // 1-based row of the file (CSV header not counted)
+        String eidrCode,
+        @NotNull String message
+) {
+}
@@ -0,0 +1,16 @@
+package com.example.moviedescriptionsserver.dto.response;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+/**
+ * @param version   version of the movie after the patch
+ * @param createdAt when the movie was created, together with the version it is sent as the ETag
+ */
+public record PatchMovieResponse(
+        @NotNull String eidrCode,
+        @NotNull Long version,
+        @NotNull LocalDateTime createdAt
+) {
+}
@@ -0,0 +1,58 @@
+package com.example.moviedescriptionsserver.entity;
+
+import com.example.moviedescriptionsserver.CatalogueFormat;
+import com.example.moviedescriptionsserver.ImportJobStatus;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+import static jakarta.persistence.EnumType.STRING;
+
+@Entity
+@Table(name = "import_jobs", schema = "public")
+@Getter
+@Setter
+public class ImportJobEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(STRING)
+    @Column(name = "format", nullable = false, updatable = false)
+    private CatalogueFormat format;
+
+    @Enumerated(STRING)
+    @Column(name = "status", nullable = false)
+    private ImportJobStatus status;
+
+    // Rows of the file that are done (imported, existing or rejected), a resumed job skips them
+    @Column(name = "committed_rows", nullable = false)
+    private Long committedRows = 0L;
+
+    @Column(name = "imported_rows", nullable = false)
+    private Long importedRows = 0L;
+
+    @Column(name = "existing_rows", nullable = false)
+    private Long existingRows = 0L;
+
+    @Column(name = "rejected_rows", nullable = false)
+    private Long rejectedRows = 0L;
+
+    @Column(name = "error")
+    private String error;
+
+    @Column(name = "created_at", insertable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Last progress of the job, a RUNNING job without progress for movies.import.stale-after can be resumed
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Incremented by every start or resume, only the current attempt may write the job
+    @Column(name = "attempt", nullable = false)
+    private Integer attempt = 0;
+
+}
@@ -5,6 +5,8 @@ import lombok.Getter;
 import lombok.Setter;
 import jakarta.persistence.*;
 
+import java.time.LocalDateTime;
+
 import static jakarta.persistence.EnumType.STRING;
 
 @Entity
@@ -30,4 +32,32 @@ public class MovieEntity {
     @Column(name = "status", nullable = false)
     private MovieStatus status;
 
+    // Generated by the database from the name, only used for full-text search
+    @Column(name = "search_vector", insertable = false, updatable = false)
+    private String searchVector;
+
+    // Maintained by database triggers from movies_categories (ids in id order as a {1,2} array literal, and the
+    // names comma separated), only used for filtering and listing the movies table
+    @Column(name = "category_ids", insertable = false, updatable = false)
+    private String categoryIds;
+
+    @Column(name = "category_names", insertable = false, updatable = false)
+    private String categoryNames;
+
+    // Bumped by every write of the movie or its categories, a write based on an older version fails
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    // Set by the database, part of the ETag (see MovieRevision)
+    @Column(name = "created_at", insertable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", insertable = false)
+    private LocalDateTime updatedAt;
+
+    // Set by a soft delete, such movies are invisible to every read path until DeletedMoviePurger removes them
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
 }
@@ -0,0 +1,49 @@
+package com.example.moviedescriptionsserver.logging;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Logs the statements of sampled requests to the com.example.moviedescriptionsserver.sql logger, with the statement,
+ * its parameters, the elapsed time and the batch size as key-value pairs (fields of the JSON logs).
+ */
+class SqlLogListener implements QueryExecutionListener {
+
+    static Logger logger = LoggerFactory.getLogger("com.example.moviedescriptionsserver.sql");
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (!SqlLogging.isEnabled() || !logger.isInfoEnabled()) {
+            return;
+        }
+        for (QueryInfo queryInfo : queryInfoList) {
+            logger.atInfo()
+                    .addKeyValue("sql", queryInfo.getQuery())
+                    .addKeyValue("parameters", parameters(queryInfo))
+                    .addKeyValue("elapsedMs", execInfo.getElapsedTime())
+                    .addKeyValue("batchSize", execInfo.getBatchSize())
+                    .addKeyValue("success", execInfo.isSuccess())
+                    .log("SQL");
+        }
+    }
+
+    private static List<String> parameters(QueryInfo queryInfo) {
+        if (queryInfo.getParametersList().isEmpty()) {
+            return List.of();
+        }
+        return queryInfo.getParametersList().get(0).stream()
+                .map(ParameterSetOperation::getArgs)
+                .map(args -> args.length < 2 ? "null" : String.valueOf(args[1]))
+                .toList();
+    }
+}
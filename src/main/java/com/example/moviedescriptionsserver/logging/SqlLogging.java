@@ -0,0 +1,26 @@
+package com.example.moviedescriptionsserver.logging;
+
+/**
+ * Whether the statements of the current request are logged, set by SqlLoggingFilter for sampled requests.
+ * The statements of other requests are still wrapped by the datasource-proxy, which records their parameters,
+ * they only skip formatting and logging them.
+ */
+public final class SqlLogging {
+
+    private static final ThreadLocal<Boolean> ENABLED = new ThreadLocal<>();
+
+    private SqlLogging() {
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED.get() != null;
+    }
+
+    static void enable() {
+        ENABLED.set(Boolean.TRUE);
+    }
+
+    static void disable() {
+        ENABLED.remove();
+    }
+}
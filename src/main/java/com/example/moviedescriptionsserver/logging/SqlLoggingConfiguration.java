@@ -0,0 +1,55 @@
+package com.example.moviedescriptionsserver.logging;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Sampled SQL logging, instead of spring.jpa.show-sql for everything: the statements of a request are logged when it
+ * sends the movies.sql-log.header header with the movies.sql-log.secret value (X-Log-Sql: secret) or is picked by
+ * movies.sql-log.sample-rate. The statements of other requests are neither formatted nor logged, but every
+ * connection and statement is wrapped by the datasource-proxy. Covers the servlet API, not the reactive one.
+ * <p>
+ * On by default (nothing is logged unless asked for), disabled with movies.sql-log.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "movies.sql-log.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlLoggingConfiguration {
+
+    @Bean
+    public FilterRegistrationBean<SqlLoggingFilter> sqlLoggingFilter(
+            @Value("${movies.sql-log.header:X-Log-Sql}") String header,
+            @Value("${movies.sql-log.secret:}") String secret,
+            @Value("${movies.sql-log.sample-rate:0}") double sampleRate
+    ) {
+        FilterRegistrationBean<SqlLoggingFilter> registration =
+                new FilterRegistrationBean<>(new SqlLoggingFilter(header, secret, sampleRate));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    @Bean
+    static BeanPostProcessor sqlLoggingDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ProxyDataSource proxyDataSource) {
+                    // Already a datasource-proxy (see SlowQueryConfiguration), one more listener is enough
+                    proxyDataSource.getProxyConfig().getQueryListener().addListener(new SqlLogListener());
+                    return bean;
+                }
+                if (bean instanceof DataSource dataSource) {
+                    return ProxyDataSourceBuilder.create(dataSource).name("sql-log").listener(new SqlLogListener()).build();
+                }
+                return bean;
+            }
+        };
+    }
+}
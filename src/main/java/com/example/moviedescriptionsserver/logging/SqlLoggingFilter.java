@@ -0,0 +1,59 @@
+package com.example.moviedescriptionsserver.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Turns on SQL logging for a request that asks for it with the header set to the secret (e.g. X-Log-Sql: secret)
+ * and for a random sampleRate share of the others (0 by default). The logs hold the bound parameters, so the header
+ * is ignored without a secret.
+ */
+public class SqlLoggingFilter extends OncePerRequestFilter {
+
+    private final String header;
+    private final byte[] secret;
+    private final double sampleRate;
+
+    public SqlLoggingFilter(String header, String secret, double sampleRate) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("sampleRate has to be between 0 and 1.");
+        }
+        this.header = header;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!isSampled(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        SqlLogging.enable();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlLogging.disable();
+        }
+    }
+
+    private boolean isSampled(HttpServletRequest request) {
+        if (!header.isEmpty() && secret.length > 0) {
+            String value = request.getHeader(header);
+            // Constant time, so the secret can't be guessed from response times
+            if (value != null && MessageDigest.isEqual(secret, value.getBytes(StandardCharsets.UTF_8))) {
+                return true;
+            }
+        }
+        return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+}
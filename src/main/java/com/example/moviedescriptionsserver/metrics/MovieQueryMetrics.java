@@ -0,0 +1,37 @@
+package com.example.moviedescriptionsserver.metrics;
+
+import com.example.moviedescriptionsserver.dto.request.GetMoviesFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Timers of the QueryDSL queries of the movies table: movies.query (query=getAllMovies.page|getAllMovies.count,
+ * with the tags of MoviesFilterTags), so a slow count and a slow page can be told apart per filter shape.
+ * There are a few hundred combinations of these tags, so the timers have no percentile histogram, only count, sum
+ * and max; the percentiles of getAllMovies are in movies.service.
+ * Spring Data queries are timed by Spring Boot (spring.data.repository.invocations).
+ */
+@Component
+public class MovieQueryMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Tags, Timer> timers = new ConcurrentHashMap<>();
+
+    public MovieQueryMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T record(String query, GetMoviesFilter filter, Supplier<T> execution) {
+        Tags tags = MoviesFilterTags.of(filter).and("query", query);
+        return timers.computeIfAbsent(tags, key -> Timer.builder("movies.query")
+                        .tags(key)
+                        .register(meterRegistry))
+                .record(execution);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.moviedescriptionsserver.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times every public MovieService method: movies.service (method, exception), with a percentile histogram between
+ * 1 ms and 5 s. The filter shape of getAllMovies isn't a tag here, it would multiply the histogram buckets, see
+ * MovieQueryMetrics for it. Outermost advice, so the time includes the transaction and retries of the call.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MovieServiceMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public MovieServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.example.moviedescriptionsserver.service.MovieService.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(timers.computeIfAbsent(new TimerKey(joinPoint.getSignature().getName(), exception), this::timer));
+        }
+    }
+
+    private Timer timer(TimerKey key) {
+        return Timer.builder("movies.service")
+                .tag("method", key.method())
+                .tag("exception", key.exception())
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(5))
+                .register(meterRegistry);
+    }
+
+    private record TimerKey(String method, String exception) {
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.moviedescriptionsserver.metrics;
+
+import com.example.moviedescriptionsserver.MoviesPaginationMode;
+import com.example.moviedescriptionsserver.MoviesSearchMode;
+import com.example.moviedescriptionsserver.dto.request.GetMoviesFilter;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Tags of a movies table request, with few enough values that every combination can be a time series:
+ * orderBy - RATING or NAME
+ * filter - the filters that are set and how they match, e.g. none, categories_any_of or name_prefix+eidr_code_prefix
+ * pageDepth - 1, 2-10, 11-100 or 101+ for OFFSET pages, keyset for KEYSET pages after the first
+ */
+public final class MoviesFilterTags {
+
+    private MoviesFilterTags() {
+    }
+
+    public static Tags of(GetMoviesFilter filter) {
+        return Tags.of(
+                "orderBy", filter.orderBy().name(),
+                "filter", filterShape(filter),
+                "pageDepth", pageDepth(filter)
+        );
+    }
+
+    static String filterShape(GetMoviesFilter filter) {
+        List<String> shape = new ArrayList<>();
+        if (filter.categoryIds() != null && !filter.categoryIds().isEmpty()) {
+            shape.add("categories_" + filter.categoryMatch().name().toLowerCase(Locale.ROOT));
+        }
+        if (filter.name() != null) {
+            shape.add("name_" + filter.searchMode().name().toLowerCase(Locale.ROOT));
+        }
+        if (filter.eidrCode() != null) {
+            // EIDR codes aren't words, FULL_TEXT matches them as SUBSTRING (see MovieSearchExpressions)
+            MoviesSearchMode searchMode = filter.searchMode() == MoviesSearchMode.FULL_TEXT ? MoviesSearchMode.SUBSTRING : filter.searchMode();
+            shape.add("eidr_code_" + searchMode.name().toLowerCase(Locale.ROOT));
+        }
+        return shape.isEmpty() ? "none" : String.join("+", shape);
+    }
+
+    static String pageDepth(GetMoviesFilter filter) {
+        if (filter.paginationMode() == MoviesPaginationMode.KEYSET) {
+            return filter.cursor() == null ? "1" : "keyset";
+        }
+        int page = filter.page();
+        if (page <= 1) {
+            return "1";
+        }
+        if (page <= 10) {
+            return "2-10";
+        }
+        return page <= 100 ? "11-100" : "101+";
+    }
+}
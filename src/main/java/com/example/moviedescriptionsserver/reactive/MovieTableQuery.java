@@ -0,0 +1,135 @@
+package com.example.moviedescriptionsserver.reactive;
+
+import com.example.moviedescriptionsserver.MoviesPaginationMode;
+import com.example.moviedescriptionsserver.MoviesSearchMode;
+import com.example.moviedescriptionsserver.dto.request.GetMoviesFilter;
+import com.example.moviedescriptionsserver.service.MovieTableCursor;
+import com.querydsl.core.types.Order;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Native SQL of the movies table queries, mirroring what MovieService.getAllMovies builds with QueryDSL:
+ * the same filters on the denormalized category_ids, the same index-friendly search predicates
+ * (see MovieSearchExpressions), the same ordering with the eidr_code tiebreaker and the same seek predicate
+ * for KEYSET pagination. Parameters are named, collections are expanded by DatabaseClient.
+ *
+ * @param sql    the statement
+ * @param params its named parameters
+ */
+record MovieTableQuery(String sql, Map<String, Object> params) {
+
+    static final String ESTIMATED_COUNT_SQL =
+            "SELECT CASE WHEN c.relpages = 0 OR c.reltuples < 0 THEN NULL ELSE CAST(c.reltuples AS BIGINT) END AS estimate " +
+            "FROM pg_class c WHERE c.oid = CAST('public.movies' AS regclass)";
+
+    private static final String FTS_QUERY = "websearch_to_tsquery('simple', :name)";
+
+    /**
+     * The requested page of the movies table. In KEYSET mode one extra row is fetched to find out
+     * if there is a next page.
+     */
+    static MovieTableQuery page(GetMoviesFilter filter) {
+        boolean keyset = filter.paginationMode() == MoviesPaginationMode.KEYSET;
+        boolean ranked = filter.searchMode() == MoviesSearchMode.FULL_TEXT && filter.name() != null;
+        if (keyset && ranked) {
+            throw new IllegalArgumentException("KEYSET pagination can't be combined with a ranked FULL_TEXT search.");
+        }
+
+        Map<String, Object> params = new LinkedHashMap<>();
+        StringBuilder sql = new StringBuilder("SELECT m.eidr_code, m.name, m.rating, m.year, m.status, m.category_names FROM public.movies m WHERE ")
+                .append(condition(filter, params));
+        if (keyset && filter.cursor() != null) {
+            sql.append(" AND ").append(seekPredicate(MovieTableCursor.decode(filter.cursor()), filter, params));
+        }
+
+        String direction = filter.direction() == Order.ASC ? "ASC" : "DESC";
+        sql.append(" ORDER BY ");
+        if (ranked) {
+            sql.append("ts_rank(m.search_vector, ").append(FTS_QUERY).append(") DESC, ");
+        }
+        sql.append(sortColumn(filter)).append(' ').append(direction)
+                .append(", m.eidr_code ").append(direction);
+
+        sql.append(" LIMIT :limit OFFSET :offset");
+        params.put("limit", keyset ? filter.pageSize() + 1 : filter.pageSize());
+        params.put("offset", keyset ? 0 : (filter.page() - 1) * filter.pageSize());
+        return new MovieTableQuery(sql.toString(), params);
+    }
+
+    static MovieTableQuery count(GetMoviesFilter filter) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        String sql = "SELECT count(m.eidr_code) AS total FROM public.movies m WHERE " + condition(filter, params);
+        return new MovieTableQuery(sql, params);
+    }
+
+    /**
+     * Same as MovieService.moviesCondition: soft-deleted movies never match, category filters use category_ids.
+     */
+    private static String condition(GetMoviesFilter filter, Map<String, Object> params) {
+        StringBuilder condition = new StringBuilder("m.deleted_at IS NULL");
+        if (filter.categoryIds() != null && !filter.categoryIds().isEmpty()) {
+            List<Long> categoryIds = filter.categoryIds().stream().distinct().toList();
+            params.put("categoryIds", categoryIds.stream().map(String::valueOf).collect(Collectors.joining(",", "{", "}")));
+            condition.append(switch (filter.categoryMatch()) {
+                case ANY_OF -> " AND m.category_ids && CAST(:categoryIds AS integer[])";
+                case ALL_OF -> " AND m.category_ids @> CAST(:categoryIds AS integer[])";
+            });
+        }
+        if (filter.name() != null) {
+            if (filter.searchMode() == MoviesSearchMode.FULL_TEXT) {
+                condition.append(" AND m.search_vector @@ ").append(FTS_QUERY);
+                params.put("name", filter.name());
+            } else {
+                condition.append(" AND lower(m.name) LIKE :name ESCAPE '!'");
+                params.put("name", likePattern(filter.searchMode(), filter.name()));
+            }
+        }
+        if (filter.eidrCode() != null) {
+            // EIDR codes aren't words, so FULL_TEXT matches them as SUBSTRING
+            condition.append(" AND lower(m.eidr_code) LIKE :eidrCode ESCAPE '!'");
+            params.put("eidrCode", likePattern(filter.searchMode(), filter.eidrCode()));
+        }
+        return condition.toString();
+    }
+
+    /**
+     * e.g. for RATING ASC: m.rating >= :sortValue AND (m.rating > :sortValue OR (m.rating = :sortValue AND m.eidr_code > :cursorEidrCode))
+     */
+    private static String seekPredicate(MovieTableCursor cursor, GetMoviesFilter filter, Map<String, Object> params) {
+        if (cursor.orderBy() != filter.orderBy() || cursor.direction() != filter.direction()) {
+            throw new IllegalArgumentException("Cursor does not match the requested ordering.");
+        }
+        String comparison = filter.direction() == Order.ASC ? ">" : "<";
+        String column = sortColumn(filter);
+        params.put("sortValue", switch (filter.orderBy()) {
+            case NAME -> cursor.sortValue();
+            case RATING -> cursor.ratingValue();
+        });
+        params.put("cursorEidrCode", cursor.eidrCode());
+        return column + " " + comparison + "= :sortValue AND (" + column + " " + comparison + " :sortValue OR ("
+                + column + " = :sortValue AND m.eidr_code " + comparison + " :cursorEidrCode))";
+    }
+
+    private static String sortColumn(GetMoviesFilter filter) {
+        return switch (filter.orderBy()) {
+            case NAME -> "m.name";
+            case RATING -> "m.rating";
+        };
+    }
+
+    /**
+     * LIKE pattern of the lower-cased value, with the wildcards in the value escaped.
+     */
+    private static String likePattern(MoviesSearchMode searchMode, String value) {
+        String escaped = value.toLowerCase(Locale.ROOT)
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+        return searchMode == MoviesSearchMode.PREFIX ? escaped + "%" : "%" + escaped + "%";
+    }
+}
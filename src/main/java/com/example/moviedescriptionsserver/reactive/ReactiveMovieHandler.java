@@ -0,0 +1,167 @@
+package com.example.moviedescriptionsserver.reactive;
+
+import com.example.moviedescriptionsserver.MoviesPaginationMode;
+import com.example.moviedescriptionsserver.MoviesTotalStrategy;
+import com.example.moviedescriptionsserver.cache.MovieTotalCountCache;
+import com.example.moviedescriptionsserver.dto.MovieDto;
+import com.example.moviedescriptionsserver.dto.MovieRevision;
+import com.example.moviedescriptionsserver.dto.MovieTableRowDto;
+import com.example.moviedescriptionsserver.dto.request.GetMoviesFilter;
+import com.example.moviedescriptionsserver.dto.response.CategoryResponse;
+import com.example.moviedescriptionsserver.dto.response.GetMovieResponse;
+import com.example.moviedescriptionsserver.dto.response.GetMovieTableResult;
+import com.example.moviedescriptionsserver.service.MovieTableCursor;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * WebFlux handlers of the read endpoints (get-movie, get-movies-table, get-categories) on R2DBC.
+ * <p>
+ * Requests and responses are the same as MovieController's, so clients can switch between the two stacks.
+ * Unlike MovieController, get-movie and get-categories always read the database: the response caches are
+ * filled with blocking JPA loads, which must not run on the event loop.
+ */
+public class ReactiveMovieHandler {
+
+    static Logger logger = LoggerFactory.getLogger(ReactiveMovieHandler.class);
+
+    private final ReactiveMovieRepository reactiveMovieRepository;
+    private final MovieTotalCountCache movieTotalCountCache;
+    private final Validator validator;
+
+    public ReactiveMovieHandler(ReactiveMovieRepository reactiveMovieRepository, MovieTotalCountCache movieTotalCountCache,
+                                Validator validator) {
+        this.reactiveMovieRepository = reactiveMovieRepository;
+        this.movieTotalCountCache = movieTotalCountCache;
+        this.validator = validator;
+    }
+
+    public Mono<ServerResponse> getMovie(ServerRequest request) {
+        String eidrCode = request.queryParam("eidrCode")
+                .orElseThrow(() -> new IllegalArgumentException("eidrCode is required."));
+        logger.debug("Getting movie with eidrCode: {}", eidrCode);
+        return reactiveMovieRepository.findMovieWithCategories(eidrCode)
+                .collectList()
+                .flatMap(rows -> {
+                    if (rows.isEmpty()) {
+                        logger.error("Movie with eidrCode {} does not exist.", eidrCode);
+                        return Mono.error(new IllegalArgumentException("Movie with eidrCode " + eidrCode + " does not exist."));
+                    }
+                    var movie = rows.get(0);
+                    GetMovieResponse response = new GetMovieResponse(
+                            new MovieDto(movie.eidrCode(), movie.name(), movie.rating(), movie.year(), movie.status()),
+                            rows.stream()
+                                    .filter(row -> row.categoryId() != null)
+                                    .map(row -> new CategoryResponse(row.categoryId(), row.categoryName()))
+                                    .toList(),
+                            movie.version(),
+                            movie.createdAt()
+                    );
+                    String eTag = "\"" + new MovieRevision(response.version(), response.createdAt()).eTag() + "\"";
+                    // 304 Not Modified if the client's copy is still current, If-None-Match is matched like
+                    // checkNotModified of the servlet controller does (weak ETags, lists and *)
+                    return request.checkNotModified(eTag)
+                            .map(Mono::just)
+                            .orElseGet(() -> ServerResponse.ok().eTag(eTag).bodyValue(response));
+                });
+    }
+
+    public Mono<ServerResponse> getCategories(ServerRequest request) {
+        logger.debug("Getting all categories");
+        return ServerResponse.ok().body(reactiveMovieRepository.findCategories(), CategoryResponse.class);
+    }
+
+    public Mono<ServerResponse> getMoviesTable(ServerRequest request) {
+        logger.debug("Getting all movies");
+        return request.bodyToMono(GetMoviesFilter.class)
+                .switchIfEmpty(Mono.error(new IllegalArgumentException("Filter is required.")))
+                .doOnNext(this::validate)
+                .flatMap(this::moviesTable)
+                .flatMap(result -> ServerResponse.ok().bodyValue(result));
+    }
+
+    /**
+     * Same steps as MovieService.getAllMovies: the total with the requested strategy, then the page.
+     */
+    private Mono<GetMovieTableResult> moviesTable(GetMoviesFilter filter) {
+        // Built first, so an invalid cursor or search combination fails before anything is counted
+        MovieTableQuery pageQuery = MovieTableQuery.page(filter);
+        boolean keyset = filter.paginationMode() == MoviesPaginationMode.KEYSET;
+
+        return movieTotal(filter).flatMap(total -> {
+            Long totalItems = total.totalItems();
+            Integer totalPages = totalItems == null ? null : (int) Math.ceil((double) totalItems / filter.pageSize());
+            if (totalItems != null && totalItems == 0) {
+                return Mono.just(new GetMovieTableResult(List.of(), filter.page(), filter.pageSize(), totalItems, totalPages, null, total.strategy()));
+            }
+            return reactiveMovieRepository.findMoviesPage(pageQuery)
+                    .collectList()
+                    .map(rows -> {
+                        boolean hasNextPage = keyset && rows.size() > filter.pageSize();
+                        List<MovieTableRowDto> movies = hasNextPage ? rows.subList(0, filter.pageSize()) : rows;
+                        String nextCursor = hasNextPage ? cursorAfter(movies.get(movies.size() - 1), filter).encode() : null;
+                        return new GetMovieTableResult(movies, filter.page(), filter.pageSize(), totalItems, totalPages, nextCursor, total.strategy());
+                    });
+        });
+    }
+
+    /**
+     * Same strategies as MovieService.movieTotal, sharing its cache of CACHED totals.
+     */
+    private Mono<MovieTotal> movieTotal(GetMoviesFilter filter) {
+        return switch (filter.totalStrategy()) {
+            case SKIP -> Mono.just(new MovieTotal(null, MoviesTotalStrategy.SKIP));
+            case ESTIMATED -> (filter.hasFilters() ? Mono.<Long>empty() : reactiveMovieRepository.estimateMovieCount())
+                    .map(estimate -> new MovieTotal(estimate, MoviesTotalStrategy.ESTIMATED))
+                    .switchIfEmpty(Mono.defer(() -> exactTotal(filter)));
+            case CACHED -> {
+                Long cached = movieTotalCountCache.get(filter);
+                if (cached != null) {
+                    yield Mono.just(new MovieTotal(cached, MoviesTotalStrategy.CACHED));
+                }
+                long generation = movieTotalCountCache.currentGeneration();
+                yield reactiveMovieRepository.count(MovieTableQuery.count(filter))
+                        .doOnNext(count -> movieTotalCountCache.put(filter, count, generation))
+                        .map(count -> new MovieTotal(count, MoviesTotalStrategy.CACHED));
+            }
+            case EXACT -> exactTotal(filter);
+        };
+    }
+
+    private Mono<MovieTotal> exactTotal(GetMoviesFilter filter) {
+        return reactiveMovieRepository.count(MovieTableQuery.count(filter))
+                .map(count -> new MovieTotal(count, MoviesTotalStrategy.EXACT));
+    }
+
+    private MovieTableCursor cursorAfter(MovieTableRowDto lastRow, GetMoviesFilter filter) {
+        String sortValue = switch (filter.orderBy()) {
+            case NAME -> lastRow.name();
+            case RATING -> lastRow.rating().toString();
+        };
+        return new MovieTableCursor(filter.orderBy(), filter.direction(), sortValue, lastRow.eidrCode());
+    }
+
+    private void validate(GetMoviesFilter filter) {
+        Set<ConstraintViolation<GetMoviesFilter>> violations = validator.validate(filter);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+            logger.error("Invalid filter: {}", message);
+            throw new IllegalArgumentException("Invalid filter: " + message);
+        }
+    }
+
+    private record MovieTotal(Long totalItems, MoviesTotalStrategy strategy) {
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.moviedescriptionsserver.reactive;
+
+import com.example.moviedescriptionsserver.MovieStatus;
+import com.example.moviedescriptionsserver.dto.MovieTableRowDto;
+import com.example.moviedescriptionsserver.dto.MovieWithCategoryRowDto;
+import com.example.moviedescriptionsserver.dto.response.CategoryResponse;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Non-blocking reads of the movies, categories and their links with R2DBC, the counterpart of the JPA queries
+ * used by MovieService. Nothing is written here, writes stay on JPA.
+ */
+public class ReactiveMovieRepository {
+
+    private static final String MOVIE_WITH_CATEGORIES_SQL =
+            "SELECT m.eidr_code, m.name, m.rating, m.year, m.status, m.version, m.created_at, " +
+            "CAST(c.id AS BIGINT) AS category_id, c.name AS category_name " +
+            "FROM public.movies m " +
+            "LEFT JOIN public.movies_categories mc ON mc.movie_id = m.eidr_code " +
+            "LEFT JOIN public.categories c ON c.id = mc.category_id " +
+            "WHERE m.eidr_code = :eidrCode AND m.deleted_at IS NULL ORDER BY c.id";
+
+    private static final String CATEGORIES_SQL = "SELECT CAST(c.id AS BIGINT) AS id, c.name FROM public.categories c ORDER BY c.id";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveMovieRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Same rows as MovieRepository.findMovieWithCategories: one per category, none if the movie doesn't exist.
+     */
+    public Flux<MovieWithCategoryRowDto> findMovieWithCategories(String eidrCode) {
+        return databaseClient.sql(MOVIE_WITH_CATEGORIES_SQL)
+                .bind("eidrCode", eidrCode)
+                .map((row, metadata) -> new MovieWithCategoryRowDto(
+                        row.get("eidr_code", String.class),
+                        row.get("name", String.class),
+                        row.get("rating", Double.class),
+                        row.get("year", Integer.class),
+                        MovieStatus.valueOf(row.get("status", String.class)),
+                        row.get("version", Long.class),
+                        row.get("created_at", LocalDateTime.class),
+                        row.get("category_id", Long.class),
+                        row.get("category_name", String.class)
+                ))
+                .all();
+    }
+
+    public Flux<CategoryResponse> findCategories() {
+        return databaseClient.sql(CATEGORIES_SQL)
+                .map((row, metadata) -> new CategoryResponse(row.get("id", Long.class), row.get("name", String.class)))
+                .all();
+    }
+
+    /**
+     * The page's movies with their denormalized category names, from the movies table alone.
+     */
+    public Flux<MovieTableRowDto> findMoviesPage(MovieTableQuery query) {
+        return bind(query)
+                .map((row, metadata) -> new MovieTableRowDto(
+                        row.get("eidr_code", String.class),
+                        row.get("name", String.class),
+                        row.get("rating", Double.class),
+                        row.get("year", Integer.class),
+                        MovieStatus.valueOf(row.get("status", String.class)),
+                        row.get("category_names", String.class)
+                ))
+                .all();
+    }
+
+    public Mono<Long> count(MovieTableQuery query) {
+        return bind(query)
+                .map((row, metadata) -> row.get("total", Long.class))
+                .one()
+                .defaultIfEmpty(0L);
+    }
+
+    /**
+     * Same as MovieRepository.estimateMovieCount, empty if the table hasn't been analyzed yet.
+     */
+    public Mono<Long> estimateMovieCount() {
+        return databaseClient.sql(MovieTableQuery.ESTIMATED_COUNT_SQL)
+                .map((row, metadata) -> Optional.ofNullable(row.get("estimate", Long.class)))
+                .one()
+                .flatMap(Mono::justOrEmpty);
+    }
+
+    private DatabaseClient.GenericExecuteSpec bind(MovieTableQuery query) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(query.sql());
+        for (Map.Entry<String, Object> param : query.params().entrySet()) {
+            spec = spec.bind(param.getKey(), param.getValue());
+        }
+        return spec;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.moviedescriptionsserver.reactive;
+
+import com.example.moviedescriptionsserver.cache.MovieTotalCountCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking read stack for read-heavy deployments: get-movie, get-movies-table and get-categories served by
+ * WebFlux on their own Netty port, backed by R2DBC. Writes stay on the servlet/JPA stack.
+ * <p>
+ * Off by default, enabled with movies.reactive.enabled=true. The R2DBC connection pool is separate from Hikari,
+ * size both with the database's connection limit in mind.
+ */
+@Configuration
+@ConditionalOnProperty(name = "movies.reactive.enabled", havingValue = "true")
+public class ReactiveReadConfiguration {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool reactiveConnectionPool(
+            @Value("${movies.reactive.r2dbc.url}") String url,
+            @Value("${movies.reactive.r2dbc.username:${spring.datasource.username}}") String username,
+            @Value("${movies.reactive.r2dbc.password:${spring.datasource.password}}") String password,
+            @Value("${movies.reactive.r2dbc.pool-size:10}") int poolSize,
+            @Value("${movies.reactive.r2dbc.acquire-timeout:PT2S}") Duration acquireTimeout
+    ) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("movies-reactive")
+                .initialSize(Math.min(2, poolSize))
+                .maxSize(poolSize)
+                .maxAcquireTime(acquireTimeout)
+                .build());
+    }
+
+    @Bean
+    public ReactiveMovieRepository reactiveMovieRepository(ConnectionPool reactiveConnectionPool) {
+        return new ReactiveMovieRepository(DatabaseClient.create(reactiveConnectionPool));
+    }
+
+    @Bean
+    public ReactiveMovieHandler reactiveMovieHandler(ReactiveMovieRepository reactiveMovieRepository,
+                                                     MovieTotalCountCache movieTotalCountCache, Validator validator) {
+        return new ReactiveMovieHandler(reactiveMovieRepository, movieTotalCountCache, validator);
+    }
+
+    @Bean
+    public ReactiveReadServer reactiveReadServer(
+            ReactiveMovieHandler handler,
+            ObjectMapper objectMapper,
+            @Value("${movies.reactive.port:8081}") int port,
+            @Value("${movies.reactive.event-loop-threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int eventLoopThreads
+    ) {
+        RouterFunction<ServerResponse> routes = RouterFunctions.route()
+                .path("/api/movie", builder -> builder
+                        .GET("/get-movie", handler::getMovie)
+                        .GET("/get-categories", handler::getCategories)
+                        .POST("/get-movies-table", handler::getMoviesTable))
+                // Same as MoviesExceptionHandler
+                .onError(IllegalArgumentException.class, (e, request) ->
+                        ServerResponse.status(HttpStatus.BAD_REQUEST).bodyValue(e.getMessage()))
+                .onError(ServerWebInputException.class, (e, request) ->
+                        ServerResponse.status(HttpStatus.BAD_REQUEST).bodyValue(e.getReason() == null ? e.getMessage() : e.getReason()))
+                .build();
+
+        // The application's ObjectMapper, so the JSON is the same as the servlet API's
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        return new ReactiveReadServer(RouterFunctions.toHttpHandler(routes, strategies), port, eventLoopThreads);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.moviedescriptionsserver.reactive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Netty server of the reactive read API, next to the servlet container of the rest of the API.
+ * <p>
+ * All requests are served by a fixed number of event loop threads, however many clients are connected.
+ */
+public class ReactiveReadServer implements SmartLifecycle {
+
+    static Logger logger = LoggerFactory.getLogger(ReactiveReadServer.class);
+
+    private final HttpHandler httpHandler;
+    private final int port;
+    private final int eventLoopThreads;
+
+    private LoopResources loopResources;
+    private volatile DisposableServer server;
+
+    public ReactiveReadServer(HttpHandler httpHandler, int port, int eventLoopThreads) {
+        this.httpHandler = httpHandler;
+        this.port = port;
+        this.eventLoopThreads = eventLoopThreads;
+    }
+
+    @Override
+    public void start() {
+        loopResources = LoopResources.create("movies-reactive", 1, eventLoopThreads, true);
+        server = HttpServer.create()
+                .port(port)
+                .runOn(loopResources)
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+        logger.info("Reactive read API listening on port {} with {} event loop threads.", server.port(), eventLoopThreads);
+    }
+
+    @Override
+    public void stop() {
+        if (server != null) {
+            server.disposeNow();
+            server = null;
+        }
+        if (loopResources != null) {
+            loopResources.disposeLater().block();
+            loopResources = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * The port the server is bound to, useful when it was started on port 0.
+     */
+    public int port() {
+        if (server == null) {
+            throw new IllegalStateException("Reactive read server is not running.");
+        }
+        return server.port();
+    }
+}
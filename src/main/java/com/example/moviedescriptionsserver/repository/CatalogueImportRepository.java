@@ -0,0 +1,142 @@
+package com.example.moviedescriptionsserver.repository;
+
+import com.example.moviedescriptionsserver.dto.request.CreateMovieRequest;
+import com.example.moviedescriptionsserver.dto.response.ImportRejection;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * JDBC side of the catalogue import: COPY into the staging table and the set-based merge into movies.
+ * <p>
+ * Everything runs on the connection of the current transaction, so a chunk's COPY, merge and progress update
+ * commit or roll back together.
+ */
+@Repository
+public class CatalogueImportRepository {
+
+    public record StagedMovie(long rowNo, CreateMovieRequest movie) {
+    }
+
+    private static final String COPY_STAGING = "COPY public.movies_import_staging " +
+            "(job_id, row_no, eidr_code, name, rating, year, status, category_ids) FROM STDIN";
+
+    // Soft-deleted movies don't count as existing, they are purged before the merge so their eidrCodes can be imported
+    private static final String PURGE_DELETED_STAGED = """
+            WITH purged AS (SELECT m.eidr_code
+                            FROM public.movies m
+                            WHERE m.deleted_at IS NOT NULL
+                              AND m.eidr_code IN (SELECT s.eidr_code FROM public.movies_import_staging s WHERE s.job_id = ?)
+                            FOR UPDATE),
+                 links AS (DELETE FROM public.movies_categories mc USING purged p WHERE mc.movie_id = p.eidr_code)
+            DELETE FROM public.movies m USING purged p WHERE m.eidr_code = p.eidr_code
+            """;
+
+    // The first row of every eidrCode wins, movies that exist already are left alone.
+    // The category links are inserted in the same statement, foreign keys are only checked at its end.
+    private static final String MERGE_STAGING = """
+            WITH chunk AS (SELECT DISTINCT ON (s.eidr_code) s.*
+                           FROM public.movies_import_staging s
+                           WHERE s.job_id = ?
+                           ORDER BY s.eidr_code, s.row_no),
+                 inserted AS (INSERT INTO public.movies (eidr_code, name, rating, year, status)
+                              SELECT c.eidr_code, c.name, c.rating, c.year, c.status FROM chunk c
+                              ON CONFLICT (eidr_code) DO NOTHING
+                              RETURNING eidr_code),
+                 links AS (INSERT INTO public.movies_categories (movie_id, category_id)
+                           SELECT DISTINCT c.eidr_code, unnest(c.category_ids)
+                           FROM chunk c
+                                    JOIN inserted i ON i.eidr_code = c.eidr_code)
+            SELECT eidr_code FROM inserted
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CatalogueImportRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void copyToStaging(long jobId, List<StagedMovie> stagedMovies) {
+        StringBuilder data = new StringBuilder(stagedMovies.size() * 128);
+        for (StagedMovie stagedMovie : stagedMovies) {
+            CreateMovieRequest movie = stagedMovie.movie();
+            data.append(jobId).append('\t')
+                    .append(stagedMovie.rowNo()).append('\t')
+                    .append(escapeCopyText(movie.eidrCode())).append('\t')
+                    .append(escapeCopyText(movie.name())).append('\t')
+                    .append(movie.rating()).append('\t')
+                    .append(movie.year()).append('\t')
+                    .append(movie.status().name()).append('\t')
+                    .append(movie.categories().stream().map(String::valueOf).collect(Collectors.joining(",", "{", "}")))
+                    .append('\n');
+        }
+
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING, new StringReader(data.toString()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Moves the job's staged movies into movies and movies_categories and empties the staging table for the job.
+     *
+     * @return eidrCodes of the movies that were inserted
+     */
+    public List<String> mergeStaging(long jobId) {
+        jdbcTemplate.update(PURGE_DELETED_STAGED, jobId);
+        List<String> inserted = jdbcTemplate.queryForList(MERGE_STAGING, String.class, jobId);
+        jdbcTemplate.update("DELETE FROM public.movies_import_staging WHERE job_id = ?", jobId);
+        return inserted;
+    }
+
+    public void insertRejections(long jobId, List<ImportRejection> rejections) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO public.import_job_rejections (job_id, row_no, eidr_code, message) VALUES (?, ?, ?, ?)",
+                rejections,
+                rejections.size(),
+                (preparedStatement, rejection) -> {
+                    preparedStatement.setLong(1, jobId);
+                    preparedStatement.setLong(2, rejection.rowNo());
+                    preparedStatement.setString(3, rejection.eidrCode());
+                    preparedStatement.setString(4, rejection.message());
+                }
+        );
+    }
+
+    public List<ImportRejection> findRejections(long jobId, int limit) {
+        return jdbcTemplate.query(
+                "SELECT row_no, eidr_code, message FROM public.import_job_rejections WHERE job_id = ? ORDER BY row_no LIMIT ?",
+                (resultSet, rowNum) -> new ImportRejection(
+                        resultSet.getLong("row_no"), resultSet.getString("eidr_code"), resultSet.getString("message")),
+                jobId, limit
+        );
+    }
+
+    /**
+     * Escapes a value for COPY's text format.
+     */
+    static String escapeCopyText(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> escaped.append("\\\\");
+                case '\t' -> escaped.append("\\t");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> escaped.append("\\r");
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.moviedescriptionsserver.repository;
+
+import com.example.moviedescriptionsserver.entity.ImportJobEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJobEntity, Long> {
+
+    /**
+     * The job with its row locked until the end of the transaction, so starts, resumes and chunk commits of a job
+     * are serialized.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT j FROM ImportJobEntity j WHERE j.id = :id")
+    Optional<ImportJobEntity> findByIdForUpdate(Long id);
+}
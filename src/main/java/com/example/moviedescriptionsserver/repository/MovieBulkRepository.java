@@ -0,0 +1,210 @@
+package com.example.moviedescriptionsserver.repository;
+
+import com.example.moviedescriptionsserver.dto.MovieRevision;
+import com.example.moviedescriptionsserver.dto.request.CreateMovieRequest;
+import com.example.moviedescriptionsserver.dto.request.PatchMovieRequest;
+import com.example.moviedescriptionsserver.entity.MovieCategoryEntityId;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain JDBC writes for bulk operations, which would otherwise go through the persistence context row by row,
+ * and for single-statement writes that don't need to read the movie first.
+ */
+@Repository
+public class MovieBulkRepository {
+
+    // PostgreSQL allows at most 65535 bind parameters per statement
+    static final int MAX_MOVIES_PER_STATEMENT = 65535 / 5;
+    static final int CATEGORY_BATCH_SIZE = 1000;
+
+    // Deleting the links and the movies in one statement, the foreign key is only checked at its end.
+    // Locked rows are skipped, so a batch never waits for (or blocks) a request that is re-creating one of them.
+    private static final String PURGE_DELETED_BEFORE = """
+            WITH purged AS (SELECT eidr_code
+                            FROM public.movies
+                            WHERE deleted_at < ?
+                            ORDER BY deleted_at
+                            LIMIT ? FOR UPDATE SKIP LOCKED),
+                 links AS (DELETE FROM public.movies_categories mc USING purged p WHERE mc.movie_id = p.eidr_code)
+            DELETE FROM public.movies m USING purged p WHERE m.eidr_code = p.eidr_code
+            """;
+
+    private static final String PURGE_DELETED_BY_EIDR_CODES = """
+            WITH purged AS (SELECT eidr_code
+                            FROM public.movies
+                            WHERE eidr_code = ANY (?) AND deleted_at IS NOT NULL
+                            FOR UPDATE),
+                 links AS (DELETE FROM public.movies_categories mc USING purged p WHERE mc.movie_id = p.eidr_code)
+            DELETE FROM public.movies m USING purged p WHERE m.eidr_code = p.eidr_code
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MovieBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the movies with multi-row INSERT ... ON CONFLICT DO NOTHING statements.
+     * Soft-deleted movies with the same eidrCodes are purged first, so they don't count as existing.
+     *
+     * @return eidrCodes of the movies that were inserted with their creation time, the others exist already
+     */
+    public Map<String, LocalDateTime> insertMoviesIfAbsent(List<CreateMovieRequest> movies) {
+        Map<String, LocalDateTime> inserted = new HashMap<>();
+        for (int from = 0; from < movies.size(); from += MAX_MOVIES_PER_STATEMENT) {
+            List<CreateMovieRequest> chunk = movies.subList(from, Math.min(from + MAX_MOVIES_PER_STATEMENT, movies.size()));
+            purgeDeletedMovies(chunk.stream().map(CreateMovieRequest::eidrCode).toList());
+
+            StringBuilder sql = new StringBuilder("INSERT INTO public.movies (eidr_code, name, rating, year, status) VALUES ");
+            sql.append(String.join(", ", Collections.nCopies(chunk.size(), "(?, ?, ?, ?, ?)")));
+            sql.append(" ON CONFLICT (eidr_code) DO NOTHING RETURNING eidr_code, created_at");
+
+            List<Object> parameters = new ArrayList<>(chunk.size() * 5);
+            for (CreateMovieRequest movie : chunk) {
+                parameters.add(movie.eidrCode());
+                parameters.add(movie.name());
+                parameters.add(movie.rating());
+                parameters.add(movie.year());
+                parameters.add(movie.status().name());
+            }
+
+            jdbcTemplate.query(sql.toString(),
+                    (RowCallbackHandler) resultSet -> inserted.put(resultSet.getString(1), resultSet.getObject(2, LocalDateTime.class)),
+                    parameters.toArray());
+        }
+        return inserted;
+    }
+
+    /**
+     * Hard-deletes at most {@code limit} of the movies soft-deleted before {@code deletedBefore},
+     * oldest first, together with their category links.
+     *
+     * @return number of movies that were purged
+     */
+    public int purgeDeletedMovies(LocalDateTime deletedBefore, int limit) {
+        return jdbcTemplate.update(PURGE_DELETED_BEFORE, Timestamp.valueOf(deletedBefore), limit);
+    }
+
+    /**
+     * Hard-deletes those of the given movies that are soft-deleted, so their eidrCodes can be used again.
+     * Movies that aren't soft-deleted are left alone.
+     *
+     * @return number of movies that were purged
+     */
+    public int purgeDeletedMovies(Collection<String> eidrCodes) {
+        return jdbcTemplate.update(connection -> {
+            var preparedStatement = connection.prepareStatement(PURGE_DELETED_BY_EIDR_CODES);
+            preparedStatement.setArray(1, connection.createArrayOf("varchar", eidrCodes.toArray()));
+            return preparedStatement;
+        });
+    }
+
+    /**
+     * Makes the given categories the movie's categories without reading the current ones: one DELETE for the links
+     * to other categories and one INSERT of the missing links (existing ones are skipped by ON CONFLICT).
+     */
+    public void replaceMovieCategories(String eidrCode, Collection<Long> categoryIds) {
+        jdbcTemplate.update(connection -> {
+            var preparedStatement = connection.prepareStatement(
+                    "DELETE FROM public.movies_categories WHERE movie_id = ? AND category_id <> ALL (?)");
+            preparedStatement.setString(1, eidrCode);
+            preparedStatement.setArray(2, connection.createArrayOf("bigint", categoryIds.toArray()));
+            return preparedStatement;
+        });
+        addMovieCategories(eidrCode, categoryIds);
+    }
+
+    /**
+     * Links the movie to the given categories with one INSERT, links it has already are skipped by ON CONFLICT.
+     */
+    public void addMovieCategories(String eidrCode, Collection<Long> categoryIds) {
+        jdbcTemplate.update(connection -> {
+            var preparedStatement = connection.prepareStatement(
+                    "INSERT INTO public.movies_categories (movie_id, category_id) SELECT ?, unnest(?) ON CONFLICT DO NOTHING");
+            preparedStatement.setString(1, eidrCode);
+            preparedStatement.setArray(2, connection.createArrayOf("bigint", categoryIds.toArray()));
+            return preparedStatement;
+        });
+    }
+
+    /**
+     * Unlinks the movie from the given categories with one DELETE.
+     */
+    public void removeMovieCategories(String eidrCode, Collection<Long> categoryIds) {
+        jdbcTemplate.update(connection -> {
+            var preparedStatement = connection.prepareStatement(
+                    "DELETE FROM public.movies_categories WHERE movie_id = ? AND category_id = ANY (?)");
+            preparedStatement.setString(1, eidrCode);
+            preparedStatement.setArray(2, connection.createArrayOf("bigint", categoryIds.toArray()));
+            return preparedStatement;
+        });
+    }
+
+    /**
+     * Sets only the non-null fields of the patch and bumps the movie's version with one UPDATE statement.
+     * With an expected revision the movie is only updated if it is still at that revision.
+     *
+     * @return the new revision of the movie, or null if it doesn't exist (or isn't at the expected revision)
+     */
+    public MovieRevision patchMovie(PatchMovieRequest patch, MovieRevision expectedRevision) {
+        StringBuilder sql = new StringBuilder("UPDATE public.movies SET ");
+        List<Object> parameters = new ArrayList<>();
+        if (patch.name() != null) {
+            sql.append("name = ?, ");
+            parameters.add(patch.name());
+        }
+        if (patch.rating() != null) {
+            sql.append("rating = ?, ");
+            parameters.add(patch.rating());
+        }
+        if (patch.year() != null) {
+            sql.append("year = ?, ");
+            parameters.add(patch.year());
+        }
+        if (patch.status() != null) {
+            sql.append("status = ?, ");
+            parameters.add(patch.status().name());
+        }
+        sql.append("updated_at = current_timestamp, version = version + 1 WHERE eidr_code = ? AND deleted_at IS NULL");
+        parameters.add(patch.eidrCode());
+        if (expectedRevision != null) {
+            sql.append(" AND version = ? AND created_at = ?");
+            parameters.add(expectedRevision.version());
+            parameters.add(expectedRevision.createdAt());
+        }
+        sql.append(" RETURNING version, created_at");
+
+        List<MovieRevision> revisions = jdbcTemplate.query(sql.toString(),
+                (resultSet, rowNum) -> new MovieRevision(resultSet.getLong(1), resultSet.getObject(2, LocalDateTime.class)),
+                parameters.toArray());
+        return revisions.isEmpty() ? null : revisions.get(0);
+    }
+
+    /**
+     * Inserts the movie-category links as JDBC batches (rewritten into multi-row inserts by the driver,
+     * see reWriteBatchedInserts).
+     */
+    public void insertMovieCategories(List<MovieCategoryEntityId> movieCategories) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO public.movies_categories (movie_id, category_id) VALUES (?, ?)",
+                movieCategories,
+                CATEGORY_BATCH_SIZE,
+                (preparedStatement, movieCategory) -> {
+                    preparedStatement.setString(1, movieCategory.getMovieEidr());
+                    preparedStatement.setLong(2, movieCategory.getCategoryId());
+                }
+        );
+    }
+}
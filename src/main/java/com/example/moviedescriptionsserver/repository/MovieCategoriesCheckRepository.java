@@ -0,0 +1,73 @@
+package com.example.moviedescriptionsserver.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Compares the denormalized category_ids / category_names of the movies table with movies_categories
+ * (see the triggers in the schema), and recomputes them where they differ.
+ */
+@Repository
+public class MovieCategoriesCheckRepository {
+
+    // Recomputed exactly like public.refresh_movie_categories does it
+    private static final String CHECK_BATCH = """
+            WITH batch AS (SELECT eidr_code, category_ids, category_names
+                           FROM public.movies
+                           WHERE deleted_at IS NULL AND eidr_code > ?
+                           ORDER BY eidr_code
+                           LIMIT ?)
+            SELECT b.eidr_code, (b.category_ids <> l.category_ids OR b.category_names <> l.category_names) AS stale
+            FROM batch b
+                     CROSS JOIN LATERAL (SELECT coalesce(array_agg(c.id ORDER BY c.id), '{}')        AS category_ids,
+                                                coalesce(string_agg(c.name, ', ' ORDER BY c.id), '') AS category_names
+                                         FROM public.movies_categories mc
+                                                  JOIN public.categories c ON c.id = mc.category_id
+                                         WHERE mc.movie_id = b.eidr_code) l
+            ORDER BY b.eidr_code
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MovieCategoriesCheckRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Checks the next {@code limit} movies (not soft-deleted) after {@code afterEidrCode} in eidrCode order.
+     */
+    public CheckedBatch checkBatch(String afterEidrCode, int limit) {
+        List<String> stale = new ArrayList<>();
+        List<String> checked = jdbcTemplate.query(CHECK_BATCH, (resultSet, rowNum) -> {
+            String eidrCode = resultSet.getString("eidr_code");
+            if (resultSet.getBoolean("stale")) {
+                stale.add(eidrCode);
+            }
+            return eidrCode;
+        }, afterEidrCode, limit);
+        return new CheckedBatch(checked.size(), checked.isEmpty() ? null : checked.get(checked.size() - 1), stale);
+    }
+
+    /**
+     * Recomputes the denormalized categories of the given movies.
+     */
+    public void refreshMovieCategories(Collection<String> eidrCodes) {
+        jdbcTemplate.query(connection -> {
+            var preparedStatement = connection.prepareStatement("SELECT public.refresh_movie_categories(?)");
+            preparedStatement.setArray(1, connection.createArrayOf("varchar", eidrCodes.toArray()));
+            return preparedStatement;
+        }, resultSet -> null);
+    }
+
+    /**
+     * @param checked         number of movies checked
+     * @param lastEidrCode    the last of them, where the next batch starts (null if there were none)
+     * @param staleEidrCodes  those whose denormalized categories differ from movies_categories
+     */
+    public record CheckedBatch(int checked, String lastEidrCode, List<String> staleEidrCodes) {
+    }
+}
@@ -3,9 +3,11 @@ package com.example.moviedescriptionsserver.repository;
 import com.example.moviedescriptionsserver.entity.MovieCategoryEntity;
 import com.example.moviedescriptionsserver.entity.MovieCategoryEntityId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,4 +16,21 @@ public interface MovieCategoryBridgeRepository extends JpaRepository<MovieCatego
     @Query("SELECT mce FROM MovieCategoryEntity mce WHERE mce.id.movieEidr in :eidrCodes")
     List<MovieCategoryEntity> findAllByMovieEidrCodes(List<String> eidrCodes);
 
+    @Query("SELECT mce.id.categoryId FROM MovieCategoryEntity mce WHERE mce.id.movieEidr = :eidrCode")
+    List<Long> findCategoryIdsByMovieEidrCode(String eidrCode);
+
+    /**
+     * Removes the movie's links to the given categories with one DELETE statement, without loading them.
+     */
+    @Modifying
+    @Query("DELETE FROM MovieCategoryEntity mce WHERE mce.id.movieEidr = :eidrCode AND mce.id.categoryId IN :categoryIds")
+    int deleteByMovieEidrCodeAndCategoryIds(String eidrCode, Collection<Long> categoryIds);
+
+    /**
+     * Removes all category links of the given movies with one DELETE statement, without loading them.
+     */
+    @Modifying
+    @Query("DELETE FROM MovieCategoryEntity mce WHERE mce.id.movieEidr IN :eidrCodes")
+    int deleteByMovieEidrCodes(Collection<String> eidrCodes);
+
 }
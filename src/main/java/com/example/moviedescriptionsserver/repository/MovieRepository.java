@@ -1,13 +1,85 @@
 package com.example.moviedescriptionsserver.repository;
 
+import com.example.moviedescriptionsserver.MovieStatus;
+import com.example.moviedescriptionsserver.dto.MovieWithCategoryRowDto;
 import com.example.moviedescriptionsserver.entity.MovieEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface MovieRepository extends JpaRepository<MovieEntity, String> {
 
     MovieEntity findByEidrCode(String eidrCode);
+
+    /**
+     * The movie unless it has been soft-deleted.
+     */
+    MovieEntity findByEidrCodeAndDeletedAtIsNull(String eidrCode);
+
+    boolean existsByEidrCodeAndDeletedAtIsNull(String eidrCode);
+
+    /**
+     * Overwrites the movie's fields and bumps its version with one UPDATE statement, but only if the movie is still
+     * at the given version and was created at the given time (so it isn't a movie re-created under the same eidrCode).
+     *
+     * @return 1 if the movie was updated, 0 if it doesn't exist or has another revision
+     */
+    @Modifying
+    @Query("UPDATE MovieEntity m SET m.name = :name, m.rating = :rating, m.year = :year, m.status = :status, " +
+            "m.updatedAt = CURRENT_TIMESTAMP, m.version = m.version + 1 " +
+            "WHERE m.eidrCode = :eidrCode AND m.version = :version AND m.createdAt = :createdAt AND m.deletedAt IS NULL")
+    int updateIfRevisionMatches(String eidrCode, String name, Double rating, Integer year, MovieStatus status,
+                                long version, LocalDateTime createdAt);
+
+    /**
+     * The movie and its categories in one statement, one row per category (a single row with null category
+     * columns if it has none, no rows if the movie doesn't exist). Projected straight into DTOs,
+     * so nothing ends up in the persistence context.
+     */
+    @Query("SELECT new com.example.moviedescriptionsserver.dto.MovieWithCategoryRowDto(" +
+            "m.eidrCode, m.name, m.rating, m.year, m.status, m.version, m.createdAt, c.id, c.name) " +
+            "FROM MovieEntity m " +
+            "LEFT JOIN MovieCategoryEntity mc ON mc.id.movieEidr = m.eidrCode " +
+            "LEFT JOIN CategoryEntity c ON c.id = mc.id.categoryId " +
+            "WHERE m.eidrCode = :eidrCode AND m.deletedAt IS NULL ORDER BY c.id")
+    List<MovieWithCategoryRowDto> findMovieWithCategories(String eidrCode);
+
+    /**
+     * Row count of the movies table as estimated by the planner (kept up to date by (auto)vacuum and analyze).
+     * Returns null if the table hasn't been analyzed yet, as the estimate would be meaningless.
+     * Soft-deleted movies are included until they are purged.
+     */
+    @Query(value = "SELECT CASE WHEN c.relpages = 0 OR c.reltuples < 0 THEN NULL ELSE CAST(c.reltuples AS BIGINT) END " +
+            "FROM pg_class c WHERE c.oid = CAST('public.movies' AS regclass)", nativeQuery = true)
+    Long estimateMovieCount();
+
+    /**
+     * Number of the given movies that exist and haven't been soft-deleted.
+     */
+    @Query("SELECT count(m) FROM MovieEntity m WHERE m.eidrCode IN :eidrCodes AND m.deletedAt IS NULL")
+    long countByEidrCodes(Collection<String> eidrCodes);
+
+    /**
+     * Stamps deleted_at on the given movies with one UPDATE statement. Their category links are left alone,
+     * they are removed together with the movie by DeletedMoviePurger.
+     *
+     * @return number of movies that were soft-deleted, movies that don't exist or were deleted already aren't counted
+     */
+    @Modifying
+    @Query("UPDATE MovieEntity m SET m.deletedAt = CURRENT_TIMESTAMP, m.version = m.version + 1 WHERE m.eidrCode IN :eidrCodes AND m.deletedAt IS NULL")
+    int softDeleteByEidrCodes(Collection<String> eidrCodes);
+
+    /**
+     * Deletes the movies with one DELETE statement, without loading them.
+     * Their category links have to be deleted first.
+     */
+    @Modifying
+    @Query("DELETE FROM MovieEntity m WHERE m.eidrCode IN :eidrCodes")
+    int deleteByEidrCodes(Collection<String> eidrCodes);
 }
@@ -0,0 +1,77 @@
+package com.example.moviedescriptionsserver.search;
+
+import com.example.moviedescriptionsserver.MoviesCategoryMatch;
+import com.example.moviedescriptionsserver.MoviesSearchMode;
+import com.example.moviedescriptionsserver.entity.QMovieEntity;
+import com.querydsl.core.types.Order;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * QueryDSL expressions for the name, eidrCode and category search of the movies table.
+ * <p>
+ * Every expression is written so it matches one of the search indexes of the movies table:
+ * SUBSTRING - lower(x) LIKE '%value%' on the gin_trgm_ops indexes of lower(name) / lower(eidr_code)
+ * PREFIX - lower(x) LIKE 'value%' on the text_pattern_ops indexes of lower(name) / lower(eidr_code)
+ * FULL_TEXT - search_vector @@ websearch_to_tsquery(...) on the GIN index of search_vector
+ * categories - category_ids && / @> '{...}' on the GIN index of category_ids
+ * <p>
+ * Changing the shape of these expressions (e.g. ILIKE instead of lower(x) LIKE) makes the planner
+ * fall back to a sequential scan, see MovieSearchPlanTest.
+ */
+public final class MovieSearchExpressions {
+
+    private MovieSearchExpressions() {
+    }
+
+    public static BooleanExpression nameMatches(MoviesSearchMode searchMode, String name) {
+        var m = QMovieEntity.movieEntity;
+        return switch (searchMode) {
+            case SUBSTRING -> m.name.containsIgnoreCase(name);
+            case PREFIX -> m.name.lower().startsWith(name.toLowerCase(Locale.ROOT));
+            case FULL_TEXT -> Expressions.booleanTemplate(
+                    PostgresSearchFunctionContributor.FTS_MATCH + "({0}, {1}) = true", m.searchVector, name);
+        };
+    }
+
+    /**
+     * EIDR codes aren't words, so FULL_TEXT matches them as SUBSTRING.
+     */
+    public static BooleanExpression eidrCodeMatches(MoviesSearchMode searchMode, String eidrCode) {
+        var m = QMovieEntity.movieEntity;
+        return switch (searchMode) {
+            case SUBSTRING, FULL_TEXT -> m.eidrCode.containsIgnoreCase(eidrCode);
+            case PREFIX -> m.eidrCode.lower().startsWith(eidrCode.toLowerCase(Locale.ROOT));
+        };
+    }
+
+    /**
+     * Movies with any (ANY_OF) or all (ALL_OF) of the categories, from the denormalized category_ids column,
+     * so no join or GROUP BY over movies_categories is needed.
+     */
+    public static BooleanExpression categoriesMatch(MoviesCategoryMatch categoryMatch, Collection<Long> categoryIds) {
+        var m = QMovieEntity.movieEntity;
+        String categoryIdsLiteral = categoryIds.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(",", "{", "}"));
+        String function = switch (categoryMatch) {
+            case ANY_OF -> PostgresSearchFunctionContributor.CATEGORIES_OVERLAP;
+            case ALL_OF -> PostgresSearchFunctionContributor.CATEGORIES_CONTAIN;
+        };
+        return Expressions.booleanTemplate(function + "({0}, {1}) = true", m.categoryIds, categoryIdsLiteral);
+    }
+
+    /**
+     * Orders the best FULL_TEXT matches of the name first.
+     */
+    public static OrderSpecifier<Double> nameRank(String name) {
+        var m = QMovieEntity.movieEntity;
+        return new OrderSpecifier<>(Order.DESC, Expressions.numberTemplate(Double.class,
+                PostgresSearchFunctionContributor.FTS_RANK + "({0}, {1})", m.searchVector, name));
+    }
+}
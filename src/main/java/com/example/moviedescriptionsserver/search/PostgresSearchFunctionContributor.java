@@ -0,0 +1,52 @@
+package com.example.moviedescriptionsserver.search;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers PostgreSQL full-text search and array functions for HQL (and so for QueryDSL templates),
+ * as HQL has no syntax for the tsvector @@ tsquery or the array && and @> operators.
+ * <p>
+ * The full-text functions take a tsvector column and the raw search text, which is parsed with websearch_to_tsquery
+ * (quotes, "or" and "-" work like in a web search engine). The 'simple' configuration is used,
+ * as movie names are in many languages and shouldn't be stemmed as English.
+ * <p>
+ * The category functions take the category_ids column and an array literal like {1,2}, matching movies with
+ * any (overlap) or all (contains) of those categories. Both can use the GIN index of category_ids.
+ * <p>
+ * Registered through META-INF/services/org.hibernate.boot.model.FunctionContributor.
+ */
+public class PostgresSearchFunctionContributor implements FunctionContributor {
+
+    public static final String FTS_MATCH = "fts_match";
+    public static final String FTS_RANK = "fts_rank";
+    public static final String CATEGORIES_OVERLAP = "categories_overlap";
+    public static final String CATEGORIES_CONTAIN = "categories_contain";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicTypeRegistry basicTypeRegistry = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+        functionContributions.getFunctionRegistry().registerPattern(
+                FTS_MATCH,
+                "(?1 @@ websearch_to_tsquery('simple', ?2))",
+                basicTypeRegistry.resolve(StandardBasicTypes.BOOLEAN)
+        );
+        functionContributions.getFunctionRegistry().registerPattern(
+                FTS_RANK,
+                "ts_rank(?1, websearch_to_tsquery('simple', ?2))",
+                basicTypeRegistry.resolve(StandardBasicTypes.DOUBLE)
+        );
+        functionContributions.getFunctionRegistry().registerPattern(
+                CATEGORIES_OVERLAP,
+                "(?1 && cast(?2 as integer[]))",
+                basicTypeRegistry.resolve(StandardBasicTypes.BOOLEAN)
+        );
+        functionContributions.getFunctionRegistry().registerPattern(
+                CATEGORIES_CONTAIN,
+                "(?1 @> cast(?2 as integer[]))",
+                basicTypeRegistry.resolve(StandardBasicTypes.BOOLEAN)
+        );
+    }
+}
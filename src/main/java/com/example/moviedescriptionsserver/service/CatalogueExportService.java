@@ -0,0 +1,146 @@
+package com.example.moviedescriptionsserver.service;
+
+import com.example.moviedescriptionsserver.CatalogueFormat;
+import com.example.moviedescriptionsserver.dto.MovieTableRowDto;
+import com.example.moviedescriptionsserver.dto.request.GetMoviesFilter;
+import com.example.moviedescriptionsserver.entity.QMovieEntity;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvGenerator;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.HibernateHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes every movie matching a filter with its categories, as NDJSON or CSV.
+ * <p>
+ * The movies are read through a forward-only server-side cursor ({@code movies.export.fetch-size} rows per
+ * round-trip) in a read-only transaction and written as they arrive. Rows are projections, nothing is kept in the
+ * persistence context, so heap use doesn't grow with the size of the catalogue.
+ */
+@Service
+public class CatalogueExportService {
+
+    static Logger logger = LoggerFactory.getLogger(CatalogueExportService.class);
+
+    // Only quote values that need it (by default long values are always quoted)
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .enable(CsvGenerator.Feature.STRICT_CHECK_FOR_QUOTING)
+            .build();
+    private static final CsvSchema CSV_SCHEMA = CsvSchema.builder()
+            .addColumn("eidrCode")
+            .addColumn("name")
+            .addColumn("rating")
+            .addColumn("year")
+            .addColumn("status")
+            .addColumn("categories")
+            .build()
+            .withHeader();
+
+    private final JPAQueryFactory queryFactory;
+    private final MovieService movieService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int fetchSize;
+
+    public CatalogueExportService(
+            EntityManager entityManager,
+            MovieService movieService,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${movies.export.fetch-size:1000}") int fetchSize
+    ) {
+        this.queryFactory = new JPAQueryFactory(entityManager);
+        this.movieService = movieService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // PostgreSQL only uses a cursor (instead of reading the whole result) inside a transaction
+        this.transactionTemplate.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes the movies ordered by eidrCode. Paging and ordering of the filter are ignored.
+     * The output stream is flushed but not closed.
+     */
+    public void export(GetMoviesFilter filter, CatalogueFormat format, OutputStream out) {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<MovieTableRowDto> movies = streamMovies(filter)) {
+                long written = switch (format) {
+                    case NDJSON -> writeNdjson(movies, out);
+                    case CSV -> writeCsv(movies, out);
+                };
+                out.flush();
+                logger.info("Exported {} movies as {}", written, format);
+            } catch (IOException e) {
+                // Most likely the client went away
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private Stream<MovieTableRowDto> streamMovies(GetMoviesFilter filter) {
+        var m = QMovieEntity.movieEntity;
+
+        // The category names are denormalized into the movies table, so the rows stream straight off one table
+        return queryFactory
+                .select(m.eidrCode, m.name, m.rating, m.year, m.status, m.categoryNames)
+                .from(m)
+                .where(movieService.moviesCondition(filter))
+                .orderBy(m.eidrCode.asc())
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .stream()
+                .map(row -> new MovieTableRowDto(
+                        row.get(m.eidrCode),
+                        row.get(m.name),
+                        row.get(m.rating),
+                        row.get(m.year),
+                        row.get(m.status),
+                        row.get(m.categoryNames)
+                ));
+    }
+
+    private long writeNdjson(Stream<MovieTableRowDto> movies, OutputStream out) throws IOException {
+        long written = write(objectMapper.writerFor(MovieTableRowDto.class).withRootValueSeparator("\n"), movies, out);
+        if (written > 0) {
+            out.write('\n');
+        }
+        return written;
+    }
+
+    private long writeCsv(Stream<MovieTableRowDto> movies, OutputStream out) throws IOException {
+        return write(CSV_MAPPER.writerFor(MovieTableRowDto.class).with(CSV_SCHEMA), movies, out);
+    }
+
+    private long write(ObjectWriter objectWriter, Stream<MovieTableRowDto> movies, OutputStream out) throws IOException {
+        long written = 0;
+        // Flushing every row would send a chunk per movie, the servlet output buffers instead
+        try (SequenceWriter writer = objectWriter
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .writeValues(out)) {
+            for (Iterator<MovieTableRowDto> iterator = movies.iterator(); iterator.hasNext(); written++) {
+                writer.write(iterator.next());
+            }
+        }
+        return written;
+    }
+}
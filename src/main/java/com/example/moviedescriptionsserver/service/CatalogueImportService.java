@@ -0,0 +1,291 @@
+package com.example.moviedescriptionsserver.service;
+
+import com.example.moviedescriptionsserver.CatalogueFormat;
+import com.example.moviedescriptionsserver.ImportJobStatus;
+import com.example.moviedescriptionsserver.cache.CategoryCatalogueCache;
+import com.example.moviedescriptionsserver.dto.request.CreateMovieRequest;
+import com.example.moviedescriptionsserver.dto.response.ImportJobResponse;
+import com.example.moviedescriptionsserver.dto.response.ImportRejection;
+import com.example.moviedescriptionsserver.entity.ImportJobEntity;
+import com.example.moviedescriptionsserver.repository.CatalogueImportRepository;
+import com.example.moviedescriptionsserver.repository.CatalogueImportRepository.StagedMovie;
+import com.example.moviedescriptionsserver.repository.ImportJobRepository;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.JsonEOFException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Imports catalogue dumps (millions of movies) into movies and movies_categories.
+ * <p>
+ * An import is started first, which commits the job as RUNNING so its id can be handed out before the upload is read,
+ * and then run on the upload. The upload is parsed as a stream and processed in chunks of {@code movies.import.chunk-size} rows, so memory use
+ * doesn't depend on the size of the file. Per chunk, the valid movies (same rules as a single create) are COPYed into
+ * a staging table and merged into movies in one statement, and the job's progress is stored, all in one transaction.
+ * <p>
+ * Rows that can't be parsed (e.g. a rating that isn't a number) are rejected like invalid movies.
+ * When a job fails (e.g. a truncated upload or a lost connection), everything up to the last committed chunk stays
+ * imported. Uploading the same file again with the job's id skips the committed rows and continues from there.
+ * The same goes for a job that is still RUNNING but made no progress for {@code movies.import.stale-after}, e.g. because
+ * its server died; should its importer still be alive, it fails at its next chunk, as only the latest attempt may commit.
+ */
+@Service
+public class CatalogueImportService {
+
+    static Logger logger = LoggerFactory.getLogger(CatalogueImportService.class);
+
+    static final int REPORTED_REJECTIONS = 100;
+
+    private static final CsvMapper CSV_MAPPER = new CsvMapper();
+    private static final CsvSchema CSV_SCHEMA = CsvSchema.emptySchema()
+            .withHeader()
+            .withArrayElementSeparator(";");
+
+    private final CatalogueImportRepository catalogueImportRepository;
+    private final ImportJobRepository importJobRepository;
+    private final CategoryCatalogueCache categoryCatalogueCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final Duration staleAfter;
+
+    public CatalogueImportService(
+            CatalogueImportRepository catalogueImportRepository,
+            ImportJobRepository importJobRepository,
+            CategoryCatalogueCache categoryCatalogueCache,
+            ApplicationEventPublisher eventPublisher,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${movies.import.chunk-size:5000}") int chunkSize,
+            @Value("${movies.import.stale-after:PT10M}") Duration staleAfter
+    ) {
+        this.catalogueImportRepository = catalogueImportRepository;
+        this.importJobRepository = importJobRepository;
+        this.categoryCatalogueCache = categoryCatalogueCache;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.staleAfter = staleAfter;
+    }
+
+    /**
+     * An attempt of an import job, as started by startImport.
+     */
+    public record ImportAttempt(long jobId, int attempt, CatalogueFormat format, long committedRows) {
+    }
+
+    /**
+     * Starts a new job, or resumes one, and commits it as RUNNING. Nothing of the upload is read yet.
+     *
+     * @param resumeJobId id of a FAILED (or stale RUNNING) job to continue, or null to start a new one
+     */
+    public ImportAttempt startImport(CatalogueFormat format, Long resumeJobId) {
+        ImportJobEntity job = transactionTemplate.execute(status -> startJob(format, resumeJobId));
+        logger.info("Import job {} started, skipping the first {} rows", job.getId(), job.getCommittedRows());
+        return new ImportAttempt(job.getId(), job.getAttempt(), format, job.getCommittedRows());
+    }
+
+    /**
+     * Imports the upload of a started job on the calling thread and returns the finished (COMPLETED or FAILED) job.
+     */
+    public ImportJobResponse runImport(ImportAttempt importAttempt, InputStream body) {
+        long jobId = importAttempt.jobId();
+        int attempt = importAttempt.attempt();
+        long committedRows = importAttempt.committedRows();
+        ImportJobEntity job;
+
+        // Categories can't change through the API, one fresh snapshot is enough for the whole job
+        Set<Long> knownCategoryIds = categoryCatalogueCache.refresh().byId().keySet();
+
+        try (MappingIterator<CreateMovieRequest> rows = openRows(importAttempt.format(), body)) {
+            long rowNo = 0;
+            List<StagedMovie> validMovies = new ArrayList<>();
+            List<ImportRejection> rejections = new ArrayList<>();
+            JsonLocation lastMalformedRow = null;
+            while (rows.hasNextValue()) {
+                rowNo++;
+                CreateMovieRequest movie = null;
+                String violation;
+                try {
+                    movie = rows.nextValue();
+                    violation = null;
+                } catch (JsonProcessingException e) {
+                    if (isTruncated(e) || (e.getLocation() != null && e.getLocation().equals(lastMalformedRow))) {
+                        // A truncated upload, or the parser couldn't skip the row and every further one would fail
+                        throw e;
+                    }
+                    lastMalformedRow = e.getLocation();
+                    violation = "Malformed row: " + e.getOriginalMessage();
+                }
+                if (rowNo <= importAttempt.committedRows()) {
+                    continue;
+                }
+
+                if (violation == null) {
+                    violation = CreateMovieRequestValidator.violation(movie, knownCategoryIds);
+                }
+                if (violation == null) {
+                    validMovies.add(new StagedMovie(rowNo, movie));
+                } else {
+                    rejections.add(new ImportRejection(rowNo, movie == null ? null : movie.eidrCode(), violation));
+                }
+
+                if (validMovies.size() + rejections.size() >= chunkSize) {
+                    committedRows = commitChunk(jobId, attempt, committedRows, validMovies, rejections, rowNo);
+                    validMovies.clear();
+                    rejections.clear();
+                }
+            }
+            commitChunk(jobId, attempt, committedRows, validMovies, rejections, rowNo);
+            job = updateJob(jobId, attempt, ImportJobStatus.COMPLETED, null);
+            logger.info("Import job {} completed after {} rows", jobId, job.getCommittedRows());
+        } catch (IOException | RuntimeException e) {
+            logger.error("Import job {} failed: {}", jobId, e.getMessage());
+            job = updateJob(jobId, attempt, ImportJobStatus.FAILED, e.getMessage());
+        }
+        return toResponse(job);
+    }
+
+    public ImportJobResponse getImportJob(Long jobId) {
+        ImportJobEntity job = importJobRepository.findById(jobId).orElseThrow(() -> {
+            logger.error("Import job {} does not exist.", jobId);
+            return new IllegalArgumentException("Import job " + jobId + " does not exist.");
+        });
+        return toResponse(job);
+    }
+
+    private ImportJobEntity startJob(CatalogueFormat format, Long resumeJobId) {
+        ImportJobEntity job;
+        if (resumeJobId == null) {
+            job = new ImportJobEntity();
+            job.setFormat(format);
+        } else {
+            job = importJobRepository.findByIdForUpdate(resumeJobId).orElseThrow(() -> {
+                logger.error("Import job {} does not exist.", resumeJobId);
+                return new IllegalArgumentException("Import job " + resumeJobId + " does not exist.");
+            });
+            if (!isResumable(job)) {
+                logger.error("Import job {} is {}, only failed jobs and stale running jobs can be resumed.", resumeJobId, job.getStatus());
+                throw new IllegalArgumentException("Import job " + resumeJobId + " is " + job.getStatus()
+                        + ", only failed jobs and running jobs without progress for " + staleAfter + " can be resumed.");
+            }
+            if (job.getFormat() != format) {
+                logger.error("Import job {} was started with {}, not {}.", resumeJobId, job.getFormat(), format);
+                throw new IllegalArgumentException("Import job " + resumeJobId + " was started with " + job.getFormat() + ", not " + format + ".");
+            }
+        }
+        job.setStatus(ImportJobStatus.RUNNING);
+        job.setError(null);
+        job.setAttempt(job.getAttempt() + 1);
+        job.setUpdatedAt(LocalDateTime.now());
+        return importJobRepository.save(job);
+    }
+
+    private static boolean isTruncated(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof JsonEOFException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isResumable(ImportJobEntity job) {
+        return switch (job.getStatus()) {
+            case FAILED -> true;
+            case RUNNING -> job.getUpdatedAt().isBefore(LocalDateTime.now().minus(staleAfter));
+            case COMPLETED -> false;
+        };
+    }
+
+    /**
+     * Commits the chunk and the job's progress, returns the committed rows of the job.
+     */
+    private long commitChunk(long jobId, int attempt, long committedRows, List<StagedMovie> validMovies, List<ImportRejection> rejections, long lastRowNo) {
+        if (lastRowNo <= committedRows) {
+            return committedRows;
+        }
+        return transactionTemplate.execute(status -> {
+            ImportJobEntity current = importJobRepository.findByIdForUpdate(jobId).orElseThrow();
+            if (current.getAttempt() != attempt) {
+                throw new IllegalStateException("Import job " + jobId + " was resumed by another upload.");
+            }
+            List<String> inserted = List.of();
+            if (!validMovies.isEmpty()) {
+                catalogueImportRepository.copyToStaging(jobId, validMovies);
+                inserted = catalogueImportRepository.mergeStaging(jobId);
+            }
+            if (!rejections.isEmpty()) {
+                catalogueImportRepository.insertRejections(jobId, rejections);
+            }
+
+            current.setCommittedRows(lastRowNo);
+            current.setImportedRows(current.getImportedRows() + inserted.size());
+            current.setExistingRows(current.getExistingRows() + validMovies.size() - inserted.size());
+            current.setRejectedRows(current.getRejectedRows() + rejections.size());
+            current.setUpdatedAt(LocalDateTime.now());
+
+            if (!inserted.isEmpty()) {
+                eventPublisher.publishEvent(new MoviesChangedEvent(inserted));
+            }
+            return importJobRepository.save(current).getCommittedRows();
+        });
+    }
+
+    /**
+     * Sets the outcome of the attempt, unless the job was resumed by another upload in the meantime.
+     */
+    private ImportJobEntity updateJob(long jobId, int attempt, ImportJobStatus status, String error) {
+        return transactionTemplate.execute(transactionStatus -> {
+            ImportJobEntity job = importJobRepository.findByIdForUpdate(jobId).orElseThrow();
+            if (job.getAttempt() != attempt) {
+                return job;
+            }
+            job.setStatus(status);
+            job.setError(error);
+            job.setUpdatedAt(LocalDateTime.now());
+            return importJobRepository.save(job);
+        });
+    }
+
+    private MappingIterator<CreateMovieRequest> openRows(CatalogueFormat format, InputStream body) throws IOException {
+        return switch (format) {
+            case NDJSON -> objectMapper.readerFor(CreateMovieRequest.class).readValues(body);
+            case CSV -> CSV_MAPPER.readerFor(CreateMovieRequest.class).with(CSV_SCHEMA).readValues(body);
+        };
+    }
+
+    private ImportJobResponse toResponse(ImportJobEntity job) {
+        return new ImportJobResponse(
+                job.getId(),
+                job.getFormat(),
+                job.getStatus(),
+                job.getCommittedRows(),
+                job.getImportedRows(),
+                job.getExistingRows(),
+                job.getRejectedRows(),
+                job.getError(),
+                catalogueImportRepository.findRejections(job.getId(), REPORTED_REJECTIONS)
+        );
+    }
+}
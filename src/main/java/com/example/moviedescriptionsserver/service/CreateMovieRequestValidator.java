@@ -0,0 +1,48 @@
+package com.example.moviedescriptionsserver.service;
+
+import com.example.moviedescriptionsserver.dto.request.CreateMovieRequest;
+
+import java.time.Year;
+import java.util.Set;
+
+/**
+ * The rules of MovieService.validateCreateOrUpdateMovieRequest for movies that are created in bulk,
+ * where a broken movie is reported instead of failing the whole request.
+ */
+final class CreateMovieRequestValidator {
+
+    // VARCHAR(255) of movies.eidr_code and movies.name, a longer value would fail the whole COPY or batch
+    static final int MAX_LENGTH = 255;
+
+    private CreateMovieRequestValidator() {
+    }
+
+    /**
+     * @return why the movie can't be created or null if it's valid
+     */
+    static String violation(CreateMovieRequest createMovieRequest, Set<Long> knownCategoryIds) {
+        if (createMovieRequest == null
+                || createMovieRequest.eidrCode() == null
+                || createMovieRequest.name() == null
+                || createMovieRequest.rating() == null
+                || createMovieRequest.year() == null
+                || createMovieRequest.status() == null) {
+            return "eidrCode, name, rating, year and status are required.";
+        }
+        if (createMovieRequest.eidrCode().length() > MAX_LENGTH || createMovieRequest.name().length() > MAX_LENGTH) {
+            return "eidrCode and name can be at most " + MAX_LENGTH + " characters long.";
+        }
+        if (createMovieRequest.year() > Year.now().getValue()) {
+            return "Year cannot be in the future.";
+        }
+        if (createMovieRequest.categories() == null || createMovieRequest.categories().isEmpty()) {
+            return "Movie has to have at least one category.";
+        }
+        // Like findByIds in MovieService, a repeated id counts as one that doesn't exist
+        if (createMovieRequest.categories().stream().distinct().count() != createMovieRequest.categories().size()
+                || !knownCategoryIds.containsAll(createMovieRequest.categories())) {
+            return "Some categories do not exist.";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.moviedescriptionsserver.service;
+
+import com.example.moviedescriptionsserver.repository.MovieBulkRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Hard-deletes soft-deleted movies (see MovieDeleteMode) together with their category links.
+ * <p>
+ * Runs on the scheduling pool at {@code movies.purge.cron} (off-peak) and removes the movies deleted more than
+ * {@code movies.purge.retention} ago, {@code movies.purge.batch-size} per statement. Every batch commits on its own,
+ * so no lock is held for long, and a run stops after {@code movies.purge.max-duration} to stay off-peak.
+ * <p>
+ * Metrics: movies.purge.purged
+ */
+@Service
+public class DeletedMoviePurger {
+
+    static Logger logger = LoggerFactory.getLogger(DeletedMoviePurger.class);
+
+    private final MovieBulkRepository movieBulkRepository;
+    private final Duration retention;
+    private final int batchSize;
+    private final Duration maxDuration;
+    private final Counter purgedMovies;
+
+    public DeletedMoviePurger(
+            MovieBulkRepository movieBulkRepository,
+            MeterRegistry meterRegistry,
+            @Value("${movies.purge.retention:PT1H}") Duration retention,
+            @Value("${movies.purge.batch-size:500}") int batchSize,
+            @Value("${movies.purge.max-duration:PT30M}") Duration maxDuration
+    ) {
+        this.movieBulkRepository = movieBulkRepository;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.maxDuration = maxDuration;
+        this.purgedMovies = Counter.builder("movies.purge.purged").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${movies.purge.cron:0 0 3 * * *}")
+    public void scheduledPurge() {
+        try {
+            purge();
+        } catch (RuntimeException e) {
+            // Whatever is left is picked up by the next run
+            logger.error("Purging deleted movies failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Purges batches until none is full anymore or the run has taken max-duration.
+     *
+     * @return number of movies that were purged
+     */
+    public int purge() {
+        LocalDateTime deletedBefore = LocalDateTime.now().minus(retention);
+        long deadline = System.nanoTime() + maxDuration.toNanos();
+        int total = 0;
+        int purged;
+        do {
+            purged = movieBulkRepository.purgeDeletedMovies(deletedBefore, batchSize);
+            purgedMovies.increment(purged);
+            total += purged;
+        } while (purged == batchSize && deadline - System.nanoTime() > 0);
+
+        if (total > 0) {
+            logger.info("Purged {} deleted movies.", total);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.moviedescriptionsserver.service;
+
+import com.example.moviedescriptionsserver.MovieCreateStatus;
+import com.example.moviedescriptionsserver.cache.CategoryCatalogueCache;
+import com.example.moviedescriptionsserver.dto.request.CreateMovieRequest;
+import com.example.moviedescriptionsserver.dto.response.CategoryResponse;
+import com.example.moviedescriptionsserver.dto.response.CreateMovieItemResult;
+import com.example.moviedescriptionsserver.dto.response.CreateMoviesResult;
+import com.example.moviedescriptionsserver.entity.MovieCategoryEntityId;
+import com.example.moviedescriptionsserver.repository.MovieBulkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Creates many movies at once (e.g. the nightly catalogue sync).
+ * <p>
+ * Every movie is validated on its own against the in-memory category catalogue, the valid ones are then
+ * inserted with multi-row statements, {@code movies.bulk.chunk-size} movies per transaction. Movies that
+ * exist already are skipped instead of failing the whole request, the result says what happened to each movie.
+ */
+@Service
+public class MovieBulkService {
+
+    static Logger logger = LoggerFactory.getLogger(MovieBulkService.class);
+
+    private final MovieBulkRepository movieBulkRepository;
+    private final CategoryCatalogueCache categoryCatalogueCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public MovieBulkService(
+            MovieBulkRepository movieBulkRepository,
+            CategoryCatalogueCache categoryCatalogueCache,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager,
+            @Value("${movies.bulk.chunk-size:1000}") int chunkSize
+    ) {
+        this.movieBulkRepository = movieBulkRepository;
+        this.categoryCatalogueCache = categoryCatalogueCache;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    public CreateMoviesResult createMovies(List<CreateMovieRequest> createMovieRequests) {
+        if (createMovieRequests == null || createMovieRequests.isEmpty()) {
+            logger.error("No movies to create.");
+            throw new IllegalArgumentException("No movies to create.");
+        }
+
+        // One lookup for the categories of all movies
+        Set<Long> knownCategoryIds = categoryCatalogueCache.findByIds(createMovieRequests.stream()
+                        .filter(Objects::nonNull)
+                        .map(CreateMovieRequest::categories)
+                        .filter(Objects::nonNull)
+                        .flatMap(List::stream)
+                        .filter(Objects::nonNull)
+                        .distinct()
+                        .toList())
+                .stream()
+                .map(CategoryResponse::id)
+                .collect(Collectors.toSet());
+
+        CreateMovieItemResult[] results = new CreateMovieItemResult[createMovieRequests.size()];
+        Set<String> seenEidrCodes = new HashSet<>();
+        List<Integer> validIndexes = new ArrayList<>();
+        for (int i = 0; i < createMovieRequests.size(); i++) {
+            CreateMovieRequest createMovieRequest = createMovieRequests.get(i);
+            String message = validate(createMovieRequest, knownCategoryIds, seenEidrCodes);
+            if (message != null) {
+                results[i] = new CreateMovieItemResult(
+                        createMovieRequest == null ? null : createMovieRequest.eidrCode(), MovieCreateStatus.INVALID, message);
+            } else {
+                validIndexes.add(i);
+            }
+        }
+
+        for (int from = 0; from < validIndexes.size(); from += chunkSize) {
+            List<Integer> chunk = validIndexes.subList(from, Math.min(from + chunkSize, validIndexes.size()));
+            Set<String> inserted = createChunk(chunk.stream().map(createMovieRequests::get).toList());
+            for (int index : chunk) {
+                String eidrCode = createMovieRequests.get(index).eidrCode();
+                results[index] = new CreateMovieItemResult(eidrCode,
+                        inserted.contains(eidrCode) ? MovieCreateStatus.CREATED : MovieCreateStatus.ALREADY_EXISTS, null);
+            }
+        }
+
+        List<CreateMovieItemResult> items = List.of(results);
+        return new CreateMoviesResult(
+                count(items, MovieCreateStatus.CREATED),
+                count(items, MovieCreateStatus.ALREADY_EXISTS),
+                count(items, MovieCreateStatus.INVALID),
+                items
+        );
+    }
+
+    private Set<String> createChunk(List<CreateMovieRequest> createMovieRequests) {
+        return transactionTemplate.execute(status -> {
+            Set<String> inserted = movieBulkRepository.insertMoviesIfAbsent(createMovieRequests).keySet();
+
+            List<MovieCategoryEntityId> movieCategories = createMovieRequests.stream()
+                    .filter(createMovieRequest -> inserted.contains(createMovieRequest.eidrCode()))
+                    .flatMap(createMovieRequest -> createMovieRequest.categories().stream()
+                            .distinct()
+                            .map(categoryId -> new MovieCategoryEntityId(createMovieRequest.eidrCode(), categoryId)))
+                    .toList();
+            movieBulkRepository.insertMovieCategories(movieCategories);
+
+            if (!inserted.isEmpty()) {
+                eventPublisher.publishEvent(new MoviesChangedEvent(List.copyOf(inserted)));
+            }
+            return inserted;
+        });
+    }
+
+    private String validate(CreateMovieRequest createMovieRequest, Set<Long> knownCategoryIds, Set<String> seenEidrCodes) {
+        String violation = CreateMovieRequestValidator.violation(createMovieRequest, knownCategoryIds);
+        if (violation == null && !seenEidrCodes.add(createMovieRequest.eidrCode())) {
+            return "Movie with eidrCode " + createMovieRequest.eidrCode() + " is in the request more than once.";
+        }
+        return violation;
+    }
+
+    private static int count(List<CreateMovieItemResult> items, MovieCreateStatus status) {
+        return (int) items.stream().filter(item -> item.status() == status).count();
+    }
+}
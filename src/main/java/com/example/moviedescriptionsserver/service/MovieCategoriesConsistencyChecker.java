@@ -0,0 +1,85 @@
+package com.example.moviedescriptionsserver.service;
+
+import com.example.moviedescriptionsserver.repository.MovieCategoriesCheckRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Verifies the denormalized categories of the movies table (category_ids, category_names) against
+ * movies_categories. The database triggers should keep them in sync, so any difference found is a bug (or a
+ * manual change with the triggers disabled): it is logged, counted and, with {@code movies.categories-check.repair},
+ * fixed by recomputing the movie's categories.
+ * <p>
+ * Runs on the scheduling pool at {@code movies.categories-check.cron} (off-peak) and walks the whole table in
+ * eidrCode order, {@code movies.categories-check.batch-size} movies per statement.
+ * <p>
+ * Metrics: movies.categories.check.stale
+ */
+@Service
+public class MovieCategoriesConsistencyChecker {
+
+    static Logger logger = LoggerFactory.getLogger(MovieCategoriesConsistencyChecker.class);
+
+    private final MovieCategoriesCheckRepository movieCategoriesCheckRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final boolean repair;
+    private final Counter staleMovies;
+
+    public MovieCategoriesConsistencyChecker(
+            MovieCategoriesCheckRepository movieCategoriesCheckRepository,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${movies.categories-check.batch-size:1000}") int batchSize,
+            @Value("${movies.categories-check.repair:true}") boolean repair
+    ) {
+        this.movieCategoriesCheckRepository = movieCategoriesCheckRepository;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.repair = repair;
+        this.staleMovies = Counter.builder("movies.categories.check.stale").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${movies.categories-check.cron:0 30 3 * * *}")
+    public void scheduledCheck() {
+        try {
+            check();
+        } catch (RuntimeException e) {
+            logger.error("Checking the denormalized movie categories failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return number of movies whose denormalized categories were stale
+     */
+    public int check() {
+        String after = "";
+        int checked = 0;
+        int stale = 0;
+        MovieCategoriesCheckRepository.CheckedBatch batch;
+        do {
+            batch = movieCategoriesCheckRepository.checkBatch(after, batchSize);
+            checked += batch.checked();
+            if (!batch.staleEidrCodes().isEmpty()) {
+                stale += batch.staleEidrCodes().size();
+                staleMovies.increment(batch.staleEidrCodes().size());
+                logger.error("Denormalized categories of {} movies don't match movies_categories: {}",
+                        batch.staleEidrCodes().size(), batch.staleEidrCodes());
+                if (repair) {
+                    movieCategoriesCheckRepository.refreshMovieCategories(batch.staleEidrCodes());
+                    eventPublisher.publishEvent(new MoviesChangedEvent(batch.staleEidrCodes()));
+                }
+            }
+            after = batch.lastEidrCode();
+        } while (batch.checked() == batchSize);
+
+        logger.info("Checked the denormalized categories of {} movies, {} were stale.", checked, stale);
+        return stale;
+    }
+}
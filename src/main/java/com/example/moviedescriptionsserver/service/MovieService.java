@@ -1,138 +1,276 @@
 package com.example.moviedescriptionsserver.service;
 
+import com.example.moviedescriptionsserver.MovieDeleteMode;
+import com.example.moviedescriptionsserver.MovieVersionMismatchException;
 import com.example.moviedescriptionsserver.MoviesOrderBy;
+import com.example.moviedescriptionsserver.MoviesPaginationMode;
+import com.example.moviedescriptionsserver.MoviesSearchMode;
+import com.example.moviedescriptionsserver.MoviesTotalStrategy;
+import com.example.moviedescriptionsserver.cache.CategoryCatalogue;
+import com.example.moviedescriptionsserver.cache.CategoryCatalogueCache;
+import com.example.moviedescriptionsserver.cache.MovieResponseCache;
+import com.example.moviedescriptionsserver.cache.MovieTotalCountCache;
 import com.example.moviedescriptionsserver.dto.MovieDto;
+import com.example.moviedescriptionsserver.dto.MovieIfMatch;
+import com.example.moviedescriptionsserver.dto.MovieRevision;
 import com.example.moviedescriptionsserver.dto.MovieTableRowDto;
+import com.example.moviedescriptionsserver.dto.MovieWithCategoryRowDto;
 import com.example.moviedescriptionsserver.dto.request.CreateMovieRequest;
 import com.example.moviedescriptionsserver.dto.request.GetMoviesFilter;
+import com.example.moviedescriptionsserver.dto.request.PatchMovieRequest;
 import com.example.moviedescriptionsserver.dto.request.UpdateMovieRequest;
 import com.example.moviedescriptionsserver.dto.response.*;
 import com.example.moviedescriptionsserver.entity.*;
-import com.example.moviedescriptionsserver.repository.CategoryRepository;
+import com.example.moviedescriptionsserver.metrics.MovieQueryMetrics;
+import com.example.moviedescriptionsserver.repository.MovieBulkRepository;
 import com.example.moviedescriptionsserver.repository.MovieCategoryBridgeRepository;
 import com.example.moviedescriptionsserver.repository.MovieRepository;
-import com.querydsl.core.types.dsl.StringTemplate;
+import com.example.moviedescriptionsserver.search.MovieSearchExpressions;
+import com.querydsl.core.Tuple;
 import com.querydsl.core.types.Order;
 import com.querydsl.core.types.OrderSpecifier;
-import com.querydsl.core.types.Projections;
 import com.querydsl.core.types.dsl.BooleanExpression;
-import com.querydsl.core.types.dsl.Expressions;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.time.Year;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Service
 public class MovieService {
 
     static Logger logger = LoggerFactory.getLogger(MovieService.class);
+    static final int DELETE_CHUNK_SIZE = 10_000;
     private final JPAQueryFactory queryFactory;
     private final MovieRepository movieRepository;
-    private final CategoryRepository categoryRepository;
     private final MovieCategoryBridgeRepository movieCategoryBridgeRepository;
+    private final MovieBulkRepository movieBulkRepository;
+    private final MovieTotalCountCache movieTotalCountCache;
+    private final CategoryCatalogueCache categoryCatalogueCache;
+    private final MovieResponseCache movieResponseCache;
+    private final MovieQueryMetrics movieQueryMetrics;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MovieDeleteMode deleteMode;
 
     public MovieService(
             EntityManager entityManager,
             MovieRepository movieRepository,
-            CategoryRepository categoryRepository,
-            MovieCategoryBridgeRepository movieCategoryBridgeRepository
+            MovieCategoryBridgeRepository movieCategoryBridgeRepository,
+            MovieBulkRepository movieBulkRepository,
+            MovieTotalCountCache movieTotalCountCache,
+            CategoryCatalogueCache categoryCatalogueCache,
+            MovieResponseCache movieResponseCache,
+            MovieQueryMetrics movieQueryMetrics,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${movies.delete.mode:HARD}") MovieDeleteMode deleteMode
     ) {
         this.movieRepository = movieRepository;
-        this.categoryRepository = categoryRepository;
         this.movieCategoryBridgeRepository = movieCategoryBridgeRepository;
+        this.movieBulkRepository = movieBulkRepository;
+        this.movieTotalCountCache = movieTotalCountCache;
+        this.categoryCatalogueCache = categoryCatalogueCache;
+        this.movieResponseCache = movieResponseCache;
+        this.movieQueryMetrics = movieQueryMetrics;
+        this.eventPublisher = eventPublisher;
+        this.deleteMode = deleteMode;
         this.queryFactory = new JPAQueryFactory(entityManager);
     }
 
     public GetMovieResponse getMovie(String eidrCode) {
-        MovieEntity movieEntity = movieRepository.findByEidrCode(eidrCode);
-        if (movieEntity == null) {
+        return movieResponseCache.getOrLoad(eidrCode, () -> loadMovie(eidrCode));
+    }
+
+    /**
+     * Loads the movie and its categories with a single statement (see MovieRepository.findMovieWithCategories).
+     */
+    private GetMovieResponse loadMovie(String eidrCode) {
+        List<MovieWithCategoryRowDto> rows = movieRepository.findMovieWithCategories(eidrCode);
+        if (rows.isEmpty()) {
             logger.error("Movie with eidrCode {} does not exist.", eidrCode);
             throw new IllegalArgumentException("Movie with eidrCode " + eidrCode + " does not exist.");
         }
 
-        List<CategoryEntity> categoryEntities = categoryRepository.findCategoriesByMovieEidrCode(eidrCode);
-        return convertToMovieResponse(movieEntity, categoryEntities);
+        MovieWithCategoryRowDto movie = rows.get(0);
+        return new GetMovieResponse(
+                new MovieDto(movie.eidrCode(), movie.name(), movie.rating(), movie.year(), movie.status()),
+                rows.stream()
+                        .filter(row -> row.categoryId() != null)
+                        .map(row -> new CategoryResponse(row.categoryId(), row.categoryName()))
+                        .toList(),
+                movie.version(),
+                movie.createdAt()
+        );
     }
 
     /**
      * Get all movies with the given filters using QueryDSL
      *
-     * Note:
-     * Uses the string aggregation template for categories using PostgreSQL's string_agg
-     * In real life situation I'd possibly use a more generic approach for this as this is PostgreSQL specific.
-     * Maybe have a separate query through separate API for categories and then join them with the movies
-     * in the frontend. This would be more flexible (separation of concerms), faster (could do async), and easier to maintain.
-     * Also, seeing all the categories in the table might not be necessary anyways, but it's good for testing.
-     * Anyways... as it wasn't a requirement then I took some liberties with it.
+     * The page is a single query of the movies table alone: the category filters and the category names come from
+     * its denormalized category_ids and category_names columns (kept up to date by database triggers), so there is
+     * no join, no GROUP BY and no string_agg.
      *
      * @param filter
      * @return
      */
     public GetMovieTableResult getAllMovies(GetMoviesFilter filter) {
         var m = QMovieEntity.movieEntity;
-        var c = QCategoryEntity.categoryEntity;
-        var mc = QMovieCategoryEntity.movieCategoryEntity;
 
-        BooleanExpression condition = Expressions.asBoolean(true).isTrue();
+        BooleanExpression condition = moviesCondition(filter);
+
+        // Pagination info
+        MovieTotal total = movieTotal(filter, condition);
+        Long totalItems = total.totalItems();
+        Integer totalPages = totalItems == null ? null : (int) Math.ceil((double) totalItems / filter.pageSize());
+
+        if (totalItems != null && totalItems == 0) {
+            return new GetMovieTableResult(new ArrayList<>(), filter.page(), filter.pageSize(), totalItems, totalPages, null, total.strategy());
+        }
+        boolean keyset = filter.paginationMode() == MoviesPaginationMode.KEYSET;
+        boolean ranked = filter.searchMode() == MoviesSearchMode.FULL_TEXT && filter.name() != null;
+        if (keyset && ranked) {
+            logger.error("KEYSET pagination can't be combined with a ranked FULL_TEXT search.");
+            throw new IllegalArgumentException("KEYSET pagination can't be combined with a ranked FULL_TEXT search.");
+        }
+        if (keyset && filter.cursor() != null) {
+            condition = condition.and(seekPredicate(MovieTableCursor.decode(filter.cursor()), filter.orderBy(), filter.direction()));
+        }
+        var offset = keyset ? 0 : (filter.page() - 1) * filter.pageSize();
+        // In KEYSET mode fetch one extra row to find out if there is a next page
+        var limit = keyset ? filter.pageSize() + 1 : filter.pageSize();
+
+        BooleanExpression pageCondition = condition;
+        List<Tuple> movieRows = movieQueryMetrics.record("getAllMovies.page", filter, () -> queryFactory
+                .select(m.eidrCode, m.name, m.rating, m.year, m.status, m.categoryNames)
+                .from(m)
+                .where(pageCondition)
+                .orderBy(ranked
+                        ? rankedOrderSpecifiers(filter.name(), filter.orderBy(), filter.direction())
+                        : orderSpecifiers(filter.orderBy(), filter.direction()))
+                .offset(offset)
+                .limit(limit)
+                .fetch());
+
+        boolean hasNextPage = keyset && movieRows.size() > filter.pageSize();
+        if (hasNextPage) {
+            movieRows = movieRows.subList(0, filter.pageSize());
+        }
+
+        List<MovieTableRowDto> movieList = movieRows.stream()
+                .map(row -> new MovieTableRowDto(
+                        row.get(m.eidrCode),
+                        row.get(m.name),
+                        row.get(m.rating),
+                        row.get(m.year),
+                        row.get(m.status),
+                        row.get(m.categoryNames)
+                ))
+                .toList();
+
+        String nextCursor = hasNextPage
+                ? cursorAfter(movieList.get(movieList.size() - 1), filter.orderBy(), filter.direction()).encode()
+                : null;
+
+        return new GetMovieTableResult(movieList, filter.page(), filter.pageSize(), totalItems, totalPages, nextCursor, total.strategy());
+    }
+
+    /**
+     * Filter condition on the movies table, soft-deleted movies never match (deleted_at IS NULL is the predicate of
+     * the partial ordering indexes). Category filters only look at the movies table's own category_ids:
+     * ANY_OF - category_ids && (the categories)
+     * ALL_OF - category_ids @> (the categories)
+     */
+    BooleanExpression moviesCondition(GetMoviesFilter filter) {
+        var m = QMovieEntity.movieEntity;
+
+        BooleanExpression condition = m.deletedAt.isNull();
 
         // Filters
         if (filter.categoryIds() != null && !filter.categoryIds().isEmpty()) {
-            condition = condition.and(mc.id.categoryId.in(filter.categoryIds()));
+            List<Long> categoryIds = filter.categoryIds().stream().distinct().toList();
+            condition = condition.and(MovieSearchExpressions.categoriesMatch(filter.categoryMatch(), categoryIds));
         }
         if (filter.name() != null) {
-            condition = condition.and(m.name.containsIgnoreCase(filter.name()));
+            condition = condition.and(MovieSearchExpressions.nameMatches(filter.searchMode(), filter.name()));
         }
         if (filter.eidrCode() != null) {
-            condition = condition.and(m.eidrCode.containsIgnoreCase(filter.eidrCode()));
+            condition = condition.and(MovieSearchExpressions.eidrCodeMatches(filter.searchMode(), filter.eidrCode()));
         }
+        return condition;
+    }
 
-        // Pagination info
-        long totalItems = queryFactory
-                .selectFrom(m)
-                .join(mc).on(m.eidrCode.eq(mc.id.movieEidr))
-                .join(c).on(mc.id.categoryId.eq(c.id))
-                .where(condition)
-                .groupBy(m.eidrCode)
-                .fetchCount();
-        int totalPages = (int) Math.ceil((double) totalItems / filter.pageSize());
-
-        if (totalItems == 0) {
-            return new GetMovieTableResult(new ArrayList<>(), filter.page(), filter.pageSize(), totalItems, totalPages);
-        }
-        var offset = (filter.page() - 1) * filter.pageSize();
-        var orderSpecifier = orderSpecifier(filter.orderBy(), filter.direction());
-
-        // Define the string aggregation template for categories using PostgreSQL's string_agg
-        StringTemplate categoryConcat = Expressions.stringTemplate("string_agg({0}, ', ')", c.name);
-
-        var movieList = queryFactory
-                .select(Projections.constructor(MovieTableRowDto.class,
-                        m.eidrCode,
-                        m.name,
-                        m.rating,
-                        m.year,
-                        m.status,
-                        categoryConcat.as("categories")
-                ))
+    /**
+     * Produces totalItems with the requested strategy.
+     * ESTIMATED only works for the unfiltered table and falls back to EXACT otherwise,
+     * the returned strategy is the one that was actually used.
+     */
+    private MovieTotal movieTotal(GetMoviesFilter filter, BooleanExpression condition) {
+        return switch (filter.totalStrategy()) {
+            case SKIP -> new MovieTotal(null, MoviesTotalStrategy.SKIP);
+            case ESTIMATED -> {
+                Long estimate = filter.hasFilters() ? null : movieRepository.estimateMovieCount();
+                yield estimate != null
+                        ? new MovieTotal(estimate, MoviesTotalStrategy.ESTIMATED)
+                        : new MovieTotal(countMovies(filter, condition), MoviesTotalStrategy.EXACT);
+            }
+            case CACHED -> {
+                Long cached = movieTotalCountCache.get(filter);
+                if (cached == null) {
+                    long generation = movieTotalCountCache.currentGeneration();
+                    cached = countMovies(filter, condition);
+                    movieTotalCountCache.put(filter, cached, generation);
+                }
+                yield new MovieTotal(cached, MoviesTotalStrategy.CACHED);
+            }
+            case EXACT -> new MovieTotal(countMovies(filter, condition), MoviesTotalStrategy.EXACT);
+        };
+    }
+
+    private long countMovies(GetMoviesFilter filter, BooleanExpression condition) {
+        var m = QMovieEntity.movieEntity;
+        Long count = movieQueryMetrics.record("getAllMovies.count", filter, () -> queryFactory
+                .select(m.count())
                 .from(m)
-                .join(mc).on(m.eidrCode.eq(mc.id.movieEidr))
-                .join(c).on(mc.id.categoryId.eq(c.id))
                 .where(condition)
-                .groupBy(m.eidrCode)
-                .orderBy(orderSpecifier)
-                .offset(offset)
-                .limit(filter.pageSize())
-                .fetch();
+                .fetchOne());
+        return count == null ? 0 : count;
+    }
+
+    private record MovieTotal(Long totalItems, MoviesTotalStrategy strategy) {
+    }
+
+    /**
+     * Orders by the chosen column and then by eidrCode, so that rows with equal ratings or names have a stable
+     * order. The tiebreaker is what makes the (sort key, eidrCode) tuple unique for KEYSET pagination.
+     */
+    private OrderSpecifier<?>[] orderSpecifiers(MoviesOrderBy orderBy, Order direction) {
+        var m = QMovieEntity.movieEntity;
+        return new OrderSpecifier<?>[]{
+                orderSpecifier(orderBy, direction),
+                new OrderSpecifier<>(direction, m.eidrCode)
+        };
+    }
 
-        return new GetMovieTableResult(movieList, filter.page(), filter.pageSize(), totalItems, totalPages);
+    /**
+     * Best FULL_TEXT matches first, then the chosen ordering for equally ranked movies.
+     */
+    private OrderSpecifier<?>[] rankedOrderSpecifiers(String name, MoviesOrderBy orderBy, Order direction) {
+        var m = QMovieEntity.movieEntity;
+        return new OrderSpecifier<?>[]{
+                MovieSearchExpressions.nameRank(name),
+                orderSpecifier(orderBy, direction),
+                new OrderSpecifier<>(direction, m.eidrCode)
+        };
     }
 
     private OrderSpecifier<?> orderSpecifier(MoviesOrderBy orderBy, Order direction) {
@@ -145,75 +283,272 @@ public class MovieService {
         };
     }
 
-    @Transactional(rollbackFor = Exception.class, isolation = Isolation.SERIALIZABLE)
+    /**
+     * Turns the ordering into a predicate that only matches rows after the cursor,
+     * e.g. for RATING ASC: rating >= :rating AND (rating > :rating OR (rating = :rating AND eidr_code > :eidrCode)).
+     * The redundant first bound is what the ordering index can start its scan from, the OR alone is only a filter.
+     */
+    private BooleanExpression seekPredicate(MovieTableCursor cursor, MoviesOrderBy orderBy, Order direction) {
+        if (cursor.orderBy() != orderBy || cursor.direction() != direction) {
+            logger.error("Cursor was created for {} {}, but {} {} was requested.", cursor.orderBy(), cursor.direction(), orderBy, direction);
+            throw new IllegalArgumentException("Cursor does not match the requested ordering.");
+        }
+        var m = QMovieEntity.movieEntity;
+        boolean asc = direction.equals(Order.ASC);
+        BooleanExpression eidrCodeAfter = asc ? m.eidrCode.gt(cursor.eidrCode()) : m.eidrCode.lt(cursor.eidrCode());
+        return switch (orderBy) {
+            case NAME -> (asc ? m.name.goe(cursor.sortValue()) : m.name.loe(cursor.sortValue()))
+                    .and((asc ? m.name.gt(cursor.sortValue()) : m.name.lt(cursor.sortValue()))
+                            .or(m.name.eq(cursor.sortValue()).and(eidrCodeAfter)));
+            case RATING -> (asc ? m.rating.goe(cursor.ratingValue()) : m.rating.loe(cursor.ratingValue()))
+                    .and((asc ? m.rating.gt(cursor.ratingValue()) : m.rating.lt(cursor.ratingValue()))
+                            .or(m.rating.eq(cursor.ratingValue()).and(eidrCodeAfter)));
+        };
+    }
+
+    private MovieTableCursor cursorAfter(MovieTableRowDto lastRow, MoviesOrderBy orderBy, Order direction) {
+        String sortValue = switch (orderBy) {
+            case NAME -> lastRow.name();
+            case RATING -> lastRow.rating().toString();
+        };
+        return new MovieTableCursor(orderBy, direction, sortValue, lastRow.eidrCode());
+    }
+
+    /**
+     * Inserts the movie with INSERT ... ON CONFLICT DO NOTHING, so two requests creating the same movie can't both
+     * pass an existence check: the one that loses the race gets "already exists" without any locking.
+     */
+    @RetryOnConcurrencyFailure
+    @Transactional(rollbackFor = Exception.class)
     public GetMovieResponse createMovie(CreateMovieRequest createMovieRequest) {
-        if (movieRepository.findByEidrCode(createMovieRequest.eidrCode()) != null) {
+        validateCreateOrUpdateMovieRequest(createMovieRequest.year(), createMovieRequest.categories());
+
+        // Save movie (a soft-deleted movie with the same eidrCode is purged first, see MovieBulkRepository)
+        LocalDateTime createdAt = movieBulkRepository.insertMoviesIfAbsent(List.of(createMovieRequest)).get(createMovieRequest.eidrCode());
+        if (createdAt == null) {
             logger.error("Movie with eidrCode {} already exists.", createMovieRequest.eidrCode());
             throw new IllegalArgumentException("Movie with eidrCode " + createMovieRequest.eidrCode() + " already exists.");
         }
-        validateCreateOrUpdateMovieRequest(createMovieRequest.year(), createMovieRequest.categories());
-
-        // Save movie
-        MovieEntity movie = new MovieEntity();
-        movie.setEidrCode(createMovieRequest.eidrCode());
-        movie.setName(createMovieRequest.name());
-        movie.setRating(createMovieRequest.rating());
-        movie.setYear(createMovieRequest.year());
-        movie.setStatus(createMovieRequest.status());
-        MovieEntity savedMovieEntity = movieRepository.save(movie);
 
         // Save categories
-        List<CategoryEntity> categoryEntities = categoryRepository.findCategoriesByIds(createMovieRequest.categories());
-        saveMovieCategories(savedMovieEntity, categoryEntities);
+        List<CategoryResponse> categories = categoryCatalogueCache.findByIds(createMovieRequest.categories());
+        movieBulkRepository.insertMovieCategories(categories.stream()
+                .map(category -> new MovieCategoryEntityId(createMovieRequest.eidrCode(), category.id()))
+                .toList());
 
-        return convertToMovieResponse(savedMovieEntity, categoryEntities);
+        eventPublisher.publishEvent(new MoviesChangedEvent(List.of(createMovieRequest.eidrCode())));
+        return new GetMovieResponse(
+                new MovieDto(
+                        createMovieRequest.eidrCode(),
+                        createMovieRequest.name(),
+                        createMovieRequest.rating(),
+                        createMovieRequest.year(),
+                        createMovieRequest.status()
+                ),
+                categories,
+                0L,
+                createdAt
+        );
     }
 
-    @Transactional(rollbackFor = Exception.class, isolation = Isolation.SERIALIZABLE)
+    /**
+     * Optimistic update: the movie row is only written if something changed, and the write checks the version the
+     * movie was read with. The version is bumped (and the row locked) before the category links are written, so a
+     * concurrent update of the same movie waits for this one and then fails with an optimistic locking failure
+     * instead of writing links based on stale categories. Such failures are retried from the start.
+     */
+    @RetryOnConcurrencyFailure
+    @Transactional(rollbackFor = Exception.class)
     public GetMovieResponse updateMovie(UpdateMovieRequest updateMovieRequest) {
-        MovieEntity movieEntity = movieRepository.findByEidrCode(updateMovieRequest.eidrCode());
+        MovieEntity movieEntity = movieRepository.findByEidrCodeAndDeletedAtIsNull(updateMovieRequest.eidrCode());
         if (movieEntity == null) {
             logger.error("Movie with eidrCode {} does not exist.", updateMovieRequest.eidrCode());
             throw new IllegalArgumentException("Movie with eidrCode " + updateMovieRequest.eidrCode() + " does not exist.");
         }
         validateCreateOrUpdateMovieRequest(updateMovieRequest.year(), updateMovieRequest.categories());
 
+        List<CategoryResponse> categoriesRequested = categoryCatalogueCache.findByIds(updateMovieRequest.categories());
+        CategoryChanges categoryChanges = categoryChanges(updateMovieRequest.eidrCode(), updateMovieRequest.categories());
+        boolean fieldsChanged = !currentMovieFieldsEqualRequestedFields(movieEntity, updateMovieRequest);
+
         // Update movie (if needed)
-        if (!currentMovieFieldsEqualRequestedFields(movieEntity, updateMovieRequest)) {
+        if (fieldsChanged || !categoryChanges.isEmpty()) {
             movieEntity.setName(updateMovieRequest.name());
             movieEntity.setRating(updateMovieRequest.rating());
             movieEntity.setYear(updateMovieRequest.year());
             movieEntity.setStatus(updateMovieRequest.status());
-            movieRepository.save(movieEntity);
+            movieEntity.setUpdatedAt(LocalDateTime.now());
+            movieRepository.saveAndFlush(movieEntity);
+            writeCategoryChanges(updateMovieRequest.eidrCode(), categoryChanges);
+        }
+
+        eventPublisher.publishEvent(new MoviesChangedEvent(List.of(movieEntity.getEidrCode())));
+        return convertToMovieResponse(movieEntity, categoriesRequested);
+    }
+
+    /**
+     * Conditional update for clients that know the revision they are updating (If-Match): the movie is overwritten by
+     * a single UPDATE ... WHERE version = ? AND created_at = ?, without reading it or its categories first, and the
+     * categories are replaced without reading them either. With a list of revisions they are tried in turn, the movie
+     * is at one revision at most so at most one UPDATE writes. Only when nothing was updated the movie is read, to tell
+     * a missing movie from a revision mismatch. With If-Match * the movie is updated like without If-Match, but a
+     * missing movie fails the precondition.
+     */
+    @RetryOnConcurrencyFailure
+    @Transactional(rollbackFor = Exception.class)
+    public GetMovieResponse updateMovie(UpdateMovieRequest updateMovieRequest, MovieIfMatch ifMatch) {
+        if (ifMatch.any()) {
+            if (!movieRepository.existsByEidrCodeAndDeletedAtIsNull(updateMovieRequest.eidrCode())) {
+                logger.error("Movie with eidrCode {} does not exist, If-Match * fails.", updateMovieRequest.eidrCode());
+                throw new MovieVersionMismatchException("Movie with eidrCode " + updateMovieRequest.eidrCode() + " does not exist, If-Match * fails.");
+            }
+            return updateMovie(updateMovieRequest);
         }
+        validateCreateOrUpdateMovieRequest(updateMovieRequest.year(), updateMovieRequest.categories());
 
-        List<CategoryEntity> categoriesRequested = categoryRepository.findCategoriesByIds(updateMovieRequest.categories());
-        // Update categories (if needed)
-        List<CategoryEntity> categoriesCurrent = categoryRepository.findCategoriesByMovieEidrCode(updateMovieRequest.eidrCode());
-        if (!currentMovieCategoriesEqualRequestedCategories(categoriesCurrent, updateMovieRequest.categories())) {
-            // Remove everything from the bridge table and add the new ones
-            movieCategoryBridgeRepository.deleteAll(movieCategoryBridgeRepository.findAllByMovieEidrCodes(List.of(updateMovieRequest.eidrCode())));
-            saveMovieCategories(movieEntity, categoriesRequested);
+        MovieRevision updatedRevision = null;
+        for (MovieRevision expectedRevision : ifMatch.revisions()) {
+            int updated = movieRepository.updateIfRevisionMatches(
+                    updateMovieRequest.eidrCode(),
+                    updateMovieRequest.name(),
+                    updateMovieRequest.rating(),
+                    updateMovieRequest.year(),
+                    updateMovieRequest.status(),
+                    expectedRevision.version(),
+                    expectedRevision.createdAt()
+            );
+            if (updated > 0) {
+                updatedRevision = expectedRevision;
+                break;
+            }
+        }
+        if (updatedRevision == null) {
+            if (!movieRepository.existsByEidrCodeAndDeletedAtIsNull(updateMovieRequest.eidrCode())) {
+                logger.error("Movie with eidrCode {} does not exist.", updateMovieRequest.eidrCode());
+                throw new IllegalArgumentException("Movie with eidrCode " + updateMovieRequest.eidrCode() + " does not exist.");
+            }
+            logger.error("Movie with eidrCode {} is not at revision {}.", updateMovieRequest.eidrCode(), ifMatch.eTags());
+            throw new MovieVersionMismatchException("Movie with eidrCode " + updateMovieRequest.eidrCode() + " was changed, it is not at revision " + ifMatch.eTags() + " anymore.");
         }
 
-        return convertToMovieResponse(movieEntity, categoriesRequested);
+        // The UPDATE holds the row lock, so no concurrent update can write the links in between
+        List<CategoryResponse> categoriesRequested = categoryCatalogueCache.findByIds(updateMovieRequest.categories());
+        movieBulkRepository.replaceMovieCategories(updateMovieRequest.eidrCode(), new LinkedHashSet<>(updateMovieRequest.categories()));
+
+        eventPublisher.publishEvent(new MoviesChangedEvent(List.of(updateMovieRequest.eidrCode())));
+        return new GetMovieResponse(
+                new MovieDto(
+                        updateMovieRequest.eidrCode(),
+                        updateMovieRequest.name(),
+                        updateMovieRequest.rating(),
+                        updateMovieRequest.year(),
+                        updateMovieRequest.status()
+                ),
+                categoriesRequested,
+                updatedRevision.version() + 1,
+                updatedRevision.createdAt()
+        );
     }
 
-    @Transactional(rollbackFor = Exception.class, isolation = Isolation.SERIALIZABLE)
-    public boolean deleteMovies(List<String> eidrCodes) {
-        // Check if all movies exist
-        List<MovieEntity> movieEntities = movieRepository.findAllById(eidrCodes);
-        if (movieEntities.size() != eidrCodes.size()) {
-            logger.error("Some of the movies with the given eidrCodes do not exist.");
-            throw new IllegalArgumentException("Some of the movies with the given eidrCodes do not exist.");
+    /**
+     * Partial update: one UPDATE statement of just the given fields (so a rating-only patch is a single statement),
+     * plus one statement for the added and one for the removed categories. Nothing is read before writing, only
+     * removing categories reads the remaining ones to make sure the movie keeps at least one.
+     * With If-Match the patch is only applied if the movie is still at one of the revisions (tried in turn like for
+     * updateMovie), with If-Match * a missing movie fails the precondition.
+     */
+    @RetryOnConcurrencyFailure
+    @Transactional(rollbackFor = Exception.class)
+    public PatchMovieResponse patchMovie(PatchMovieRequest patchMovieRequest, MovieIfMatch ifMatch) {
+        validatePatchMovieRequest(patchMovieRequest);
+        String eidrCode = patchMovieRequest.eidrCode();
+
+        MovieRevision revision = null;
+        if (ifMatch == null || ifMatch.any()) {
+            revision = movieBulkRepository.patchMovie(patchMovieRequest, null);
+        } else {
+            for (MovieRevision expectedRevision : ifMatch.revisions()) {
+                revision = movieBulkRepository.patchMovie(patchMovieRequest, expectedRevision);
+                if (revision != null) {
+                    break;
+                }
+            }
+        }
+        if (revision == null) {
+            if (ifMatch != null && ifMatch.any()) {
+                logger.error("Movie with eidrCode {} does not exist, If-Match * fails.", eidrCode);
+                throw new MovieVersionMismatchException("Movie with eidrCode " + eidrCode + " does not exist, If-Match * fails.");
+            }
+            if (ifMatch == null || !movieRepository.existsByEidrCodeAndDeletedAtIsNull(eidrCode)) {
+                logger.error("Movie with eidrCode {} does not exist.", eidrCode);
+                throw new IllegalArgumentException("Movie with eidrCode " + eidrCode + " does not exist.");
+            }
+            logger.error("Movie with eidrCode {} is not at revision {}.", eidrCode, ifMatch.eTags());
+            throw new MovieVersionMismatchException("Movie with eidrCode " + eidrCode + " was changed, it is not at revision " + ifMatch.eTags() + " anymore.");
         }
 
-        // Delete from the bridge table
-        movieCategoryBridgeRepository.deleteAll(movieCategoryBridgeRepository.findAllByMovieEidrCodes(eidrCodes));
+        // The UPDATE holds the row lock, so no concurrent update can write the links in between
+        if (patchMovieRequest.addCategories() != null && !patchMovieRequest.addCategories().isEmpty()) {
+            movieBulkRepository.addMovieCategories(eidrCode, new LinkedHashSet<>(patchMovieRequest.addCategories()));
+        }
+        if (patchMovieRequest.removeCategories() != null && !patchMovieRequest.removeCategories().isEmpty()) {
+            movieBulkRepository.removeMovieCategories(eidrCode, new HashSet<>(patchMovieRequest.removeCategories()));
+            if (movieCategoryBridgeRepository.findCategoryIdsByMovieEidrCode(eidrCode).isEmpty()) {
+                logger.error("Movie has to have at least one category.");
+                throw new IllegalArgumentException("Movie has to have at least one category.");
+            }
+        }
 
-        // Delete from the movie table
-        movieRepository.deleteAllById(eidrCodes);
+        eventPublisher.publishEvent(new MoviesChangedEvent(List.of(eidrCode)));
+        return new PatchMovieResponse(eidrCode, revision.version(), revision.createdAt());
+    }
+
+    /**
+     * Deletes the movies with bulk statements, nothing is loaded into the persistence context.
+     * In HARD mode (the default) the category links and the movies are deleted right away. In SOFT mode
+     * (movies.delete.mode=SOFT) a single UPDATE stamps deleted_at and DeletedMoviePurger removes the rows later,
+     * so even large requests return quickly and lock nothing but the movies rows.
+     * Large requests are split into chunks of DELETE_CHUNK_SIZE eidrCodes to stay below the bind parameter
+     * limit of the driver.
+     */
+    @RetryOnConcurrencyFailure
+    @Transactional(rollbackFor = Exception.class)
+    public boolean deleteMovies(List<String> eidrCodes) {
+        List<String> distinctEidrCodes = eidrCodes.stream().distinct().toList();
+        List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinctEidrCodes.size(); from += DELETE_CHUNK_SIZE) {
+            chunks.add(distinctEidrCodes.subList(from, Math.min(from + DELETE_CHUNK_SIZE, distinctEidrCodes.size())));
+        }
+
+        if (deleteMode == MovieDeleteMode.HARD) {
+            // Check if all movies exist
+            long existing = chunks.stream().mapToLong(movieRepository::countByEidrCodes).sum();
+            if (existing != distinctEidrCodes.size()) {
+                logger.error("Some of the movies with the given eidrCodes do not exist.");
+                throw new IllegalArgumentException("Some of the movies with the given eidrCodes do not exist.");
+            }
+
+            long deleted = 0;
+            for (List<String> chunk : chunks) {
+                // Delete from the bridge table, then from the movie table
+                movieCategoryBridgeRepository.deleteByMovieEidrCodes(chunk);
+                deleted += movieRepository.deleteByEidrCodes(chunk);
+            }
+            if (deleted != distinctEidrCodes.size()) {
+                // Some of them were deleted by a concurrent request after the check
+                logger.error("Some of the movies with the given eidrCodes do not exist.");
+                throw new IllegalArgumentException("Some of the movies with the given eidrCodes do not exist.");
+            }
+        } else {
+            // The UPDATE doubles as the existence check, the transaction rolls back if some movies weren't there
+            long deleted = chunks.stream().mapToLong(movieRepository::softDeleteByEidrCodes).sum();
+            if (deleted != distinctEidrCodes.size()) {
+                logger.error("Some of the movies with the given eidrCodes do not exist.");
+                throw new IllegalArgumentException("Some of the movies with the given eidrCodes do not exist.");
+            }
+        }
 
+        eventPublisher.publishEvent(new MoviesChangedEvent(distinctEidrCodes));
         return true;
     }
 
@@ -234,17 +569,43 @@ public class MovieService {
     }
 
     /**
-     * Checks if the current movie categories are equal to the requested categories
-     * So that there wouldn't be unnecessary updates
-     * @param currentCategories
-     * @param requestedCategories
-     * @return
+     * Difference between the movie's current and requested categories. The same categories in a different order
+     * are no change.
+     */
+    private CategoryChanges categoryChanges(String eidrCode, List<Long> requestedCategoryIds) {
+        Set<Long> requested = new LinkedHashSet<>(requestedCategoryIds);
+        Set<Long> current = new HashSet<>(movieCategoryBridgeRepository.findCategoryIdsByMovieEidrCode(eidrCode));
+
+        Set<Long> removed = new HashSet<>(current);
+        removed.removeAll(requested);
+
+        List<MovieCategoryEntityId> added = requested.stream()
+                .filter(categoryId -> !current.contains(categoryId))
+                .map(categoryId -> new MovieCategoryEntityId(eidrCode, categoryId))
+                .toList();
+        return new CategoryChanges(removed, added);
+    }
+
+    /**
+     * Writes only the difference: one bulk DELETE for the removed links and one batched INSERT for the added ones.
      */
-    private boolean currentMovieCategoriesEqualRequestedCategories(List<CategoryEntity> currentCategories, List<Long> requestedCategories) {
-        return currentCategories.stream().map(CategoryEntity::getId).toList().equals(requestedCategories);
+    private void writeCategoryChanges(String eidrCode, CategoryChanges changes) {
+        if (!changes.removed().isEmpty()) {
+            movieCategoryBridgeRepository.deleteByMovieEidrCodeAndCategoryIds(eidrCode, changes.removed());
+        }
+        if (!changes.added().isEmpty()) {
+            movieBulkRepository.insertMovieCategories(changes.added());
+        }
     }
 
-    private GetMovieResponse convertToMovieResponse(MovieEntity movieEntity, List<CategoryEntity> categoryEntities) {
+    private record CategoryChanges(Set<Long> removed, List<MovieCategoryEntityId> added) {
+
+        boolean isEmpty() {
+            return removed.isEmpty() && added.isEmpty();
+        }
+    }
+
+    private GetMovieResponse convertToMovieResponse(MovieEntity movieEntity, List<CategoryResponse> categories) {
         return new GetMovieResponse(
                 new MovieDto(
                         movieEntity.getEidrCode(),
@@ -253,21 +614,46 @@ public class MovieService {
                         movieEntity.getYear(),
                         movieEntity.getStatus()
                 ),
-                categoryEntities.stream().map(this::convertToCategoryResponse).toList()
+                categories,
+                movieEntity.getVersion(),
+                movieEntity.getCreatedAt()
         );
     }
 
-    private CategoryResponse convertToCategoryResponse(CategoryEntity categoryEntity) {
-        return new CategoryResponse(
-                categoryEntity.getId(),
-                categoryEntity.getName()
-        );
+    public List<CategoryResponse> getCategories() {
+        return categoryCatalogueCache.catalogue().categories();
     }
 
-    public List<CategoryResponse> getCategories() {
-        return categoryRepository.findAll().stream()
-                .map(categoryEntity -> new CategoryResponse(categoryEntity.getId(), categoryEntity.getName()))
-                .toList();
+    /**
+     * All categories together with their ETag, served from memory.
+     */
+    public CategoryCatalogue getCategoryCatalogue() {
+        return categoryCatalogueCache.catalogue();
+    }
+
+    private void validatePatchMovieRequest(PatchMovieRequest patchMovieRequest) {
+        if (!patchMovieRequest.hasFieldChanges() && !patchMovieRequest.hasCategoryChanges()) {
+            logger.error("Nothing to update.");
+            throw new IllegalArgumentException("Nothing to update.");
+        }
+        if (patchMovieRequest.year() != null && patchMovieRequest.year() > Year.now().getValue()) {
+            logger.error("Year cannot be in the future.");
+            throw new IllegalArgumentException("Year cannot be in the future.");
+        }
+        List<Long> added = patchMovieRequest.addCategories() == null ? List.of() : patchMovieRequest.addCategories().stream().distinct().toList();
+        List<Long> removed = patchMovieRequest.removeCategories() == null ? List.of() : patchMovieRequest.removeCategories();
+        if (added.contains(null) || removed.contains(null)) {
+            logger.error("Category ids cannot be null.");
+            throw new IllegalArgumentException("Category ids cannot be null.");
+        }
+        if (added.stream().anyMatch(removed::contains)) {
+            logger.error("A category cannot be both added and removed.");
+            throw new IllegalArgumentException("A category cannot be both added and removed.");
+        }
+        if (!added.isEmpty() && categoryCatalogueCache.findByIds(added).size() != added.size()) {
+            logger.error("Some categories do not exist.");
+            throw new IllegalArgumentException("Some categories do not exist.");
+        }
     }
 
     private void validateCreateOrUpdateMovieRequest(Integer year, List<Long> categories) {
@@ -279,26 +665,10 @@ public class MovieService {
             logger.error("Movie has to have at least one category.");
             throw new IllegalArgumentException("Movie has to have at least one category.");
         }
-        List<CategoryEntity> categoryEntities = categoryRepository.findCategoriesByIds(categories);
-        if (categoryEntities.size() != categories.size()) {
+        List<CategoryResponse> categoryResponses = categoryCatalogueCache.findByIds(categories);
+        if (categoryResponses.size() != categories.size()) {
             logger.error("Some categories do not exist.");
             throw new IllegalArgumentException("Some categories do not exist.");
         }
     }
-
-    private void saveMovieCategories(MovieEntity movie, List<CategoryEntity> categoryEntities) {
-        movieCategoryBridgeRepository.saveAll(
-                categoryEntities.stream()
-                        .map(categoryEntity -> {
-                            var MovieCategoryEntityId = new MovieCategoryEntityId();
-                            MovieCategoryEntityId.setMovieEidr(movie.getEidrCode());
-                            MovieCategoryEntityId.setCategoryId(categoryEntity.getId());
-
-                            var movieCategoryEntity = new MovieCategoryEntity();
-                            movieCategoryEntity.setId(MovieCategoryEntityId);
-                            return movieCategoryEntity;
-                        })
-                        .collect(Collectors.toList())
-        );
-    }
 }
@@ -0,0 +1,65 @@
+package com.example.moviedescriptionsserver.service;
+
+import com.example.moviedescriptionsserver.MoviesOrderBy;
+import com.querydsl.core.types.Order;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Continuation token for KEYSET pagination of the movies table.
+ * <p>
+ * Holds the sort key (rating or name) and the eidrCode of the last row of a page, together with the
+ * ordering it was created for, so a cursor can't be replayed against a different ordering.
+ * Clients should treat the encoded token as opaque.
+ */
+public record MovieTableCursor(
+        MoviesOrderBy orderBy,
+        Order direction,
+        String sortValue,
+        String eidrCode
+) {
+
+    private static final String SEPARATOR = ".";
+
+    public String encode() {
+        return String.join(SEPARATOR,
+                encodePart(orderBy.name()),
+                encodePart(direction.name()),
+                encodePart(sortValue),
+                encodePart(eidrCode));
+    }
+
+    public static MovieTableCursor decode(String token) {
+        String[] parts = token.split("\\" + SEPARATOR, -1);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+        try {
+            return new MovieTableCursor(
+                    MoviesOrderBy.valueOf(decodePart(parts[0])),
+                    Order.valueOf(decodePart(parts[1])),
+                    decodePart(parts[2]),
+                    decodePart(parts[3])
+            );
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+    }
+
+    public Double ratingValue() {
+        try {
+            return Double.valueOf(sortValue);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+    }
+
+    private static String encodePart(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodePart(String value) {
+        return new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+    }
+}
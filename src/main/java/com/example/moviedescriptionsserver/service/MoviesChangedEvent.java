@@ -0,0 +1,12 @@
+package com.example.moviedescriptionsserver.service;
+
+import java.util.List;
+
+/**
+ * Published by {@link MovieService} whenever movies are created, updated or deleted,
+ * so that anything derived from the movies table can be dropped once the transaction commits.
+ */
+public record MoviesChangedEvent(
+        List<String> eidrCodes
+) {
+}
@@ -0,0 +1,34 @@
+package com.example.moviedescriptionsserver.service;
+
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Retries a transactional write that lost against a concurrent one (optimistic locking failure, deadlock or
+ * serialization failure), at most {@code movies.retry.max-attempts} attempts with a randomized exponential backoff.
+ * When the attempts are used up the failure reaches MoviesExceptionHandler and becomes a 409.
+ * <p>
+ * The retry advice wraps the transaction advice (see @EnableRetry), so every attempt runs in a fresh transaction.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Retryable(
+        retryFor = ConcurrencyFailureException.class,
+        maxAttemptsExpression = "${movies.retry.max-attempts:4}",
+        backoff = @Backoff(
+                delayExpression = "${movies.retry.delay:20}",
+                maxDelayExpression = "${movies.retry.max-delay:500}",
+                multiplier = 2,
+                random = true
+        )
+)
+public @interface RetryOnConcurrencyFailure {
+}
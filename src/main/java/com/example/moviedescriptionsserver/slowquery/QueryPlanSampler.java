@@ -0,0 +1,143 @@
+package com.example.moviedescriptionsserver.slowquery;
+
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Captures the plans of slow statements in the background, on one thread with a short queue, samples that don't fit
+ * are dropped. A statement is explained at most once per interval.
+ * <p>
+ * ANALYZE executes the statement again, so only statements that are provably read-only get EXPLAIN (ANALYZE, BUFFERS):
+ * a SELECT, or a WITH ... SELECT, without INSERT, UPDATE, DELETE or MERGE anywhere in it (data-modifying CTEs such as
+ * MovieBulkRepository's purges are WITH statements too), without row locks and without sequence calls. Everything else
+ * gets a plain EXPLAIN, which plans the statement without running it. Either runs in a read-only transaction that is
+ * rolled back and with a statement_timeout; a SELECT that writes through a function fails there and falls back to the
+ * plain EXPLAIN. The connection comes from the unwrapped DataSource, the EXPLAIN itself isn't timed.
+ */
+public class QueryPlanSampler {
+
+    static Logger logger = LoggerFactory.getLogger(QueryPlanSampler.class);
+
+    private static final int QUEUE_SIZE = 8;
+    private static final int MAX_TRACKED_STATEMENTS = 1000;
+    private static final String READ_ONLY_SQL_TRANSACTION = "25006";
+
+    private static final Pattern EXPLAINABLE = Pattern.compile("^(select|with|insert|update|delete|merge|values)\\b");
+    private static final Pattern READ = Pattern.compile("^(select|with)\\b");
+    private static final Pattern WRITE = Pattern.compile(
+            "\\b(insert|update|delete|merge|share|nextval|setval|into)\\b");
+
+    private final DataSource dataSource;
+    private final long intervalNanos;
+    private final Duration timeout;
+    private final SlowQueryLog slowQueryLog;
+    private final Map<String, Long> lastExplained = new ConcurrentHashMap<>();
+    private final Executor executor;
+
+    public QueryPlanSampler(DataSource dataSource, Duration interval, Duration timeout, SlowQueryLog slowQueryLog) {
+        this(dataSource, interval, timeout, slowQueryLog, new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_SIZE),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy()));
+    }
+
+    public QueryPlanSampler(DataSource dataSource, Duration interval, Duration timeout, SlowQueryLog slowQueryLog,
+                            Executor executor) {
+        this.dataSource = dataSource;
+        this.intervalNanos = interval.toNanos();
+        this.timeout = timeout;
+        this.slowQueryLog = slowQueryLog;
+        this.executor = executor;
+    }
+
+    public void sample(String sql, List<ParameterSetOperation> parameters) {
+        String statement = normalize(sql);
+        if (!EXPLAINABLE.matcher(statement).find()) {
+            return;
+        }
+        long now = System.nanoTime();
+        Long last = lastExplained.get(sql);
+        if (last != null && now - last < intervalNanos) {
+            return;
+        }
+        if (lastExplained.size() >= MAX_TRACKED_STATEMENTS) {
+            lastExplained.clear();
+        }
+        lastExplained.put(sql, now);
+        boolean analyze = READ.matcher(statement).find() && !WRITE.matcher(statement).find();
+        executor.execute(() -> explain(sql, parameters, analyze));
+    }
+
+    private void explain(String sql, List<ParameterSetOperation> parameters, boolean analyze) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            String plan;
+            try {
+                plan = plan(connection, sql, parameters, analyze);
+            } catch (SQLException e) {
+                if (!analyze || !READ_ONLY_SQL_TRANSACTION.equals(e.getSQLState())) {
+                    throw e;
+                }
+                // The SELECT writes, through a function
+                plan = plan(connection, sql, parameters, false);
+            }
+            slowQueryLog.attachPlan(sql, plan);
+        } catch (Exception e) {
+            logger.warn("Could not explain slow query {}: {}", sql, e.getMessage());
+        }
+    }
+
+    private String plan(Connection connection, String sql, List<ParameterSetOperation> parameters, boolean analyze)
+            throws Exception {
+        try {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET LOCAL statement_timeout = " + timeout.toMillis());
+            }
+            StringBuilder plan = new StringBuilder();
+            try (PreparedStatement statement = connection.prepareStatement(
+                    (analyze ? "EXPLAIN (ANALYZE, BUFFERS) " : "EXPLAIN ") + sql)) {
+                for (ParameterSetOperation parameter : parameters) {
+                    parameter.getMethod().invoke(statement, parameter.getArgs());
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        plan.append(resultSet.getString(1)).append('\n');
+                    }
+                }
+            }
+            return plan.toString();
+        } finally {
+            connection.rollback();
+        }
+    }
+
+    // Lower case, without comments and string literals, so neither can make a statement look read-only or not
+    private static String normalize(String sql) {
+        return sql.replaceAll("(?s)/\\*.*?\\*/|--[^\\n]*|'(?:[^']|'')*'", " ")
+                .strip()
+                .toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.moviedescriptionsserver.slowquery;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Slow-query log: the DataSource is wrapped in a datasource-proxy, so every statement (JPA, QueryDSL, Spring Data and
+ * JdbcTemplate alike) is timed. That isn't free: every Connection and Statement becomes a JDK proxy and every bound
+ * parameter is recorded. Statements slower than movies.slow-query.threshold are kept in the SlowQueryLog with their
+ * parameters and the service method that issued them, and get a plan at most once per
+ * movies.slow-query.explain-interval, EXPLAIN (ANALYZE, BUFFERS) for read-only ones, plain EXPLAIN for the others.
+ * See /actuator/slowqueries.
+ * <p>
+ * On by default, disabled with movies.slow-query.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "movies.slow-query.enabled", havingValue = "true", matchIfMissing = true)
+public class SlowQueryConfiguration {
+
+    @Bean
+    public SlowQueryLog slowQueryLog(
+            @Value("${movies.slow-query.capacity:200}") int capacity,
+            @Value("${movies.slow-query.max-statements:500}") int maxStatements
+    ) {
+        return new SlowQueryLog(capacity, maxStatements);
+    }
+
+    @Bean
+    public SlowQueryEndpoint slowQueryEndpoint(
+            SlowQueryLog slowQueryLog,
+            @Value("${movies.slow-query.threshold:PT0.2S}") Duration threshold,
+            @Value("${movies.slow-query.top:20}") int top
+    ) {
+        return new SlowQueryEndpoint(slowQueryLog, threshold, top);
+    }
+
+    @Bean
+    static BeanPostProcessor slowQueryDataSource(ObjectProvider<SlowQueryLog> slowQueryLog, Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                if (bean instanceof ProxyDataSource proxyDataSource) {
+                    // Already a datasource-proxy, one more listener is enough
+                    proxyDataSource.getProxyConfig().getQueryListener()
+                            .addListener(listener(proxyDataSource.getDataSource(), slowQueryLog.getObject(), environment));
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create(dataSource)
+                        .name("slow-query")
+                        .listener(listener(dataSource, slowQueryLog.getObject(), environment))
+                        .build();
+            }
+        };
+    }
+
+    private static SlowQueryListener listener(DataSource dataSource, SlowQueryLog slowQueryLog, Environment environment) {
+        QueryPlanSampler planSampler = new QueryPlanSampler(
+                dataSource,
+                environment.getProperty("movies.slow-query.explain-interval", Duration.class, Duration.ofMinutes(1)),
+                environment.getProperty("movies.slow-query.explain-timeout", Duration.class, Duration.ofSeconds(10)),
+                slowQueryLog
+        );
+        return new SlowQueryListener(
+                environment.getProperty("movies.slow-query.threshold", Duration.class, Duration.ofMillis(200)),
+                slowQueryLog,
+                planSampler
+        );
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.moviedescriptionsserver.slowquery;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.time.Duration;
+
+/**
+ * /actuator/slowqueries: GET lists the top offenders and the latest slow executions, DELETE clears the log.
+ */
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+
+    private final SlowQueryLog slowQueryLog;
+    private final Duration threshold;
+    private final int top;
+
+    public SlowQueryEndpoint(SlowQueryLog slowQueryLog, Duration threshold, int top) {
+        this.slowQueryLog = slowQueryLog;
+        this.threshold = threshold;
+        this.top = top;
+    }
+
+    @ReadOperation
+    public SlowQueryReport slowQueries() {
+        return new SlowQueryReport(threshold, slowQueryLog.topOffenders(top), slowQueryLog.recent());
+    }
+
+    @DeleteOperation
+    public void clear() {
+        slowQueryLog.clear();
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.moviedescriptionsserver.slowquery;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Compares the elapsed time of every statement with the threshold, slow ones are logged with their parameters and origin
+ * and handed to the QueryPlanSampler.
+ * <p>
+ * The comparison is all the listener adds to a fast statement, the proxy it is attached to costs more: datasource-proxy
+ * wraps every Connection, Statement and ResultSet in a JDK proxy and records every setX call with its arguments, so
+ * that they can be handed to the listeners.
+ */
+public class SlowQueryListener implements QueryExecutionListener {
+
+    static Logger logger = LoggerFactory.getLogger(SlowQueryListener.class);
+
+    private static final String APPLICATION_PACKAGE = "com.example.moviedescriptionsserver.";
+    private static final String SERVICE_PACKAGE = APPLICATION_PACKAGE + "service.";
+    private static final int MAX_PARAMETER_LENGTH = 200;
+
+    private final long thresholdMillis;
+    private final SlowQueryLog slowQueryLog;
+    private final QueryPlanSampler planSampler;
+
+    public SlowQueryListener(Duration threshold, SlowQueryLog slowQueryLog, QueryPlanSampler planSampler) {
+        this.thresholdMillis = threshold.toMillis();
+        this.slowQueryLog = slowQueryLog;
+        this.planSampler = planSampler;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsedMillis = execInfo.getElapsedTime();
+        if (elapsedMillis < thresholdMillis) {
+            return;
+        }
+        String origin = origin();
+        for (QueryInfo queryInfo : queryInfoList) {
+            List<ParameterSetOperation> parameters = queryInfo.getParametersList().isEmpty()
+                    ? List.of()
+                    : List.copyOf(queryInfo.getParametersList().get(0));
+            logger.warn("Slow query ({} ms) from {}: {}", elapsedMillis, origin, queryInfo.getQuery());
+            slowQueryLog.add(new SlowQuerySample(Instant.now(), queryInfo.getQuery(), describe(parameters), origin, elapsedMillis));
+            planSampler.sample(queryInfo.getQuery(), parameters);
+        }
+    }
+
+    private static List<String> describe(List<ParameterSetOperation> parameters) {
+        return parameters.stream()
+                .map(parameter -> {
+                    Object[] args = parameter.getArgs();
+                    String value = parameter.getMethod().getName().equals("setNull") || args.length < 2
+                            ? "null"
+                            : String.valueOf(args[1]);
+                    if (value.length() > MAX_PARAMETER_LENGTH) {
+                        value = value.substring(0, MAX_PARAMETER_LENGTH) + "...";
+                    }
+                    return args[0] + "=" + value;
+                })
+                .toList();
+    }
+
+    private static String origin() {
+        return origin(StackWalker.getInstance().walk(stream -> stream
+                .filter(frame -> frame.getClassName().startsWith(APPLICATION_PACKAGE))
+                .map(StackWalker.StackFrame::toStackTraceElement)
+                .toList()));
+    }
+
+    /**
+     * The innermost service method on the stack (e.g. MovieService.getAllMovies), else the innermost application method.
+     * Frames of this package and of generated proxies ($$) don't count.
+     */
+    public static String origin(List<StackTraceElement> stack) {
+        List<StackTraceElement> frames = stack.stream()
+                .filter(frame -> frame.getClassName().startsWith(APPLICATION_PACKAGE))
+                .filter(frame -> !frame.getClassName().startsWith(SlowQueryListener.class.getPackageName()))
+                .filter(frame -> !frame.getClassName().contains("$$"))
+                .toList();
+        Optional<StackTraceElement> origin = frames.stream()
+                .filter(frame -> frame.getClassName().startsWith(SERVICE_PACKAGE))
+                .findFirst()
+                .or(() -> frames.stream().findFirst());
+        return origin.map(SlowQueryListener::describe).orElse("unknown");
+    }
+
+    private static String describe(StackTraceElement frame) {
+        String className = frame.getClassName();
+        String methodName = frame.getMethodName();
+        // lambda$getAllMovies$3 is a lambda in getAllMovies
+        if (methodName.startsWith("lambda$")) {
+            int end = methodName.indexOf('$', "lambda$".length());
+            methodName = methodName.substring("lambda$".length(), end > 0 ? end : methodName.length());
+        }
+        return className.substring(className.lastIndexOf('.') + 1) + "." + methodName;
+    }
+}
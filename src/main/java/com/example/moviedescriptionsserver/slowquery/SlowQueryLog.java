@@ -0,0 +1,96 @@
+package com.example.moviedescriptionsserver.slowquery;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory log of the slow statements, bounded in both directions: a ring buffer of the last capacity executions and
+ * the totals of at most maxStatements distinct statements (the one that was slow least recently is dropped first).
+ * <p>
+ * Only slow executions reach it, so a lock is cheap enough.
+ */
+public class SlowQueryLog {
+
+    private final int capacity;
+    private final Deque<SlowQuerySample> recent;
+    private final Map<String, Statistics> statements;
+
+    public SlowQueryLog(int capacity, int maxStatements) {
+        if (capacity < 1 || maxStatements < 1) {
+            throw new IllegalArgumentException("capacity and maxStatements must be positive");
+        }
+        this.capacity = capacity;
+        this.recent = new ArrayDeque<>(capacity);
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Statistics> eldest) {
+                return size() > maxStatements;
+            }
+        };
+    }
+
+    public synchronized void add(SlowQuerySample sample) {
+        if (recent.size() == capacity) {
+            recent.removeLast();
+        }
+        recent.addFirst(sample);
+        statements.computeIfAbsent(sample.sql(), sql -> new Statistics()).add(sample);
+    }
+
+    /**
+     * Attaches an EXPLAIN (ANALYZE, BUFFERS) output to the statement, unless it was dropped in the meantime.
+     */
+    public synchronized void attachPlan(String sql, String plan) {
+        Statistics statistics = statements.get(sql);
+        if (statistics != null) {
+            statistics.plan = plan;
+        }
+    }
+
+    /**
+     * The statements that took the most time in total, most first.
+     */
+    public synchronized List<SlowQueryOffender> topOffenders(int limit) {
+        return statements.entrySet().stream()
+                .map(entry -> entry.getValue().toOffender(entry.getKey()))
+                .sorted(Comparator.comparingLong(SlowQueryOffender::totalMillis).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * The last slow executions, newest first.
+     */
+    public synchronized List<SlowQuerySample> recent() {
+        return new ArrayList<>(recent);
+    }
+
+    public synchronized void clear() {
+        recent.clear();
+        statements.clear();
+    }
+
+    private static class Statistics {
+        private long count;
+        private long totalMillis;
+        private SlowQuerySample slowest;
+        private String plan;
+
+        void add(SlowQuerySample sample) {
+            count++;
+            totalMillis += sample.elapsedMillis();
+            if (slowest == null || sample.elapsedMillis() > slowest.elapsedMillis()) {
+                slowest = sample;
+            }
+        }
+
+        SlowQueryOffender toOffender(String sql) {
+            return new SlowQueryOffender(sql, count, totalMillis, slowest.elapsedMillis(), slowest, plan);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.moviedescriptionsserver.slowquery;
+
+/**
+ * A slow statement with its totals since it was first slow, its slowest execution and the last captured plan
+ * (null until one was captured, EXPLAIN only runs for SELECTs).
+ */
+public record SlowQueryOffender(
+        String sql,
+        long count,
+        long totalMillis,
+        long maxMillis,
+        SlowQuerySample slowest,
+        String plan
+) {
+}
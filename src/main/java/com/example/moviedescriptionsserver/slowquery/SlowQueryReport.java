@@ -0,0 +1,15 @@
+package com.example.moviedescriptionsserver.slowquery;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Response of the slowqueries actuator endpoint: the statements that took the most time in total, then the latest
+ * slow executions, newest first.
+ */
+public record SlowQueryReport(
+        Duration threshold,
+        List<SlowQueryOffender> topOffenders,
+        List<SlowQuerySample> recent
+) {
+}
@@ -0,0 +1,19 @@
+package com.example.moviedescriptionsserver.slowquery;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One execution of a statement that took longer than movies.slow-query.threshold.
+ *
+ * @param origin     the MovieService (or other application) method that issued the statement, e.g. MovieService.getAllMovies
+ * @param parameters the bound parameters by index, of the first parameter set of a batch
+ */
+public record SlowQuerySample(
+        Instant executedAt,
+        String sql,
+        List<String> parameters,
+        String origin,
+        long elapsedMillis
+) {
+}
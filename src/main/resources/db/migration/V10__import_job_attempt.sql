@@ -0,0 +1,4 @@
+-- Every start or resume of an import job is a new attempt. Only the current attempt may commit chunks, so a job whose
+-- importer looked dead (no progress for movies.import.stale-after) and was resumed isn't written by two importers.
+ALTER TABLE public.import_jobs
+    ADD COLUMN attempt INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,22 @@
+-- A renamed category changes the get-movie response of every movie of it, so their versions are bumped like by any
+-- other write of the movie and their ETags change (see MovieRevision)
+CREATE OR REPLACE FUNCTION public.categories_renamed() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    renamed_movie_ids VARCHAR[];
+BEGIN
+    renamed_movie_ids := ARRAY(
+            SELECT DISTINCT mc.movie_id
+            FROM public.movies_categories mc
+                     JOIN new_categories n ON n.id = mc.category_id
+                     JOIN old_categories o ON o.id = n.id
+            WHERE n.name <> o.name);
+    UPDATE public.movies
+    SET version = version + 1
+    WHERE eidr_code = ANY (renamed_movie_ids)
+      AND deleted_at IS NULL;
+    PERFORM public.refresh_movie_categories(renamed_movie_ids);
+    RETURN NULL;
+END
+$$;
@@ -0,0 +1,35 @@
+-- Baseline schema, the schema part of migration/everything.sql as it was before the schema was versioned
+-- (its sample data is db/sample V1.1). Databases set up by hand from that script are baselined at 1.1
+-- (see spring.flyway.baseline-version) and get every later change from V2 on.
+
+-- create movies table
+CREATE TABLE public.movies
+(
+    eidr_code  VARCHAR(255) PRIMARY KEY,
+    name       VARCHAR(255)     NOT NULL,
+    rating     DOUBLE PRECISION NOT NULL,
+    year       INTEGER          NOT NULL,
+    status     VARCHAR(255)     NOT NULL DEFAULT 'ACTIVE',
+    created_at timestamp        NOT NULL DEFAULT current_timestamp,
+    updated_at timestamp        NOT NULL DEFAULT current_timestamp,
+    deleted_at timestamp        NULL,
+
+    CONSTRAINT check_movie_status_in_supported_values CHECK (status in ('ACTIVE', 'INACTIVE'))
+);
+
+-- create categories table
+CREATE TABLE public.categories
+(
+    id   SERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL
+);
+
+-- create movies_categories table
+CREATE TABLE public.movies_categories
+(
+    movie_id    VARCHAR(255) NOT NULL,
+    category_id INTEGER      NOT NULL,
+    PRIMARY KEY (movie_id, category_id),
+    FOREIGN KEY (movie_id) REFERENCES public.movies (eidr_code),
+    FOREIGN KEY (category_id) REFERENCES public.categories (id)
+);
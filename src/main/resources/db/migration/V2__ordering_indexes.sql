@@ -0,0 +1,9 @@
+-- flyway:executeInTransaction=false
+-- Indexes for ordering the movies table (the eidr_code tiebreaker makes them usable for keyset pagination).
+-- Built concurrently, outside a transaction, so an existing movies table stays writable meanwhile; a build that
+-- failed leaves an invalid index behind, which is dropped when the migration is run again.
+DROP INDEX CONCURRENTLY IF EXISTS public.movies_rating_eidr_code_idx;
+CREATE INDEX CONCURRENTLY movies_rating_eidr_code_idx ON public.movies (rating, eidr_code);
+
+DROP INDEX CONCURRENTLY IF EXISTS public.movies_name_eidr_code_idx;
+CREATE INDEX CONCURRENTLY movies_name_eidr_code_idx ON public.movies (name, eidr_code);
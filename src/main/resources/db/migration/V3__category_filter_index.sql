@@ -0,0 +1,4 @@
+-- flyway:executeInTransaction=false
+-- Index for category filters (the primary key only covers lookups by movie_id), built concurrently as in V2.
+DROP INDEX CONCURRENTLY IF EXISTS public.movies_categories_category_id_movie_id_idx;
+CREATE INDEX CONCURRENTLY movies_categories_category_id_movie_id_idx ON public.movies_categories (category_id, movie_id);
@@ -0,0 +1,11 @@
+-- Search indexes (see MovieSearchExpressions for the query shapes they serve).
+-- Adding the generated search_vector column rewrites the movies table, so this migration locks it anyway and
+-- builds its indexes in the same transaction.
+CREATE EXTENSION IF NOT EXISTS pg_trgm SCHEMA public;
+ALTER TABLE public.movies
+    ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (to_tsvector('simple', name)) STORED;
+CREATE INDEX movies_name_trgm_idx ON public.movies USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX movies_eidr_code_trgm_idx ON public.movies USING gin (lower(eidr_code) gin_trgm_ops);
+CREATE INDEX movies_name_prefix_idx ON public.movies (lower(name) text_pattern_ops);
+CREATE INDEX movies_eidr_code_prefix_idx ON public.movies (lower(eidr_code) text_pattern_ops);
+CREATE INDEX movies_search_vector_idx ON public.movies USING gin (search_vector);
@@ -0,0 +1,40 @@
+-- Catalogue import tables (see CatalogueImportService)
+CREATE TABLE public.import_jobs
+(
+    id               BIGSERIAL PRIMARY KEY,
+    format           VARCHAR(255) NOT NULL,
+    status           VARCHAR(255) NOT NULL,
+    committed_rows   BIGINT       NOT NULL DEFAULT 0,
+    imported_rows    BIGINT       NOT NULL DEFAULT 0,
+    existing_rows    BIGINT       NOT NULL DEFAULT 0,
+    rejected_rows    BIGINT       NOT NULL DEFAULT 0,
+    error            TEXT         NULL,
+    created_at       timestamp    NOT NULL DEFAULT current_timestamp,
+    updated_at       timestamp    NOT NULL DEFAULT current_timestamp,
+
+    CONSTRAINT check_import_job_format_in_supported_values CHECK (format in ('NDJSON', 'CSV')),
+    CONSTRAINT check_import_job_status_in_supported_values CHECK (status in ('RUNNING', 'COMPLETED', 'FAILED'))
+);
+
+CREATE TABLE public.import_job_rejections
+(
+    job_id    BIGINT       NOT NULL REFERENCES public.import_jobs (id),
+    row_no    BIGINT       NOT NULL,
+    eidr_code VARCHAR(255) NULL,
+    message   TEXT         NOT NULL,
+    PRIMARY KEY (job_id, row_no)
+);
+
+-- staging rows only live for the duration of one chunk, so they don't need to survive a crash
+CREATE UNLOGGED TABLE public.movies_import_staging
+(
+    job_id       BIGINT           NOT NULL,
+    row_no       BIGINT           NOT NULL,
+    eidr_code    VARCHAR(255)     NOT NULL,
+    name         VARCHAR(255)     NOT NULL,
+    rating       DOUBLE PRECISION NOT NULL,
+    year         INTEGER          NOT NULL,
+    status       VARCHAR(255)     NOT NULL,
+    category_ids INTEGER[]        NOT NULL
+);
+CREATE INDEX movies_import_staging_job_id_idx ON public.movies_import_staging (job_id);
@@ -0,0 +1,12 @@
+-- flyway:executeInTransaction=false
+-- Soft deletes: the ordering indexes become partial, so that soft-deleted movies are filtered out by the index itself
+-- (see MovieService.moviesCondition), and a partial index that only holds the deleted movies serves
+-- DeletedMoviePurger. Built concurrently as in V2.
+DROP INDEX CONCURRENTLY IF EXISTS public.movies_rating_eidr_code_idx;
+CREATE INDEX CONCURRENTLY movies_rating_eidr_code_idx ON public.movies (rating, eidr_code) WHERE deleted_at IS NULL;
+
+DROP INDEX CONCURRENTLY IF EXISTS public.movies_name_eidr_code_idx;
+CREATE INDEX CONCURRENTLY movies_name_eidr_code_idx ON public.movies (name, eidr_code) WHERE deleted_at IS NULL;
+
+DROP INDEX CONCURRENTLY IF EXISTS public.movies_deleted_at_idx;
+CREATE INDEX CONCURRENTLY movies_deleted_at_idx ON public.movies (deleted_at) WHERE deleted_at IS NOT NULL;
@@ -0,0 +1,4 @@
+-- Optimistic locking of movies (MovieEntity.version), existing movies start at 0.
+-- A constant default doesn't rewrite the table.
+ALTER TABLE public.movies
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,83 @@
+-- Denormalized categories of every movie, so the movies table can be read and filtered without joining
+-- movies_categories and categories (see MovieService.getAllMovies). Kept in sync by the triggers below,
+-- whichever way the links are written, and verified by MovieCategoriesConsistencyChecker.
+ALTER TABLE public.movies
+    ADD COLUMN category_ids   INTEGER[] NOT NULL DEFAULT '{}',
+    ADD COLUMN category_names TEXT      NOT NULL DEFAULT '';
+
+-- recomputes the denormalized categories of the given movies, soft-deleted ones are skipped as they are never read
+CREATE FUNCTION public.refresh_movie_categories(movie_ids VARCHAR[]) RETURNS void
+    LANGUAGE sql AS
+$$
+UPDATE public.movies m
+SET category_ids   = l.category_ids,
+    category_names = l.category_names
+FROM (SELECT u.movie_id,
+             coalesce(array_agg(c.id ORDER BY c.id) FILTER (WHERE c.id IS NOT NULL), '{}') AS category_ids,
+             coalesce(string_agg(c.name, ', ' ORDER BY c.id), '')                          AS category_names
+      FROM (SELECT DISTINCT unnest(movie_ids) AS movie_id) u
+               LEFT JOIN public.movies_categories mc ON mc.movie_id = u.movie_id
+               LEFT JOIN public.categories c ON c.id = mc.category_id
+      GROUP BY u.movie_id) l
+WHERE m.eidr_code = l.movie_id
+  AND m.deleted_at IS NULL
+  AND (m.category_ids <> l.category_ids OR m.category_names <> l.category_names);
+$$;
+
+-- statement-level, so a bulk insert or delete of links refreshes every affected movie once
+CREATE FUNCTION public.movies_categories_changed() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM public.refresh_movie_categories(ARRAY(SELECT movie_id FROM new_links));
+    ELSIF TG_OP = 'DELETE' THEN
+        PERFORM public.refresh_movie_categories(ARRAY(SELECT movie_id FROM old_links));
+    ELSE
+        PERFORM public.refresh_movie_categories(ARRAY(SELECT movie_id FROM old_links UNION SELECT movie_id FROM new_links));
+    END IF;
+    RETURN NULL;
+END
+$$;
+CREATE TRIGGER movies_categories_inserted
+    AFTER INSERT ON public.movies_categories REFERENCING NEW TABLE AS new_links
+    FOR EACH STATEMENT EXECUTE FUNCTION public.movies_categories_changed();
+CREATE TRIGGER movies_categories_deleted
+    AFTER DELETE ON public.movies_categories REFERENCING OLD TABLE AS old_links
+    FOR EACH STATEMENT EXECUTE FUNCTION public.movies_categories_changed();
+CREATE TRIGGER movies_categories_updated
+    AFTER UPDATE ON public.movies_categories REFERENCING OLD TABLE AS old_links NEW TABLE AS new_links
+    FOR EACH STATEMENT EXECUTE FUNCTION public.movies_categories_changed();
+
+-- renamed categories change the names of all their movies
+CREATE FUNCTION public.categories_renamed() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    PERFORM public.refresh_movie_categories(ARRAY(
+            SELECT mc.movie_id
+            FROM public.movies_categories mc
+                     JOIN new_categories n ON n.id = mc.category_id
+                     JOIN old_categories o ON o.id = n.id
+            WHERE n.name <> o.name));
+    RETURN NULL;
+END
+$$;
+CREATE TRIGGER categories_renamed
+    AFTER UPDATE ON public.categories REFERENCING OLD TABLE AS old_categories NEW TABLE AS new_categories
+    FOR EACH STATEMENT EXECUTE FUNCTION public.categories_renamed();
+
+-- categories of the existing movies, before the index is built
+UPDATE public.movies m
+SET category_ids   = l.category_ids,
+    category_names = l.category_names
+FROM (SELECT mc.movie_id,
+             array_agg(c.id ORDER BY c.id)          AS category_ids,
+             string_agg(c.name, ', ' ORDER BY c.id) AS category_names
+      FROM public.movies_categories mc
+               JOIN public.categories c ON c.id = mc.category_id
+      GROUP BY mc.movie_id) l
+WHERE m.eidr_code = l.movie_id
+  AND m.deleted_at IS NULL;
+
+CREATE INDEX movies_category_ids_idx ON public.movies USING gin (category_ids) WHERE deleted_at IS NULL;
@@ -0,0 +1,17 @@
+-- flyway:executeInTransaction=false
+-- Covering versions of the ordering indexes of the movies table (see MovieService.getAllMovies).
+-- Every orderSpecifier (rating or name, ASC or DESC, eidr_code tiebreaker) is a forward or backward scan of one of
+-- them and the KEYSET seek predicate is its lower / upper bound. With the selected columns and category_ids included,
+-- the page query, its category filters (ANY_OF &&, ALL_OF @>) and the count query are index-only scans.
+-- The name / eidrCode search filters are served by the search indexes, see MovieSearchExpressions.
+-- Built concurrently as in V2, next to the indexes they replace, which are only dropped once the new ones are valid,
+-- so ordered reads keep an index throughout.
+DROP INDEX CONCURRENTLY IF EXISTS public.movies_rating_eidr_code_covering_idx;
+CREATE INDEX CONCURRENTLY movies_rating_eidr_code_covering_idx ON public.movies (rating, eidr_code)
+    INCLUDE (name, year, status, category_ids, category_names) WHERE deleted_at IS NULL;
+DROP INDEX CONCURRENTLY IF EXISTS public.movies_rating_eidr_code_idx;
+
+DROP INDEX CONCURRENTLY IF EXISTS public.movies_name_eidr_code_covering_idx;
+CREATE INDEX CONCURRENTLY movies_name_eidr_code_covering_idx ON public.movies (name, eidr_code)
+    INCLUDE (rating, year, status, category_ids, category_names) WHERE deleted_at IS NULL;
+DROP INDEX CONCURRENTLY IF EXISTS public.movies_name_eidr_code_idx;
@@ -0,0 +1,280 @@
+package com.example.moviedescriptionsserver;
+
+import com.example.moviedescriptionsserver.dto.MovieTableRowDto;
+import com.example.moviedescriptionsserver.dto.request.GetMoviesFilter;
+import com.example.moviedescriptionsserver.dto.response.ImportJobResponse;
+import com.example.moviedescriptionsserver.dto.response.ImportRejection;
+import com.example.moviedescriptionsserver.repository.MovieCategoryBridgeRepository;
+import com.example.moviedescriptionsserver.repository.MovieRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(locations = "/application-test.properties", properties = "movies.import.chunk-size=2")
+@AutoConfigureMockMvc
+@Sql(scripts = {"/migration/setup-test-schema.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = {"/migration/teardown-test-schema.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class CatalogueE2eTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private MovieCategoryBridgeRepository movieCategoryBridgeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String controllerPath = "/api/catalogue";
+
+    @Test
+    void testImportNdjson() throws Exception {
+        String body = """
+                {"eidrCode": "import_1", "name": "Import One", "rating": 5.0, "year": 2020, "status": "ACTIVE", "categories": [1, 2]}
+                {"eidrCode": "10.5240/1A2B-3C4D-5E6F-7G8H-9I0J-A", "name": "Movie One", "rating": 7.0, "year": 2020, "status": "ACTIVE", "categories": [1]}
+                {"eidrCode": "import_2", "name": "Import Two", "rating": 5.0, "year": 9999, "status": "ACTIVE", "categories": [1]}
+                {"eidrCode": "import_3", "name": "Import\\tThree", "rating": 6.5, "year": 2001, "status": "INACTIVE", "categories": [3]}
+                {"eidrCode": "import_1", "name": "Import One again", "rating": 5.0, "year": 2020, "status": "ACTIVE", "categories": [4]}
+                """;
+
+        ImportJobResponse job = readJob(performImport("application/x-ndjson", body, null));
+
+        assertThat(job.status()).isEqualTo(ImportJobStatus.COMPLETED);
+        assertThat(job.committedRows()).isEqualTo(5);
+        assertThat(job.importedRows()).isEqualTo(2);
+        assertThat(job.existingRows()).isEqualTo(2);
+        assertThat(job.rejectedRows()).isEqualTo(1);
+        assertThat(job.rejections()).containsExactly(new ImportRejection(3L, "import_2", "Year cannot be in the future."));
+
+        assertThat(movieRepository.findById("import_1")).hasValueSatisfying(movie -> assertThat(movie.getName()).isEqualTo("Import One"));
+        assertThat(movieRepository.findById("import_3")).hasValueSatisfying(movie -> assertThat(movie.getName()).isEqualTo("Import\tThree"));
+        assertThat(movieRepository.findById("import_2")).isEmpty();
+        assertThat(movieCategoryBridgeRepository.findAllByMovieEidrCodes(List.of("import_1")))
+                .extracting(movieCategory -> movieCategory.getId().getCategoryId())
+                .containsExactlyInAnyOrder(1L, 2L);
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders
+                        .get(controllerPath + "/import-job")
+                        .param("jobId", job.jobId().toString())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(objectMapper.readValue(result.getResponse().getContentAsString(), ImportJobResponse.class)).isEqualTo(job);
+
+        result = mockMvc.perform(MockMvcRequestBuilders
+                        .get(controllerPath + "/import/" + job.jobId())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(objectMapper.readValue(result.getResponse().getContentAsString(), ImportJobResponse.class)).isEqualTo(job);
+    }
+
+    @Test
+    void testImportCsv() throws Exception {
+        String body = """
+                eidrCode,name,rating,year,status,categories
+                import_csv_1,"Import, One",5.5,2019,ACTIVE,1;4
+                import_csv_2,Import Two,6.0,2018,INACTIVE,999
+                import_csv_3,Import Three,7.0,2017,ACTIVE,5
+                """;
+
+        ImportJobResponse job = readJob(performImport("text/csv", body, null));
+
+        assertThat(job.status()).isEqualTo(ImportJobStatus.COMPLETED);
+        assertThat(job.importedRows()).isEqualTo(2);
+        assertThat(job.rejectedRows()).isEqualTo(1);
+        assertThat(job.rejections()).extracting(ImportRejection::message).containsExactly("Some categories do not exist.");
+        assertThat(movieRepository.findById("import_csv_1")).hasValueSatisfying(movie -> assertThat(movie.getName()).isEqualTo("Import, One"));
+        assertThat(movieCategoryBridgeRepository.findAllByMovieEidrCodes(List.of("import_csv_1")))
+                .extracting(movieCategory -> movieCategory.getId().getCategoryId())
+                .containsExactlyInAnyOrder(1L, 4L);
+    }
+
+    @Test
+    void testImportResume() throws Exception {
+        String rows = """
+                {"eidrCode": "import_1", "name": "Import One", "rating": 5.0, "year": 2020, "status": "ACTIVE", "categories": [1]}
+                {"eidrCode": "import_2", "name": "Import Two", "rating": 5.0, "year": 2020, "status": "ACTIVE", "categories": [2]}
+                """;
+        String brokenRow = "{\"eidrCode\": \"import_3\", \"name\": \n";
+        String remainingRows = """
+                {"eidrCode": "import_3", "name": "Import Three", "rating": 5.0, "year": 2020, "status": "ACTIVE", "categories": [3]}
+                {"eidrCode": "import_4", "name": "Import Four", "rating": 5.0, "year": 2020, "status": "ACTIVE", "categories": [4]}
+                """;
+
+        // The first chunk is committed before the broken row is read
+        ImportJobResponse failed = readJob(performImport("application/x-ndjson", rows + brokenRow, null));
+        assertThat(failed.status()).isEqualTo(ImportJobStatus.FAILED);
+        assertThat(failed.error()).isNotBlank();
+        assertThat(failed.committedRows()).isEqualTo(2);
+        assertThat(failed.importedRows()).isEqualTo(2);
+        assertThat(movieRepository.findById("import_3")).isEmpty();
+
+        // The fixed file is uploaded again, the committed rows are skipped
+        ImportJobResponse resumed = readJob(performImport("application/x-ndjson", rows + remainingRows, failed.jobId()));
+        assertThat(resumed.jobId()).isEqualTo(failed.jobId());
+        assertThat(resumed.status()).isEqualTo(ImportJobStatus.COMPLETED);
+        assertThat(resumed.committedRows()).isEqualTo(4);
+        assertThat(resumed.importedRows()).isEqualTo(4);
+        assertThat(resumed.existingRows()).isZero();
+        assertThat(resumed.error()).isNull();
+        assertThat(movieRepository.findAllById(List.of("import_1", "import_2", "import_3", "import_4"))).hasSize(4);
+
+        // A completed job can't be resumed
+        performImport("application/x-ndjson", rows + remainingRows, failed.jobId())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testImportRejectsMalformedAndTooLongRows() throws Exception {
+        String body = """
+                {"eidrCode": "import_1", "name": "Import One", "rating": "high", "year": 2020, "status": "ACTIVE", "categories": [1]}
+                {"eidrCode": "import_2", "name": "%s", "rating": 5.0, "year": 2020, "status": "ACTIVE", "categories": [1]}
+                {"eidrCode": "import_3", "name": "Import Three", "rating": 5.0, "year": 2020, "status": "ACTIVE", "categories": [3]}
+                """.formatted("x".repeat(256));
+
+        ImportJobResponse job = readJob(performImport("application/x-ndjson", body, null));
+
+        assertThat(job.status()).isEqualTo(ImportJobStatus.COMPLETED);
+        assertThat(job.committedRows()).isEqualTo(3);
+        assertThat(job.importedRows()).isEqualTo(1);
+        assertThat(job.rejectedRows()).isEqualTo(2);
+        assertThat(job.rejections()).extracting(ImportRejection::rowNo).containsExactly(1L, 2L);
+        assertThat(job.rejections().get(0).message()).startsWith("Malformed row: ");
+        assertThat(job.rejections().get(1).message()).isEqualTo("eidrCode and name can be at most 255 characters long.");
+        assertThat(movieRepository.findById("import_3")).isPresent();
+    }
+
+    @Test
+    void testImportResumeOfStaleRunningJob() throws Exception {
+        String rows = """
+                {"eidrCode": "import_1", "name": "Import One", "rating": 5.0, "year": 2020, "status": "ACTIVE", "categories": [1]}
+                {"eidrCode": "import_2", "name": "Import Two", "rating": 5.0, "year": 2020, "status": "ACTIVE", "categories": [2]}
+                """;
+        ImportJobResponse failed = readJob(performImport("application/x-ndjson", rows + "{\"eidrCode\": \n", null));
+
+        // As if its server died while it was running
+        jdbcTemplate.update("UPDATE public.import_jobs SET status = 'RUNNING' WHERE id = ?", failed.jobId());
+        performImport("application/x-ndjson", rows, failed.jobId())
+                .andExpect(status().isBadRequest());
+
+        jdbcTemplate.update("UPDATE public.import_jobs SET updated_at = current_timestamp - interval '1 hour' WHERE id = ?", failed.jobId());
+        ImportJobResponse resumed = readJob(performImport("application/x-ndjson", rows, failed.jobId()));
+        assertThat(resumed.status()).isEqualTo(ImportJobStatus.COMPLETED);
+        assertThat(resumed.committedRows()).isEqualTo(2);
+    }
+
+    @Test
+    void testExportNdjson() throws Exception {
+        MvcResult result = performExport("NDJSON", null, null)
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(25);
+        MovieTableRowDto first = objectMapper.readValue(lines[0], MovieTableRowDto.class);
+        assertThat(first.eidrCode()).isEqualTo("10.5240/0J1K-2L3M-4N5O-6P7Q-8R9S-J");
+        assertThat(first.name()).isEqualTo("Movie Ten");
+        assertThat(first.categories().split(", ")).containsExactlyInAnyOrder("Drama", "Sci-Fi");
+    }
+
+    @Test
+    void testExportCsvWithFilterAndGzip() throws Exception {
+        var filter = new GetMoviesFilter(List.of(1L, 2L), null, null, null, null, null, null,
+                null, null, null, MoviesCategoryMatch.ALL_OF, null);
+
+        MvcResult result = performExport("CSV", filter, "gzip")
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn();
+
+        String csv;
+        try (var gzip = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            csv = new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        List<String> lines = csv.lines().toList();
+        assertThat(lines.get(0)).isEqualTo("eidrCode,name,rating,year,status,categories");
+        assertThat(lines).hasSize(4);
+        assertThat(lines.get(1)).startsWith("10.5240/1A2B-3C4D-5E6F-7G8H-9I0J-A,Movie One,7.0,2020,ACTIVE,");
+    }
+
+    @Test
+    void testExportWithoutGzipWhenItsQualityIsZero() throws Exception {
+        MvcResult result = performExport("NDJSON", null, "gzip;q=0, identity")
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andReturn();
+        assertThat(result.getResponse().getContentAsString().split("\n")).hasSize(25);
+
+        performExport("NDJSON", null, "*, gzip;q=0")
+                .andExpect(header().doesNotExist("Content-Encoding"));
+        performExport("NDJSON", null, "br, *;q=0.5")
+                .andExpect(header().string("Content-Encoding", "gzip"));
+    }
+
+    private ResultActions performImport(String contentType, String body, Long jobId) throws Exception {
+        var request = MockMvcRequestBuilders
+                .post(controllerPath + "/import")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(contentType)
+                .content(body);
+        if (jobId != null) {
+            request.param("jobId", jobId.toString());
+        }
+        return mockMvc.perform(request);
+    }
+
+    private ResultActions performExport(String format, GetMoviesFilter filter, String acceptEncoding) throws Exception {
+        var request = MockMvcRequestBuilders
+                .post(controllerPath + "/export")
+                .param("format", format)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(filter == null ? "" : objectMapper.writeValueAsString(filter));
+        if (acceptEncoding != null) {
+            request.header("Accept-Encoding", acceptEncoding);
+        }
+        MvcResult started = mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk());
+    }
+
+    private ImportJobResponse readJob(ResultActions resultActions) throws Exception {
+        MvcResult started = resultActions
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isAccepted())
+                .andReturn();
+        ImportJobResponse job = objectMapper.readValue(result.getResponse().getContentAsString(), ImportJobResponse.class);
+        assertThat(result.getResponse().getHeader("Location")).endsWith(controllerPath + "/import/" + job.jobId());
+        return job;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.moviedescriptionsserver;
+
+import com.example.moviedescriptionsserver.cache.CategoryCatalogue;
+import com.example.moviedescriptionsserver.cache.CategoryCatalogueCache;
+import com.example.moviedescriptionsserver.dto.response.CategoryResponse;
+import com.example.moviedescriptionsserver.entity.CategoryEntity;
+import com.example.moviedescriptionsserver.repository.CategoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class CategoryCatalogueCacheTest {
+
+    private final CategoryRepository categoryRepository = mock(CategoryRepository.class);
+
+    @Test
+    void testUnknownIdsReloadTheTableAtMostOncePerInterval() {
+        // Given
+        given(categoryRepository.findAll()).willReturn(List.of(category(1L, "Action")));
+        CategoryCatalogueCache cache = new CategoryCatalogueCache(categoryRepository, new SimpleMeterRegistry(), Duration.ofHours(1));
+        cache.findByIds(List.of(1L));
+
+        // When
+        List<CategoryResponse> unknown = cache.findByIds(List.of(1L, 99L));
+        cache.findByIds(List.of(98L));
+
+        // Then
+        assertThat(unknown).extracting(CategoryResponse::id).containsExactly(1L);
+        verify(categoryRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testUnknownIdReloadsTheTableOnceTheIntervalIsOver() {
+        // Given
+        given(categoryRepository.findAll())
+                .willReturn(List.of(category(1L, "Action")))
+                .willReturn(List.of(category(1L, "Action"), category(2L, "Comedy")));
+        CategoryCatalogueCache cache = new CategoryCatalogueCache(categoryRepository, new SimpleMeterRegistry(), Duration.ZERO);
+        cache.findByIds(List.of(1L));
+
+        // When
+        List<CategoryResponse> added = cache.findByIds(List.of(2L));
+
+        // Then
+        assertThat(added).extracting(CategoryResponse::name).containsExactly("Comedy");
+        verify(categoryRepository, times(2)).findAll();
+    }
+
+    @Test
+    void testEtagIsADigestOfTheCategories() {
+        // Given, "Aa" and "BB" have the same String.hashCode
+        CategoryCatalogue catalogue = CategoryCatalogue.of(List.of(new CategoryResponse(1L, "Aa")));
+        CategoryCatalogue renamed = CategoryCatalogue.of(List.of(new CategoryResponse(1L, "BB")));
+
+        // When, Then
+        assertThat(catalogue.etag()).hasSize(64).isNotEqualTo(renamed.etag());
+        assertThat(catalogue.etag()).isEqualTo(CategoryCatalogue.of(List.of(new CategoryResponse(1L, "Aa"))).etag());
+    }
+
+    private static CategoryEntity category(Long id, String name) {
+        CategoryEntity categoryEntity = new CategoryEntity();
+        categoryEntity.setId(id);
+        categoryEntity.setName(name);
+        return categoryEntity;
+    }
+}
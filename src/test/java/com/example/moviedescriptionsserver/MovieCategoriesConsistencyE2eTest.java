@@ -0,0 +1,87 @@
+package com.example.moviedescriptionsserver;
+
+import com.example.moviedescriptionsserver.dto.request.CreateMovieRequest;
+import com.example.moviedescriptionsserver.dto.request.PatchMovieRequest;
+import com.example.moviedescriptionsserver.dto.request.UpdateMovieRequest;
+import com.example.moviedescriptionsserver.service.MovieCategoriesConsistencyChecker;
+import com.example.moviedescriptionsserver.service.MovieService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The denormalized categories of the movies table are maintained by triggers, whichever way the links are written,
+ * and MovieCategoriesConsistencyChecker finds and repairs them if they aren't.
+ */
+@SpringBootTest
+@TestPropertySource(locations = "/application-test.properties", properties = "movies.categories-check.batch-size=3")
+@Sql(scripts = {"/migration/setup-test-schema.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = {"/migration/teardown-test-schema.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class MovieCategoriesConsistencyE2eTest {
+
+    private static final String EIDR_CODE = "10.5240/1A2B-3C4D-5E6F-7G8H-9I0J-A";
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private MovieCategoriesConsistencyChecker movieCategoriesConsistencyChecker;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testWritesKeepCategoriesInSync() {
+        assertThat(movieCategoriesConsistencyChecker.check()).isZero();
+
+        movieService.createMovie(new CreateMovieRequest("eidrCode_denormalized", "Denormalized", 5.0, 2020, MovieStatus.ACTIVE, List.of(3L, 1L)));
+        assertThat(categoryNames("eidrCode_denormalized")).isEqualTo("Action, Drama");
+        assertThat(categoryIds("eidrCode_denormalized")).isEqualTo("{1,3}");
+
+        movieService.updateMovie(new UpdateMovieRequest(EIDR_CODE, "Movie One", 7.0, 2020, MovieStatus.ACTIVE, List.of(2L, 4L)));
+        assertThat(categoryNames(EIDR_CODE)).isEqualTo("Comedy, Horror");
+
+        movieService.patchMovie(new PatchMovieRequest(EIDR_CODE, null, null, null, null, List.of(1L), List.of(4L)), null);
+        assertThat(categoryNames(EIDR_CODE)).isEqualTo("Action, Comedy");
+
+        movieService.deleteMovies(List.of("eidrCode_denormalized"));
+        assertThat(movieCategoriesConsistencyChecker.check()).isZero();
+    }
+
+    @Test
+    void testRenamedCategoryRenamesItsMovies() {
+        jdbcTemplate.update("UPDATE public.categories SET name = 'Fighting' WHERE id = 1");
+
+        assertThat(categoryNames(EIDR_CODE)).isEqualTo("Fighting, Comedy");
+        assertThat(movieCategoriesConsistencyChecker.check()).isZero();
+    }
+
+    @Test
+    void testCheckerRepairsStaleCategories() {
+        jdbcTemplate.update("ALTER TABLE public.movies_categories DISABLE TRIGGER movies_categories_deleted");
+        jdbcTemplate.update("DELETE FROM public.movies_categories WHERE movie_id = ? AND category_id = 2", EIDR_CODE);
+        jdbcTemplate.update("ALTER TABLE public.movies_categories ENABLE TRIGGER movies_categories_deleted");
+        assertThat(categoryNames(EIDR_CODE)).isEqualTo("Action, Comedy");
+
+        assertThat(movieCategoriesConsistencyChecker.check()).isEqualTo(1);
+
+        assertThat(categoryNames(EIDR_CODE)).isEqualTo("Action");
+        assertThat(categoryIds(EIDR_CODE)).isEqualTo("{1}");
+        assertThat(movieCategoriesConsistencyChecker.check()).isZero();
+    }
+
+    private String categoryNames(String eidrCode) {
+        return jdbcTemplate.queryForObject("SELECT category_names FROM public.movies WHERE eidr_code = ?", String.class, eidrCode);
+    }
+
+    private String categoryIds(String eidrCode) {
+        return jdbcTemplate.queryForObject("SELECT category_ids::text FROM public.movies WHERE eidr_code = ?", String.class, eidrCode);
+    }
+}
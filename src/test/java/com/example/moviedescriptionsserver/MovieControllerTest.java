@@ -1,15 +1,23 @@
 package com.example.moviedescriptionsserver;
 
+import com.example.moviedescriptionsserver.cache.CategoryCatalogue;
 import com.example.moviedescriptionsserver.controller.MovieController;
 import com.example.moviedescriptionsserver.dto.MovieDto;
+import com.example.moviedescriptionsserver.dto.MovieIfMatch;
+import com.example.moviedescriptionsserver.dto.MovieRevision;
 import com.example.moviedescriptionsserver.dto.request.CreateMovieRequest;
 import com.example.moviedescriptionsserver.dto.request.DeleteMoviesRequest;
 import com.example.moviedescriptionsserver.dto.request.GetMoviesFilter;
+import com.example.moviedescriptionsserver.dto.request.PatchMovieRequest;
 import com.example.moviedescriptionsserver.dto.request.UpdateMovieRequest;
 import com.example.moviedescriptionsserver.dto.response.CategoryResponse;
+import com.example.moviedescriptionsserver.dto.response.CreateMovieItemResult;
+import com.example.moviedescriptionsserver.dto.response.CreateMoviesResult;
 import com.example.moviedescriptionsserver.dto.response.GetMovieResponse;
+import com.example.moviedescriptionsserver.dto.response.PatchMovieResponse;
 import com.example.moviedescriptionsserver.dto.response.GetMovieTableResult;
 import com.example.moviedescriptionsserver.dto.MovieTableRowDto;
+import com.example.moviedescriptionsserver.service.MovieBulkService;
 import com.example.moviedescriptionsserver.service.MovieService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.querydsl.core.types.Order;
@@ -25,16 +33,23 @@ import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = MovieController.class)
 class MovieControllerTest {
 
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_456_000);
+
     private final String controllerPath = "/api/movie";
 
     @Autowired
@@ -46,12 +61,15 @@ class MovieControllerTest {
     @MockBean
     private MovieService movieService;
 
+    @MockBean
+    private MovieBulkService movieBulkService;
+
     @Test
     void testCreateMovie() throws Exception {
         // Given
         final MovieDto movie = new MovieDto("1234", "Movie 1", 4.5, 2021, MovieStatus.ACTIVE);
         final List<CategoryResponse> categories = List.of(new CategoryResponse(1L, "Category 1"));
-        final GetMovieResponse expectedResponse = new GetMovieResponse(movie, categories);
+        final GetMovieResponse expectedResponse = new GetMovieResponse(movie, categories, 3L, CREATED_AT);
         final CreateMovieRequest createMovieRequest = new CreateMovieRequest("1234", "Movie 1", 4.5, 2021, MovieStatus.ACTIVE, List.of(1L));
         given(movieService.createMovie(createMovieRequest)).willReturn(expectedResponse);
 
@@ -67,6 +85,31 @@ class MovieControllerTest {
         assertThat(result.getResponse().getContentAsString()).isEqualTo(objectMapper.writeValueAsString(expectedResponse));
     }
 
+    @Test
+    void testCreateMovies() throws Exception {
+        // Given
+        final List<CreateMovieRequest> createMovieRequests = List.of(
+                new CreateMovieRequest("1234", "Movie 1", 4.5, 2021, MovieStatus.ACTIVE, List.of(1L)),
+                new CreateMovieRequest("5678", "Movie 2", 4.5, 2021, MovieStatus.ACTIVE, List.of(1L))
+        );
+        final CreateMoviesResult expectedResult = new CreateMoviesResult(1, 1, 0, List.of(
+                new CreateMovieItemResult("1234", MovieCreateStatus.CREATED, null),
+                new CreateMovieItemResult("5678", MovieCreateStatus.ALREADY_EXISTS, null)
+        ));
+        given(movieBulkService.createMovies(createMovieRequests)).willReturn(expectedResult);
+
+        // When
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders
+                        .post(controllerPath + "/create-movies")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(createMovieRequests)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Then
+        assertThat(result.getResponse().getContentAsString()).isEqualTo(objectMapper.writeValueAsString(expectedResult));
+    }
+
     @ParameterizedTest
     @MethodSource("provideInvalidCreateMovieRequests")
     void testCreateMovie_invalidInput(CreateMovieRequest invalidInput) throws Exception {
@@ -99,7 +142,7 @@ class MovieControllerTest {
         // Given
         final MovieDto movie = new MovieDto("1234", "Movie 1", 4.5, 2021, MovieStatus.ACTIVE);
         final List<CategoryResponse> categories = List.of(new CategoryResponse(1L, "Category 1"));
-        final GetMovieResponse expectedResponse = new GetMovieResponse(movie, categories);
+        final GetMovieResponse expectedResponse = new GetMovieResponse(movie, categories, 3L, CREATED_AT);
         given(movieService.getMovie("1234")).willReturn(expectedResponse);
 
         // When
@@ -112,6 +155,26 @@ class MovieControllerTest {
 
         // Then
         assertThat(result.getResponse().getContentAsString()).isEqualTo(objectMapper.writeValueAsString(expectedResponse));
+        assertThat(result.getResponse().getHeader("ETag")).isEqualTo(eTag(3));
+    }
+
+    @Test
+    void testGetMovieNotModified() throws Exception {
+        // Given
+        final MovieDto movie = new MovieDto("1234", "Movie 1", 4.5, 2021, MovieStatus.ACTIVE);
+        given(movieService.getMovie("1234")).willReturn(new GetMovieResponse(movie, List.of(), 3L, CREATED_AT));
+
+        // When
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders
+                        .get(controllerPath + "/get-movie")
+                        .param("eidrCode", "1234")
+                        .header("If-None-Match", eTag(3))
+                        .accept("application/json"))
+                .andExpect(status().isNotModified())
+                .andReturn();
+
+        // Then
+        assertThat(result.getResponse().getContentAsString()).isEmpty();
     }
 
     @Test
@@ -138,7 +201,8 @@ class MovieControllerTest {
                 new CategoryResponse(1L, "Category 1"),
                 new CategoryResponse(2L, "Category 2")
         );
-        given(movieService.getCategories()).willReturn(categories);
+        final CategoryCatalogue catalogue = CategoryCatalogue.of(categories);
+        given(movieService.getCategoryCatalogue()).willReturn(catalogue);
 
         // When
         MvcResult result = mockMvc.perform(MockMvcRequestBuilders
@@ -149,6 +213,44 @@ class MovieControllerTest {
 
         // Then
         assertThat(result.getResponse().getContentAsString()).isEqualTo(objectMapper.writeValueAsString(categories));
+        assertThat(result.getResponse().getHeader("ETag")).isEqualTo("\"" + catalogue.etag() + "\"");
+    }
+
+    @Test
+    void testGetCategoriesNotModified() throws Exception {
+        // Given
+        final CategoryCatalogue catalogue = CategoryCatalogue.of(List.of(new CategoryResponse(1L, "Category 1")));
+        given(movieService.getCategoryCatalogue()).willReturn(catalogue);
+
+        // When
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders
+                        .get(controllerPath + "/get-categories")
+                        .header("If-None-Match", "\"" + catalogue.etag() + "\"")
+                        .accept("application/json"))
+                .andExpect(status().isNotModified())
+                .andReturn();
+
+        // Then
+        assertThat(result.getResponse().getContentAsString()).isEmpty();
+    }
+
+    @Test
+    void testGetMovieOfReCreatedMovieIsModified() throws Exception {
+        // Given, the movie was deleted and created again, it is back at version 3 by now
+        final MovieDto movie = new MovieDto("1234", "Movie 1", 4.5, 2021, MovieStatus.ACTIVE);
+        given(movieService.getMovie("1234")).willReturn(new GetMovieResponse(movie, List.of(), 3L, CREATED_AT.plusDays(1)));
+
+        // When
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders
+                        .get(controllerPath + "/get-movie")
+                        .param("eidrCode", "1234")
+                        .header("If-None-Match", eTag(3))
+                        .accept("application/json"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Then
+        assertThat(result.getResponse().getHeader("ETag")).isEqualTo("\"" + new MovieRevision(3, CREATED_AT.plusDays(1)).eTag() + "\"");
     }
 
     @Test
@@ -156,7 +258,7 @@ class MovieControllerTest {
         // Given
         final MovieDto movie = new MovieDto("1234", "Updated Movie", 4.5, 2021, MovieStatus.INACTIVE);
         final List<CategoryResponse> categories = List.of(new CategoryResponse(1L, "Category 1"));
-        final GetMovieResponse expectedResponse = new GetMovieResponse(movie, categories);
+        final GetMovieResponse expectedResponse = new GetMovieResponse(movie, categories, 3L, CREATED_AT);
         final UpdateMovieRequest updateMovieRequest = new UpdateMovieRequest("1234", "Updated Movie", 4.5, 2021, MovieStatus.INACTIVE, List.of(1L));
         given(movieService.updateMovie(updateMovieRequest)).willReturn(expectedResponse);
 
@@ -170,6 +272,144 @@ class MovieControllerTest {
 
         // Then
         assertThat(result.getResponse().getContentAsString()).isEqualTo(objectMapper.writeValueAsString(expectedResponse));
+        assertThat(result.getResponse().getHeader("ETag")).isEqualTo(eTag(3));
+    }
+
+    @Test
+    void testUpdateMovieIfMatch() throws Exception {
+        // Given
+        final MovieDto movie = new MovieDto("1234", "Updated Movie", 4.5, 2021, MovieStatus.INACTIVE);
+        final GetMovieResponse expectedResponse = new GetMovieResponse(movie, List.of(new CategoryResponse(1L, "Category 1")), 3L, CREATED_AT);
+        final UpdateMovieRequest updateMovieRequest = new UpdateMovieRequest("1234", "Updated Movie", 4.5, 2021, MovieStatus.INACTIVE, List.of(1L));
+        given(movieService.updateMovie(updateMovieRequest, MovieIfMatch.of(new MovieRevision(2, CREATED_AT)))).willReturn(expectedResponse);
+
+        // When
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders
+                        .put(controllerPath + "/update-movie")
+                        .header("If-Match", eTag(2))
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(updateMovieRequest)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Then
+        assertThat(result.getResponse().getContentAsString()).isEqualTo(objectMapper.writeValueAsString(expectedResponse));
+        assertThat(result.getResponse().getHeader("ETag")).isEqualTo(eTag(3));
+    }
+
+    @Test
+    void testUpdateMovieIfMatch_versionMismatch() throws Exception {
+        // Given
+        final UpdateMovieRequest updateMovieRequest = new UpdateMovieRequest("1234", "Updated Movie", 4.5, 2021, MovieStatus.INACTIVE, List.of(1L));
+        given(movieService.updateMovie(updateMovieRequest, MovieIfMatch.of(new MovieRevision(2, CREATED_AT)))).willThrow(new MovieVersionMismatchException("Movie with eidrCode 1234 was changed."));
+
+        // When / Then
+        mockMvc.perform(MockMvcRequestBuilders
+                        .put(controllerPath + "/update-movie")
+                        .header("If-Match", eTag(2))
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(updateMovieRequest)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void testUpdateMovieIfMatch_notAnETagOfAMovie() throws Exception {
+        // Given
+        final UpdateMovieRequest updateMovieRequest = new UpdateMovieRequest("1234", "Updated Movie", 4.5, 2021, MovieStatus.INACTIVE, List.of(1L));
+
+        // When / Then, a version alone could match a movie created again under the same eidrCode
+        mockMvc.perform(MockMvcRequestBuilders
+                        .put(controllerPath + "/update-movie")
+                        .header("If-Match", "\"2\"")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(updateMovieRequest)))
+                .andExpect(status().isBadRequest());
+        verify(movieService, never()).updateMovie(any(), any());
+    }
+
+    @Test
+    void testUpdateMovieIfMatch_listOfETags() throws Exception {
+        // Given
+        final MovieDto movie = new MovieDto("1234", "Updated Movie", 4.5, 2021, MovieStatus.INACTIVE);
+        final GetMovieResponse expectedResponse = new GetMovieResponse(movie, List.of(new CategoryResponse(1L, "Category 1")), 3L, CREATED_AT);
+        final UpdateMovieRequest updateMovieRequest = new UpdateMovieRequest("1234", "Updated Movie", 4.5, 2021, MovieStatus.INACTIVE, List.of(1L));
+        given(movieService.updateMovie(updateMovieRequest, MovieIfMatch.of(new MovieRevision(1, CREATED_AT), new MovieRevision(2, CREATED_AT))))
+                .willReturn(expectedResponse);
+
+        // When / Then, the weak ETag never matches and is left out
+        mockMvc.perform(MockMvcRequestBuilders
+                        .put(controllerPath + "/update-movie")
+                        .header("If-Match", eTag(1) + ", W/" + eTag(3) + ", " + eTag(2))
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(updateMovieRequest)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", eTag(3)));
+    }
+
+    @Test
+    void testUpdateMovieIfMatch_weakETag() throws Exception {
+        // Given
+        final UpdateMovieRequest updateMovieRequest = new UpdateMovieRequest("1234", "Updated Movie", 4.5, 2021, MovieStatus.INACTIVE, List.of(1L));
+        given(movieService.updateMovie(updateMovieRequest, new MovieIfMatch(false, List.of())))
+                .willThrow(new MovieVersionMismatchException("Movie with eidrCode 1234 was changed."));
+
+        // When / Then
+        mockMvc.perform(MockMvcRequestBuilders
+                        .put(controllerPath + "/update-movie")
+                        .header("If-Match", "W/" + eTag(2))
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(updateMovieRequest)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void testUpdateMovieIfMatchAny_missingMovie() throws Exception {
+        // Given
+        final UpdateMovieRequest updateMovieRequest = new UpdateMovieRequest("1234", "Updated Movie", 4.5, 2021, MovieStatus.INACTIVE, List.of(1L));
+        given(movieService.updateMovie(updateMovieRequest, MovieIfMatch.ANY))
+                .willThrow(new MovieVersionMismatchException("Movie with eidrCode 1234 does not exist, If-Match * fails."));
+
+        // When / Then
+        mockMvc.perform(MockMvcRequestBuilders
+                        .put(controllerPath + "/update-movie")
+                        .header("If-Match", "*")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(updateMovieRequest)))
+                .andExpect(status().isPreconditionFailed());
+        verify(movieService, never()).updateMovie(any());
+    }
+
+    @Test
+    void testPatchMovie() throws Exception {
+        // Given
+        final PatchMovieRequest patchMovieRequest = new PatchMovieRequest("1234", null, 4.5, null, null, null, null);
+        final PatchMovieResponse expectedResponse = new PatchMovieResponse("1234", 3L, CREATED_AT);
+        given(movieService.patchMovie(patchMovieRequest, MovieIfMatch.of(new MovieRevision(2, CREATED_AT)))).willReturn(expectedResponse);
+
+        // When
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders
+                        .patch(controllerPath + "/patch-movie")
+                        .header("If-Match", eTag(2))
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(patchMovieRequest)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Then
+        assertThat(result.getResponse().getContentAsString()).isEqualTo(objectMapper.writeValueAsString(expectedResponse));
+        assertThat(result.getResponse().getHeader("ETag")).isEqualTo(eTag(3));
+    }
+
+    @Test
+    void testPatchMovie_withoutEidrCode() throws Exception {
+        final PatchMovieRequest patchMovieRequest = new PatchMovieRequest(null, null, 4.5, null, null, null, null);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .patch(controllerPath + "/patch-movie")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(patchMovieRequest)))
+                .andExpect(status().isBadRequest());
+        verify(movieService, never()).patchMovie(any(), any());
     }
 
     @ParameterizedTest
@@ -224,7 +464,7 @@ class MovieControllerTest {
                 new MovieTableRowDto("1234", "Movie 1", 4.5, 2021, MovieStatus.ACTIVE, "Category 1"),
                 new MovieTableRowDto("5678", "Movie 2", 3.0, 2020, MovieStatus.INACTIVE, "Category 2")
         );
-        final GetMovieTableResult expectedResponse = new GetMovieTableResult(movies, 1, 10, 2L, 1);
+        final GetMovieTableResult expectedResponse = new GetMovieTableResult(movies, 1, 10, 2L, 1, null, MoviesTotalStrategy.EXACT);
         final GetMoviesFilter getMoviesFilter = new GetMoviesFilter(List.of(1L), null, null, 1, 10, MoviesOrderBy.RATING, Order.ASC);
         given(movieService.getAllMovies(getMoviesFilter)).willReturn(expectedResponse);
 
@@ -263,5 +503,7 @@ class MovieControllerTest {
         assertThat(actualResponse.totalPages()).isEqualTo(expectedResponse.totalPages());
     }
 
-
+    private static String eTag(long version) {
+        return "\"" + new MovieRevision(version, CREATED_AT).eTag() + "\"";
+    }
 }
@@ -0,0 +1,83 @@
+package com.example.moviedescriptionsserver;
+
+import com.example.moviedescriptionsserver.dto.request.DeleteMoviesRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the SQL statements of delete-movies, to make sure the movies and their links are deleted in bulk
+ * instead of one statement per row, and that a soft delete is a single UPDATE.
+ */
+@SpringBootTest
+@TestPropertySource(locations = "/application-test.properties", properties = "movies.delete.mode=HARD")
+@AutoConfigureMockMvc
+@Import(StatementCountConfiguration.class)
+@Sql(scripts = {"/migration/setup-test-schema.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = {"/migration/teardown-test-schema.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class MovieDeleteStatementCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testDeletingAllMoviesWritesTwoDeletes() throws Exception {
+        List<String> eidrCodes = jdbcTemplate.queryForList("SELECT eidr_code FROM public.movies", String.class);
+
+        QueryCount count = delete(eidrCodes, status().isOk());
+
+        // One count, one DELETE of the links and one DELETE of the movies, however many movies there are
+        assertThat(count.getSelect()).isEqualTo(1);
+        assertThat(count.getDelete()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM public.movies", Long.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM public.movies_categories", Long.class)).isZero();
+    }
+
+    @Test
+    void testMissingMovieDeletesNothing() throws Exception {
+        List<String> eidrCodes = new ArrayList<>(jdbcTemplate.queryForList("SELECT eidr_code FROM public.movies", String.class));
+        eidrCodes.add("non_existent_eidr_code");
+
+        QueryCount count = delete(eidrCodes, status().isBadRequest());
+
+        assertThat(count.getDelete()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM public.movies", Long.class)).isEqualTo(eidrCodes.size() - 1);
+    }
+
+    private QueryCount delete(List<String> eidrCodes, ResultMatcher expectedStatus) throws Exception {
+        QueryCountHolder.clear();
+        mockMvc.perform(MockMvcRequestBuilders
+                        .delete("/api/movie/delete-movies")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new DeleteMoviesRequest(eidrCodes))))
+                .andExpect(expectedStatus);
+        QueryCount count = QueryCountHolder.getGrandTotal();
+        QueryCountHolder.clear();
+        return count;
+    }
+}
@@ -1,11 +1,17 @@
 package com.example.moviedescriptionsserver;
 
+import com.example.moviedescriptionsserver.dto.MovieRevision;
+import com.example.moviedescriptionsserver.dto.MovieTableRowDto;
 import com.example.moviedescriptionsserver.dto.request.CreateMovieRequest;
 import com.example.moviedescriptionsserver.dto.request.DeleteMoviesRequest;
 import com.example.moviedescriptionsserver.dto.request.GetMoviesFilter;
+import com.example.moviedescriptionsserver.dto.request.PatchMovieRequest;
 import com.example.moviedescriptionsserver.dto.request.UpdateMovieRequest;
+import com.example.moviedescriptionsserver.dto.response.CreateMovieItemResult;
+import com.example.moviedescriptionsserver.dto.response.CreateMoviesResult;
 import com.example.moviedescriptionsserver.dto.response.GetMovieResponse;
 import com.example.moviedescriptionsserver.dto.response.GetMovieTableResult;
+import com.example.moviedescriptionsserver.dto.response.PatchMovieResponse;
 import com.example.moviedescriptionsserver.entity.MovieCategoryEntityId;
 import com.example.moviedescriptionsserver.repository.MovieCategoryBridgeRepository;
 import com.example.moviedescriptionsserver.repository.MovieRepository;
@@ -18,6 +24,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.servlet.MockMvc;
@@ -27,6 +34,9 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -53,6 +63,9 @@ public class MovieE2eTest {
     @Autowired
     private MovieRepository movieRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private final String controllerPath = "/api/movie";
 
     @BeforeEach
@@ -113,6 +126,52 @@ public class MovieE2eTest {
         });
     }
 
+    @Test
+    void testCreateMovies() throws Exception {
+        var createMovieRequests = List.of(
+                new CreateMovieRequest("eidrCode_bulk_1", "name 1", 5.0, 2021, MovieStatus.ACTIVE, List.of(1L, 2L)),
+                new CreateMovieRequest("10.5240/1A2B-3C4D-5E6F-7G8H-9I0J-A", "Movie One", 7.0, 2020, MovieStatus.ACTIVE, List.of(1L)),
+                new CreateMovieRequest("eidrCode_bulk_2", "name 2", 6.0, 9999, MovieStatus.ACTIVE, List.of(1L)),
+                new CreateMovieRequest("eidrCode_bulk_3", "name 3", 6.0, 2020, MovieStatus.INACTIVE, List.of(999L)),
+                new CreateMovieRequest("eidrCode_bulk_1", "name 1 again", 5.0, 2021, MovieStatus.ACTIVE, List.of(1L)),
+                new CreateMovieRequest("eidrCode_bulk_4", "name 4", 4.0, 2000, MovieStatus.INACTIVE, List.of(3L)),
+                new CreateMovieRequest("eidrCode_bulk_5", "name 5", 4.0, 2000, MovieStatus.ACTIVE, List.of(1L, 1L))
+        );
+
+        MvcResult result = performPostRequest(controllerPath + "/create-movies", createMovieRequests)
+                .andExpect(status().isOk())
+                .andReturn();
+
+        var response = objectMapper.readValue(result.getResponse().getContentAsString(), CreateMoviesResult.class);
+        assertThat(response.created()).isEqualTo(2);
+        assertThat(response.alreadyExisting()).isEqualTo(1);
+        assertThat(response.invalid()).isEqualTo(4);
+        assertThat(response.items()).extracting(CreateMovieItemResult::status).containsExactly(
+                MovieCreateStatus.CREATED,
+                MovieCreateStatus.ALREADY_EXISTS,
+                MovieCreateStatus.INVALID,
+                MovieCreateStatus.INVALID,
+                MovieCreateStatus.INVALID,
+                MovieCreateStatus.CREATED,
+                MovieCreateStatus.INVALID
+        );
+        assertThat(response.items().get(2).message()).isEqualTo("Year cannot be in the future.");
+        assertThat(response.items().get(3).message()).isEqualTo("Some categories do not exist.");
+        assertThat(response.items().get(6).message()).isEqualTo("Some categories do not exist.");
+
+        MvcResult getResult = mockMvc.perform(MockMvcRequestBuilders
+                        .get(controllerPath + "/get-movie")
+                        .param("eidrCode", "eidrCode_bulk_1")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+        var created = objectMapper.readValue(getResult.getResponse().getContentAsString(), GetMovieResponse.class);
+        assertThat(created.movie().name()).isEqualTo("name 1");
+        assertThat(created.categories()).extracting(category -> category.id()).containsExactly(1L, 2L);
+        assertThat(movieRepository.findById("10.5240/1A2B-3C4D-5E6F-7G8H-9I0J-A")).hasValueSatisfying(
+                movie -> assertThat(movie.getName()).isEqualTo("Movie One"));
+    }
+
     @Test
     void testCreateMovie_duplicateEidrCode() throws Exception {
         var createMovieRequest = new CreateMovieRequest(
@@ -140,6 +199,41 @@ public class MovieE2eTest {
         cleanupMovie(createMovieRequest.eidrCode(), 1L);
     }
 
+    @Test
+    void testCreateMovie_concurrentDuplicates() throws Exception {
+        var createMovieRequest = new CreateMovieRequest(
+                "eidrCode_test_concurrent",
+                "name",
+                5.0,
+                2021,
+                MovieStatus.ACTIVE,
+                List.of(1L)
+        );
+
+        // Several requests race to create the same movie, exactly one of them may win
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> statuses = new ArrayList<>();
+        try {
+            for (int i = 0; i < 8; i++) {
+                statuses.add(executor.submit(() -> performPostRequest(controllerPath + "/create-movie", createMovieRequest)
+                        .andReturn().getResponse().getStatus()));
+            }
+            List<Integer> results = new ArrayList<>();
+            for (Future<Integer> status : statuses) {
+                results.add(status.get());
+            }
+
+            assertThat(results).containsOnly(200, 400);
+            assertThat(results).filteredOn(status -> status == 200).hasSize(1);
+            assertThat(movieCategoryBridgeRepository.findCategoryIdsByMovieEidrCode(createMovieRequest.eidrCode())).containsExactly(1L);
+        } finally {
+            executor.shutdown();
+        }
+
+        // Cleanup
+        cleanupMovie(createMovieRequest.eidrCode(), 1L);
+    }
+
     @Test
     void testUpdateMovie() throws Exception {
         // Given
@@ -314,6 +408,123 @@ public class MovieE2eTest {
         assertThat(result.getResolvedException()).isNotNull();
     }
 
+    @Test
+    void testConditionalUpdateWithETag() throws Exception {
+        var eidrCode = "10.5240/1A2B-3C4D-5E6F-7G8H-9I0J-A";
+
+        // Read the movie and its ETag
+        MvcResult getResult = mockMvc.perform(MockMvcRequestBuilders
+                        .get(controllerPath + "/get-movie")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .param("eidrCode", eidrCode))
+                .andExpect(status().isOk())
+                .andReturn();
+        String eTag = getResult.getResponse().getHeader("ETag");
+        var movie = objectMapper.readValue(getResult.getResponse().getContentAsString(), GetMovieResponse.class);
+        assertThat(eTag).isEqualTo("\"" + new MovieRevision(0, movie.createdAt()).eTag() + "\"");
+
+        // Unchanged movie, nothing to download
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(controllerPath + "/get-movie")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("If-None-Match", eTag)
+                        .param("eidrCode", eidrCode))
+                .andExpect(status().isNotModified());
+
+        // Update based on the ETag
+        var updateMovieRequest = new UpdateMovieRequest(eidrCode, "Movie One updated", 8.0, 2020, MovieStatus.ACTIVE, List.of(2L, 3L));
+        MvcResult updateResult = performPutRequest(controllerPath + "/update-movie", updateMovieRequest, eTag)
+                .andExpect(status().isOk())
+                .andReturn();
+        var updatedMovie = objectMapper.readValue(updateResult.getResponse().getContentAsString(), GetMovieResponse.class);
+        assertThat(updatedMovie.version()).isEqualTo(1L);
+        assertThat(updatedMovie.createdAt()).isEqualTo(movie.createdAt());
+        assertThat(updateResult.getResponse().getHeader("ETag")).isEqualTo("\"" + new MovieRevision(1, movie.createdAt()).eTag() + "\"");
+        assertThat(movieCategoryBridgeRepository.findCategoryIdsByMovieEidrCode(eidrCode)).containsExactlyInAnyOrder(2L, 3L);
+
+        // A second update based on the old ETag would overwrite the first one
+        performPutRequest(controllerPath + "/update-movie", updateMovieRequest, eTag)
+                .andExpect(status().isPreconditionFailed());
+
+        // The old ETag doesn't match anymore
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(controllerPath + "/get-movie")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("If-None-Match", eTag)
+                        .param("eidrCode", eidrCode))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testReCreatedMovieDoesNotMatchTheETagOfTheDeletedOne() throws Exception {
+        var createMovieRequest = new CreateMovieRequest("eidrCode_test", "name", 4.5, 2021, MovieStatus.ACTIVE, List.of(1L));
+        performPostRequest(controllerPath + "/create-movie", createMovieRequest).andExpect(status().isOk());
+        String eTag = getETag("eidrCode_test");
+
+        // Deleted and created again, the movie is back at version 0
+        performDeleteRequest(controllerPath + "/delete-movies", new DeleteMoviesRequest(List.of("eidrCode_test")))
+                .andExpect(status().isOk());
+        performPostRequest(controllerPath + "/create-movie", createMovieRequest).andExpect(status().isOk());
+        assertThat(movieRepository.findById("eidrCode_test").orElseThrow().getVersion()).isZero();
+
+        // But it isn't the movie the client has
+        assertThat(getETag("eidrCode_test")).isNotEqualTo(eTag);
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(controllerPath + "/get-movie")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header("If-None-Match", eTag)
+                        .param("eidrCode", "eidrCode_test"))
+                .andExpect(status().isOk());
+        var updateMovieRequest = new UpdateMovieRequest("eidrCode_test", "name updated", 4.5, 2021, MovieStatus.ACTIVE, List.of(1L));
+        performPutRequest(controllerPath + "/update-movie", updateMovieRequest, eTag)
+                .andExpect(status().isPreconditionFailed());
+        var patchMovieRequest = new PatchMovieRequest("eidrCode_test", "name patched", null, null, null, null, null);
+        performPatchRequest(controllerPath + "/patch-movie", patchMovieRequest, eTag)
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void testCategoryRenameBumpsTheVersionOfItsMovies() {
+        var eidrCode = "10.5240/1A2B-3C4D-5E6F-7G8H-9I0J-A";
+        long version = movieRepository.findById(eidrCode).orElseThrow().getVersion();
+
+        jdbcTemplate.update("UPDATE public.categories SET name = 'Action movies' WHERE id = 1");
+
+        var movie = movieRepository.findById(eidrCode).orElseThrow();
+        assertThat(movie.getCategoryNames()).startsWith("Action movies");
+        assertThat(movie.getVersion()).isEqualTo(version + 1);
+    }
+
+    @Test
+    void testPatchMovie() throws Exception {
+        var eidrCode = "10.5240/1A2B-3C4D-5E6F-7G8H-9I0J-A";
+
+        // Only the rating and the category deltas, based on the version read before
+        String eTag = getETag(eidrCode);
+        var patchMovieRequest = new PatchMovieRequest(eidrCode, null, 9.1, null, null, List.of(3L), List.of(1L));
+        MvcResult patchResult = performPatchRequest(controllerPath + "/patch-movie", patchMovieRequest, eTag)
+                .andExpect(status().isOk())
+                .andReturn();
+        var patchedMovie = objectMapper.readValue(patchResult.getResponse().getContentAsString(), PatchMovieResponse.class);
+        assertThat(patchedMovie.version()).isEqualTo(1L);
+
+        var movie = movieRepository.findById(eidrCode).orElseThrow();
+        assertThat(movie.getRating()).isEqualTo(9.1);
+        assertThat(movie.getName()).isEqualTo("Movie One");
+        assertThat(movieCategoryBridgeRepository.findCategoryIdsByMovieEidrCode(eidrCode)).containsExactlyInAnyOrder(2L, 3L);
+
+        // The same patch based on the old version is rejected
+        performPatchRequest(controllerPath + "/patch-movie", patchMovieRequest, eTag)
+                .andExpect(status().isPreconditionFailed());
+
+        // Removing the remaining categories is rejected and rolled back
+        var removeAll = new PatchMovieRequest(eidrCode, null, null, null, null, null, List.of(2L, 3L));
+        performPatchRequest(controllerPath + "/patch-movie", removeAll, null)
+                .andExpect(status().isBadRequest());
+        assertThat(movieCategoryBridgeRepository.findCategoryIdsByMovieEidrCode(eidrCode)).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(movieRepository.findById(eidrCode).orElseThrow().getVersion()).isEqualTo(1L);
+    }
+
     @Test
     void testGetMovie() throws Exception {
         // Given
@@ -517,6 +728,116 @@ public class MovieE2eTest {
     }
 
 
+    @Test
+    void testGetMovies_keysetPagination() throws Exception {
+        var offsetResponse = getMovieTable(new GetMoviesFilter(null, null, null, 1, 25, MoviesOrderBy.RATING, Order.DESC));
+        var expectedEidrCodes = offsetResponse.movies().stream().map(MovieTableRowDto::eidrCode).toList();
+
+        var keysetEidrCodes = new ArrayList<String>();
+        String cursor = null;
+        do {
+            var response = getMovieTable(new GetMoviesFilter(null, null, null, null, 10, MoviesOrderBy.RATING, Order.DESC, MoviesPaginationMode.KEYSET, cursor, null, null, null));
+            assertThat(response.movies()).hasSizeLessThanOrEqualTo(10);
+            assertThat(response.totalItems()).isEqualTo(25);
+            response.movies().forEach(m -> keysetEidrCodes.add(m.eidrCode()));
+            cursor = response.nextCursor();
+        } while (cursor != null);
+
+        assertThat(keysetEidrCodes).hasSize(25);
+        assertThat(keysetEidrCodes).isEqualTo(expectedEidrCodes);
+    }
+
+    @Test
+    void testGetMovies_keysetPagination_cursorForDifferentOrdering() throws Exception {
+        var response = getMovieTable(new GetMoviesFilter(null, null, null, null, 10, MoviesOrderBy.NAME, Order.ASC, MoviesPaginationMode.KEYSET, null, null, null, null));
+        assertThat(response.nextCursor()).isNotNull();
+
+        MvcResult result = performPostRequest(controllerPath + "/get-movies-table",
+                new GetMoviesFilter(null, null, null, null, 10, MoviesOrderBy.RATING, Order.ASC, MoviesPaginationMode.KEYSET, response.nextCursor(), null, null, null))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+
+        assertThat(result.getResolvedException()).isInstanceOf(IllegalArgumentException.class);
+    }
+
+
+    @Test
+    void testGetMovies_totalStrategySkip() throws Exception {
+        var response = getMovieTable(new GetMoviesFilter(null, null, null, 1, 10, null, null, null, null, MoviesTotalStrategy.SKIP, null, null));
+
+        assertThat(response.movies()).hasSize(10);
+        assertThat(response.totalItems()).isNull();
+        assertThat(response.totalPages()).isNull();
+        assertThat(response.totalStrategy()).isEqualTo(MoviesTotalStrategy.SKIP);
+    }
+
+    @Test
+    void testGetMovies_totalStrategyEstimated_withFilterFallsBackToExact() throws Exception {
+        var response = getMovieTable(new GetMoviesFilter(List.of(1L), null, null, 1, 5, null, null, null, null, MoviesTotalStrategy.ESTIMATED, null, null));
+
+        assertThat(response.totalItems()).isEqualTo(10);
+        assertThat(response.totalStrategy()).isEqualTo(MoviesTotalStrategy.EXACT);
+    }
+
+    @Test
+    void testGetMovies_totalStrategyCached_invalidatedOnCreate() throws Exception {
+        var filter = new GetMoviesFilter(List.of(1L), null, null, 1, 5, null, null, null, null, MoviesTotalStrategy.CACHED, null, null);
+        var response = getMovieTable(filter);
+        assertThat(response.totalItems()).isEqualTo(10);
+        assertThat(response.totalStrategy()).isEqualTo(MoviesTotalStrategy.CACHED, null);
+
+        var createMovieRequest = new CreateMovieRequest("eidrCode_test_cached_total", "name", 5.0, 2021, MovieStatus.ACTIVE, List.of(1L));
+        performPostRequest(controllerPath + "/create-movie", createMovieRequest).andExpect(status().isOk());
+
+        response = getMovieTable(filter);
+        assertThat(response.totalItems()).isEqualTo(11);
+
+        cleanupMovie(createMovieRequest.eidrCode(), 1L);
+    }
+
+
+    @Test
+    void testGetMovies_categoryFilter_returnsAllCategoriesOfMatchingMovies() throws Exception {
+        var response = getMovieTable(new GetMoviesFilter(List.of(1L), "10.5240/1A2B-3C4D-5E6F-7G8H-9I0J-A", null, null, null, null, null));
+
+        assertThat(response.movies()).hasSize(1);
+        assertThat(response.movies().get(0).categories().split(", ")).containsExactlyInAnyOrder("Action", "Comedy");
+    }
+
+    @Test
+    void testGetMovies_categoryFilter_allOf() throws Exception {
+        var anyOf = getMovieTable(new GetMoviesFilter(List.of(1L, 2L), null, null, 1, 25, null, null, null, null, null, MoviesCategoryMatch.ANY_OF, null));
+        var allOf = getMovieTable(new GetMoviesFilter(List.of(1L, 2L), null, null, 1, 25, null, null, null, null, null, MoviesCategoryMatch.ALL_OF, null));
+
+        assertThat(anyOf.totalItems()).isEqualTo(16);
+        assertThat(allOf.totalItems()).isEqualTo(3);
+        assertThat(allOf.movies()).hasSize(3);
+        assertThat(allOf.movies()).allSatisfy(movie -> assertThat(movie.categories()).contains("Action").contains("Comedy"));
+    }
+
+
+    @Test
+    void testGetMovies_prefixSearch() throws Exception {
+        var response = getMovieTable(new GetMoviesFilter(null, null, "movie twenty", 1, 25, null, null, null, null, null, null, MoviesSearchMode.PREFIX));
+        assertThat(response.totalItems()).isEqualTo(6);
+
+        response = getMovieTable(new GetMoviesFilter(null, null, "twenty", 1, 25, null, null, null, null, null, null, MoviesSearchMode.PREFIX));
+        assertThat(response.totalItems()).isEqualTo(0);
+    }
+
+    @Test
+    void testGetMovies_fullTextSearch_rankedFirst() throws Exception {
+        var response = getMovieTable(new GetMoviesFilter(null, null, "twenty one", 1, 25, MoviesOrderBy.NAME, Order.ASC, null, null, null, null, MoviesSearchMode.FULL_TEXT));
+
+        assertThat(response.totalItems()).isEqualTo(1);
+        assertThat(response.movies().get(0).name()).isEqualTo("Movie Twenty-One");
+
+        response = getMovieTable(new GetMoviesFilter(null, null, "twenty -four", 1, 25, MoviesOrderBy.NAME, Order.ASC, null, null, null, null, MoviesSearchMode.FULL_TEXT));
+        assertThat(response.totalItems()).isEqualTo(5);
+        assertThat(response.movies()).noneMatch(m -> m.name().equals("Movie Twenty-Four"));
+    }
+
+
     // Helper methods
 
     private GetMovieTableResult getMovieTable(GetMoviesFilter filter) throws Exception {
@@ -540,6 +861,38 @@ public class MovieE2eTest {
                 .contentType("application/json"));
     }
 
+    private ResultActions performPutRequest(String url, Object request, String ifMatch) throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders
+                .put(url)
+                .accept(MediaType.APPLICATION_JSON)
+                .header("If-Match", ifMatch)
+                .content(objectMapper.writeValueAsString(request))
+                .contentType("application/json"));
+    }
+
+    private String getETag(String eidrCode) throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders
+                        .get(controllerPath + "/get-movie")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .param("eidrCode", eidrCode))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+    }
+
+    private ResultActions performPatchRequest(String url, Object request, String ifMatch) throws Exception {
+        var builder = MockMvcRequestBuilders
+                .patch(url)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request))
+                .contentType("application/json");
+        if (ifMatch != null) {
+            builder.header("If-Match", ifMatch);
+        }
+        return mockMvc.perform(builder);
+    }
+
     private ResultActions performDeleteRequest(String url, Object request) throws Exception {
         return mockMvc.perform(MockMvcRequestBuilders
                 .delete(url)
@@ -0,0 +1,172 @@
+package com.example.moviedescriptionsserver;
+
+import com.querydsl.core.types.Order;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the plans of the movies table queries against the schema built by the Flyway migrations
+ * (db/migration and the sample data of db/sample), for every orderSpecifier x filter combination of getAllMovies.
+ * <p>
+ * The queries mirror what MovieService.getAllMovies builds. As in MovieSearchPlanTest sequential scans are disabled
+ * for the session, so the tiny sample table doesn't hide a missing index.
+ */
+@SpringBootTest
+@TestPropertySource(locations = "/application-test.properties")
+@Sql(scripts = {"/migration/empty-test-schema.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = {"/migration/teardown-test-schema.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class MovieIndexPlanTest {
+
+    private static final String PAGE_COLUMNS = "m.eidr_code, m.name, m.rating, m.year, m.status, m.category_names";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void migrate() {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration", "classpath:db/sample")
+                .load()
+                .migrate();
+        // Sets the visibility map, without it index-only scans would cost as much as plain index scans
+        jdbcTemplate.execute("VACUUM ANALYZE public.movies");
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideQueryShapes")
+    void testPageQueryUsesIndex(MoviesOrderBy orderBy, Order direction, Filter filter) {
+        String query = "SELECT " + PAGE_COLUMNS + " FROM public.movies m WHERE m.deleted_at IS NULL" + filter.predicate
+                + " ORDER BY " + sortColumn(orderBy) + " " + direction + ", m.eidr_code " + direction + " LIMIT 10 OFFSET 0";
+        String plan = explain(query);
+
+        assertThat(plan).as("plan of: %s", query).doesNotContain("Seq Scan on movies");
+        assertThat(filter.indexes(orderBy)).as("plan of: %s", query).anyMatch(plan::contains);
+        if (plan.contains(orderingIndex(orderBy))) {
+            // the index scan already returns the rows in the requested order
+            assertThat(plan).as("plan of: %s", query).doesNotContain("Sort");
+        }
+        if (filter == Filter.NONE) {
+            assertThat(plan).as("plan of: %s", query).contains("Index Only Scan");
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideOrderings")
+    void testKeysetPageStartsAtCursor(MoviesOrderBy orderBy, Order direction) {
+        String column = sortColumn(orderBy);
+        String comparison = direction == Order.ASC ? ">" : "<";
+        String sortValue = orderBy == MoviesOrderBy.RATING ? "6" : "'Movie Six'";
+        // as built by MovieService.seekPredicate
+        String seek = column + " " + comparison + "= " + sortValue + " AND (" + column + " " + comparison + " " + sortValue
+                + " OR (" + column + " = " + sortValue + " AND m.eidr_code " + comparison + " '10.5240/6A7B-8C9D-0E1F-2G3H-4I5J-F'))";
+        String query = "SELECT " + PAGE_COLUMNS + " FROM public.movies m WHERE m.deleted_at IS NULL AND " + seek
+                + " ORDER BY " + column + " " + direction + ", m.eidr_code " + direction + " LIMIT 11 OFFSET 0";
+        String plan = explain(query);
+
+        assertThat(plan)
+                .as("plan of: %s", query)
+                .contains("Index Only Scan")
+                .contains(orderingIndex(orderBy))
+                .contains("Index Cond")
+                .doesNotContain("Sort");
+    }
+
+    @ParameterizedTest
+    @EnumSource(Filter.class)
+    void testCountQueryUsesIndex(Filter filter) {
+        String query = "SELECT count(m.eidr_code) FROM public.movies m WHERE m.deleted_at IS NULL" + filter.predicate;
+        String plan = explain(query);
+
+        assertThat(plan).as("plan of: %s", query).doesNotContain("Seq Scan on movies");
+        if (filter == Filter.NONE) {
+            assertThat(plan).as("plan of: %s", query).contains("Index Only Scan");
+        }
+    }
+
+    /**
+     * The filters of getAllMovies and the indexes that may serve them, besides the ordering index.
+     */
+    enum Filter {
+        NONE(""),
+        CATEGORIES_ANY_OF(" AND (m.category_ids && cast('{1,2}' as integer[])) = true", "movies_category_ids_idx"),
+        CATEGORIES_ALL_OF(" AND (m.category_ids @> cast('{1,2}' as integer[])) = true", "movies_category_ids_idx"),
+        NAME_PREFIX(" AND lower(m.name) LIKE 'movie t%' ESCAPE '!'", "movies_name_prefix_idx"),
+        NAME_SUBSTRING(" AND lower(m.name) LIKE '%twenty%' ESCAPE '!'", "movies_name_trgm_idx");
+
+        private final String predicate;
+        private final List<String> filterIndexes;
+
+        Filter(String predicate, String... filterIndexes) {
+            this.predicate = predicate;
+            this.filterIndexes = List.of(filterIndexes);
+        }
+
+        List<String> indexes(MoviesOrderBy orderBy) {
+            return Stream.concat(Stream.of(orderingIndex(orderBy)), filterIndexes.stream()).toList();
+        }
+    }
+
+    private static Stream<Arguments> provideQueryShapes() {
+        return provideOrderings().flatMap(ordering -> Arrays.stream(Filter.values())
+                .map(filter -> Arguments.of(ordering.get()[0], ordering.get()[1], filter)));
+    }
+
+    private static Stream<Arguments> provideOrderings() {
+        return Arrays.stream(MoviesOrderBy.values())
+                .flatMap(orderBy -> Stream.of(Order.ASC, Order.DESC).map(direction -> Arguments.of(orderBy, direction)));
+    }
+
+    private static String orderingIndex(MoviesOrderBy orderBy) {
+        return switch (orderBy) {
+            case RATING -> "movies_rating_eidr_code_covering_idx";
+            case NAME -> "movies_name_eidr_code_covering_idx";
+        };
+    }
+
+    private static String sortColumn(MoviesOrderBy orderBy) {
+        return switch (orderBy) {
+            case RATING -> "m.rating";
+            case NAME -> "m.name";
+        };
+    }
+
+    private String explain(String query) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET enable_seqscan = off");
+                try (ResultSet resultSet = statement.executeQuery("EXPLAIN " + query)) {
+                    StringBuilder plan = new StringBuilder();
+                    while (resultSet.next()) {
+                        plan.append(resultSet.getString(1)).append('\n');
+                    }
+                    return plan.toString();
+                } finally {
+                    statement.execute("RESET enable_seqscan");
+                }
+            }
+        });
+    }
+}
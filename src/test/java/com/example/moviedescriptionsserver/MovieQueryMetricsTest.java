@@ -0,0 +1,65 @@
+package com.example.moviedescriptionsserver;
+
+import com.example.moviedescriptionsserver.dto.request.GetMoviesFilter;
+import com.example.moviedescriptionsserver.metrics.MovieQueryMetrics;
+import com.example.moviedescriptionsserver.metrics.MoviesFilterTags;
+import com.querydsl.core.types.Order;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MovieQueryMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testPageAndCountAreTimedSeparately() {
+        // Given
+        MovieQueryMetrics metrics = new MovieQueryMetrics(meterRegistry);
+        GetMoviesFilter filter = new GetMoviesFilter(List.of(1L), null, "matrix", 3, 10, MoviesOrderBy.NAME, Order.ASC);
+
+        // When
+        metrics.record("getAllMovies.count", filter, () -> 1L);
+        metrics.record("getAllMovies.page", filter, List::of);
+        metrics.record("getAllMovies.page", filter, List::of);
+
+        // Then
+        assertThat(meterRegistry.get("movies.query").tag("query", "getAllMovies.count").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("movies.query").tag("query", "getAllMovies.page")
+                .tag("orderBy", "NAME")
+                .tag("filter", "categories_any_of+name_substring")
+                .tag("pageDepth", "2-10")
+                .timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testTimersAreRegisteredOnceWithoutHistogram() {
+        // Given
+        MovieQueryMetrics metrics = new MovieQueryMetrics(meterRegistry);
+        GetMoviesFilter filter = new GetMoviesFilter(null, null, null, 1, 10, null, null);
+
+        // When
+        metrics.record("getAllMovies.page", filter, List::of);
+        metrics.record("getAllMovies.page", filter, List::of);
+
+        // Then
+        assertThat(meterRegistry.find("movies.query").timers()).singleElement()
+                .satisfies(timer -> assertThat(timer.takeSnapshot().histogramCounts()).isEmpty());
+    }
+
+    @Test
+    void testFilterTags() {
+        assertThat(MoviesFilterTags.of(new GetMoviesFilter(null, null, null, 1, 10, null, null)))
+                .isEqualTo(Tags.of("orderBy", "RATING", "filter", "none", "pageDepth", "1"));
+        assertThat(MoviesFilterTags.of(new GetMoviesFilter(List.of(1L, 2L), "10.5240", "night", 500, 10, MoviesOrderBy.NAME, Order.DESC,
+                null, null, null, MoviesCategoryMatch.ALL_OF, MoviesSearchMode.FULL_TEXT)))
+                .isEqualTo(Tags.of("orderBy", "NAME", "filter", "categories_all_of+name_full_text+eidr_code_substring", "pageDepth", "101+"));
+        assertThat(MoviesFilterTags.of(new GetMoviesFilter(null, null, null, null, 10, null, null,
+                MoviesPaginationMode.KEYSET, "cursor", null, null, null)))
+                .isEqualTo(Tags.of("orderBy", "RATING", "filter", "none", "pageDepth", "keyset"));
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.moviedescriptionsserver;
+
+import com.example.moviedescriptionsserver.cache.MovieResponseCache;
+import com.example.moviedescriptionsserver.dto.MovieDto;
+import com.example.moviedescriptionsserver.dto.response.GetMovieResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MovieResponseCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testLruEvictsLeastRecentlyUsed() {
+        // Given
+        MovieResponseCache cache = cache(Duration.ofMinutes(1), MovieResponseCache.EvictionPolicy.LRU);
+        AtomicInteger loads = new AtomicInteger();
+        cache.getOrLoad("a", () -> load("a", loads));
+        cache.getOrLoad("b", () -> load("b", loads));
+
+        // When
+        cache.getOrLoad("a", () -> load("a", loads));
+        cache.getOrLoad("c", () -> load("c", loads));
+        cache.getOrLoad("a", () -> load("a", loads));
+
+        // Then
+        assertThat(loads.get()).isEqualTo(3);
+        assertThat(meterRegistry.get("movies.movie.cache.evictions").tag("cause", "size").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("movies.movie.cache.requests").tag("result", "hit").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testFifoEvictsOldest() {
+        // Given
+        MovieResponseCache cache = cache(Duration.ofMinutes(1), MovieResponseCache.EvictionPolicy.FIFO);
+        AtomicInteger loads = new AtomicInteger();
+        cache.getOrLoad("a", () -> load("a", loads));
+        cache.getOrLoad("b", () -> load("b", loads));
+
+        // When
+        cache.getOrLoad("a", () -> load("a", loads));
+        cache.getOrLoad("c", () -> load("c", loads));
+        cache.getOrLoad("a", () -> load("a", loads));
+
+        // Then
+        assertThat(loads.get()).isEqualTo(4);
+    }
+
+    @Test
+    void testExpiredEntryIsReloaded() {
+        // Given
+        MovieResponseCache cache = cache(Duration.ZERO, MovieResponseCache.EvictionPolicy.LRU);
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        cache.getOrLoad("a", () -> load("a", loads));
+        cache.getOrLoad("a", () -> load("a", loads));
+
+        // Then
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(meterRegistry.get("movies.movie.cache.evictions").tag("cause", "expired").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testLoadRacingInvalidationIsNotCached() {
+        // Given
+        MovieResponseCache cache = cache(Duration.ofMinutes(1), MovieResponseCache.EvictionPolicy.LRU);
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        cache.getOrLoad("a", () -> {
+            // A write commits while the movie is being loaded
+            cache.invalidate(List.of("a"));
+            return load("a", loads);
+        });
+
+        // Then
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void testLoadRacingInvalidationOfAnotherMovieIsCached() {
+        // Given
+        MovieResponseCache cache = cache(Duration.ofMinutes(1), MovieResponseCache.EvictionPolicy.LRU);
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        cache.getOrLoad("a", () -> {
+            cache.invalidate(List.of("b"));
+            return load("a", loads);
+        });
+        cache.getOrLoad("a", () -> load("a", loads));
+
+        // Then
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testFailedLoadIsNotCached() {
+        // Given
+        MovieResponseCache cache = cache(Duration.ofMinutes(1), MovieResponseCache.EvictionPolicy.LRU);
+
+        // When / Then
+        assertThatThrownBy(() -> cache.getOrLoad("a", () -> {
+            throw new IllegalArgumentException("Movie with eidrCode a does not exist.");
+        })).isInstanceOf(IllegalArgumentException.class);
+        assertThat(cache.size()).isZero();
+    }
+
+    private MovieResponseCache cache(Duration ttl, MovieResponseCache.EvictionPolicy evictionPolicy) {
+        return new MovieResponseCache(ttl, 2, evictionPolicy, meterRegistry);
+    }
+
+    private static GetMovieResponse load(String eidrCode, AtomicInteger loads) {
+        loads.incrementAndGet();
+        return new GetMovieResponse(new MovieDto(eidrCode, "Movie " + eidrCode, 4.5, 2021, MovieStatus.ACTIVE), List.of(), 0L, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.moviedescriptionsserver;
+
+import com.example.moviedescriptionsserver.dto.MovieTableRowDto;
+import com.example.moviedescriptionsserver.dto.request.GetMoviesFilter;
+import com.example.moviedescriptionsserver.dto.response.GetMovieTableResult;
+import com.example.moviedescriptionsserver.service.MovieService;
+import com.querydsl.core.types.Order;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Migrates a database set up by hand from the original migration/everything.sql (original-schema.sql), the way
+ * the application does at startup: it is baselined at spring.flyway.baseline-version and has to end up with the
+ * schema of a database built from scratch.
+ */
+@SpringBootTest
+@TestPropertySource(locations = "/application-test.properties")
+@Sql(scripts = {"/migration/original-schema.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = {"/migration/teardown-test-schema.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class MovieSchemaMigrationTest {
+
+    private static final String MOVIE_ONE = "10.5240/1A2B-3C4D-5E6F-7G8H-9I0J-A";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MovieService movieService;
+
+    @Value("${spring.flyway.baseline-version}")
+    private String baselineVersion;
+
+    private Flyway flyway;
+
+    @BeforeEach
+    void migrate() {
+        flyway = Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion(baselineVersion)
+                .load();
+        flyway.migrate();
+    }
+
+    @Test
+    void testBaselinedDatabaseGetsEveryLaterMigration() {
+        MigrationInfo[] applied = flyway.info().applied();
+
+        assertThat(applied[0].getVersion().getVersion()).isEqualTo(baselineVersion);
+        assertThat(Arrays.stream(applied).skip(1).map(info -> info.getVersion().getVersion()))
+                .containsExactly("2", "3", "4", "5", "6", "7", "8", "9", "10", "11");
+        assertThat(flyway.info().pending()).isEmpty();
+    }
+
+    @Test
+    void testSchemaMatchesAFreshDatabase() {
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT column_name FROM information_schema.columns WHERE table_schema = 'public' AND table_name = 'movies'",
+                String.class))
+                .contains("version", "search_vector", "category_ids", "category_names");
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT tablename FROM pg_tables WHERE schemaname = 'public'", String.class))
+                .contains("import_jobs", "import_job_rejections", "movies_import_staging");
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE schemaname = 'public' AND tablename = 'movies'", String.class))
+                .contains("movies_rating_eidr_code_covering_idx", "movies_name_eidr_code_covering_idx", "movies_deleted_at_idx",
+                        "movies_name_trgm_idx", "movies_search_vector_idx", "movies_category_ids_idx")
+                .doesNotContain("movies_rating_eidr_code_idx", "movies_name_eidr_code_idx");
+        // Concurrent builds that failed would leave invalid indexes behind
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid "
+                        + "JOIN pg_namespace n ON n.oid = c.relnamespace WHERE n.nspname = 'public' AND NOT i.indisvalid",
+                Long.class)).isZero();
+    }
+
+    @Test
+    void testExistingMoviesAreBackfilled() {
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT category_names FROM public.movies WHERE eidr_code = ?", String.class, MOVIE_ONE))
+                .isEqualTo("Action, Comedy");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM public.movies WHERE cardinality(category_ids) = 0", Long.class)).isZero();
+
+        // The triggers keep them in sync from now on
+        jdbcTemplate.update("INSERT INTO public.movies_categories (movie_id, category_id) VALUES (?, 3)", MOVIE_ONE);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT category_names FROM public.movies WHERE eidr_code = ?", String.class, MOVIE_ONE))
+                .isEqualTo("Action, Comedy, Drama");
+    }
+
+    @Test
+    void testMoviesCanBeReadAfterMigration() {
+        GetMovieTableResult result = movieService.getAllMovies(
+                new GetMoviesFilter(List.of(1L), MOVIE_ONE, null, 1, 10, MoviesOrderBy.NAME, Order.ASC));
+
+        assertThat(result.movies()).extracting(MovieTableRowDto::eidrCode).containsExactly(MOVIE_ONE);
+        assertThat(result.movies().get(0).categories()).isEqualTo("Action, Comedy");
+    }
+}
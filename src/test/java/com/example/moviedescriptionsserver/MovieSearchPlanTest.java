@@ -0,0 +1,81 @@
+package com.example.moviedescriptionsserver;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that every search mode and the category filters can be answered from the search indexes.
+ * <p>
+ * The queries mirror the predicates built by MovieSearchExpressions. The test table is tiny, so sequential
+ * scans are disabled for the session: if the planner still picks one, no index matches the predicate.
+ */
+@SpringBootTest
+@TestPropertySource(locations = "/application-test.properties")
+@Sql(scripts = {"/migration/setup-test-schema.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = {"/migration/teardown-test-schema.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class MovieSearchPlanTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @ParameterizedTest
+    @MethodSource("provideSearchQueries")
+    void testSearchQueryUsesIndex(MoviesSearchMode searchMode, String query) {
+        String plan = explain(query);
+
+        assertThat(plan)
+                .as("%s plan of: %s", searchMode, query)
+                .doesNotContain("Seq Scan on movies");
+    }
+
+    @Test
+    void testCategoryFiltersUseIndex() {
+        // ANY_OF and ALL_OF, as built by MovieSearchExpressions.categoriesMatch
+        assertThat(explain("SELECT m.eidr_code FROM public.movies m WHERE m.deleted_at IS NULL AND (m.category_ids && cast('{1,2}' as integer[])) = true"))
+                .doesNotContain("Seq Scan on movies");
+        assertThat(explain("SELECT m.eidr_code FROM public.movies m WHERE m.deleted_at IS NULL AND (m.category_ids @> cast('{1,2}' as integer[])) = true"))
+                .doesNotContain("Seq Scan on movies");
+    }
+
+    private static Stream<Arguments> provideSearchQueries() {
+        return Stream.of(
+                Arguments.of(MoviesSearchMode.SUBSTRING, "SELECT m.eidr_code FROM public.movies m WHERE lower(m.name) LIKE '%twenty%' ESCAPE '!'"),
+                Arguments.of(MoviesSearchMode.SUBSTRING, "SELECT m.eidr_code FROM public.movies m WHERE lower(m.eidr_code) LIKE '%3c4d-5e6f%' ESCAPE '!'"),
+                Arguments.of(MoviesSearchMode.PREFIX, "SELECT m.eidr_code FROM public.movies m WHERE lower(m.name) LIKE 'movie tw%' ESCAPE '!'"),
+                Arguments.of(MoviesSearchMode.PREFIX, "SELECT m.eidr_code FROM public.movies m WHERE lower(m.eidr_code) LIKE '10.5240/1a2b%' ESCAPE '!'"),
+                Arguments.of(MoviesSearchMode.FULL_TEXT, "SELECT m.eidr_code FROM public.movies m WHERE (m.search_vector @@ websearch_to_tsquery('simple', 'twenty one')) = true " +
+                        "ORDER BY ts_rank(m.search_vector, websearch_to_tsquery('simple', 'twenty one')) DESC")
+        );
+    }
+
+    private String explain(String query) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET enable_seqscan = off");
+                try (ResultSet resultSet = statement.executeQuery("EXPLAIN " + query)) {
+                    StringBuilder plan = new StringBuilder();
+                    while (resultSet.next()) {
+                        plan.append(resultSet.getString(1)).append('\n');
+                    }
+                    return plan.toString();
+                } finally {
+                    statement.execute("RESET enable_seqscan");
+                }
+            }
+        });
+    }
+}
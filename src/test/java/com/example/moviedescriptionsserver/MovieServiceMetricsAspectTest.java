@@ -0,0 +1,61 @@
+package com.example.moviedescriptionsserver;
+
+import com.example.moviedescriptionsserver.metrics.MovieServiceMetricsAspect;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class MovieServiceMetricsAspectTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MovieServiceMetricsAspect aspect = new MovieServiceMetricsAspect(meterRegistry);
+
+    @Test
+    void testCallsAreTimedPerMethodAndException() throws Throwable {
+        // Given
+        ProceedingJoinPoint getMovie = joinPoint("getMovie");
+        given(getMovie.proceed()).willReturn(null).willReturn(null).willThrow(new IllegalArgumentException());
+
+        // When
+        aspect.time(getMovie);
+        aspect.time(getMovie);
+        assertThatThrownBy(() -> aspect.time(getMovie)).isInstanceOf(IllegalArgumentException.class);
+
+        // Then
+        assertThat(meterRegistry.get("movies.service").tags("method", "getMovie", "exception", "none").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("movies.service").tags("method", "getMovie", "exception", "IllegalArgumentException").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.find("movies.service").timers()).hasSize(2);
+    }
+
+    @Test
+    void testHistogramIsBounded() throws Throwable {
+        // When
+        aspect.time(joinPoint("getAllMovies"));
+
+        // Then
+        Timer timer = meterRegistry.get("movies.service").tag("method", "getAllMovies").timer();
+        assertThat(timer.getId().getTags()).hasSize(2);
+        assertThat(Arrays.stream(timer.takeSnapshot().histogramCounts()).mapToDouble(bucket -> bucket.bucket(TimeUnit.MILLISECONDS)))
+                .isNotEmpty()
+                .allSatisfy(bucket -> assertThat(bucket).isBetween(1.0, 5_000.0));
+    }
+
+    private static ProceedingJoinPoint joinPoint(String method) {
+        Signature signature = mock(Signature.class);
+        given(signature.getName()).willReturn(method);
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        given(joinPoint.getSignature()).willReturn(signature);
+        return joinPoint;
+    }
+}
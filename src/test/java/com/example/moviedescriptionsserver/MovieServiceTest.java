@@ -1,39 +1,80 @@
 package com.example.moviedescriptionsserver;
 
+import com.example.moviedescriptionsserver.cache.CategoryCatalogueCache;
+import com.example.moviedescriptionsserver.cache.MovieResponseCache;
+import com.example.moviedescriptionsserver.cache.MovieTotalCountCache;
+import com.example.moviedescriptionsserver.dto.MovieIfMatch;
+import com.example.moviedescriptionsserver.dto.MovieRevision;
+import com.example.moviedescriptionsserver.dto.MovieWithCategoryRowDto;
 import com.example.moviedescriptionsserver.dto.request.CreateMovieRequest;
+import com.example.moviedescriptionsserver.dto.request.PatchMovieRequest;
 import com.example.moviedescriptionsserver.dto.request.UpdateMovieRequest;
+import com.example.moviedescriptionsserver.dto.response.CategoryResponse;
 import com.example.moviedescriptionsserver.dto.response.GetMovieResponse;
+import com.example.moviedescriptionsserver.dto.response.PatchMovieResponse;
 import com.example.moviedescriptionsserver.entity.*;
-import com.example.moviedescriptionsserver.repository.CategoryRepository;
+import com.example.moviedescriptionsserver.metrics.MovieQueryMetrics;
+import com.example.moviedescriptionsserver.repository.MovieBulkRepository;
 import com.example.moviedescriptionsserver.repository.MovieCategoryBridgeRepository;
 import com.example.moviedescriptionsserver.repository.MovieRepository;
 import com.example.moviedescriptionsserver.service.MovieService;
+import com.example.moviedescriptionsserver.service.MoviesChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 class MovieServiceTest {
 
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_456_000);
+
     @Mock
     private MovieRepository movieRepository;
 
     @Mock
-    private CategoryRepository categoryRepository;
+    private MovieBulkRepository movieBulkRepository;
 
     @Mock
     private MovieCategoryBridgeRepository movieCategoryBridgeRepository;
 
+    @Mock
+    private MovieTotalCountCache movieTotalCountCache;
+
+    @Mock
+    private CategoryCatalogueCache categoryCatalogueCache;
+
+    @Spy
+    private MovieResponseCache movieResponseCache = new MovieResponseCache(
+            Duration.ofMinutes(10), 100, MovieResponseCache.EvictionPolicy.LRU, new SimpleMeterRegistry());
+
+    @Spy
+    private MovieQueryMetrics movieQueryMetrics = new MovieQueryMetrics(new SimpleMeterRegistry());
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private MovieService movieService;
 
@@ -41,7 +82,7 @@ class MovieServiceTest {
     private ArgumentCaptor<MovieEntity> movieEntityCaptor;
 
     @Captor
-    private ArgumentCaptor<List<MovieCategoryEntity>> movieCategoryEntityCaptor;
+    private ArgumentCaptor<List<MovieCategoryEntityId>> movieCategoryIdsCaptor;
 
     @BeforeEach
     void setup() {
@@ -52,23 +93,12 @@ class MovieServiceTest {
     void testGetMovie() {
         // Given
         String eidrCode = "1234";
-        MovieEntity movieEntity = new MovieEntity();
-        movieEntity.setEidrCode(eidrCode);
-        movieEntity.setName("Movie 1");
-        movieEntity.setRating(4.5);
-        movieEntity.setYear(2021);
-        movieEntity.setStatus(MovieStatus.ACTIVE);
-
-        CategoryEntity categoryEntity = new CategoryEntity();
-        categoryEntity.setId(1L);
-        categoryEntity.setName("Category 1");
-        CategoryEntity categoryEntity2 = new CategoryEntity();
-        categoryEntity2.setId(2L);
-        categoryEntity2.setName("Category 2");
-        List<CategoryEntity> categoryEntities = List.of(categoryEntity, categoryEntity2);
+        List<MovieWithCategoryRowDto> rows = List.of(
+                new MovieWithCategoryRowDto(eidrCode, "Movie 1", 4.5, 2021, MovieStatus.ACTIVE, 3L, CREATED_AT, 1L, "Category 1"),
+                new MovieWithCategoryRowDto(eidrCode, "Movie 1", 4.5, 2021, MovieStatus.ACTIVE, 3L, CREATED_AT, 2L, "Category 2")
+        );
 
-        given(movieRepository.findByEidrCode(eidrCode)).willReturn(movieEntity);
-        given(categoryRepository.findCategoriesByMovieEidrCode(eidrCode)).willReturn(categoryEntities);
+        given(movieRepository.findMovieWithCategories(eidrCode)).willReturn(rows);
 
         // When
         GetMovieResponse response = movieService.getMovie(eidrCode);
@@ -83,6 +113,44 @@ class MovieServiceTest {
         assertThat(response.categories()).hasSize(2);
         assertThat(response.categories().get(0).name()).isEqualTo("Category 1");
         assertThat(response.categories().get(1).name()).isEqualTo("Category 2");
+        assertThat(response.version()).isEqualTo(3L);
+        assertThat(response.createdAt()).isEqualTo(CREATED_AT);
+    }
+
+    @Test
+    void testGetMovieWithoutCategories() {
+        // Given
+        String eidrCode = "1234";
+        given(movieRepository.findMovieWithCategories(eidrCode)).willReturn(List.of(
+                new MovieWithCategoryRowDto(eidrCode, "Movie 1", 4.5, 2021, MovieStatus.ACTIVE, 3L, CREATED_AT, null, null)
+        ));
+
+        // When
+        GetMovieResponse response = movieService.getMovie(eidrCode);
+
+        // Then
+        assertThat(response.movie().eidrCode()).isEqualTo(eidrCode);
+        assertThat(response.categories()).isEmpty();
+    }
+
+    @Test
+    void testGetMovieIsCachedUntilChanged() {
+        // Given
+        String eidrCode = "1234";
+        given(movieRepository.findMovieWithCategories(eidrCode)).willReturn(List.of(
+                new MovieWithCategoryRowDto(eidrCode, "Movie 1", 4.5, 2021, MovieStatus.ACTIVE, 3L, CREATED_AT, null, null)
+        ));
+
+        // When
+        GetMovieResponse first = movieService.getMovie(eidrCode);
+        GetMovieResponse second = movieService.getMovie(eidrCode);
+        movieResponseCache.onMoviesChanged(new MoviesChangedEvent(List.of(eidrCode)));
+        GetMovieResponse third = movieService.getMovie(eidrCode);
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(third).isEqualTo(first);
+        verify(movieRepository, times(2)).findMovieWithCategories(eidrCode);
     }
 
     @Test
@@ -105,43 +173,54 @@ class MovieServiceTest {
         categoryEntity2.setName("Category 2");
         List<CategoryEntity> categoryEntities = List.of(categoryEntity, categoryEntity2);
 
-        MovieEntity savedMovieEntity = new MovieEntity();
-        savedMovieEntity.setEidrCode(createMovieRequest.eidrCode());
-        savedMovieEntity.setName(createMovieRequest.name());
-        savedMovieEntity.setRating(createMovieRequest.rating());
-        savedMovieEntity.setYear(createMovieRequest.year());
-        savedMovieEntity.setStatus(createMovieRequest.status());
-
-        given(movieRepository.findByEidrCode(createMovieRequest.eidrCode())).willReturn(null);
-        given(categoryRepository.findCategoriesByIds(createMovieRequest.categories())).willReturn(categoryEntities);
-        given(movieRepository.save(any(MovieEntity.class))).willReturn(savedMovieEntity);
+        given(categoryCatalogueCache.findByIds(createMovieRequest.categories())).willReturn(toCategoryResponses(categoryEntities));
+        given(movieBulkRepository.insertMoviesIfAbsent(List.of(createMovieRequest))).willReturn(Map.of("1234", CREATED_AT));
 
         // When
         GetMovieResponse response = movieService.createMovie(createMovieRequest);
 
         // Then
-        verify(movieRepository).save(movieEntityCaptor.capture());
-        verify(movieCategoryBridgeRepository).saveAll(movieCategoryEntityCaptor.capture());
-
-        MovieEntity capturedMovie = movieEntityCaptor.getValue();
-        List<MovieCategoryEntity> capturedMovieCategories = movieCategoryEntityCaptor.getValue();
+        verify(movieBulkRepository).insertMovieCategories(movieCategoryIdsCaptor.capture());
+        verify(movieRepository, never()).save(any());
 
-        assertThat(capturedMovie.getEidrCode()).isEqualTo("1234");
-        assertThat(capturedMovie.getName()).isEqualTo("Movie 1");
-        assertThat(capturedMovie.getRating()).isEqualTo(4.5);
-        assertThat(capturedMovie.getYear()).isEqualTo(2021);
-        assertThat(capturedMovie.getStatus()).isEqualTo(MovieStatus.ACTIVE);
-
-        assertThat(capturedMovieCategories).hasSize(2);
-        assertThat(capturedMovieCategories.get(0).getId().getCategoryId()).isEqualTo(1L);
-        assertThat(capturedMovieCategories.get(1).getId().getCategoryId()).isEqualTo(2L);
+        assertThat(movieCategoryIdsCaptor.getValue()).containsExactly(
+                new MovieCategoryEntityId("1234", 1L),
+                new MovieCategoryEntityId("1234", 2L)
+        );
 
         assertThat(response.movie().eidrCode()).isEqualTo("1234");
+        assertThat(response.movie().name()).isEqualTo("Movie 1");
+        assertThat(response.movie().rating()).isEqualTo(4.5);
+        assertThat(response.movie().year()).isEqualTo(2021);
+        assertThat(response.movie().status()).isEqualTo(MovieStatus.ACTIVE);
         assertThat(response.categories()).hasSize(2);
         assertThat(response.categories().get(0).name()).isEqualTo("Category 1");
         assertThat(response.categories().get(1).name()).isEqualTo("Category 2");
     }
 
+    @Test
+    void testCreateMovie_alreadyExists() {
+        // Given
+        CreateMovieRequest createMovieRequest = new CreateMovieRequest(
+                "1234",
+                "Movie 1",
+                4.5,
+                2021,
+                MovieStatus.ACTIVE,
+                List.of(1L)
+        );
+
+        given(categoryCatalogueCache.findByIds(createMovieRequest.categories())).willReturn(List.of(new CategoryResponse(1L, "Category 1")));
+        given(movieBulkRepository.insertMoviesIfAbsent(List.of(createMovieRequest))).willReturn(Map.of());
+
+        // When / Then
+        assertThatThrownBy(() -> movieService.createMovie(createMovieRequest))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Movie with eidrCode 1234 already exists.");
+        verify(movieBulkRepository, never()).insertMovieCategories(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
     @Test
     void testUpdateMovie() {
         // Given
@@ -178,20 +257,21 @@ class MovieServiceTest {
 
         List<CategoryEntity> categoryEntities = List.of(categoryEntity1, categoryEntity2);
 
-        given(movieRepository.findByEidrCode(updateMovieRequest.eidrCode())).willReturn(existingMovieEntity);
-        given(categoryRepository.findCategoriesByIds(updateMovieRequest.categories())).willReturn(categoryEntities);
-        given(movieRepository.save(any(MovieEntity.class))).willReturn(updatedMovieEntity);
+        given(movieRepository.findByEidrCodeAndDeletedAtIsNull(updateMovieRequest.eidrCode())).willReturn(existingMovieEntity);
+        given(categoryCatalogueCache.findByIds(updateMovieRequest.categories())).willReturn(toCategoryResponses(categoryEntities));
+        given(movieCategoryBridgeRepository.findCategoryIdsByMovieEidrCode("1234")).willReturn(List.of(2L, 3L));
+        given(movieRepository.saveAndFlush(any(MovieEntity.class))).willReturn(updatedMovieEntity);
 
         // When
         GetMovieResponse response = movieService.updateMovie(updateMovieRequest);
 
         // Then
-        verify(movieRepository).save(movieEntityCaptor.capture());
-        verify(movieCategoryBridgeRepository).deleteAll(any());
-        verify(movieCategoryBridgeRepository).saveAll(movieCategoryEntityCaptor.capture());
+        verify(movieRepository).saveAndFlush(movieEntityCaptor.capture());
+        verify(movieCategoryBridgeRepository).deleteByMovieEidrCodeAndCategoryIds("1234", Set.of(3L));
+        verify(movieBulkRepository).insertMovieCategories(movieCategoryIdsCaptor.capture());
 
         MovieEntity capturedMovie = movieEntityCaptor.getValue();
-        List<MovieCategoryEntity> capturedMovieCategories = movieCategoryEntityCaptor.getValue();
+        List<MovieCategoryEntityId> capturedMovieCategories = movieCategoryIdsCaptor.getValue();
 
         assertThat(capturedMovie.getEidrCode()).isEqualTo("1234");
         assertThat(capturedMovie.getName()).isEqualTo("Updated Movie");
@@ -199,9 +279,7 @@ class MovieServiceTest {
         assertThat(capturedMovie.getYear()).isEqualTo(2021);
         assertThat(capturedMovie.getStatus()).isEqualTo(MovieStatus.INACTIVE);
 
-        assertThat(capturedMovieCategories).hasSize(2);
-        assertThat(capturedMovieCategories.get(0).getId().getCategoryId()).isEqualTo(1L);
-        assertThat(capturedMovieCategories.get(1).getId().getCategoryId()).isEqualTo(2L);
+        assertThat(capturedMovieCategories).containsExactly(new MovieCategoryEntityId("1234", 1L));
 
         assertThat(response.movie().eidrCode()).isEqualTo("1234");
         assertThat(response.categories()).hasSize(2);
@@ -209,27 +287,343 @@ class MovieServiceTest {
         assertThat(response.categories().get(1).name()).isEqualTo("Category 2");
     }
 
+    @Test
+    void testUpdateMovieReorderedCategoriesWritesNothing() {
+        // Given
+        UpdateMovieRequest updateMovieRequest = new UpdateMovieRequest(
+                "1234",
+                "Movie 1",
+                4.5,
+                2021,
+                MovieStatus.ACTIVE,
+                List.of(2L, 1L)
+        );
+
+        MovieEntity existingMovieEntity = new MovieEntity();
+        existingMovieEntity.setEidrCode("1234");
+        existingMovieEntity.setName("Movie 1");
+        existingMovieEntity.setRating(4.5);
+        existingMovieEntity.setYear(2021);
+        existingMovieEntity.setStatus(MovieStatus.ACTIVE);
+
+        given(movieRepository.findByEidrCodeAndDeletedAtIsNull("1234")).willReturn(existingMovieEntity);
+        given(categoryCatalogueCache.findByIds(updateMovieRequest.categories())).willReturn(List.of(
+                new CategoryResponse(2L, "Category 2"),
+                new CategoryResponse(1L, "Category 1")
+        ));
+        given(movieCategoryBridgeRepository.findCategoryIdsByMovieEidrCode("1234")).willReturn(List.of(1L, 2L));
+
+        // When
+        movieService.updateMovie(updateMovieRequest);
+
+        // Then
+        verify(movieRepository, never()).saveAndFlush(any());
+        verify(movieCategoryBridgeRepository, never()).deleteByMovieEidrCodeAndCategoryIds(any(), any());
+        verify(movieBulkRepository, never()).insertMovieCategories(any());
+    }
+
+
+    @Test
+    void testUpdateMovieCategoriesOnlyBumpsVersionBeforeWritingLinks() {
+        // Given
+        UpdateMovieRequest updateMovieRequest = new UpdateMovieRequest(
+                "1234",
+                "Movie 1",
+                4.5,
+                2021,
+                MovieStatus.ACTIVE,
+                List.of(1L, 2L)
+        );
+
+        MovieEntity existingMovieEntity = new MovieEntity();
+        existingMovieEntity.setEidrCode("1234");
+        existingMovieEntity.setName("Movie 1");
+        existingMovieEntity.setRating(4.5);
+        existingMovieEntity.setYear(2021);
+        existingMovieEntity.setStatus(MovieStatus.ACTIVE);
+
+        given(movieRepository.findByEidrCodeAndDeletedAtIsNull("1234")).willReturn(existingMovieEntity);
+        given(categoryCatalogueCache.findByIds(updateMovieRequest.categories())).willReturn(List.of(
+                new CategoryResponse(1L, "Category 1"),
+                new CategoryResponse(2L, "Category 2")
+        ));
+        given(movieCategoryBridgeRepository.findCategoryIdsByMovieEidrCode("1234")).willReturn(List.of(1L));
+
+        // When
+        movieService.updateMovie(updateMovieRequest);
+
+        // Then
+        InOrder inOrder = inOrder(movieRepository, movieBulkRepository);
+        inOrder.verify(movieRepository).saveAndFlush(existingMovieEntity);
+        inOrder.verify(movieBulkRepository).insertMovieCategories(List.of(new MovieCategoryEntityId("1234", 2L)));
+        assertThat(existingMovieEntity.getUpdatedAt()).isNotNull();
+    }
+
+    @Test
+    void testUpdateMovieIfVersionMatches() {
+        // Given
+        UpdateMovieRequest updateMovieRequest = new UpdateMovieRequest(
+                "1234",
+                "Updated Movie",
+                4.5,
+                2021,
+                MovieStatus.INACTIVE,
+                List.of(2L, 1L)
+        );
+
+        given(categoryCatalogueCache.findByIds(updateMovieRequest.categories())).willReturn(List.of(
+                new CategoryResponse(2L, "Category 2"),
+                new CategoryResponse(1L, "Category 1")
+        ));
+        given(movieRepository.updateIfRevisionMatches("1234", "Updated Movie", 4.5, 2021, MovieStatus.INACTIVE, 3L, CREATED_AT)).willReturn(1);
+
+        // When
+        GetMovieResponse response = movieService.updateMovie(updateMovieRequest, MovieIfMatch.of(new MovieRevision(3, CREATED_AT)));
+
+        // Then
+        verify(movieRepository, never()).findByEidrCodeAndDeletedAtIsNull(any());
+        verify(movieCategoryBridgeRepository, never()).findCategoryIdsByMovieEidrCode(any());
+        verify(movieBulkRepository).replaceMovieCategories("1234", Set.of(2L, 1L));
+        verify(eventPublisher).publishEvent(new MoviesChangedEvent(List.of("1234")));
+
+        assertThat(response.movie().name()).isEqualTo("Updated Movie");
+        assertThat(response.categories()).extracting(CategoryResponse::id).containsExactly(2L, 1L);
+        assertThat(response.version()).isEqualTo(4L);
+        assertThat(response.createdAt()).isEqualTo(CREATED_AT);
+    }
+
+    @Test
+    void testUpdateMovieIfVersionMatches_versionMismatch() {
+        // Given
+        UpdateMovieRequest updateMovieRequest = new UpdateMovieRequest("1234", "Updated Movie", 4.5, 2021, MovieStatus.INACTIVE, List.of(1L));
+
+        given(categoryCatalogueCache.findByIds(updateMovieRequest.categories())).willReturn(List.of(new CategoryResponse(1L, "Category 1")));
+        given(movieRepository.updateIfRevisionMatches("1234", "Updated Movie", 4.5, 2021, MovieStatus.INACTIVE, 3L, CREATED_AT)).willReturn(0);
+        given(movieRepository.existsByEidrCodeAndDeletedAtIsNull("1234")).willReturn(true);
+
+        // When / Then
+        assertThatThrownBy(() -> movieService.updateMovie(updateMovieRequest, MovieIfMatch.of(new MovieRevision(3, CREATED_AT))))
+                .isInstanceOf(MovieVersionMismatchException.class);
+        verify(movieBulkRepository, never()).replaceMovieCategories(any(), any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testUpdateMovieIfVersionMatches_missingMovie() {
+        // Given
+        UpdateMovieRequest updateMovieRequest = new UpdateMovieRequest("1234", "Updated Movie", 4.5, 2021, MovieStatus.INACTIVE, List.of(1L));
+
+        given(categoryCatalogueCache.findByIds(updateMovieRequest.categories())).willReturn(List.of(new CategoryResponse(1L, "Category 1")));
+        given(movieRepository.updateIfRevisionMatches("1234", "Updated Movie", 4.5, 2021, MovieStatus.INACTIVE, 3L, CREATED_AT)).willReturn(0);
+        given(movieRepository.existsByEidrCodeAndDeletedAtIsNull("1234")).willReturn(false);
+
+        // When / Then
+        assertThatThrownBy(() -> movieService.updateMovie(updateMovieRequest, MovieIfMatch.of(new MovieRevision(3, CREATED_AT))))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(movieBulkRepository, never()).replaceMovieCategories(any(), any());
+    }
+
+    @Test
+    void testUpdateMovieIfVersionMatches_listOfRevisions() {
+        // Given
+        UpdateMovieRequest updateMovieRequest = new UpdateMovieRequest("1234", "Updated Movie", 4.5, 2021, MovieStatus.INACTIVE, List.of(1L));
+
+        given(categoryCatalogueCache.findByIds(updateMovieRequest.categories())).willReturn(List.of(new CategoryResponse(1L, "Category 1")));
+        given(movieRepository.updateIfRevisionMatches("1234", "Updated Movie", 4.5, 2021, MovieStatus.INACTIVE, 2L, CREATED_AT)).willReturn(0);
+        given(movieRepository.updateIfRevisionMatches("1234", "Updated Movie", 4.5, 2021, MovieStatus.INACTIVE, 3L, CREATED_AT)).willReturn(1);
+
+        // When
+        GetMovieResponse response = movieService.updateMovie(updateMovieRequest,
+                MovieIfMatch.of(new MovieRevision(2, CREATED_AT), new MovieRevision(3, CREATED_AT)));
+
+        // Then
+        verify(movieBulkRepository).replaceMovieCategories("1234", Set.of(1L));
+        assertThat(response.version()).isEqualTo(4L);
+    }
+
+    @Test
+    void testUpdateMovieIfMatchAny_missingMovie() {
+        // Given
+        UpdateMovieRequest updateMovieRequest = new UpdateMovieRequest("1234", "Updated Movie", 4.5, 2021, MovieStatus.INACTIVE, List.of(1L));
+        given(movieRepository.existsByEidrCodeAndDeletedAtIsNull("1234")).willReturn(false);
+
+        // When / Then
+        assertThatThrownBy(() -> movieService.updateMovie(updateMovieRequest, MovieIfMatch.ANY))
+                .isInstanceOf(MovieVersionMismatchException.class);
+        verify(movieRepository, never()).saveAndFlush(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testPatchMovieRatingOnlyIsOneUpdate() {
+        // Given
+        PatchMovieRequest patchMovieRequest = new PatchMovieRequest("1234", null, 4.5, null, null, null, null);
+        given(movieBulkRepository.patchMovie(patchMovieRequest, null)).willReturn(new MovieRevision(4, CREATED_AT));
+
+        // When
+        PatchMovieResponse response = movieService.patchMovie(patchMovieRequest, null);
+
+        // Then
+        verify(movieBulkRepository).patchMovie(patchMovieRequest, null);
+        verify(movieRepository, never()).findByEidrCodeAndDeletedAtIsNull(any());
+        verify(movieBulkRepository, never()).addMovieCategories(any(), any());
+        verify(movieBulkRepository, never()).removeMovieCategories(any(), any());
+        verify(eventPublisher).publishEvent(new MoviesChangedEvent(List.of("1234")));
+        assertThat(response).isEqualTo(new PatchMovieResponse("1234", 4L, CREATED_AT));
+    }
+
+    @Test
+    void testPatchMovieCategoryDeltas() {
+        // Given
+        PatchMovieRequest patchMovieRequest = new PatchMovieRequest("1234", null, null, null, null, List.of(3L, 3L), List.of(1L));
+        given(categoryCatalogueCache.findByIds(List.of(3L))).willReturn(List.of(new CategoryResponse(3L, "Category 3")));
+        given(movieBulkRepository.patchMovie(patchMovieRequest, new MovieRevision(2, CREATED_AT))).willReturn(new MovieRevision(3, CREATED_AT));
+        given(movieCategoryBridgeRepository.findCategoryIdsByMovieEidrCode("1234")).willReturn(List.of(3L));
+
+        // When
+        PatchMovieResponse response = movieService.patchMovie(patchMovieRequest, MovieIfMatch.of(new MovieRevision(2, CREATED_AT)));
+
+        // Then
+        InOrder inOrder = inOrder(movieBulkRepository);
+        inOrder.verify(movieBulkRepository).patchMovie(patchMovieRequest, new MovieRevision(2, CREATED_AT));
+        inOrder.verify(movieBulkRepository).addMovieCategories("1234", Set.of(3L));
+        inOrder.verify(movieBulkRepository).removeMovieCategories("1234", Set.of(1L));
+        assertThat(response.version()).isEqualTo(3L);
+    }
+
+    @Test
+    void testPatchMovie_nothingToUpdate() {
+        PatchMovieRequest patchMovieRequest = new PatchMovieRequest("1234", null, null, null, null, List.of(), null);
+
+        assertThatThrownBy(() -> movieService.patchMovie(patchMovieRequest, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(movieBulkRepository, never()).patchMovie(any(), any());
+    }
+
+    @Test
+    void testPatchMovie_categoryAddedAndRemoved() {
+        PatchMovieRequest patchMovieRequest = new PatchMovieRequest("1234", null, null, null, null, List.of(1L), List.of(1L));
+
+        assertThatThrownBy(() -> movieService.patchMovie(patchMovieRequest, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(movieBulkRepository, never()).patchMovie(any(), any());
+    }
+
+    @Test
+    void testPatchMovie_missingMovie() {
+        PatchMovieRequest patchMovieRequest = new PatchMovieRequest("1234", null, 4.5, null, null, null, null);
+        given(movieBulkRepository.patchMovie(patchMovieRequest, null)).willReturn(null);
+
+        assertThatThrownBy(() -> movieService.patchMovie(patchMovieRequest, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testPatchMovie_versionMismatch() {
+        PatchMovieRequest patchMovieRequest = new PatchMovieRequest("1234", null, 4.5, null, null, null, null);
+        given(movieBulkRepository.patchMovie(patchMovieRequest, new MovieRevision(3, CREATED_AT))).willReturn(null);
+        given(movieRepository.existsByEidrCodeAndDeletedAtIsNull("1234")).willReturn(true);
+
+        assertThatThrownBy(() -> movieService.patchMovie(patchMovieRequest, MovieIfMatch.of(new MovieRevision(3, CREATED_AT))))
+                .isInstanceOf(MovieVersionMismatchException.class);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testPatchMovieIfMatchAny_missingMovie() {
+        PatchMovieRequest patchMovieRequest = new PatchMovieRequest("1234", null, 4.5, null, null, null, null);
+        given(movieBulkRepository.patchMovie(patchMovieRequest, null)).willReturn(null);
+
+        assertThatThrownBy(() -> movieService.patchMovie(patchMovieRequest, MovieIfMatch.ANY))
+                .isInstanceOf(MovieVersionMismatchException.class);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testPatchMovie_removingLastCategory() {
+        PatchMovieRequest patchMovieRequest = new PatchMovieRequest("1234", null, null, null, null, null, List.of(1L));
+        given(movieBulkRepository.patchMovie(patchMovieRequest, null)).willReturn(2L);
+        given(movieCategoryBridgeRepository.findCategoryIdsByMovieEidrCode("1234")).willReturn(List.of());
+
+        assertThatThrownBy(() -> movieService.patchMovie(patchMovieRequest, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
 
     @Test
     void testDeleteMovies() {
         // Given
         List<String> eidrCodes = List.of("1234");
 
-        MovieEntity movieEntity = new MovieEntity();
-        movieEntity.setEidrCode("1234");
-        movieEntity.setName("Movie 1");
+        given(movieRepository.softDeleteByEidrCodes(eidrCodes)).willReturn(1);
+
+        // When
+        boolean result = movieService.deleteMovies(eidrCodes);
+
+        // Then
+        verify(movieCategoryBridgeRepository, never()).deleteByMovieEidrCodes(any());
+        verify(movieRepository, never()).deleteByEidrCodes(any());
+        verify(eventPublisher).publishEvent(new MoviesChangedEvent(eidrCodes));
+
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    void testDeleteMovies_someMissing() {
+        // Given
+        List<String> eidrCodes = List.of("1234", "5678");
+
+        given(movieRepository.softDeleteByEidrCodes(eidrCodes)).willReturn(1);
 
-        List<MovieEntity> movieEntities = List.of(movieEntity);
+        // When / Then
+        assertThatThrownBy(() -> movieService.deleteMovies(eidrCodes))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
 
-        given(movieRepository.findAllById(eidrCodes)).willReturn(movieEntities);
+    @Test
+    void testDeleteMovies_hard() {
+        // Given
+        MovieService hardDeletingMovieService = new MovieService(null, movieRepository, movieCategoryBridgeRepository,
+                movieBulkRepository, movieTotalCountCache, categoryCatalogueCache, movieResponseCache, movieQueryMetrics, eventPublisher,
+                MovieDeleteMode.HARD);
+        List<String> eidrCodes = List.of("1234");
+
+        given(movieRepository.countByEidrCodes(eidrCodes)).willReturn(1L);
 
         // When
-        boolean result = movieService.deleteMovies(eidrCodes);
+        boolean result = hardDeletingMovieService.deleteMovies(eidrCodes);
 
         // Then
-        verify(movieCategoryBridgeRepository).deleteAll(any());
-        verify(movieRepository).deleteAllById(eidrCodes);
+        verify(movieRepository, never()).softDeleteByEidrCodes(any());
+        verify(movieCategoryBridgeRepository).deleteByMovieEidrCodes(eidrCodes);
+        verify(movieRepository).deleteByEidrCodes(eidrCodes);
+        verify(eventPublisher).publishEvent(new MoviesChangedEvent(eidrCodes));
 
         assertThat(result).isTrue();
     }
+
+    @Test
+    void testDeleteMovies_hardSomeMissing() {
+        // Given
+        MovieService hardDeletingMovieService = new MovieService(null, movieRepository, movieCategoryBridgeRepository,
+                movieBulkRepository, movieTotalCountCache, categoryCatalogueCache, movieResponseCache, movieQueryMetrics, eventPublisher,
+                MovieDeleteMode.HARD);
+        List<String> eidrCodes = List.of("1234", "5678");
+
+        given(movieRepository.countByEidrCodes(eidrCodes)).willReturn(1L);
+
+        // When / Then
+        assertThatThrownBy(() -> hardDeletingMovieService.deleteMovies(eidrCodes))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(movieCategoryBridgeRepository, never()).deleteByMovieEidrCodes(any());
+        verify(movieRepository, never()).deleteByEidrCodes(any());
+    }
+
+    private List<CategoryResponse> toCategoryResponses(List<CategoryEntity> categoryEntities) {
+        return categoryEntities.stream()
+                .map(categoryEntity -> new CategoryResponse(categoryEntity.getId(), categoryEntity.getName()))
+                .toList();
+    }
 }
@@ -0,0 +1,154 @@
+package com.example.moviedescriptionsserver;
+
+import com.example.moviedescriptionsserver.dto.MovieTableRowDto;
+import com.example.moviedescriptionsserver.dto.request.CreateMovieRequest;
+import com.example.moviedescriptionsserver.dto.request.DeleteMoviesRequest;
+import com.example.moviedescriptionsserver.dto.request.GetMoviesFilter;
+import com.example.moviedescriptionsserver.dto.response.CreateMovieItemResult;
+import com.example.moviedescriptionsserver.dto.response.CreateMoviesResult;
+import com.example.moviedescriptionsserver.dto.response.GetMovieTableResult;
+import com.example.moviedescriptionsserver.service.DeletedMoviePurger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Soft delete (movies.delete.mode=SOFT) and the purge of soft-deleted movies.
+ * <p>
+ * Movie One starts with the categories 1 and 2 (see setup-test-schema.sql).
+ */
+@SpringBootTest
+@TestPropertySource(locations = "/application-test.properties", properties = {"movies.delete.mode=SOFT", "movies.purge.batch-size=2"})
+@AutoConfigureMockMvc
+@Import(StatementCountConfiguration.class)
+@Sql(scripts = {"/migration/setup-test-schema.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = {"/migration/teardown-test-schema.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class MovieSoftDeleteE2eTest {
+
+    private static final String EIDR_CODE = "10.5240/1A2B-3C4D-5E6F-7G8H-9I0J-A";
+
+    private final String controllerPath = "/api/movie";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DeletedMoviePurger deletedMoviePurger;
+
+    @Test
+    void testSoftDeleteIsOneUpdateAndHidesTheMovie() throws Exception {
+        QueryCountHolder.clear();
+        performDeleteRequest(new DeleteMoviesRequest(List.of(EIDR_CODE))).andExpect(status().isOk());
+        QueryCount count = QueryCountHolder.getGrandTotal();
+
+        assertThat(count.getUpdate()).isEqualTo(1);
+        assertThat(count.getDelete()).isZero();
+
+        // The rows are still there, but no read path sees them
+        assertThat(jdbcTemplate.queryForObject("SELECT deleted_at IS NOT NULL FROM public.movies WHERE eidr_code = ?", Boolean.class, EIDR_CODE)).isTrue();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM public.movies_categories WHERE movie_id = ?", Long.class, EIDR_CODE)).isEqualTo(2);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get(controllerPath + "/get-movie")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .param("eidrCode", EIDR_CODE))
+                .andExpect(status().isBadRequest());
+        assertThat(getMovieTable(new GetMoviesFilter(null, EIDR_CODE, null, null, null, null, null)).movies()).isEmpty();
+        assertThat(getMovieTable(new GetMoviesFilter(null, null, null, null, null, null, null)).totalItems()).isEqualTo(24);
+
+        // Deleting it again fails like for a movie that doesn't exist
+        performDeleteRequest(new DeleteMoviesRequest(List.of(EIDR_CODE))).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testSoftDeletedMovieCanBeCreatedAgain() throws Exception {
+        performDeleteRequest(new DeleteMoviesRequest(List.of(EIDR_CODE))).andExpect(status().isOk());
+
+        performPostRequest(controllerPath + "/create-movie",
+                new CreateMovieRequest(EIDR_CODE, "Movie One again", 6.0, 2020, MovieStatus.ACTIVE, List.of(3L)))
+                .andExpect(status().isOk());
+
+        List<MovieTableRowDto> movies = getMovieTable(new GetMoviesFilter(null, EIDR_CODE, null, null, null, null, null)).movies();
+        assertThat(movies).extracting(MovieTableRowDto::name).containsExactly("Movie One again");
+        assertThat(jdbcTemplate.queryForList("SELECT category_id FROM public.movies_categories WHERE movie_id = ?", Long.class, EIDR_CODE))
+                .containsExactly(3L);
+    }
+
+    @Test
+    void testSoftDeletedMovieIsCreatedByBulkCreate() throws Exception {
+        performDeleteRequest(new DeleteMoviesRequest(List.of(EIDR_CODE))).andExpect(status().isOk());
+
+        MvcResult result = performPostRequest(controllerPath + "/create-movies",
+                List.of(new CreateMovieRequest(EIDR_CODE, "Movie One again", 6.0, 2020, MovieStatus.ACTIVE, List.of(3L))))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        var response = objectMapper.readValue(result.getResponse().getContentAsString(), CreateMoviesResult.class);
+        assertThat(response.items()).extracting(CreateMovieItemResult::status).containsExactly(MovieCreateStatus.CREATED);
+        assertThat(jdbcTemplate.queryForList("SELECT category_id FROM public.movies_categories WHERE movie_id = ?", Long.class, EIDR_CODE))
+                .containsExactly(3L);
+    }
+
+    @Test
+    void testPurgeRemovesOnlyMoviesDeletedBeforeTheRetention() throws Exception {
+        List<String> eidrCodes = jdbcTemplate.queryForList("SELECT eidr_code FROM public.movies ORDER BY eidr_code LIMIT 6", String.class);
+        performDeleteRequest(new DeleteMoviesRequest(eidrCodes)).andExpect(status().isOk());
+        // Five of them were deleted long enough ago, the sixth just now
+        jdbcTemplate.update("UPDATE public.movies SET deleted_at = deleted_at - INTERVAL '1 day' WHERE eidr_code = ANY (?::varchar[])",
+                "{" + String.join(",", eidrCodes.subList(0, 5)) + "}");
+
+        int purged = deletedMoviePurger.purge();
+
+        assertThat(purged).isEqualTo(5);
+        assertThat(jdbcTemplate.queryForList("SELECT eidr_code FROM public.movies WHERE deleted_at IS NOT NULL", String.class))
+                .containsExactly(eidrCodes.get(5));
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM public.movies_categories WHERE movie_id = ANY (?::varchar[])",
+                Long.class, "{" + String.join(",", eidrCodes.subList(0, 5)) + "}")).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM public.movies", Long.class)).isEqualTo(20);
+    }
+
+    private GetMovieTableResult getMovieTable(GetMoviesFilter filter) throws Exception {
+        MvcResult getResult = performPostRequest(controllerPath + "/get-movies-table", filter).andExpect(status().isOk()).andReturn();
+        return objectMapper.readValue(getResult.getResponse().getContentAsString(), GetMovieTableResult.class);
+    }
+
+    private ResultActions performPostRequest(String url, Object request) throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders
+                .post(url)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request))
+                .contentType("application/json"));
+    }
+
+    private ResultActions performDeleteRequest(DeleteMoviesRequest request) throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders
+                .delete(controllerPath + "/delete-movies")
+                .accept(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request))
+                .contentType("application/json"));
+    }
+}
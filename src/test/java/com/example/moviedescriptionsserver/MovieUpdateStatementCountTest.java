@@ -0,0 +1,133 @@
+package com.example.moviedescriptionsserver;
+
+import com.example.moviedescriptionsserver.cache.CategoryCatalogueCache;
+import com.example.moviedescriptionsserver.dto.request.PatchMovieRequest;
+import com.example.moviedescriptionsserver.dto.request.UpdateMovieRequest;
+import com.example.moviedescriptionsserver.repository.MovieCategoryBridgeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the SQL statements of update-movie and patch-movie, to make sure category changes only write the difference
+ * and a patch of a single field is a single statement.
+ * <p>
+ * Movie One starts with the categories 1 and 2 (see setup-test-schema.sql).
+ */
+@SpringBootTest
+@TestPropertySource(locations = "/application-test.properties")
+@AutoConfigureMockMvc
+@Import(StatementCountConfiguration.class)
+@Sql(scripts = {"/migration/setup-test-schema.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = {"/migration/teardown-test-schema.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class MovieUpdateStatementCountTest {
+
+    private static final String EIDR_CODE = "10.5240/1A2B-3C4D-5E6F-7G8H-9I0J-A";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MovieCategoryBridgeRepository movieCategoryBridgeRepository;
+
+    @Autowired
+    private CategoryCatalogueCache categoryCatalogueCache;
+
+    @Test
+    void testReorderedCategoriesCostNoWrites() throws Exception {
+        QueryCount count = update(List.of(2L, 1L));
+
+        assertThat(count.getInsert()).isZero();
+        assertThat(count.getUpdate()).isZero();
+        assertThat(count.getDelete()).isZero();
+        assertThat(movieCategoryBridgeRepository.findCategoryIdsByMovieEidrCode(EIDR_CODE)).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void testChangedCategoriesWriteOneDeleteAndOneInsert() throws Exception {
+        QueryCount count = update(List.of(2L, 3L, 4L, 5L));
+
+        // One DELETE for category 1 and one batched INSERT for 3, 4 and 5, plus the version bump of the movie
+        assertThat(count.getDelete()).isEqualTo(1);
+        assertThat(count.getInsert()).isEqualTo(1);
+        assertThat(count.getUpdate()).isEqualTo(1);
+        assertThat(movieCategoryBridgeRepository.findCategoryIdsByMovieEidrCode(EIDR_CODE)).containsExactlyInAnyOrder(2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    void testRemovedCategoriesWriteOneDelete() throws Exception {
+        QueryCount count = update(List.of(2L));
+
+        assertThat(count.getDelete()).isEqualTo(1);
+        assertThat(count.getInsert()).isZero();
+        assertThat(movieCategoryBridgeRepository.findCategoryIdsByMovieEidrCode(EIDR_CODE)).containsExactly(2L);
+    }
+
+    @Test
+    void testRatingOnlyPatchIsOneUpdate() throws Exception {
+        QueryCount count = patch(new PatchMovieRequest(EIDR_CODE, null, 9.5, null, null, null, null));
+
+        assertThat(count.getTotal()).isEqualTo(1);
+        assertThat(count.getUpdate()).isEqualTo(1);
+    }
+
+    @Test
+    void testCategoryDeltaPatchWritesOneInsertAndOneDelete() throws Exception {
+        QueryCount count = patch(new PatchMovieRequest(EIDR_CODE, null, null, null, null, List.of(3L), List.of(1L)));
+
+        // The version bump, the added and the removed links, and the check that a category is left
+        assertThat(count.getUpdate()).isEqualTo(1);
+        assertThat(count.getInsert()).isEqualTo(1);
+        assertThat(count.getDelete()).isEqualTo(1);
+        assertThat(count.getSelect()).isEqualTo(1);
+        assertThat(movieCategoryBridgeRepository.findCategoryIdsByMovieEidrCode(EIDR_CODE)).containsExactlyInAnyOrder(2L, 3L);
+    }
+
+    private QueryCount patch(PatchMovieRequest patchMovieRequest) throws Exception {
+        // Don't count loading the categories
+        categoryCatalogueCache.catalogue();
+        QueryCountHolder.clear();
+        mockMvc.perform(MockMvcRequestBuilders
+                        .patch("/api/movie/patch-movie")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(patchMovieRequest)))
+                .andExpect(status().isOk());
+        QueryCount count = QueryCountHolder.getGrandTotal();
+        QueryCountHolder.clear();
+        return count;
+    }
+
+    private QueryCount update(List<Long> categories) throws Exception {
+        var updateMovieRequest = new UpdateMovieRequest(EIDR_CODE, "Movie One", 7.0, 2020, MovieStatus.ACTIVE, categories);
+
+        QueryCountHolder.clear();
+        mockMvc.perform(MockMvcRequestBuilders
+                        .put("/api/movie/update-movie")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateMovieRequest)))
+                .andExpect(status().isOk());
+        QueryCount count = QueryCountHolder.getGrandTotal();
+        QueryCountHolder.clear();
+        return count;
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.moviedescriptionsserver;
+
+import com.example.moviedescriptionsserver.slowquery.QueryPlanSampler;
+import com.example.moviedescriptionsserver.slowquery.SlowQueryLog;
+import com.example.moviedescriptionsserver.slowquery.SlowQueryOffender;
+import com.example.moviedescriptionsserver.slowquery.SlowQuerySample;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class QueryPlanSamplerTest {
+
+    // Same shape as MovieBulkRepository's and CatalogueImportRepository's statements
+    private static final String PURGE_DELETED_BEFORE = """
+            WITH purged AS (SELECT eidr_code
+                            FROM public.movies
+                            WHERE deleted_at < ?
+                            ORDER BY deleted_at
+                            LIMIT ? FOR UPDATE SKIP LOCKED),
+                 links AS (DELETE FROM public.movies_categories mc USING purged p WHERE mc.movie_id = p.eidr_code)
+            DELETE FROM public.movies m USING purged p WHERE m.eidr_code = p.eidr_code
+            """;
+
+    private static final String MERGE_STAGING = """
+            WITH chunk AS (SELECT DISTINCT ON (s.eidr_code) s.*
+                           FROM public.movies_import_staging s
+                           WHERE s.job_id = ?
+                           ORDER BY s.eidr_code, s.row_no),
+                 inserted AS (INSERT INTO public.movies (eidr_code, name, rating, year, status)
+                              SELECT c.eidr_code, c.name, c.rating, c.year, c.status FROM chunk c
+                              ON CONFLICT (eidr_code) DO NOTHING
+                              RETURNING eidr_code)
+            SELECT eidr_code FROM inserted
+            """;
+
+    private Connection connection;
+    private PreparedStatement preparedStatement;
+    private SlowQueryLog slowQueryLog;
+    private QueryPlanSampler sampler;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        connection = mock(Connection.class);
+        preparedStatement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(mock(Statement.class));
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getString(1)).thenReturn("Seq Scan on movies");
+
+        slowQueryLog = new SlowQueryLog(10, 10);
+        // Explains on the calling thread
+        sampler = new QueryPlanSampler(dataSource, Duration.ofMinutes(1), Duration.ofSeconds(10), slowQueryLog, Runnable::run);
+    }
+
+    @Test
+    void testSelectIsAnalyzedWithItsParametersInARolledBackReadOnlyTransaction() throws Exception {
+        // Given
+        String sql = "select m.eidr_code from public.movies m where m.rating > ?";
+        slowQueryLog.add(sample(sql));
+
+        // When
+        sampler.sample(sql, List.of(new ParameterSetOperation(
+                PreparedStatement.class.getMethod("setInt", int.class, int.class), new Object[]{1, 50})));
+
+        // Then
+        assertThat(explained()).containsExactly("EXPLAIN (ANALYZE, BUFFERS) " + sql);
+        verify(preparedStatement).setInt(1, 50);
+        verify(connection).setReadOnly(true);
+        verify(connection).rollback();
+        assertThat(slowQueryLog.topOffenders(1)).extracting(SlowQueryOffender::plan).containsExactly("Seq Scan on movies\n");
+    }
+
+    @Test
+    void testReadOnlyCteIsAnalyzed() throws Exception {
+        // When
+        sampler.sample("WITH rated AS (SELECT * FROM public.movies WHERE updated_at > ?) SELECT count(*) FROM rated", List.of());
+
+        // Then
+        assertThat(explained()).singleElement().asString().startsWith("EXPLAIN (ANALYZE, BUFFERS) WITH");
+    }
+
+    @Test
+    void testDataModifyingCtesAreNotAnalyzed() throws Exception {
+        // When
+        sampler.sample(PURGE_DELETED_BEFORE, List.of());
+        sampler.sample(MERGE_STAGING, List.of());
+
+        // Then
+        assertThat(explained()).containsExactly("EXPLAIN " + PURGE_DELETED_BEFORE, "EXPLAIN " + MERGE_STAGING);
+    }
+
+    @Test
+    void testDmlAndLockingSelectsAreNotAnalyzed() throws Exception {
+        // When
+        sampler.sample("UPDATE public.movies SET name = ? WHERE eidr_code = ?", List.of());
+        sampler.sample("/* select */ DELETE FROM public.movies WHERE eidr_code = ?", List.of());
+        sampler.sample("select eidr_code from public.movies where eidr_code = ? for update", List.of());
+        sampler.sample("select nextval('movies_seq')", List.of());
+
+        // Then
+        assertThat(explained()).allSatisfy(sql -> assertThat(sql).startsWith("EXPLAIN ").doesNotContain("ANALYZE"));
+        assertThat(explained()).hasSize(4);
+    }
+
+    @Test
+    void testSelectThatWritesFallsBackToPlainExplain() throws Exception {
+        // Given
+        ResultSet resultSet = mock(ResultSet.class);
+        when(preparedStatement.executeQuery())
+                .thenThrow(new SQLException("cannot execute UPDATE in a read-only transaction", "25006"))
+                .thenReturn(resultSet);
+        String sql = "SELECT public.refresh_movie_categories(?)";
+
+        // When
+        sampler.sample(sql, List.of());
+
+        // Then
+        assertThat(explained()).containsExactly("EXPLAIN (ANALYZE, BUFFERS) " + sql, "EXPLAIN " + sql);
+        verify(connection, times(2)).rollback();
+    }
+
+    @Test
+    void testStatementIsExplainedOncePerIntervalAndOtherStatementsNever() throws Exception {
+        // When
+        sampler.sample("select 1", List.of());
+        sampler.sample("select 1", List.of());
+        sampler.sample("SET LOCAL statement_timeout = 1000", List.of());
+        sampler.sample("COPY public.movies_import_staging FROM STDIN", List.of());
+
+        // Then
+        assertThat(explained()).containsExactly("EXPLAIN (ANALYZE, BUFFERS) select 1");
+    }
+
+    private List<String> explained() throws SQLException {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(connection, atLeast(0)).prepareStatement(sql.capture());
+        return sql.getAllValues();
+    }
+
+    private static SlowQuerySample sample(String sql) {
+        return new SlowQuerySample(Instant.now(), sql, List.of("1=50"), "MovieService.getAllMovies", 300);
+    }
+}
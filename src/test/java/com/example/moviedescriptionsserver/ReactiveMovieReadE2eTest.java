@@ -0,0 +1,187 @@
+package com.example.moviedescriptionsserver;
+
+import com.example.moviedescriptionsserver.dto.MovieRevision;
+import com.example.moviedescriptionsserver.dto.request.GetMoviesFilter;
+import com.example.moviedescriptionsserver.dto.response.CategoryResponse;
+import com.example.moviedescriptionsserver.dto.response.GetMovieResponse;
+import com.example.moviedescriptionsserver.dto.response.GetMovieTableResult;
+import com.example.moviedescriptionsserver.reactive.ReactiveReadServer;
+import com.example.moviedescriptionsserver.service.MovieService;
+import com.querydsl.core.types.Order;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The reactive read API has to answer exactly like the servlet/JPA one, so its results are compared with MovieService's.
+ */
+@SpringBootTest
+@TestPropertySource(locations = "/application-test.properties", properties = {
+        "movies.reactive.enabled=true",
+        "movies.reactive.port=0",
+        "movies.reactive.event-loop-threads=2",
+        "movies.reactive.r2dbc.url=r2dbc:postgresql://localhost:5432/snowhound"
+})
+@Sql(scripts = {"/migration/setup-test-schema.sql"}, executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = {"/migration/teardown-test-schema.sql"}, executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class ReactiveMovieReadE2eTest {
+
+    private static final String EIDR_CODE = "10.5240/1A2B-3C4D-5E6F-7G8H-9I0J-A";
+
+    @Autowired
+    private ReactiveReadServer reactiveReadServer;
+
+    @Autowired
+    private MovieService movieService;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setup() {
+        webTestClient = WebTestClient.bindToServer()
+                .baseUrl("http://localhost:" + reactiveReadServer.port() + "/api/movie")
+                .build();
+    }
+
+    @Test
+    void testGetMovie() {
+        GetMovieResponse expected = movieService.getMovie(EIDR_CODE);
+
+        GetMovieResponse response = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/get-movie").queryParam("eidrCode", EIDR_CODE).build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"" + new MovieRevision(expected.version(), expected.createdAt()).eTag() + "\"")
+                .expectBody(GetMovieResponse.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(response).isEqualTo(expected);
+    }
+
+    @Test
+    void testGetMovieNotModified() {
+        GetMovieResponse movie = movieService.getMovie(EIDR_CODE);
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/get-movie").queryParam("eidrCode", EIDR_CODE).build())
+                .header("If-None-Match", "\"" + new MovieRevision(movie.version(), movie.createdAt()).eTag() + "\"")
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    void testGetMovieNotModifiedByWeakETagInAList() {
+        GetMovieResponse movie = movieService.getMovie(EIDR_CODE);
+        String eTag = "\"" + new MovieRevision(movie.version(), movie.createdAt()).eTag() + "\"";
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/get-movie").queryParam("eidrCode", EIDR_CODE).build())
+                .header("If-None-Match", "\"other\", W/" + eTag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals("ETag", eTag);
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/get-movie").queryParam("eidrCode", EIDR_CODE).build())
+                .header("If-None-Match", "*")
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    void testGetMovie_doesNotExist() {
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/get-movie").queryParam("eidrCode", "does-not-exist").build())
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testGetCategories() {
+        List<CategoryResponse> categories = webTestClient.get()
+                .uri("/get-categories")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(CategoryResponse.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(categories).isEqualTo(movieService.getCategoryCatalogue().categories());
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideFilters")
+    void testGetMoviesTableMatchesServletApi(GetMoviesFilter filter) {
+        GetMovieTableResult expected = movieService.getAllMovies(filter);
+
+        GetMovieTableResult result = getMoviesTable(filter);
+
+        assertThat(result).isEqualTo(expected);
+    }
+
+    @Test
+    void testGetMoviesTableKeysetPages() {
+        var filter = new GetMoviesFilter(null, null, null, 1, 2, MoviesOrderBy.NAME, Order.ASC,
+                MoviesPaginationMode.KEYSET, null, MoviesTotalStrategy.SKIP, MoviesCategoryMatch.ANY_OF, MoviesSearchMode.SUBSTRING);
+
+        GetMovieTableResult firstPage = getMoviesTable(filter);
+        assertThat(firstPage.nextCursor()).isNotNull();
+
+        var next = new GetMoviesFilter(null, null, null, 1, 2, MoviesOrderBy.NAME, Order.ASC,
+                MoviesPaginationMode.KEYSET, firstPage.nextCursor(), MoviesTotalStrategy.SKIP, MoviesCategoryMatch.ANY_OF, MoviesSearchMode.SUBSTRING);
+        assertThat(getMoviesTable(next)).isEqualTo(movieService.getAllMovies(next));
+    }
+
+    @Test
+    void testGetMoviesTable_invalidCursor() {
+        var filter = new GetMoviesFilter(null, null, null, 1, 2, MoviesOrderBy.NAME, Order.ASC,
+                MoviesPaginationMode.KEYSET, "not-a-cursor", MoviesTotalStrategy.SKIP, MoviesCategoryMatch.ANY_OF, MoviesSearchMode.SUBSTRING);
+
+        webTestClient.post()
+                .uri("/get-movies-table")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(filter)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    private GetMovieTableResult getMoviesTable(GetMoviesFilter filter) {
+        return webTestClient.post()
+                .uri("/get-movies-table")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(filter)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(GetMovieTableResult.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private static Stream<Arguments> provideFilters() {
+        return Stream.of(
+                Arguments.of(new GetMoviesFilter(null, null, null, 1, 5, MoviesOrderBy.RATING, Order.DESC)),
+                Arguments.of(new GetMoviesFilter(null, null, null, 2, 3, MoviesOrderBy.NAME, Order.ASC)),
+                Arguments.of(new GetMoviesFilter(List.of(1L, 2L), null, null, 1, 10, MoviesOrderBy.RATING, Order.ASC)),
+                Arguments.of(new GetMoviesFilter(List.of(1L, 2L), null, null, 1, 10, MoviesOrderBy.RATING, Order.ASC,
+                        null, null, null, MoviesCategoryMatch.ALL_OF, null)),
+                Arguments.of(new GetMoviesFilter(null, null, "movie", 1, 10, MoviesOrderBy.NAME, Order.DESC)),
+                Arguments.of(new GetMoviesFilter(null, "10.5240/1A2B", null, 1, 10, MoviesOrderBy.NAME, Order.ASC,
+                        null, null, MoviesTotalStrategy.CACHED, null, MoviesSearchMode.PREFIX)),
+                Arguments.of(new GetMoviesFilter(null, null, "one", 1, 10, MoviesOrderBy.RATING, Order.DESC,
+                        null, null, MoviesTotalStrategy.SKIP, null, MoviesSearchMode.FULL_TEXT))
+        );
+    }
+}
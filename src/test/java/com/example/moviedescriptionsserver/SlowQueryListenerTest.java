@@ -0,0 +1,123 @@
+package com.example.moviedescriptionsserver;
+
+import com.example.moviedescriptionsserver.slowquery.QueryPlanSampler;
+import com.example.moviedescriptionsserver.slowquery.SlowQueryListener;
+import com.example.moviedescriptionsserver.slowquery.SlowQueryLog;
+import com.example.moviedescriptionsserver.slowquery.SlowQuerySample;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class SlowQueryListenerTest {
+
+    private static final String SQL = "select m.eidr_code from public.movies m where m.name = ?";
+
+    private SlowQueryLog slowQueryLog;
+    private QueryPlanSampler planSampler;
+    private SlowQueryListener listener;
+
+    @BeforeEach
+    void setUp() {
+        slowQueryLog = new SlowQueryLog(10, 10);
+        planSampler = mock(QueryPlanSampler.class);
+        listener = new SlowQueryListener(Duration.ofMillis(200), slowQueryLog, planSampler);
+    }
+
+    @Test
+    void testStatementFasterThanTheThresholdIsIgnored() throws Exception {
+        // When
+        listener.afterQuery(execution(199), List.of(query("Movie One")));
+
+        // Then
+        assertThat(slowQueryLog.recent()).isEmpty();
+        verify(planSampler, never()).sample(anyString(), anyList());
+    }
+
+    @Test
+    void testSlowStatementIsKeptWithItsParametersAndSampled() throws Exception {
+        // When
+        listener.afterQuery(execution(200), List.of(query("Movie One")));
+
+        // Then
+        assertThat(slowQueryLog.recent()).singleElement().satisfies(sample -> {
+            assertThat(sample.sql()).isEqualTo(SQL);
+            assertThat(sample.parameters()).containsExactly("1=Movie One");
+            assertThat(sample.elapsedMillis()).isEqualTo(200);
+            // Outside of any service, the innermost application method
+            assertThat(sample.origin()).isEqualTo("SlowQueryListenerTest.testSlowStatementIsKeptWithItsParametersAndSampled");
+        });
+        verify(planSampler).sample(eq(SQL), any());
+    }
+
+    @Test
+    void testLongParametersAreTruncated() throws Exception {
+        // When
+        listener.afterQuery(execution(500), List.of(query("x".repeat(1000))));
+
+        // Then
+        assertThat(slowQueryLog.recent()).extracting(SlowQuerySample::parameters)
+                .containsExactly(List.of("1=" + "x".repeat(200) + "..."));
+    }
+
+    @Test
+    void testOriginIsTheInnermostServiceMethod() {
+        // Given, innermost frame first
+        List<StackTraceElement> stack = List.of(
+                frame("org.hibernate.sql.exec.internal.JdbcSelectExecutorStandardImpl", "executeQuery"),
+                frame("com.example.moviedescriptionsserver.slowquery.SlowQueryListener", "afterQuery"),
+                frame("com.example.moviedescriptionsserver.service.MovieService", "lambda$getAllMovies$3"),
+                frame("com.example.moviedescriptionsserver.metrics.MovieQueryMetrics", "record"),
+                frame("com.example.moviedescriptionsserver.service.MovieService", "getAllMovies"),
+                frame("com.example.moviedescriptionsserver.service.MovieService$$SpringCGLIB$$0", "getAllMovies"),
+                frame("com.example.moviedescriptionsserver.controller.MovieController", "getAllMovies"));
+
+        // When, Then
+        assertThat(SlowQueryListener.origin(stack)).isEqualTo("MovieService.getAllMovies");
+    }
+
+    @Test
+    void testOriginFallsBackToTheInnermostApplicationMethod() {
+        // Given
+        List<StackTraceElement> stack = List.of(
+                frame("org.springframework.jdbc.core.JdbcTemplate", "execute"),
+                frame("com.example.moviedescriptionsserver.repository.MovieBulkRepository", "purgeDeletedMovies"),
+                frame("com.example.moviedescriptionsserver.MovieDescriptionsServerApplication", "main"));
+
+        // When, Then
+        assertThat(SlowQueryListener.origin(stack)).isEqualTo("MovieBulkRepository.purgeDeletedMovies");
+        assertThat(SlowQueryListener.origin(List.of(frame("org.postgresql.jdbc.PgStatement", "execute"))))
+                .isEqualTo("unknown");
+    }
+
+    private static ExecutionInfo execution(long elapsedMillis) {
+        ExecutionInfo executionInfo = new ExecutionInfo();
+        executionInfo.setElapsedTime(elapsedMillis);
+        return executionInfo;
+    }
+
+    private static QueryInfo query(String name) throws NoSuchMethodException {
+        QueryInfo queryInfo = new QueryInfo(SQL);
+        queryInfo.getParametersList().add(List.of(new ParameterSetOperation(
+                PreparedStatement.class.getMethod("setString", int.class, String.class), new Object[]{1, name})));
+        return queryInfo;
+    }
+
+    private static StackTraceElement frame(String className, String methodName) {
+        return new StackTraceElement(className, methodName, null, -1);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.moviedescriptionsserver;
+
+import com.example.moviedescriptionsserver.slowquery.SlowQueryLog;
+import com.example.moviedescriptionsserver.slowquery.SlowQueryOffender;
+import com.example.moviedescriptionsserver.slowquery.SlowQuerySample;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlowQueryLogTest {
+
+    @Test
+    void testRecentIsBoundedNewestFirst() {
+        // Given
+        SlowQueryLog log = new SlowQueryLog(2, 10);
+
+        // When
+        log.add(sample("select 1", 300));
+        log.add(sample("select 2", 400));
+        log.add(sample("select 3", 500));
+
+        // Then
+        assertThat(log.recent()).extracting(SlowQuerySample::sql).containsExactly("select 3", "select 2");
+    }
+
+    @Test
+    void testTopOffendersByTotalTime() {
+        // Given
+        SlowQueryLog log = new SlowQueryLog(10, 10);
+        log.add(sample("select a", 900));
+        log.add(sample("select b", 400));
+        log.add(sample("select b", 700));
+
+        // When
+        log.attachPlan("select b", "Seq Scan on movies");
+        List<SlowQueryOffender> offenders = log.topOffenders(10);
+
+        // Then
+        assertThat(offenders).extracting(SlowQueryOffender::sql).containsExactly("select b", "select a");
+        assertThat(offenders.get(0).count()).isEqualTo(2);
+        assertThat(offenders.get(0).totalMillis()).isEqualTo(1100);
+        assertThat(offenders.get(0).maxMillis()).isEqualTo(700);
+        assertThat(offenders.get(0).plan()).isEqualTo("Seq Scan on movies");
+        assertThat(offenders.get(1).plan()).isNull();
+    }
+
+    @Test
+    void testDistinctStatementsAreBounded() {
+        // Given
+        SlowQueryLog log = new SlowQueryLog(10, 2);
+
+        // When
+        log.add(sample("select a", 300));
+        log.add(sample("select b", 300));
+        log.add(sample("select a", 300));
+        log.add(sample("select c", 300));
+
+        // Then
+        assertThat(log.topOffenders(10)).extracting(SlowQueryOffender::sql).containsExactlyInAnyOrder("select a", "select c");
+    }
+
+    private static SlowQuerySample sample(String sql, long elapsedMillis) {
+        return new SlowQuerySample(Instant.now(), sql, List.of("1=10"), "MovieService.getAllMovies", elapsedMillis);
+    }
+}
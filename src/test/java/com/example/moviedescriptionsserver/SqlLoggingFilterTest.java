@@ -0,0 +1,94 @@
+package com.example.moviedescriptionsserver;
+
+import com.example.moviedescriptionsserver.logging.SqlLogging;
+import com.example.moviedescriptionsserver.logging.SqlLoggingFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SqlLoggingFilterTest {
+
+    @Test
+    void testHeaderWithTheSecretEnablesSqlLoggingForTheRequest() throws Exception {
+        // Given
+        SqlLoggingFilter filter = new SqlLoggingFilter("X-Log-Sql", "s3cret", 0);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/movies");
+        request.addHeader("X-Log-Sql", "s3cret");
+        AtomicBoolean enabled = new AtomicBoolean();
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> enabled.set(SqlLogging.isEnabled()));
+
+        // Then
+        assertThat(enabled).isTrue();
+        assertThat(SqlLogging.isEnabled()).isFalse();
+    }
+
+    @Test
+    void testHeaderWithoutTheSecretIsIgnored() throws Exception {
+        // Given
+        SqlLoggingFilter filter = new SqlLoggingFilter("X-Log-Sql", "s3cret", 0);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/movies");
+        request.addHeader("X-Log-Sql", "true");
+        AtomicBoolean enabled = new AtomicBoolean(true);
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> enabled.set(SqlLogging.isEnabled()));
+
+        // Then
+        assertThat(enabled).isFalse();
+    }
+
+    @Test
+    void testHeaderIsIgnoredWithoutASecret() throws Exception {
+        // Given
+        SqlLoggingFilter filter = new SqlLoggingFilter("X-Log-Sql", "", 0);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/movies");
+        request.addHeader("X-Log-Sql", "");
+        AtomicBoolean enabled = new AtomicBoolean(true);
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> enabled.set(SqlLogging.isEnabled()));
+
+        // Then
+        assertThat(enabled).isFalse();
+    }
+
+    @Test
+    void testOtherRequestsAreNotLogged() throws Exception {
+        // Given
+        SqlLoggingFilter filter = new SqlLoggingFilter("X-Log-Sql", "s3cret", 0);
+        AtomicBoolean enabled = new AtomicBoolean(true);
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/movies"), new MockHttpServletResponse(),
+                (req, res) -> enabled.set(SqlLogging.isEnabled()));
+
+        // Then
+        assertThat(enabled).isFalse();
+    }
+
+    @Test
+    void testSampleRateOfOneLogsEveryRequest() throws Exception {
+        // Given
+        SqlLoggingFilter filter = new SqlLoggingFilter("", "", 1);
+        AtomicBoolean enabled = new AtomicBoolean();
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/movies"), new MockHttpServletResponse(),
+                (req, res) -> enabled.set(SqlLogging.isEnabled()));
+
+        // Then
+        assertThat(enabled).isTrue();
+    }
+
+    @Test
+    void testSampleRateIsValidated() {
+        assertThatThrownBy(() -> new SqlLoggingFilter("X-Log-Sql", "s3cret", 1.5)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.moviedescriptionsserver;
+
+import net.ttddyy.dsproxy.listener.DataSourceQueryCountListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the DataSource in a proxy that counts the executed statements, read them with QueryCountHolder.
+ * A DataSource that is already a datasource-proxy (see SlowQueryConfiguration) only gets the counting listener.
+ */
+@TestConfiguration
+public class StatementCountConfiguration {
+
+    @Bean
+    static BeanPostProcessor statementCountingDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ProxyDataSource proxyDataSource) {
+                    proxyDataSource.getProxyConfig().getQueryListener().addListener(new DataSourceQueryCountListener());
+                    return bean;
+                }
+                if (bean instanceof DataSource dataSource) {
+                    return ProxyDataSourceBuilder.create(dataSource).name("statement-count").countQuery().build();
+                }
+                return bean;
+            }
+        };
+    }
+}
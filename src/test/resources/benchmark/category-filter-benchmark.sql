@@ -0,0 +1,155 @@
+-- Benchmark of the get-movies-table category filter: join-then-group (before) vs. the final query shape (after),
+-- where the page and count read only the movies table and filter its denormalized category_ids (V8) with
+-- && (ANY_OF) / @> (ALL_OF) on the partial GIN index, ordered by the partial covering indexes (V9).
+--
+-- Generates 1M movies with 1-3 categories each in a separate "benchmark" schema and prints the plan and timing
+-- of the SQL that MovieService.getAllMovies issues for a category filter, before and after the rework.
+-- Run it against a scratch database, it takes a couple of minutes to generate the data, and keep the output:
+--
+--   psql -h localhost -U devuser -d snowhound -f src/test/resources/benchmark/category-filter-benchmark.sql \
+--       > build/category-filter-benchmark.out 2>&1
+
+\timing on
+
+DROP SCHEMA IF EXISTS benchmark CASCADE;
+CREATE SCHEMA benchmark;
+SET search_path = benchmark;
+
+-- create tables (same as public schema)
+CREATE TABLE movies
+(
+    eidr_code  VARCHAR(255) PRIMARY KEY,
+    name       VARCHAR(255)     NOT NULL,
+    rating     DOUBLE PRECISION NOT NULL,
+    year       INTEGER          NOT NULL,
+    status     VARCHAR(255)     NOT NULL DEFAULT 'ACTIVE',
+    created_at timestamp        NOT NULL DEFAULT current_timestamp,
+    updated_at timestamp        NOT NULL DEFAULT current_timestamp,
+    deleted_at timestamp        NULL,
+    -- V8, maintained by triggers in the application schema, filled once below
+    category_ids   INTEGER[]    NOT NULL DEFAULT '{}',
+    category_names TEXT         NOT NULL DEFAULT ''
+);
+
+CREATE TABLE categories
+(
+    id   SERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE movies_categories
+(
+    movie_id    VARCHAR(255) NOT NULL REFERENCES movies (eidr_code),
+    category_id INTEGER      NOT NULL REFERENCES categories (id),
+    PRIMARY KEY (movie_id, category_id)
+);
+
+-- generate data
+INSERT INTO categories (name)
+VALUES ('Action'), ('Comedy'), ('Drama'), ('Horror'), ('Sci-Fi');
+
+INSERT INTO movies (eidr_code, name, rating, year)
+SELECT '10.5240/' || lpad(to_hex(i), 8, '0'),
+       'Movie ' || i,
+       round((random() * 9 + 1)::numeric, 1),
+       1950 + (i % 75)
+FROM generate_series(1, 1000000) AS i;
+
+INSERT INTO movies_categories (movie_id, category_id)
+SELECT DISTINCT m.eidr_code, 1 + floor(random() * 5)::int
+FROM movies m,
+     generate_series(1, 1 + (abs(hashtext(m.eidr_code)) % 3));
+
+UPDATE movies m
+SET category_ids   = l.category_ids,
+    category_names = l.category_names
+FROM (SELECT mc.movie_id,
+             array_agg(c.id ORDER BY c.id)          AS category_ids,
+             string_agg(c.name, ', ' ORDER BY c.id) AS category_names
+      FROM movies_categories mc
+               JOIN categories c ON c.id = mc.category_id
+      GROUP BY mc.movie_id) l
+WHERE m.eidr_code = l.movie_id;
+
+-- Indexes of the "before" queries (V2, V3)
+CREATE INDEX movies_rating_eidr_code_idx ON movies (rating, eidr_code);
+CREATE INDEX movies_name_eidr_code_idx ON movies (name, eidr_code);
+CREATE INDEX movies_categories_category_id_movie_id_idx ON movies_categories (category_id, movie_id);
+
+-- Indexes of the "after" queries (V8, V9)
+CREATE INDEX movies_category_ids_idx ON movies USING gin (category_ids) WHERE deleted_at IS NULL;
+CREATE INDEX movies_rating_eidr_code_covering_idx ON movies (rating, eidr_code)
+    INCLUDE (name, year, status, category_ids, category_names) WHERE deleted_at IS NULL;
+CREATE INDEX movies_name_eidr_code_covering_idx ON movies (name, eidr_code)
+    INCLUDE (rating, year, status, category_ids, category_names) WHERE deleted_at IS NULL;
+
+VACUUM ANALYZE movies;
+VACUUM ANALYZE categories;
+VACUUM ANALYZE movies_categories;
+
+
+-- BEFORE: count query
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*)
+FROM (SELECT m.eidr_code
+      FROM movies m
+               JOIN movies_categories mc ON m.eidr_code = mc.movie_id
+               JOIN categories c ON mc.category_id = c.id
+      WHERE mc.category_id IN (1, 2)
+      GROUP BY m.eidr_code) t;
+
+-- BEFORE: page query (page 1, 10 rows, RATING ASC)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT m.eidr_code, m.name, m.rating, m.year, m.status, string_agg(c.name, ', ')
+FROM movies m
+         JOIN movies_categories mc ON m.eidr_code = mc.movie_id
+         JOIN categories c ON mc.category_id = c.id
+WHERE mc.category_id IN (1, 2)
+GROUP BY m.eidr_code
+ORDER BY m.rating, m.eidr_code
+OFFSET 0 LIMIT 10;
+
+
+-- AFTER: count query (ANY_OF)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(m.eidr_code)
+FROM movies m
+WHERE m.deleted_at IS NULL
+  AND m.category_ids && '{1,2}'::integer[];
+
+-- AFTER: count query (ALL_OF)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(m.eidr_code)
+FROM movies m
+WHERE m.deleted_at IS NULL
+  AND m.category_ids @> '{1,2}'::integer[];
+
+-- AFTER: page query (ANY_OF, page 1, 10 rows, RATING ASC), the category names come with the row
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT m.eidr_code, m.name, m.rating, m.year, m.status, m.category_names
+FROM movies m
+WHERE m.deleted_at IS NULL
+  AND m.category_ids && '{1,2}'::integer[]
+ORDER BY m.rating, m.eidr_code
+OFFSET 0 LIMIT 10;
+
+-- AFTER: page query (ALL_OF, page 1, 10 rows, RATING ASC)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT m.eidr_code, m.name, m.rating, m.year, m.status, m.category_names
+FROM movies m
+WHERE m.deleted_at IS NULL
+  AND m.category_ids @> '{1,2}'::integer[]
+ORDER BY m.rating, m.eidr_code
+OFFSET 0 LIMIT 10;
+
+-- AFTER: deep page query (ANY_OF, page 500, 10 rows, NAME DESC)
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT m.eidr_code, m.name, m.rating, m.year, m.status, m.category_names
+FROM movies m
+WHERE m.deleted_at IS NULL
+  AND m.category_ids && '{1,2}'::integer[]
+ORDER BY m.name DESC, m.eidr_code DESC
+OFFSET 4990 LIMIT 10;
+
+
+DROP SCHEMA benchmark CASCADE;
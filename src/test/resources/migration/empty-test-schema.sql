@@ -0,0 +1,6 @@
+-- Empty public schema for the Flyway migrations (see MovieIndexPlanTest)
+DROP SCHEMA IF EXISTS public CASCADE;
+CREATE SCHEMA public;
+GRANT ALL ON SCHEMA public TO postgres;
+GRANT ALL ON SCHEMA public TO public;
+GRANT ALL ON SCHEMA public TO testuser;
@@ -1,3 +1,6 @@
+-- The schema and sample data of the original migration/everything.sql, from before the schema was versioned
+-- (see MovieSchemaMigrationTest)
+
 -- drop public schema
 DROP SCHEMA IF EXISTS public CASCADE;
 
@@ -5,7 +8,7 @@ DROP SCHEMA IF EXISTS public CASCADE;
 CREATE SCHEMA public;
 GRANT ALL ON SCHEMA public TO postgres;
 GRANT ALL ON SCHEMA public TO public;
-GRANT ALL ON SCHEMA public TO devuser;
+GRANT ALL ON SCHEMA public TO testuser;
 
 -- create movies table
 CREATE TABLE public.movies
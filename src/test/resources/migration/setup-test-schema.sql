@@ -1,3 +1,5 @@
+-- Schema of db/migration (V1 to V11), applied directly as the tests recreate it for every test method
+
 -- drop public schema
 DROP SCHEMA IF EXISTS public CASCADE;
 
@@ -18,6 +20,7 @@ CREATE TABLE public.movies
     created_at timestamp        NOT NULL DEFAULT current_timestamp,
     updated_at timestamp        NOT NULL DEFAULT current_timestamp,
     deleted_at timestamp        NULL,
+    version    BIGINT           NOT NULL DEFAULT 0,
 
     CONSTRAINT check_movie_status_in_supported_values CHECK (status in ('ACTIVE', 'INACTIVE'))
 );
@@ -39,6 +42,149 @@ CREATE TABLE public.movies_categories
     FOREIGN KEY (category_id) REFERENCES public.categories (id)
 );
 
+
+-- create index for purging soft-deleted movies (see DeletedMoviePurger), it only holds the deleted ones
+CREATE INDEX movies_deleted_at_idx ON public.movies (deleted_at) WHERE deleted_at IS NOT NULL;
+
+-- create index for category filters (the primary key only covers lookups by movie_id)
+CREATE INDEX movies_categories_category_id_movie_id_idx ON public.movies_categories (category_id, movie_id);
+
+-- create search indexes (see MovieSearchExpressions for the query shapes they serve)
+CREATE EXTENSION IF NOT EXISTS pg_trgm SCHEMA public;
+ALTER TABLE public.movies
+    ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (to_tsvector('simple', name)) STORED;
+CREATE INDEX movies_name_trgm_idx ON public.movies USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX movies_eidr_code_trgm_idx ON public.movies USING gin (lower(eidr_code) gin_trgm_ops);
+CREATE INDEX movies_name_prefix_idx ON public.movies (lower(name) text_pattern_ops);
+CREATE INDEX movies_eidr_code_prefix_idx ON public.movies (lower(eidr_code) text_pattern_ops);
+CREATE INDEX movies_search_vector_idx ON public.movies USING gin (search_vector);
+
+-- denormalized categories of every movie, so the movies table can be read and filtered without joining
+-- movies_categories and categories (see MovieService.getAllMovies). Kept in sync by the triggers below,
+-- whichever way the links are written, and verified by MovieCategoriesConsistencyChecker.
+ALTER TABLE public.movies
+    ADD COLUMN category_ids   INTEGER[] NOT NULL DEFAULT '{}',
+    ADD COLUMN category_names TEXT      NOT NULL DEFAULT '';
+CREATE INDEX movies_category_ids_idx ON public.movies USING gin (category_ids) WHERE deleted_at IS NULL;
+
+-- create covering indexes for ordering the movies table (the eidr_code tiebreaker makes them usable for keyset
+-- pagination), partial so that soft-deleted movies are filtered out by the index itself (see MovieService.moviesCondition)
+CREATE INDEX movies_rating_eidr_code_covering_idx ON public.movies (rating, eidr_code)
+    INCLUDE (name, year, status, category_ids, category_names) WHERE deleted_at IS NULL;
+CREATE INDEX movies_name_eidr_code_covering_idx ON public.movies (name, eidr_code)
+    INCLUDE (rating, year, status, category_ids, category_names) WHERE deleted_at IS NULL;
+
+-- recomputes the denormalized categories of the given movies, soft-deleted ones are skipped as they are never read
+CREATE FUNCTION public.refresh_movie_categories(movie_ids VARCHAR[]) RETURNS void
+    LANGUAGE sql AS
+$$
+UPDATE public.movies m
+SET category_ids   = l.category_ids,
+    category_names = l.category_names
+FROM (SELECT u.movie_id,
+             coalesce(array_agg(c.id ORDER BY c.id) FILTER (WHERE c.id IS NOT NULL), '{}') AS category_ids,
+             coalesce(string_agg(c.name, ', ' ORDER BY c.id), '')                          AS category_names
+      FROM (SELECT DISTINCT unnest(movie_ids) AS movie_id) u
+               LEFT JOIN public.movies_categories mc ON mc.movie_id = u.movie_id
+               LEFT JOIN public.categories c ON c.id = mc.category_id
+      GROUP BY u.movie_id) l
+WHERE m.eidr_code = l.movie_id
+  AND m.deleted_at IS NULL
+  AND (m.category_ids <> l.category_ids OR m.category_names <> l.category_names);
+$$;
+
+-- statement-level, so a bulk insert or delete of links refreshes every affected movie once
+CREATE FUNCTION public.movies_categories_changed() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM public.refresh_movie_categories(ARRAY(SELECT movie_id FROM new_links));
+    ELSIF TG_OP = 'DELETE' THEN
+        PERFORM public.refresh_movie_categories(ARRAY(SELECT movie_id FROM old_links));
+    ELSE
+        PERFORM public.refresh_movie_categories(ARRAY(SELECT movie_id FROM old_links UNION SELECT movie_id FROM new_links));
+    END IF;
+    RETURN NULL;
+END
+$$;
+CREATE TRIGGER movies_categories_inserted
+    AFTER INSERT ON public.movies_categories REFERENCING NEW TABLE AS new_links
+    FOR EACH STATEMENT EXECUTE FUNCTION public.movies_categories_changed();
+CREATE TRIGGER movies_categories_deleted
+    AFTER DELETE ON public.movies_categories REFERENCING OLD TABLE AS old_links
+    FOR EACH STATEMENT EXECUTE FUNCTION public.movies_categories_changed();
+CREATE TRIGGER movies_categories_updated
+    AFTER UPDATE ON public.movies_categories REFERENCING OLD TABLE AS old_links NEW TABLE AS new_links
+    FOR EACH STATEMENT EXECUTE FUNCTION public.movies_categories_changed();
+
+-- renamed categories change the names of all their movies and bump their versions
+CREATE FUNCTION public.categories_renamed() RETURNS trigger
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    renamed_movie_ids VARCHAR[];
+BEGIN
+    renamed_movie_ids := ARRAY(
+            SELECT DISTINCT mc.movie_id
+            FROM public.movies_categories mc
+                     JOIN new_categories n ON n.id = mc.category_id
+                     JOIN old_categories o ON o.id = n.id
+            WHERE n.name <> o.name);
+    UPDATE public.movies
+    SET version = version + 1
+    WHERE eidr_code = ANY (renamed_movie_ids)
+      AND deleted_at IS NULL;
+    PERFORM public.refresh_movie_categories(renamed_movie_ids);
+    RETURN NULL;
+END
+$$;
+CREATE TRIGGER categories_renamed
+    AFTER UPDATE ON public.categories REFERENCING OLD TABLE AS old_categories NEW TABLE AS new_categories
+    FOR EACH STATEMENT EXECUTE FUNCTION public.categories_renamed();
+
+-- create catalogue import tables (see CatalogueImportService)
+CREATE TABLE public.import_jobs
+(
+    id               BIGSERIAL PRIMARY KEY,
+    format           VARCHAR(255) NOT NULL,
+    status           VARCHAR(255) NOT NULL,
+    committed_rows   BIGINT       NOT NULL DEFAULT 0,
+    imported_rows    BIGINT       NOT NULL DEFAULT 0,
+    existing_rows    BIGINT       NOT NULL DEFAULT 0,
+    rejected_rows    BIGINT       NOT NULL DEFAULT 0,
+    error            TEXT         NULL,
+    created_at       timestamp    NOT NULL DEFAULT current_timestamp,
+    updated_at       timestamp    NOT NULL DEFAULT current_timestamp,
+    attempt          INTEGER      NOT NULL DEFAULT 0,
+
+    CONSTRAINT check_import_job_format_in_supported_values CHECK (format in ('NDJSON', 'CSV')),
+    CONSTRAINT check_import_job_status_in_supported_values CHECK (status in ('RUNNING', 'COMPLETED', 'FAILED'))
+);
+
+CREATE TABLE public.import_job_rejections
+(
+    job_id    BIGINT       NOT NULL REFERENCES public.import_jobs (id),
+    row_no    BIGINT       NOT NULL,
+    eidr_code VARCHAR(255) NULL,
+    message   TEXT         NOT NULL,
+    PRIMARY KEY (job_id, row_no)
+);
+
+-- staging rows only live for the duration of one chunk, so they don't need to survive a crash
+CREATE UNLOGGED TABLE public.movies_import_staging
+(
+    job_id       BIGINT           NOT NULL,
+    row_no       BIGINT           NOT NULL,
+    eidr_code    VARCHAR(255)     NOT NULL,
+    name         VARCHAR(255)     NOT NULL,
+    rating       DOUBLE PRECISION NOT NULL,
+    year         INTEGER          NOT NULL,
+    status       VARCHAR(255)     NOT NULL,
+    category_ids INTEGER[]        NOT NULL
+);
+CREATE INDEX movies_import_staging_job_id_idx ON public.movies_import_staging (job_id);
+
 -- Insert categories
 INSERT INTO public.categories (name)
 VALUES ('Action'),